@@ -640,6 +640,15 @@ JNIEXPORT void JNICALL Java_de_linusdev_ljgel_nat_glfw3_GLFW_glfwWaitEvents(JNIE
     glfwWaitEvents();
 }
 
+/*
+ * Class:     de_linusdev_ljgel_nat_glfw3_GLFW
+ * Method:    glfwWaitEventsTimeout
+ * Signature: (D)V
+ */
+JNIEXPORT void JNICALL Java_de_linusdev_ljgel_nat_glfw3_GLFW_glfwWaitEventsTimeout(JNIEnv *, jclass, jdouble timeout) {
+    glfwWaitEventsTimeout(timeout);
+}
+
 /*
  * Class:     de_linusdev_ljgel_nat_glfw3_GLFW
  * Method:    glfwSetWindowSizeLimits
@@ -1,9 +1,10 @@
 package de.linusdev.ljgel.engine;
 
 import de.linusdev.ljgel.engine.async.BasicAsyncManager;
+import de.linusdev.ljgel.engine.async.EngineExecutors;
 import de.linusdev.ljgel.engine.info.Game;
+import de.linusdev.ljgel.engine.ticker.AbstractTicker;
 import de.linusdev.ljgel.engine.ticker.Ticker;
-import de.linusdev.ljgel.engine.ticker.TickerImpl;
 import de.linusdev.lutils.async.Future;
 import de.linusdev.lutils.async.Nothing;
 import de.linusdev.lutils.async.completeable.CompletableFuture;
@@ -14,25 +15,41 @@ import de.linusdev.lutils.interfaces.AdvTRunnable;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 public abstract class AbstractEngine<GAME extends Game> implements Engine<GAME>, HasAsyncManager {
 
     protected final @NotNull GAME game;
-    protected final @NotNull Executor executor;
+    protected final @NotNull EngineExecutors executors;
     protected final @NotNull BasicAsyncManager asyncManager;
-    protected final @NotNull TickerImpl ticker;
+    protected final @NotNull AbstractTicker ticker;
 
     protected AbstractEngine(@NotNull GAME game) {
         this.game = game;
-        this.executor = Executors.newWorkStealingPool(16);
+        this.executors = game.createExecutors();
         this.asyncManager = new BasicAsyncManager();
-        this.ticker = new TickerImpl(game.getMillisPerTick());
-
+        AbstractTicker ticker = AbstractTicker.create(game);
+        if(ticker == null) // Scenes are loaded by tickables
+            throw new IllegalArgumentException("This engine requires a ticking game, but millisPerTick is "
+                    + game.getMillisPerTick() + ".");
+        this.ticker = ticker;
     }
 
     @Override
     public @NotNull <R>  Future<R, Nothing> runSupervised(@NotNull AdvTRunnable<R, ?> runnable) {
+        return runSupervised(executors.cpu(), runnable);
+    }
+
+    @Override
+    public <R> @NotNull Future<R, Nothing> runSupervisedBlocking(@NotNull AdvTRunnable<R, ?> runnable) {
+        return runSupervised(executors.blocking(), runnable);
+    }
+
+    @Override
+    public <R> @NotNull Future<R, Nothing> runSupervisedNativeBlocking(@NotNull AdvTRunnable<R, ?> runnable) {
+        return runSupervised(executors.nativeBlocking(), runnable);
+    }
+
+    protected <R> @NotNull Future<R, Nothing> runSupervised(@NotNull Executor executor, @NotNull AdvTRunnable<R, ?> runnable) {
         var future = CompletableFuture.<R, Nothing>create(getAsyncManager(), false);
         executor.execute(() -> {
             try {
@@ -64,4 +81,8 @@ public abstract class AbstractEngine<GAME extends Game> implements Engine<GAME>,
     public @NotNull Ticker getTicker() {
         return ticker;
     }
+
+    public @NotNull EngineExecutors getExecutors() {
+        return executors;
+    }
 }
@@ -42,6 +42,39 @@ public interface Engine<GAME extends Game> extends HasAsyncManager, HasGame<GAME
         });
     }
 
+    /**
+     * Same as {@link #runSupervised(AdvTRunnable)}, but for tasks which block (IO, waiting on futures or fences).
+     * These tasks are run on the {@link de.linusdev.ljgel.engine.async.EngineExecutors#blocking() blocking executor},
+     * so that they do not starve the CPU-bound tasks.
+     */
+    default <R> @NotNull Future<R, Nothing> runSupervisedBlocking(@NotNull AdvTRunnable<R, ?> runnable) {
+        return runSupervised(runnable);
+    }
+
+    default @NotNull Future<Nothing, Nothing> runSupervisedBlockingV(@NotNull TRunnable<?> runnable) {
+        return runSupervisedBlocking(() -> {
+            runnable.run();
+            return Nothing.INSTANCE;
+        });
+    }
+
+    /**
+     * Same as {@link #runSupervisedBlocking(AdvTRunnable)}, but for tasks which block inside a native call (for
+     * example waiting on a fence). These tasks are run on the
+     * {@link de.linusdev.ljgel.engine.async.EngineExecutors#nativeBlocking() native blocking executor}, because they
+     * would pin the carrier thread of a virtual thread.
+     */
+    default <R> @NotNull Future<R, Nothing> runSupervisedNativeBlocking(@NotNull AdvTRunnable<R, ?> runnable) {
+        return runSupervisedBlocking(runnable);
+    }
+
+    default @NotNull Future<Nothing, Nothing> runSupervisedNativeBlockingV(@NotNull TRunnable<?> runnable) {
+        return runSupervisedNativeBlocking(() -> {
+            runnable.run();
+            return Nothing.INSTANCE;
+        });
+    }
+
     /* ================================================================================================= *\
     |                                                                                                     |
     |                                             Engine Infos                                            |
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.async;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Creates the executor for blocking tasks. This is the implementation for Java versions below 21, which do not
+ * support virtual threads. The multi-release jar contains a Java 21 variant of this class in
+ * {@code META-INF/versions/21}, which uses virtual threads instead.
+ */
+public class BlockingExecutors {
+
+    /**
+     * Maximum count of platform threads per available processor.
+     */
+    private static final int THREADS_PER_PROCESSOR = 4;
+
+    /**
+     * Whether {@link #create()} returns an executor running tasks on virtual threads.
+     */
+    public static boolean isVirtual() {
+        return false;
+    }
+
+    /**
+     * Creates a {@link EngineExecutors#createPlatformPool(String, int) platform pool} with
+     * {@value #THREADS_PER_PROCESSOR} threads per available processor.
+     */
+    public static @NotNull ExecutorService create() {
+        return EngineExecutors.createPlatformPool(
+                "ljgel-blocking-", Runtime.getRuntime().availableProcessors() * THREADS_PER_PROCESSOR
+        );
+    }
+}
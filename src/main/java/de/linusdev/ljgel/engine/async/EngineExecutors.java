@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.async;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors used by an engine to run supervised tasks.
+ * @param cpu executor for CPU-bound tasks. Should be bounded to the count of available processors.
+ * @param blocking executor for tasks, which block (IO, waiting on futures or fences). On Java 21 and above, the
+ *                 {@link #createDefault() default} runs these tasks on virtual threads.
+ * @param nativeBlocking executor for tasks, which block inside native calls (for example {@code vkWaitForFences}).
+ *                       A virtual thread blocked in a native call pins its carrier thread, so this should always be a
+ *                       bounded pool of platform threads.
+ * @see de.linusdev.ljgel.engine.info.Game#createExecutors()
+ */
+public record EngineExecutors(
+        @NotNull ExecutorService cpu,
+        @NotNull ExecutorService blocking,
+        @NotNull ExecutorService nativeBlocking
+) {
+
+    /**
+     * Creates a work-stealing pool with one thread per available processor for CPU-bound tasks, the default
+     * {@link BlockingExecutors#create() blocking executor} and a {@link #createPlatformPool(String, int) platform pool}
+     * with one thread per available processor for native blocking tasks.
+     */
+    public static @NotNull EngineExecutors createDefault() {
+        return createDefault(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param cpuThreads parallelism of the work-stealing pool for CPU-bound tasks
+     * @see #createDefault()
+     */
+    public static @NotNull EngineExecutors createDefault(int cpuThreads) {
+        return new EngineExecutors(
+                Executors.newWorkStealingPool(cpuThreads),
+                BlockingExecutors.create(),
+                createPlatformPool("ljgel-native-blocking-", Runtime.getRuntime().availableProcessors())
+        );
+    }
+
+    /**
+     * Creates an executor with a bounded count of daemon platform threads. Idle threads are terminated after one
+     * minute. Tasks exceeding the thread limit are queued, instead of creating more threads.
+     * @param namePrefix prefix of the thread names
+     * @param threads maximum count of threads
+     */
+    public static @NotNull ExecutorService createPlatformPool(@NotNull String namePrefix, int threads) {
+        AtomicInteger count = new AtomicInteger(0);
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 1L, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), factory
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * The {@link #cpu() cpu} executor, if it is a {@link ForkJoinPool} (like the {@link #createDefault() default}).
+     * Otherwise, the {@link ForkJoinPool#commonPool() common pool}.
+     */
+    public @NotNull ForkJoinPool cpuPool() {
+        return cpu instanceof ForkJoinPool pool ? pool : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Shuts down all executors. Already submitted tasks will still be executed.
+     */
+    public void shutdown() {
+        cpu.shutdown();
+        blocking.shutdown();
+        nativeBlocking.shutdown();
+    }
+}
@@ -18,13 +18,14 @@ package de.linusdev.ljgel.engine.cl;
 
 import de.linusdev.ljgel.api.misc.interfaces.TRunnable;
 import de.linusdev.ljgel.engine.NativeInteropEngine;
+import de.linusdev.ljgel.engine.async.EngineExecutors;
 import de.linusdev.ljgel.engine.cl.window.CLGLWindow;
 import de.linusdev.ljgel.engine.cl.window.Handler;
 import de.linusdev.ljgel.engine.cl.window.args.KernelView;
 import de.linusdev.ljgel.engine.queue.TaskQueue;
+import de.linusdev.ljgel.engine.ticker.AbstractTicker;
 import de.linusdev.ljgel.engine.ticker.Tickable;
 import de.linusdev.ljgel.engine.ticker.Ticker;
-import de.linusdev.ljgel.engine.ticker.TickerImpl;
 import de.linusdev.ljgel.engine.window.input.InputManagerImpl;
 import de.linusdev.ljgel.engine.window.input.InputManger;
 import de.linusdev.ljgel.nat.cl.objects.Context;
@@ -48,7 +49,6 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 @SuppressWarnings({"unused", "FieldCanBeLocal"})
 public class CLEngineImpl<G extends CLGame> implements CLEngine<G>, NativeInteropEngine, Handler, Tickable, KeyListener, MouseButtonListener, TextInputListener {
@@ -60,8 +60,11 @@ public class CLEngineImpl<G extends CLGame> implements CLEngine<G>, NativeIntero
     private final @NotNull G game;
     private final @NotNull UIThread<G> uiThread;
     private final @NotNull CLGLWindow window;
-    private final @NotNull Executor executor = Executors.newWorkStealingPool(4);
-    private final @NotNull TickerImpl ticker;
+    private final @NotNull EngineExecutors executors;
+    /**
+     * {@code null} if the game does not tick.
+     */
+    private final @Nullable AbstractTicker ticker;
 
 
     private final @NotNull SyncVar<@Nullable CLScene<G>> currentScene;
@@ -69,6 +72,7 @@ public class CLEngineImpl<G extends CLGame> implements CLEngine<G>, NativeIntero
 
     public CLEngineImpl(@NotNull G game) {
         this.game = game;
+        this.executors = game.createExecutors();
 
         this.currentScene = SyncVar.createSyncVar();
         this.sceneLoaded = SyncVar.createSyncVar();
@@ -84,10 +88,13 @@ public class CLEngineImpl<G extends CLGame> implements CLEngine<G>, NativeIntero
             throw new RuntimeException(e);
         }
 
-        this.ticker = new TickerImpl(game.getMillisPerTick());
-        ticker.addTickable(this);
-        if(game.getMillisPerTick() >= 0L)
+        this.uiThread.getWindowClosedFuture().then((result, secondary, error) -> executors.shutdown());
+
+        this.ticker = AbstractTicker.create(game);
+        if(ticker != null) {
+            ticker.addTickable(this);
             ticker.start();
+        }
     }
 
     /*
@@ -194,6 +201,20 @@ public class CLEngineImpl<G extends CLGame> implements CLEngine<G>, NativeIntero
 
     @Override
     public @NotNull <R> Future<R, Nothing> runSupervised(@NotNull AdvTRunnable<R, ?> runnable) {
+        return runSupervised(executors.cpu(), runnable);
+    }
+
+    @Override
+    public <R> @NotNull Future<R, Nothing> runSupervisedBlocking(@NotNull AdvTRunnable<R, ?> runnable) {
+        return runSupervised(executors.blocking(), runnable);
+    }
+
+    @Override
+    public <R> @NotNull Future<R, Nothing> runSupervisedNativeBlocking(@NotNull AdvTRunnable<R, ?> runnable) {
+        return runSupervised(executors.nativeBlocking(), runnable);
+    }
+
+    private <R> @NotNull Future<R, Nothing> runSupervised(@NotNull Executor executor, @NotNull AdvTRunnable<R, ?> runnable) {
         var future = CompletableFuture.<R, Nothing>create(getAsyncManager(), false);
         executor.execute(() -> {
             try {
@@ -213,7 +234,7 @@ public class CLEngineImpl<G extends CLGame> implements CLEngine<G>, NativeIntero
 
     @Override
     public void runSupervised(@NotNull TRunnable runnable) {
-        executor.execute(() -> {
+        executors.cpu().execute(() -> {
             try {
                 runnable.run();
             } catch (Throwable t) {
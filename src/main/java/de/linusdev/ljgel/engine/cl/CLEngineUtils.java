@@ -39,7 +39,7 @@ public class CLEngineUtils {
             @Nullable KernelSourceInfo renderKernelInfo,
             @Nullable KernelSourceInfo uiKernelInfo
     ) {
-        return engine.runSupervised(() -> {
+        return engine.runSupervisedBlocking(() -> {
             LoadKernelsResult result = new LoadKernelsResult();
 
             Future<Kernel, Nothing> renderKernelFuture, uiKernelFuture;
@@ -173,7 +173,7 @@ public abstract class CLScene<GAME extends CLGame> implements
         this.state.set(CLSceneState.LOADING);
         var future = CompletableFuture.<Nothing, CLScene<GAME>>create(engine.getAsyncManager(), false);
 
-        engine.runSupervised(() -> {
+        engine.runSupervisedBlockingV(() -> {
             //noinspection BlockingMethodInNonBlockingContext: run in new thread
             load();
             this.state.set(CLSceneState.UNSTARTED);
@@ -190,7 +190,7 @@ public abstract class CLScene<GAME extends CLGame> implements
         this.state.set(CLSceneState.UNLOADING);
         var future = CompletableFuture.<Nothing, CLScene<GAME>>create(engine.getAsyncManager(), false);
 
-        engine.runSupervised(() -> {
+        engine.runSupervisedBlockingV(() -> {
             //noinspection BlockingMethodInNonBlockingContext: run in new thread
             unload();
             this.state.set(CLSceneState.DEAD);
@@ -145,7 +145,7 @@ public interface KernelSourceInfo {
     default @NotNull Future<Kernel, Nothing> loadKernel(@NotNull CLEngine<?> engine) {
         var future = CompletableFuture.<Kernel, Nothing>create(engine.getAsyncManager(), false);
 
-        engine.runSupervised(() -> {
+        engine.runSupervisedBlockingV(() -> {
             try {
                 if(isUTF8Format()) {
                     Program program = new Program(engine.getWindow().getClContext(), getSourceString());
@@ -179,7 +179,7 @@ public class CLGLWindow implements UpdateListener, AsyncManager, AutoCloseable {
         );
 
         glfwWindow.listeners().addFramebufferSizeListener((width, height) ->
-                uiTaskQueue.queueForExecution(UPDATE_SHARED_FRAMEBUFFER_TASK_ID, (stack) ->
+                uiTaskQueue.coalesceForExecution(UPDATE_SHARED_FRAMEBUFFER_TASK_ID, (stack) ->
                         {
                             this.updateSharedFramebuffer();
                             return Nothing.INSTANCE;
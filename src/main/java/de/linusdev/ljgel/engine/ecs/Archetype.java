@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.ecs;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * All entities with the same set of components. The values of each component type are stored in a single primitive
+ * array, in which the values of the entity at row {@code r} start at index {@code r * size} (size of the component
+ * type). Rows are dense: removing an entity moves the last entity into its row.
+ * <br><br>
+ * {@link EntitySystem Systems} read and write the arrays directly. The arrays may be replaced, when entities are
+ * added, so they must not be stored outside of a {@link EntitySystem#update(Archetype, int, int, de.linusdev.ljgel.engine.ticker.Ticker) system update}.
+ */
+public class Archetype {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final long mask;
+    private final @NotNull ComponentType @NotNull [] types;
+
+    /*
+     * Columns indexed by the id of the component type. null if this archetype does not have the component.
+     */
+    private final float @Nullable [] @NotNull [] floats = new float[ComponentType.MAX_COMPONENT_TYPES][];
+    private final int @Nullable [] @NotNull [] ints = new int[ComponentType.MAX_COMPONENT_TYPES][];
+
+    private long @NotNull [] entities = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /*
+     * Archetypes with one component more or less, indexed by the id of that component. Only accessed by the
+     * EntityManager.
+     */
+    final @Nullable Archetype @NotNull [] addEdges = new Archetype[ComponentType.MAX_COMPONENT_TYPES];
+    final @Nullable Archetype @NotNull [] removeEdges = new Archetype[ComponentType.MAX_COMPONENT_TYPES];
+
+    Archetype(long mask, @NotNull ComponentType @NotNull [] types) {
+        this.mask = mask;
+        this.types = types;
+
+        for (ComponentType type : types) {
+            if(type.isFloating()) floats[type.getId()] = new float[INITIAL_CAPACITY * type.getSize()];
+            else ints[type.getId()] = new int[INITIAL_CAPACITY * type.getSize()];
+        }
+    }
+
+    /**
+     * Mask of all component types of this archetype, see {@link ComponentType#getMask()}.
+     */
+    public long getMask() {
+        return mask;
+    }
+
+    public boolean has(@NotNull ComponentType type) {
+        return (mask & type.getMask()) != 0L;
+    }
+
+    /**
+     * Count of entities in this archetype.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Handle of the entity at given {@code row}.
+     */
+    public long getEntity(int row) {
+        assert row >= 0 && row < size;
+        return entities[row];
+    }
+
+    /**
+     * Values of given {@code float} component type of all entities of this archetype.
+     */
+    public float @NotNull [] getFloats(@NotNull ComponentType type) {
+        float[] column = floats[type.getId()];
+        if(column == null)
+            throw new IllegalArgumentException("Archetype does not have a float component " + type + ".");
+        return column;
+    }
+
+    /**
+     * Values of given {@code int} component type of all entities of this archetype.
+     */
+    public int @NotNull [] getInts(@NotNull ComponentType type) {
+        int[] column = ints[type.getId()];
+        if(column == null)
+            throw new IllegalArgumentException("Archetype does not have an int component " + type + ".");
+        return column;
+    }
+
+    @NotNull ComponentType @NotNull [] getTypes() {
+        return types;
+    }
+
+    /**
+     * Adds a new row for given {@code entity}. The values of all components of the row are set to {@code 0}.
+     * @return the new row
+     */
+    int add(long entity) {
+        if(size == entities.length)
+            grow(size * 2);
+
+        int row = size++;
+        entities[row] = entity;
+
+        for (ComponentType type : types) {
+            int s = type.getSize();
+            if(type.isFloating()) Arrays.fill(floats[type.getId()], row * s, row * s + s, 0f);
+            else Arrays.fill(ints[type.getId()], row * s, row * s + s, 0);
+        }
+
+        return row;
+    }
+
+    /**
+     * Removes given {@code row} by moving the last row into its place.
+     * @return the handle of the entity moved into given {@code row} or {@link EntityManager#NULL} if the last row was
+     * removed.
+     */
+    long remove(int row) {
+        assert row >= 0 && row < size;
+        int last = --size;
+        if(row == last)
+            return EntityManager.NULL;
+
+        copyRow(last, this, row);
+        entities[row] = entities[last];
+        return entities[row];
+    }
+
+    /**
+     * Copies the values of all components, which both archetypes have, from given {@code row} of this archetype to
+     * given {@code targetRow} of {@code target}.
+     */
+    void copyRow(int row, @NotNull Archetype target, int targetRow) {
+        for (ComponentType type : types) {
+            if(!target.has(type))
+                continue;
+
+            int s = type.getSize();
+            int id = type.getId();
+            //noinspection DataFlowIssue: both archetypes have the component
+            if(type.isFloating()) System.arraycopy(floats[id], row * s, target.floats[id], targetRow * s, s);
+            else System.arraycopy(ints[id], row * s, target.ints[id], targetRow * s, s);
+        }
+    }
+
+    private void grow(int capacity) {
+        entities = Arrays.copyOf(entities, capacity);
+        for (ComponentType type : types) {
+            int id = type.getId();
+            //noinspection DataFlowIssue: this archetype has the component
+            if(type.isFloating()) floats[id] = Arrays.copyOf(floats[id], capacity * type.getSize());
+            else ints[id] = Arrays.copyOf(ints[id], capacity * type.getSize());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.ecs;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Type of component, which can be attached to the entities of an {@link EntityManager}. A component consists of
+ * {@link #getSize() size} lanes of either {@code float} or {@code int} values. The components of all entities of an
+ * {@link Archetype} are stored densely in a single primitive array per component type.
+ * <br><br>
+ * Each component type has a unique {@link #getId() id}, which is its bit in the component masks. Therefore at most
+ * {@link #MAX_COMPONENT_TYPES} component types can be created. Component types should be created once and stored in
+ * static fields.
+ */
+public final class ComponentType {
+
+    public static final int MAX_COMPONENT_TYPES = Long.SIZE;
+
+    private static final @NotNull AtomicInteger nextId = new AtomicInteger(0);
+
+    private final int id;
+    private final @NotNull String name;
+    private final int size;
+    private final boolean floating;
+
+    private ComponentType(@NotNull String name, int size, boolean floating) {
+        if(size < 1)
+            throw new IllegalArgumentException("size must be at least 1, but is " + size + ".");
+
+        int id = nextId.getAndIncrement();
+        if(id >= MAX_COMPONENT_TYPES)
+            throw new IllegalStateException("Cannot create more than " + MAX_COMPONENT_TYPES + " component types.");
+
+        this.id = id;
+        this.name = name;
+        this.size = size;
+        this.floating = floating;
+    }
+
+    /**
+     * Creates a new component type consisting of {@code size} {@code float} values.
+     */
+    public static @NotNull ComponentType floats(@NotNull String name, int size) {
+        return new ComponentType(name, size, true);
+    }
+
+    /**
+     * Creates a new component type consisting of {@code size} {@code int} values.
+     */
+    public static @NotNull ComponentType ints(@NotNull String name, int size) {
+        return new ComponentType(name, size, false);
+    }
+
+    /**
+     * Mask containing the bits of all given component types.
+     */
+    public static long mask(@NotNull ComponentType @NotNull ... types) {
+        long mask = 0L;
+        for (ComponentType type : types)
+            mask |= type.getMask();
+        return mask;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public long getMask() {
+        return 1L << id;
+    }
+
+    public @NotNull String getName() {
+        return name;
+    }
+
+    /**
+     * Count of values (lanes) of this component.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Whether this component consists of {@code float} values. Otherwise it consists of {@code int} values.
+     */
+    public boolean isFloating() {
+        return floating;
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + id + ")";
+    }
+}
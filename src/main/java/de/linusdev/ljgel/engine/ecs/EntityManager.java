@@ -0,0 +1,512 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.ecs;
+
+import de.linusdev.ljgel.api.misc.annos.CallFromAnyThread;
+import de.linusdev.ljgel.engine.obj.manager.GameObjectManager;
+import de.linusdev.ljgel.engine.ticker.Tickable;
+import de.linusdev.ljgel.engine.ticker.Ticker;
+import de.linusdev.llog.LLog;
+import de.linusdev.llog.base.LogInstance;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Entity component system as alternative to {@link GameObjectManager} for large amounts of simple entities. Entities
+ * do not have a class or a tick method. They only consist of components, which are stored by {@link Archetype} in
+ * dense primitive arrays. All logic is implemented in {@link EntitySystem systems}, which are updated on every
+ * {@link #tick(Ticker) tick}.
+ * <br><br>
+ * Entities are referenced by {@code long} handles, which consist of an index and a generation. Indices of destroyed
+ * entities are reused, but each reuse increments the generation. Handles of destroyed entities therefore never refer
+ * to a new entity, see {@link #isAlive(long)}.
+ * <br><br>
+ * Systems, which are {@link EntitySystem#isParallelSafe() parallel-safe}, are updated in chunks of up to
+ * {@link #CHUNK_SIZE} entities on the {@link Ticker#getTickPool() tick pool}. If a system throws, the exception is
+ * logged and the remaining systems are still updated.
+ * <br><br>
+ * This class is not thread-safe. Entities must only be created, destroyed or changed by the thread ticking this
+ * manager and not while the systems are updated. Only {@link #destroyLater(long)},
+ * {@link #addSystem(EntitySystem)} and {@link #removeSystem(EntitySystem)} may be called from any thread.
+ */
+public class EntityManager implements Tickable {
+
+    private final static @NotNull LogInstance log = LLog.getLogInstance();
+
+    /**
+     * Handle, which never refers to an entity.
+     */
+    public static final long NULL = 0L;
+
+    /**
+     * Maximum count of entities updated by a single task of the {@link Ticker#getTickPool() tick pool}.
+     */
+    public static final int CHUNK_SIZE = 4096;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NO_INDEX = -1;
+    private static final @NotNull EntitySystem @NotNull [] EMPTY = new EntitySystem[0];
+
+    /*
+     * Entity slots. A free slot has no archetype and stores the next free slot in nextFree.
+     */
+    private int @NotNull [] generations = new int[INITIAL_CAPACITY];
+    private @Nullable Archetype @NotNull [] archetypeOf = new Archetype[INITIAL_CAPACITY];
+    private int @NotNull [] rowOf = new int[INITIAL_CAPACITY];
+    private int @NotNull [] nextFree = new int[INITIAL_CAPACITY];
+    private int capacity = 0;
+    private int freeList = NO_INDEX;
+    private int entityCount = 0;
+
+    private final @NotNull Map<Long, Archetype> archetypes = new HashMap<>();
+    private final @NotNull ArrayList<Archetype> archetypeList = new ArrayList<>();
+
+    /**
+     * Copy on write, guarded by {@code this}.
+     */
+    private volatile @NotNull EntitySystem @NotNull [] systems = EMPTY;
+
+    /*
+     * Handles queued by destroyLater, guarded by this. The ticking thread swaps destroyQueue with destroying, so that
+     * it can destroy the queued entities without holding the lock.
+     */
+    private long @NotNull [] destroyQueue = new long[INITIAL_CAPACITY];
+    private int destroyQueueSize = 0;
+    private long @NotNull [] destroying = new long[INITIAL_CAPACITY];
+
+    /*
+     * Chunks of the system currently updated. Only accessed by the thread calling tick.
+     */
+    private @NotNull Archetype @NotNull [] chunkArchetype = new Archetype[16];
+    private int @NotNull [] chunkFrom = new int[16];
+    private int chunkCount = 0;
+    private boolean updating = false;
+
+    public EntityManager() {
+        growSlots(INITIAL_CAPACITY);
+    }
+
+    /* ================================================================================================= *\
+    |                                                                                                     |
+    |                                               Handles                                               |
+    |                                                                                                     |
+    \* ================================================================================================= */
+
+    public static int index(long entity) {
+        return (int) entity;
+    }
+
+    public static int generation(long entity) {
+        return (int) (entity >>> 32);
+    }
+
+    private static long handle(int index, int generation) {
+        return ((long) generation << 32) | (index & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Whether given handle refers to an entity, which has not been destroyed.
+     */
+    public boolean isAlive(long entity) {
+        int index = index(entity);
+        return index >= 0 && index < capacity && archetypeOf[index] != null && generations[index] == generation(entity);
+    }
+
+    /* ================================================================================================= *\
+    |                                                                                                     |
+    |                                              Entities                                               |
+    |                                                                                                     |
+    \* ================================================================================================= */
+
+    /**
+     * Archetype with exactly given component types. Created, if it does not exist yet.
+     */
+    public @NotNull Archetype getArchetype(@NotNull ComponentType @NotNull ... types) {
+        long mask = ComponentType.mask(types);
+        Archetype archetype = archetypes.get(mask);
+        if(archetype != null)
+            return archetype;
+
+        // Sort by id and remove duplicates
+        ComponentType[] sorted = new ComponentType[Long.bitCount(mask)];
+        int count = 0;
+        for (ComponentType type : types) {
+            boolean duplicate = false;
+            for (int i = 0; i < count; i++)
+                duplicate |= sorted[i] == type;
+            if(!duplicate) sorted[count++] = type;
+        }
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.getId(), b.getId()));
+
+        return createArchetype(mask, sorted);
+    }
+
+    private @NotNull Archetype createArchetype(long mask, @NotNull ComponentType @NotNull [] types) {
+        Archetype archetype = new Archetype(mask, types);
+        archetypes.put(mask, archetype);
+        archetypeList.add(archetype);
+        return archetype;
+    }
+
+    /**
+     * Creates a new entity with given components. The values of all components are {@code 0}.
+     * @return handle of the new entity
+     */
+    public long create(@NotNull ComponentType @NotNull ... types) {
+        return create(getArchetype(types));
+    }
+
+    /**
+     * Creates a new entity with the components of given {@code archetype}. The values of all components are {@code 0}.
+     * @param archetype archetype {@link #getArchetype(ComponentType...) of this manager}
+     * @return handle of the new entity
+     */
+    public long create(@NotNull Archetype archetype) {
+        checkNotUpdating();
+        assert archetypes.get(archetype.getMask()) == archetype;
+
+        if(freeList == NO_INDEX)
+            growSlots(capacity * 2);
+
+        int index = freeList;
+        freeList = nextFree[index];
+
+        long entity = handle(index, generations[index]);
+        archetypeOf[index] = archetype;
+        rowOf[index] = archetype.add(entity);
+        entityCount++;
+        return entity;
+    }
+
+    /**
+     * Destroys given entity immediately.
+     * @return {@code false} if the entity has already been destroyed.
+     */
+    public boolean destroy(long entity) {
+        checkNotUpdating();
+        if(!isAlive(entity))
+            return false;
+
+        int index = index(entity);
+        Archetype archetype = archetypeOf[index];
+        assert archetype != null;
+        removeRow(archetype, rowOf[index]);
+
+        archetypeOf[index] = null;
+        // Skip generation 0, so that no handle equals NULL
+        int generation = generations[index] + 1;
+        generations[index] = generation == 0 ? 1 : generation;
+        nextFree[index] = freeList;
+        freeList = index;
+        entityCount--;
+        return true;
+    }
+
+    /**
+     * Destroys given entity at the start of the next {@link #tick(Ticker) tick}. Can be called by systems during their
+     * update.
+     */
+    @CallFromAnyThread
+    public synchronized void destroyLater(long entity) {
+        if(destroyQueueSize == destroyQueue.length)
+            destroyQueue = Arrays.copyOf(destroyQueue, destroyQueueSize * 2);
+        destroyQueue[destroyQueueSize++] = entity;
+    }
+
+    /**
+     * Adds a component of given {@code type} to given entity, which moves the entity to another archetype. The values
+     * of the new component are {@code 0}. Does nothing if the entity already has the component.
+     */
+    public void addComponent(long entity, @NotNull ComponentType type) {
+        Archetype archetype = checkAlive(entity);
+        if(archetype.has(type))
+            return;
+
+        Archetype target = archetype.addEdges[type.getId()];
+        if(target == null) {
+            target = archetypes.get(archetype.getMask() | type.getMask());
+            if(target == null) {
+                ComponentType[] types = Arrays.copyOf(archetype.getTypes(), archetype.getTypes().length + 1);
+                types[types.length - 1] = type;
+                Arrays.sort(types, (a, b) -> Integer.compare(a.getId(), b.getId()));
+                target = createArchetype(archetype.getMask() | type.getMask(), types);
+            }
+            archetype.addEdges[type.getId()] = target;
+        }
+
+        move(entity, archetype, target);
+    }
+
+    /**
+     * Removes the component of given {@code type} from given entity, which moves the entity to another archetype.
+     * Does nothing if the entity does not have the component.
+     */
+    public void removeComponent(long entity, @NotNull ComponentType type) {
+        Archetype archetype = checkAlive(entity);
+        if(!archetype.has(type))
+            return;
+
+        Archetype target = archetype.removeEdges[type.getId()];
+        if(target == null) {
+            target = archetypes.get(archetype.getMask() & ~type.getMask());
+            if(target == null) {
+                ComponentType[] types = new ComponentType[archetype.getTypes().length - 1];
+                int count = 0;
+                for (ComponentType t : archetype.getTypes())
+                    if(t != type) types[count++] = t;
+                target = createArchetype(archetype.getMask() & ~type.getMask(), types);
+            }
+            archetype.removeEdges[type.getId()] = target;
+        }
+
+        move(entity, archetype, target);
+    }
+
+    public boolean hasComponent(long entity, @NotNull ComponentType type) {
+        return checkAlive(entity).has(type);
+    }
+
+    /**
+     * Archetype, which given entity currently belongs to.
+     */
+    public @NotNull Archetype getArchetypeOf(long entity) {
+        return checkAlive(entity);
+    }
+
+    /**
+     * Row of given entity in its {@link #getArchetypeOf(long) archetype}. Changes, if other entities of the archetype
+     * are destroyed.
+     */
+    public int getRow(long entity) {
+        checkAlive(entity);
+        return rowOf[index(entity)];
+    }
+
+    public float getFloat(long entity, @NotNull ComponentType type, int lane) {
+        assert lane >= 0 && lane < type.getSize();
+        return checkAlive(entity).getFloats(type)[rowOf[index(entity)] * type.getSize() + lane];
+    }
+
+    public void setFloat(long entity, @NotNull ComponentType type, int lane, float value) {
+        assert lane >= 0 && lane < type.getSize();
+        checkAlive(entity).getFloats(type)[rowOf[index(entity)] * type.getSize() + lane] = value;
+    }
+
+    public int getInt(long entity, @NotNull ComponentType type, int lane) {
+        assert lane >= 0 && lane < type.getSize();
+        return checkAlive(entity).getInts(type)[rowOf[index(entity)] * type.getSize() + lane];
+    }
+
+    public void setInt(long entity, @NotNull ComponentType type, int lane, int value) {
+        assert lane >= 0 && lane < type.getSize();
+        checkAlive(entity).getInts(type)[rowOf[index(entity)] * type.getSize() + lane] = value;
+    }
+
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    public int getArchetypeCount() {
+        return archetypeList.size();
+    }
+
+    private void move(long entity, @NotNull Archetype from, @NotNull Archetype to) {
+        checkNotUpdating();
+        int index = index(entity);
+        int row = rowOf[index];
+
+        int newRow = to.add(entity);
+        from.copyRow(row, to, newRow);
+        removeRow(from, row);
+
+        archetypeOf[index] = to;
+        rowOf[index] = newRow;
+    }
+
+    private void removeRow(@NotNull Archetype archetype, int row) {
+        long moved = archetype.remove(row);
+        if(moved != NULL)
+            rowOf[index(moved)] = row;
+    }
+
+    private @NotNull Archetype checkAlive(long entity) {
+        if(!isAlive(entity))
+            throw new IllegalArgumentException("Entity " + index(entity) + " (generation " + generation(entity)
+                    + ") has been destroyed.");
+        //noinspection DataFlowIssue: checked by isAlive
+        return archetypeOf[index(entity)];
+    }
+
+    private void checkNotUpdating() {
+        if(updating)
+            throw new IllegalStateException("Entities cannot be changed while the systems are updated, use destroyLater.");
+    }
+
+    private void growSlots(int newCapacity) {
+        generations = Arrays.copyOf(generations, newCapacity);
+        archetypeOf = Arrays.copyOf(archetypeOf, newCapacity);
+        rowOf = Arrays.copyOf(rowOf, newCapacity);
+        nextFree = Arrays.copyOf(nextFree, newCapacity);
+
+        // Link the new slots into the free list, lowest index first
+        for (int index = newCapacity - 1; index >= capacity; index--) {
+            generations[index] = 1;
+            nextFree[index] = freeList;
+            freeList = index;
+        }
+
+        capacity = newCapacity;
+    }
+
+    /* ================================================================================================= *\
+    |                                                                                                     |
+    |                                               Systems                                               |
+    |                                                                                                     |
+    \* ================================================================================================= */
+
+    @CallFromAnyThread
+    public synchronized void addSystem(@NotNull EntitySystem system) {
+        EntitySystem[] copy = Arrays.copyOf(systems, systems.length + 1);
+        copy[copy.length - 1] = system;
+        systems = copy;
+    }
+
+    @CallFromAnyThread
+    public synchronized void removeSystem(@NotNull EntitySystem system) {
+        EntitySystem[] systems = this.systems;
+        for (int i = 0; i < systems.length; i++) {
+            if(systems[i] != system)
+                continue;
+
+            EntitySystem[] copy = new EntitySystem[systems.length - 1];
+            System.arraycopy(systems, 0, copy, 0, i);
+            System.arraycopy(systems, i + 1, copy, i, systems.length - i - 1);
+            this.systems = copy;
+            return;
+        }
+    }
+
+    /**
+     * Destroys the entities {@link #destroyLater(long) queued for destruction} and updates all systems one after
+     * another. An exception thrown by a system is logged and does not stop the following systems.
+     */
+    @Override
+    public void tick(@NotNull Ticker ticker) {
+        destroyQueued();
+
+        updating = true;
+        try {
+            for (EntitySystem system : systems) {
+                try {
+                    update(system, ticker);
+                } catch (Throwable t) {
+                    log.throwable(t);
+                }
+            }
+        } finally {
+            updating = false;
+        }
+    }
+
+    private void destroyQueued() {
+        long[] queued;
+        int count;
+        synchronized (this) {
+            queued = destroyQueue;
+            count = destroyQueueSize;
+            destroyQueue = destroying;
+            destroyQueueSize = 0;
+            destroying = queued;
+        }
+
+        for (int i = 0; i < count; i++)
+            destroy(queued[i]);
+    }
+
+    private void update(@NotNull EntitySystem system, @NotNull Ticker ticker) {
+        long required = system.getRequiredComponents();
+        long excluded = system.getExcludedComponents();
+        boolean parallel = system.isParallelSafe();
+        chunkCount = 0;
+
+        for (int i = 0; i < archetypeList.size(); i++) {
+            Archetype archetype = archetypeList.get(i);
+            long mask = archetype.getMask();
+            if((mask & required) != required || (mask & excluded) != 0L || archetype.size() == 0)
+                continue;
+
+            if(!parallel) {
+                system.update(archetype, 0, archetype.size(), ticker);
+                continue;
+            }
+
+            for (int from = 0; from < archetype.size(); from += CHUNK_SIZE) {
+                if(chunkCount == chunkArchetype.length) {
+                    chunkArchetype = Arrays.copyOf(chunkArchetype, chunkCount * 2);
+                    chunkFrom = Arrays.copyOf(chunkFrom, chunkCount * 2);
+                }
+                chunkArchetype[chunkCount] = archetype;
+                chunkFrom[chunkCount] = from;
+                chunkCount++;
+            }
+        }
+
+        if(chunkCount == 1) updateChunk(system, 0, ticker);
+        else if(chunkCount > 1) ticker.getTickPool().invoke(new ChunkUpdate(system, ticker, 0, chunkCount));
+    }
+
+    private void updateChunk(@NotNull EntitySystem system, int chunk, @NotNull Ticker ticker) {
+        Archetype archetype = chunkArchetype[chunk];
+        int from = chunkFrom[chunk];
+        system.update(archetype, from, Math.min(from + CHUNK_SIZE, archetype.size()), ticker);
+    }
+
+    /**
+     * Splits a range of chunks in halves, until a single chunk remains.
+     */
+    private class ChunkUpdate extends RecursiveAction {
+
+        private final @NotNull EntitySystem system;
+        private final @NotNull Ticker ticker;
+        private final int from;
+        private final int to;
+
+        private ChunkUpdate(@NotNull EntitySystem system, @NotNull Ticker ticker, int from, int to) {
+            this.system = system;
+            this.ticker = ticker;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from == 1) {
+                updateChunk(system, from, ticker);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkUpdate(system, ticker, from, mid), new ChunkUpdate(system, ticker, mid, to));
+        }
+    }
+}
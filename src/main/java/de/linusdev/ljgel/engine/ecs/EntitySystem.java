@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.ecs;
+
+import de.linusdev.ljgel.engine.ticker.Ticker;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Updates the components of all entities of an {@link EntityManager}, which have all
+ * {@link #getRequiredComponents() required} and none of the {@link #getExcludedComponents() excluded} components.
+ * The systems of an entity manager are updated one after another in the order they were added.
+ */
+public interface EntitySystem {
+
+    /**
+     * Mask of the component types, which an entity must have to be updated by this system.
+     * @see ComponentType#mask(ComponentType...)
+     */
+    long getRequiredComponents();
+
+    /**
+     * Mask of the component types, which an entity must not have to be updated by this system.
+     */
+    default long getExcludedComponents() {
+        return 0L;
+    }
+
+    /**
+     * Updates the entities in the rows {@code [from, to)} of given {@code archetype}. Entities must not be created or
+     * destroyed and components must not be added or removed during the update, but entities can be
+     * {@link EntityManager#destroyLater(long) destroyed later}.
+     */
+    void update(@NotNull Archetype archetype, int from, int to, @NotNull Ticker ticker);
+
+    /**
+     * Whether different row ranges may be updated concurrently. The entities are then split into chunks of up to
+     * {@link EntityManager#CHUNK_SIZE} entities, which are updated on the {@link Ticker#getTickPool() tick pool}.
+     * Otherwise, all entities are updated on the thread ticking the entity manager. Must not change while this system
+     * is added to an entity manager.
+     */
+    default boolean isParallelSafe() {
+        return false;
+    }
+}
@@ -17,6 +17,7 @@
 package de.linusdev.ljgel.engine.info;
 
 
+import de.linusdev.ljgel.engine.async.EngineExecutors;
 import de.linusdev.lutils.version.Version;
 import org.jetbrains.annotations.NotNull;
 
@@ -26,6 +27,26 @@ public interface Game {
 
     @NotNull Version version();
 
+    /**
+     * Tick period in milliseconds. A negative value means, that the game does not tick. {@code 0} is not allowed.
+     */
     long getMillisPerTick();
 
+    /**
+     * Whether the ticker should use a fixed timestep. If {@code true}, each tick advances the simulation by exactly
+     * {@link #getMillisPerTick()} and ticks, which are late, are caught up.
+     * @see de.linusdev.ljgel.engine.ticker.FixedTimestepTicker
+     */
+    default boolean isFixedTimestep() {
+        return false;
+    }
+
+    /**
+     * Creates the executors, which the engine uses to run supervised tasks. Called once by the engine.
+     * @see EngineExecutors#createDefault()
+     */
+    default @NotNull EngineExecutors createExecutors() {
+        return EngineExecutors.createDefault();
+    }
+
 }
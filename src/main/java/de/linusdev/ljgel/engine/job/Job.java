@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.job;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A job of a {@link JobGraph}. The job is started on the {@link JobGraph#getPool() pool} of its graph, as soon as all
+ * its dependencies finished. Use {@link #join()} to wait for the job and to rethrow its exception. If a dependency
+ * failed, the job is not run and completes with the exception of that dependency.
+ * <br><br>
+ * Jobs are pooled by their graph and reused after {@link JobGraph#finish()}. A job must therefore not be used after
+ * the frame it was {@link JobGraph#add(Runnable) added} in.
+ */
+public final class Job extends RecursiveAction {
+
+    private final @NotNull JobGraph graph;
+
+    /*
+     * Set while the graph is declared, read by the workers after the graph has been started
+     */
+    private @Nullable Runnable function;
+    private int index;
+    private @NotNull Job @NotNull [] dependents = new Job[4];
+    private int dependentCount = 0;
+    /**
+     * Count of dependencies declared. Unlike {@link #pending}, it does not change after the graph has been started.
+     */
+    private int dependencyCount = 0;
+
+    /**
+     * Count of dependencies, which have not finished yet.
+     */
+    private final @NotNull AtomicInteger pending = new AtomicInteger();
+    /**
+     * Exception of a failed dependency. Written before {@link #pending} is decremented.
+     */
+    private volatile @Nullable Throwable dependencyFailure = null;
+    private volatile long runNanos = 0L;
+
+    Job(@NotNull JobGraph graph) {
+        this.graph = graph;
+    }
+
+    void init(@NotNull Runnable function, int index) {
+        this.function = function;
+        this.index = index;
+    }
+
+    /**
+     * Resets this finished job, so it can be reused.
+     */
+    void recycle() {
+        Arrays.fill(dependents, 0, dependentCount, null);
+        dependentCount = 0;
+        dependencyCount = 0;
+        function = null;
+        pending.set(0);
+        dependencyFailure = null;
+        runNanos = 0L;
+        reinitialize();
+    }
+
+    void addDependent(@NotNull Job job) {
+        if(dependentCount == dependents.length)
+            dependents = Arrays.copyOf(dependents, dependentCount * 2);
+        dependents[dependentCount++] = job;
+        job.dependencyCount++;
+        job.pending.incrementAndGet();
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    boolean hasDependencies() {
+        return dependencyCount > 0;
+    }
+
+    /**
+     * Time this job ran in nanoseconds. {@code 0} if it did not run (yet).
+     */
+    public long getRunNanos() {
+        return runNanos;
+    }
+
+    @Override
+    protected void compute() {
+        assert function != null;
+        long start = System.nanoTime();
+
+        try {
+            function.run();
+        } catch (RuntimeException | Error t) {
+            runNanos = System.nanoTime() - start;
+            release(t);
+            throw t;
+        }
+
+        runNanos = System.nanoTime() - start;
+        release(null);
+    }
+
+    /**
+     * Called once by each dependency, after it finished.
+     * @param failure exception of the dependency or {@code null} if it finished normally
+     */
+    private void dependencyFinished(@Nullable Throwable failure) {
+        if(failure != null)
+            dependencyFailure = failure;
+        if(pending.decrementAndGet() != 0)
+            return;
+
+        Throwable failed = dependencyFailure;
+        if(failed != null) {
+            completeExceptionally(failed);
+            release(failed);
+            return;
+        }
+
+        schedule();
+    }
+
+    private void release(@Nullable Throwable failure) {
+        for (int i = 0; i < dependentCount; i++)
+            dependents[i].dependencyFinished(failure);
+    }
+
+    void schedule() {
+        if(ForkJoinTask.getPool() == graph.getPool())
+            fork(); // push onto the queue of the current worker
+        else
+            graph.getPool().execute(this);
+    }
+}
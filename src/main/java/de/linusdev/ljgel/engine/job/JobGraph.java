@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.job;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Graph of the CPU work of a single frame. Jobs are {@link #add(Runnable) added} together with their dependencies and
+ * then {@link #start() started}. Each job runs on the {@link #getPool() pool} as soon as all its dependencies finished.
+ * The thread owning the graph, usually the render thread, continues its own work and only {@link Job#join() joins} the
+ * jobs, whose results it needs. {@link #finish()} waits for all remaining jobs at the end of the frame. The CPU time of
+ * a frame is therefore the length of the critical path instead of the sum of all jobs.
+ * <br><br>
+ * A job can only depend on jobs added before it, so the graph can never contain a cycle.
+ * <br><br>
+ * Job objects are pooled and reused in the next frame. If the same {@link Runnable} instances are added every frame
+ * (for example method references stored in fields), declaring and running the graph does not allocate once the pool
+ * stopped growing. This class is not thread-safe: all methods must be called by the thread owning the graph.
+ */
+public class JobGraph {
+
+    private final @NotNull ForkJoinPool pool;
+
+    private final @NotNull ArrayList<Job> jobs = new ArrayList<>();
+    private final @NotNull ArrayDeque<Job> free = new ArrayDeque<>();
+    private boolean started = false;
+    private long startNanos = 0L;
+
+    private volatile int lastJobCount = 0;
+    private volatile long lastFrameNanos = 0L;
+    private volatile long lastWorkNanos = 0L;
+
+    public JobGraph() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool pool the jobs are run on
+     */
+    public JobGraph(@NotNull ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Adds a job without dependencies. Must be called before {@link #start()}.
+     * @param function function run by the job
+     * @return the new job. Valid until {@link #finish()} is called.
+     */
+    public @NotNull Job add(@NotNull Runnable function) {
+        if(started)
+            throw new IllegalStateException("Jobs cannot be added after the graph has been started.");
+
+        Job job = free.poll();
+        if(job == null)
+            job = new Job(this);
+
+        job.init(function, jobs.size());
+        jobs.add(job);
+        return job;
+    }
+
+    /**
+     * Adds a job, which runs after given {@code dependency} finished.
+     * @see #add(Runnable)
+     */
+    public @NotNull Job add(@NotNull Runnable function, @NotNull Job dependency) {
+        Job job = add(function);
+        dependsOn(job, dependency);
+        return job;
+    }
+
+    /**
+     * Adds a job, which runs after both given dependencies finished.
+     * @see #add(Runnable)
+     */
+    public @NotNull Job add(@NotNull Runnable function, @NotNull Job dependency1, @NotNull Job dependency2) {
+        Job job = add(function);
+        dependsOn(job, dependency1);
+        dependsOn(job, dependency2);
+        return job;
+    }
+
+    /**
+     * Adds a dependency to given {@code job}: it runs after given {@code dependency} finished. Must be called before
+     * {@link #start()}.
+     * @param dependency job of this graph, which was added before {@code job}
+     */
+    public void dependsOn(@NotNull Job job, @NotNull Job dependency) {
+        if(started)
+            throw new IllegalStateException("Dependencies cannot be added after the graph has been started.");
+        if(!isCurrent(job) || !isCurrent(dependency))
+            throw new IllegalArgumentException("Both jobs must have been added to this graph in the current frame.");
+        if(dependency.getIndex() >= job.getIndex())
+            throw new IllegalArgumentException("A job can only depend on jobs added before it.");
+
+        dependency.addDependent(job);
+    }
+
+    private boolean isCurrent(@NotNull Job job) {
+        int index = job.getIndex();
+        return index < jobs.size() && jobs.get(index) == job;
+    }
+
+    /**
+     * Starts all jobs without dependencies. The others are started by their dependencies.
+     */
+    public void start() {
+        if(started)
+            throw new IllegalStateException("The graph has already been started.");
+        started = true;
+        startNanos = System.nanoTime();
+
+        for (int i = 0; i < jobs.size(); i++) {
+            Job job = jobs.get(i);
+            if(!job.hasDependencies())
+                job.schedule();
+        }
+    }
+
+    /**
+     * Waits for all jobs and recycles them. Afterward, jobs for the next frame can be added. If a job failed, its
+     * exception is rethrown after all jobs finished.
+     */
+    public void finish() {
+        if(!started)
+            throw new IllegalStateException("The graph has not been started.");
+
+        Throwable failure = null;
+        long workNanos = 0L;
+        for (int i = 0; i < jobs.size(); i++) {
+            Job job = jobs.get(i);
+            job.quietlyJoin();
+            workNanos += job.getRunNanos();
+            if(failure == null && job.isCompletedAbnormally())
+                failure = job.getException();
+        }
+
+        lastFrameNanos = System.nanoTime() - startNanos;
+        lastWorkNanos = workNanos;
+        lastJobCount = jobs.size();
+
+        for (int i = 0; i < jobs.size(); i++) {
+            Job job = jobs.get(i);
+            job.recycle();
+            free.offer(job);
+        }
+        jobs.clear();
+        started = false;
+
+        if(failure instanceof RuntimeException e) throw e;
+        if(failure instanceof Error e) throw e;
+        if(failure != null) throw new RuntimeException(failure);
+    }
+
+    public @NotNull ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Count of jobs of the current frame.
+     */
+    public int getJobCount() {
+        return jobs.size();
+    }
+
+    /**
+     * Count of jobs of the last finished frame.
+     */
+    public int getLastJobCount() {
+        return lastJobCount;
+    }
+
+    /**
+     * Time between {@link #start()} and the end of {@link #finish()} in the last finished frame.
+     */
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    /**
+     * Sum of the time all jobs of the last finished frame ran. If it is greater than
+     * {@link #getLastFrameNanos()}, jobs ran in parallel.
+     */
+    public long getLastWorkNanos() {
+        return lastWorkNanos;
+    }
+}
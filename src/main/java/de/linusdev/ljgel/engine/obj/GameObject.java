@@ -36,9 +36,9 @@ public abstract class GameObject<T extends GameObject<T>> implements Tickable {
             @Nullable Collider collider
     ) {
         this.manager = manager.getGameObjectManager();
-        this.id = this.manager.registerObject(this);
-
+        // The collider must be set before registering, so that the object is added to its collision manager
         this.collider = collider;
+        this.id = this.manager.registerObject(this);
     }
 
     @ApiStatus.OverrideOnly
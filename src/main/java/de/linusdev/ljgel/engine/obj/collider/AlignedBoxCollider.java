@@ -21,13 +21,24 @@ import org.jetbrains.annotations.NotNull;
 
 public class AlignedBoxCollider implements Collider {
 
+    private final int colliderGroup;
+
     private final @NotNull Float3 center;
     private final @NotNull Float3 size;
 
     public AlignedBoxCollider(@NotNull Float3 center, @NotNull Float3 size) {
+        this(0, center, size);
+    }
+
+    /**
+     * @param colliderGroup collider group
+     * @param center center of the box
+     * @param size half of the edge length of the box in each direction
+     */
+    public AlignedBoxCollider(int colliderGroup, @NotNull Float3 center, @NotNull Float3 size) {
+        this.colliderGroup = colliderGroup;
         this.center = center;
         this.size = size;
-        throw new UnsupportedOperationException("Not Implemented");
     }
 
 
@@ -38,44 +49,47 @@ public class AlignedBoxCollider implements Collider {
 
     @Override
     public float getDiagonal() {
-        return 0;
+        return 2f * (float) Math.sqrt(size.x() * size.x() + size.y() * size.y() + size.z() * size.z());
     }
 
     @Override
     public float bestEffortDistanceTo(@NotNull SphereCollider other) {
-        return 0;
+        return exactDistanceTo(other);
     }
 
     @Override
     public float exactDistanceTo(@NotNull SphereCollider other) {
-        return 0;
+        return DistanceFunctions.sdf(other, this);
     }
 
     @Override
     public float bestEffortDistanceTo(@NotNull AlignedBoxCollider other) {
-        return 0;
+        return exactDistanceTo(other);
     }
 
     @Override
     public float exactDistanceTo(@NotNull AlignedBoxCollider other) {
-        return 0;
+        return DistanceFunctions.sdf(this, other);
     }
 
     @Override
     public float bestEffortDistanceTo(@NotNull Collider other) {
-        return 0;
+        return other.bestEffortDistanceTo(this);
     }
 
     @Override
     public float exactDistanceTo(@NotNull Collider other) {
-        return 0;
+        return other.exactDistanceTo(this);
     }
 
     @Override
     public int getColliderGroup() {
-        return 0;
+        return colliderGroup;
     }
 
+    /**
+     * Half of the edge length of the box in each direction.
+     */
     public @NotNull Float3 getSize() {
         return size;
     }
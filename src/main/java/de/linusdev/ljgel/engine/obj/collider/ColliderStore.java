@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.obj.collider;
+
+import de.linusdev.lutils.math.vector.abstracts.floatn.Float3;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Packed structure-of-arrays storage of colliders. Each collider is stored as rounded box (see
+ * {@link DistanceFunctions}): center, half extents and radius are stored in separate contiguous {@code float} arrays.
+ * Colliders, which cannot be represented as rounded box, are stored as their bounding sphere and are marked as not
+ * {@link #isExact(int) exact}.
+ * <br><br>
+ * Colliders are stored densely: {@link #remove(int) removing} a collider moves the last collider into its index.
+ * All arrays only grow, so the store does not allocate once the count of colliders stops growing. This class is not
+ * thread-safe.
+ */
+public class ColliderStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Maximum count of steps and surface distance of the sphere tracing in
+     * {@link #rayDistance(int, float, float, float, float, float, float, float)}.
+     */
+    private static final int RAY_MARCH_STEPS = 32;
+    private static final float RAY_MARCH_EPSILON = 1e-4f;
+
+    /**
+     * Count of sections written by {@link #pack(int[], int, FloatBuffer, int, int)}.
+     */
+    public static final int PACKED_SECTIONS = 13;
+    public static final int PACKED_MIN_X = 0, PACKED_MAX_X = 1;
+    public static final int PACKED_MIN_Y = 2, PACKED_MAX_Y = 3;
+    public static final int PACKED_MIN_Z = 4, PACKED_MAX_Z = 5;
+    public static final int PACKED_CENTER_X = 6, PACKED_CENTER_Y = 7, PACKED_CENTER_Z = 8;
+    public static final int PACKED_EXTENT_X = 9, PACKED_EXTENT_Y = 10, PACKED_EXTENT_Z = 11;
+    public static final int PACKED_RADIUS = 12;
+
+    private float @NotNull [] centerX, centerY, centerZ;
+    private float @NotNull [] extentX, extentY, extentZ;
+    private float @NotNull [] radius;
+    private boolean @NotNull [] exact;
+    private int size = 0;
+
+    /*
+     * Input of the batch kernel: center difference, summed extents and summed radii of each pair
+     */
+    private float @NotNull [] pairX, pairY, pairZ;
+    private float @NotNull [] pairExtentX, pairExtentY, pairExtentZ;
+    private float @NotNull [] pairRadius;
+
+    public ColliderStore() {
+        centerX = new float[INITIAL_CAPACITY];
+        centerY = new float[INITIAL_CAPACITY];
+        centerZ = new float[INITIAL_CAPACITY];
+        extentX = new float[INITIAL_CAPACITY];
+        extentY = new float[INITIAL_CAPACITY];
+        extentZ = new float[INITIAL_CAPACITY];
+        radius = new float[INITIAL_CAPACITY];
+        exact = new boolean[INITIAL_CAPACITY];
+
+        pairX = pairY = pairZ = pairExtentX = pairExtentY = pairExtentZ = pairRadius = new float[0];
+    }
+
+    /**
+     * Adds a new collider at index {@link #size()}. Its values must be {@link #set(int, Collider) set} before it
+     * is used.
+     * @return index of the new collider
+     */
+    public int add() {
+        if(size == centerX.length) {
+            int capacity = size * 2;
+            centerX = Arrays.copyOf(centerX, capacity);
+            centerY = Arrays.copyOf(centerY, capacity);
+            centerZ = Arrays.copyOf(centerZ, capacity);
+            extentX = Arrays.copyOf(extentX, capacity);
+            extentY = Arrays.copyOf(extentY, capacity);
+            extentZ = Arrays.copyOf(extentZ, capacity);
+            radius = Arrays.copyOf(radius, capacity);
+            exact = Arrays.copyOf(exact, capacity);
+        }
+
+        return size++;
+    }
+
+    /**
+     * Removes the collider at given {@code index} by moving the last collider into its place.
+     */
+    public void remove(int index) {
+        assert index >= 0 && index < size;
+        int last = --size;
+        centerX[index] = centerX[last];
+        centerY[index] = centerY[last];
+        centerZ[index] = centerZ[last];
+        extentX[index] = extentX[last];
+        extentY[index] = extentY[last];
+        extentZ[index] = extentZ[last];
+        radius[index] = radius[last];
+        exact[index] = exact[last];
+    }
+
+    /**
+     * Copies the current values of given {@code collider} into given {@code index}.
+     * @return see {@link #set(int, float, float, float, float, float, float, float, boolean)}
+     */
+    public float set(int index, @NotNull Collider collider) {
+        Float3 center = collider.getCenter();
+
+        if(collider instanceof SphereCollider sphere) {
+            return set(index, center.x(), center.y(), center.z(), 0f, 0f, 0f, sphere.getRadius().get(), true);
+        } else if(collider instanceof AlignedBoxCollider box) {
+            Float3 size = box.getSize();
+            return set(index, center.x(), center.y(), center.z(), size.x(), size.y(), size.z(), 0f, true);
+        } else {
+            return set(index, center.x(), center.y(), center.z(), 0f, 0f, 0f, collider.getDiagonal() / 2f, false);
+        }
+    }
+
+    /**
+     * @param exact whether the rounded box is the exact shape of the collider or only a bounding volume.
+     * @return upper bound of the distance, by which any point on the surface of the rounded box moved compared to the
+     * previous values at given {@code index}. Meaningless, if no values were set at given {@code index} before.
+     */
+    public float set(
+            int index,
+            float x, float y, float z,
+            float extentX, float extentY, float extentZ,
+            float radius,
+            boolean exact
+    ) {
+        assert index >= 0 && index < size;
+        float dx = x - centerX[index], dy = y - centerY[index], dz = z - centerZ[index];
+        float dex = extentX - this.extentX[index], dey = extentY - this.extentY[index], dez = extentZ - this.extentZ[index];
+        float motion = (float) Math.sqrt(dx * dx + dy * dy + dz * dz)
+                + (float) Math.sqrt(dex * dex + dey * dey + dez * dez)
+                + Math.abs(radius - this.radius[index]);
+
+        this.centerX[index] = x;
+        this.centerY[index] = y;
+        this.centerZ[index] = z;
+        this.extentX[index] = extentX;
+        this.extentY[index] = extentY;
+        this.extentZ[index] = extentZ;
+        this.radius[index] = radius;
+        this.exact[index] = exact;
+        return motion;
+    }
+
+    /**
+     * Whether the collider at given {@code index} is stored exactly. If not, the distances calculated by this store are
+     * only a lower bound of the exact distance.
+     */
+    public boolean isExact(int index) {
+        return exact[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Signed distance between the colliders at given indices.
+     */
+    public float distance(int a, int b) {
+        return DistanceFunctions.roundedBox(
+                centerX[a] - centerX[b], centerY[a] - centerY[b], centerZ[a] - centerZ[b],
+                extentX[a] + extentX[b], extentY[a] + extentY[b], extentZ[a] + extentZ[b],
+                radius[a] + radius[b]
+        );
+    }
+
+    /**
+     * Signed distance between the collider at given {@code index} and a rounded box with given center, half extents
+     * and radius.
+     */
+    public float distance(
+            int index,
+            float x, float y, float z,
+            float extentX, float extentY, float extentZ,
+            float radius
+    ) {
+        return DistanceFunctions.roundedBox(
+                centerX[index] - x, centerY[index] - y, centerZ[index] - z,
+                this.extentX[index] + extentX, this.extentY[index] + extentY, this.extentZ[index] + extentZ,
+                this.radius[index] + radius
+        );
+    }
+
+    /**
+     * Distance along given ray, at which it hits the collider at given {@code index}. Spheres and boxes are
+     * intersected analytically, other rounded boxes using sphere tracing.
+     * @param dx x component of the normalized direction of the ray
+     * @param dy y component of the normalized direction of the ray
+     * @param dz z component of the normalized direction of the ray
+     * @return distance of the hit, {@code 0} if the origin is inside the collider or {@link Float#POSITIVE_INFINITY}
+     * if the collider is not hit at a distance smaller than or equal to {@code maxDistance}.
+     */
+    public float rayDistance(int index, float x, float y, float z, float dx, float dy, float dz, float maxDistance) {
+        float ox = x - centerX[index], oy = y - centerY[index], oz = z - centerZ[index];
+        float ex = extentX[index], ey = extentY[index], ez = extentZ[index];
+        float r = radius[index];
+        float distance;
+
+        if(ex == 0f && ey == 0f && ez == 0f) {
+            distance = raySphere(ox, oy, oz, dx, dy, dz, r);
+        } else if(r == 0f) {
+            distance = rayBox(ox, oy, oz, dx, dy, dz, ex, ey, ez);
+        } else {
+            // Start at the bounding box of the rounded box and step by the distance to its surface
+            distance = rayBox(ox, oy, oz, dx, dy, dz, ex + r, ey + r, ez + r);
+            for (int i = 0; i < RAY_MARCH_STEPS && distance <= maxDistance; i++) {
+                float step = DistanceFunctions.roundedBox(
+                        ox + dx * distance, oy + dy * distance, oz + dz * distance, ex, ey, ez, r
+                );
+                if(step <= RAY_MARCH_EPSILON)
+                    break;
+                distance += step;
+                if(i == RAY_MARCH_STEPS - 1)
+                    distance = Float.POSITIVE_INFINITY;
+            }
+        }
+
+        return distance <= maxDistance ? distance : Float.POSITIVE_INFINITY;
+    }
+
+    private static float raySphere(float ox, float oy, float oz, float dx, float dy, float dz, float r) {
+        float b = ox * dx + oy * dy + oz * dz;
+        float c = ox * ox + oy * oy + oz * oz - r * r;
+        if(c <= 0f)
+            return 0f;
+
+        if(b > 0f)
+            return Float.POSITIVE_INFINITY;
+
+        // Use the point of the ray closest to the center, b * b - c loses too much precision for distant spheres
+        float px = ox - b * dx, py = oy - b * dy, pz = oz - b * dz;
+        float discriminant = r * r - (px * px + py * py + pz * pz);
+        if(discriminant < 0f)
+            return Float.POSITIVE_INFINITY;
+        return -b - (float) Math.sqrt(discriminant);
+    }
+
+    /**
+     * Slab test of a ray against a box at the origin with given half extents.
+     */
+    private static float rayBox(float ox, float oy, float oz, float dx, float dy, float dz, float ex, float ey, float ez) {
+        float entry = 0f;
+        float exit = Float.POSITIVE_INFINITY;
+
+        if(dx != 0f) {
+            float t1 = (-ex - ox) / dx, t2 = (ex - ox) / dx;
+            entry = Math.max(entry, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        } else if(Math.abs(ox) > ex) return Float.POSITIVE_INFINITY;
+
+        if(dy != 0f) {
+            float t1 = (-ey - oy) / dy, t2 = (ey - oy) / dy;
+            entry = Math.max(entry, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        } else if(Math.abs(oy) > ey) return Float.POSITIVE_INFINITY;
+
+        if(dz != 0f) {
+            float t1 = (-ez - oz) / dz, t2 = (ez - oz) / dz;
+            entry = Math.max(entry, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        } else if(Math.abs(oz) > ez) return Float.POSITIVE_INFINITY;
+
+        return entry <= exit ? entry : Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Largest signed distance of any point of the collider at given {@code index} to the normalized plane
+     * {@code (a, b, c, d)}. Negative if the collider is completely on the outer side of the plane.
+     */
+    public float planeDistance(int index, float a, float b, float c, float d) {
+        return a * centerX[index] + b * centerY[index] + c * centerZ[index] + d
+                + Math.abs(a) * extentX[index] + Math.abs(b) * extentY[index] + Math.abs(c) * extentZ[index]
+                + radius[index];
+    }
+
+    /**
+     * Lower x bound of the collider at given {@code index}, as written by
+     * {@link #pack(int[], int, FloatBuffer, int, int)}.
+     */
+    public float minX(int index) {
+        float e = extentX[index] + radius[index];
+        return centerX[index] - e - boundsTolerance(centerX[index], e);
+    }
+
+    /**
+     * The bounds are enlarged by this tolerance, so that colliders, whose distance calculated by this store is smaller
+     * than or equal to {@code 0}, always have overlapping bounds despite rounding errors.
+     */
+    private static float boundsTolerance(float center, float extent) {
+        return 1e-5f * (Math.abs(center) + extent) + 1e-6f;
+    }
+
+    /**
+     * Writes the colliders at the indices {@code order[0]} to {@code order[count - 1]} into given buffer. The values are
+     * written into {@link #PACKED_SECTIONS} sections of {@code stride} floats starting at the absolute index
+     * {@code offset}: section {@code s} contains value {@code s} of the {@code i}-th collider at
+     * {@code offset + s * stride + i}. The sections are, in this order: the axis-aligned bounds (minimum and maximum
+     * of each axis, see {@link #minX(int)}), the center, the half extents and the radius.
+     * <br><br>
+     * The position of the buffer is not changed.
+     */
+    public void pack(int @NotNull [] order, int count, @NotNull FloatBuffer out, int offset, int stride) {
+        assert count <= stride;
+
+        for (int i = 0; i < count; i++) {
+            int index = order[i];
+            float x = centerX[index], y = centerY[index], z = centerZ[index];
+            float r = radius[index];
+            float ex = extentX[index] + r, ey = extentY[index] + r, ez = extentZ[index] + r;
+            float tx = boundsTolerance(x, ex), ty = boundsTolerance(y, ey), tz = boundsTolerance(z, ez);
+
+            out.put(offset + PACKED_MIN_X * stride + i, x - ex - tx);
+            out.put(offset + PACKED_MAX_X * stride + i, x + ex + tx);
+            out.put(offset + PACKED_MIN_Y * stride + i, y - ey - ty);
+            out.put(offset + PACKED_MAX_Y * stride + i, y + ey + ty);
+            out.put(offset + PACKED_MIN_Z * stride + i, z - ez - tz);
+            out.put(offset + PACKED_MAX_Z * stride + i, z + ez + tz);
+            out.put(offset + PACKED_CENTER_X * stride + i, x);
+            out.put(offset + PACKED_CENTER_Y * stride + i, y);
+            out.put(offset + PACKED_CENTER_Z * stride + i, z);
+            out.put(offset + PACKED_EXTENT_X * stride + i, extentX[index]);
+            out.put(offset + PACKED_EXTENT_Y * stride + i, extentY[index]);
+            out.put(offset + PACKED_EXTENT_Z * stride + i, extentZ[index]);
+            out.put(offset + PACKED_RADIUS * stride + i, r);
+        }
+    }
+
+    /**
+     * Calculates the signed distance between the colliders {@code a[i]} and {@code b[i]} for each {@code i} smaller than
+     * {@code count} and writes it to {@code out[i]}.
+     * @see #distances(int[], int[], int, int, float[])
+     */
+    public void distances(int @NotNull [] a, int @NotNull [] b, int count, float @NotNull [] out) {
+        prepareDistances(count);
+        distances(a, b, 0, count, out);
+    }
+
+    /**
+     * Must be called before {@link #distances(int[], int[], int, int, float[])} is called for ranges ending at or
+     * before given {@code count}.
+     */
+    public void prepareDistances(int count) {
+        if(pairX.length < count) {
+            int capacity = Math.max(count, pairX.length * 2);
+            pairX = new float[capacity];
+            pairY = new float[capacity];
+            pairZ = new float[capacity];
+            pairExtentX = new float[capacity];
+            pairExtentY = new float[capacity];
+            pairExtentZ = new float[capacity];
+            pairRadius = new float[capacity];
+        }
+    }
+
+    /**
+     * Calculates the signed distance between the colliders {@code a[i]} and {@code b[i]} for each {@code i} in the range
+     * {@code [from, to)} and writes it to {@code out[i]}. The values of the pairs are first gathered into contiguous
+     * arrays, which are then processed by the {@link DistanceFunctions#roundedBox(int, int, float[], float[], float[],
+     * float[], float[], float[], float[], float[]) batch kernel}.
+     * <br><br>
+     * After {@link #prepareDistances(int)} has been called, this method may be called concurrently for disjoint ranges,
+     * as long as the store is not modified.
+     */
+    public void distances(int @NotNull [] a, int @NotNull [] b, int from, int to, float @NotNull [] out) {
+        assert pairX.length >= to;
+
+        for (int i = from; i < to; i++) {
+            int ia = a[i];
+            int ib = b[i];
+            pairX[i] = centerX[ia] - centerX[ib];
+            pairY[i] = centerY[ia] - centerY[ib];
+            pairZ[i] = centerZ[ia] - centerZ[ib];
+            pairExtentX[i] = extentX[ia] + extentX[ib];
+            pairExtentY[i] = extentY[ia] + extentY[ib];
+            pairExtentZ[i] = extentZ[ia] + extentZ[ib];
+            pairRadius[i] = radius[ia] + radius[ib];
+        }
+
+        DistanceFunctions.roundedBox(
+                from, to, pairX, pairY, pairZ, pairExtentX, pairExtentY, pairExtentZ, pairRadius, out
+        );
+    }
+}
@@ -16,33 +16,93 @@
 
 package de.linusdev.ljgel.engine.obj.collider;
 
-import de.linusdev.lutils.math.VMath;
 import de.linusdev.lutils.math.vector.abstracts.floatn.Float3;
-import de.linusdev.lutils.math.vector.array.floatn.ABFloat3;
+import org.jetbrains.annotations.NotNull;
 
+/**
+ * Signed distance functions between colliders. None of these functions allocate.
+ * <br><br>
+ * All supported colliders are treated as rounded boxes: an axis-aligned box with given half extents, which is
+ * extended by a radius in all directions. A sphere is a rounded box without extents and an
+ * {@link AlignedBoxCollider aligned box} is a rounded box without radius. The distance between two rounded boxes is
+ * the distance between the point {@code centerA - centerB} and a rounded box at the origin with the summed extents and
+ * radii, see {@link #roundedBox(float, float, float, float, float, float, float)}.
+ */
 public class DistanceFunctions {
 
     public static float sdf(SphereCollider col1, AlignedBoxCollider col2) {
-        throw new UnsupportedOperationException("Not Implemented");
+        Float3 c1 = col1.getCenter();
+        Float3 c2 = col2.getCenter();
+        Float3 size = col2.getSize();
+        return roundedBox(
+                c1.x() - c2.x(), c1.y() - c2.y(), c1.z() - c2.z(),
+                size.x(), size.y(), size.z(),
+                col1.getRadius().get()
+        );
     }
 
     public static float sdf(SphereCollider col1, SphereCollider col2) {
-        return VMath.length(VMath.subtract(col1.getCenter(), col2.getCenter(), new ABFloat3()))
-                - col1.getRadius().get()
-                - col2.getRadius().get();
+        Float3 c1 = col1.getCenter();
+        Float3 c2 = col2.getCenter();
+        return roundedBox(
+                c1.x() - c2.x(), c1.y() - c2.y(), c1.z() - c2.z(),
+                0f, 0f, 0f,
+                col1.getRadius().get() + col2.getRadius().get()
+        );
     }
 
     public static float sdf(AlignedBoxCollider col1, AlignedBoxCollider col2) {
+        Float3 c1 = col1.getCenter();
+        Float3 c2 = col2.getCenter();
+        Float3 s1 = col1.getSize();
+        Float3 s2 = col2.getSize();
+        return roundedBox(
+                c1.x() - c2.x(), c1.y() - c2.y(), c1.z() - c2.z(),
+                s1.x() + s2.x(), s1.y() + s2.y(), s1.z() + s2.z(),
+                0f
+        );
+    }
 
-        Float3 distanceToCenter =  new ABFloat3();
-        VMath.subtract(col1.getCenter(), col2.getCenter(),distanceToCenter);
-        VMath.absolute(distanceToCenter, distanceToCenter);
+    /**
+     * Signed distance of the point {@code (x, y, z)} to an axis-aligned box centered at the origin with given half
+     * extents, which is rounded by given {@code radius}.
+     */
+    public static float roundedBox(float x, float y, float z, float extentX, float extentY, float extentZ, float radius) {
+        float qx = Math.abs(x) - extentX;
+        float qy = Math.abs(y) - extentY;
+        float qz = Math.abs(z) - extentZ;
+
+        // Distance outside the box plus the (negative) distance inside the box
+        float ox = Math.max(qx, 0f);
+        float oy = Math.max(qy, 0f);
+        float oz = Math.max(qz, 0f);
+        return (float) Math.sqrt(ox * ox + oy * oy + oz * oz) + Math.min(Math.max(qx, Math.max(qy, qz)), 0f) - radius;
+    }
 
-        Float3 dif = new ABFloat3();
-        VMath.subtract(distanceToCenter, col1.getSize(), dif);
-        VMath.subtract(dif, col2.getSize(), dif);
+    /**
+     * Batch variant of {@link #roundedBox(float, float, float, float, float, float, float)}. Calculates the distances of
+     * the elements in the range {@code [from, to)} of given arrays and writes them into {@code out}.
+     * <br><br>
+     * The loop only reads and writes contiguous arrays and does not branch, so that the JIT compiler can vectorize it.
+     */
+    public static void roundedBox(
+            int from, int to,
+            float @NotNull [] x, float @NotNull [] y, float @NotNull [] z,
+            float @NotNull [] extentX, float @NotNull [] extentY, float @NotNull [] extentZ,
+            float @NotNull [] radius,
+            float @NotNull [] out
+    ) {
+        for (int i = from; i < to; i++) {
+            float qx = Math.abs(x[i]) - extentX[i];
+            float qy = Math.abs(y[i]) - extentY[i];
+            float qz = Math.abs(z[i]) - extentZ[i];
 
-        throw new UnsupportedOperationException("Not Implemented");
+            float ox = Math.max(qx, 0f);
+            float oy = Math.max(qy, 0f);
+            float oz = Math.max(qz, 0f);
+            out[i] = (float) Math.sqrt(ox * ox + oy * oy + oz * oz)
+                    + Math.min(Math.max(qx, Math.max(qy, qz)), 0f) - radius[i];
+        }
     }
 
 }
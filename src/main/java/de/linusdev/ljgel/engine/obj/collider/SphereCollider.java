@@ -16,10 +16,8 @@
 
 package de.linusdev.ljgel.engine.obj.collider;
 
-import de.linusdev.lutils.math.VMath;
 import de.linusdev.lutils.math.vector.abstracts.floatn.Float1;
 import de.linusdev.lutils.math.vector.abstracts.floatn.Float3;
-import de.linusdev.lutils.math.vector.array.floatn.ABFloat3;
 import org.jetbrains.annotations.NotNull;
 
 public class SphereCollider implements Collider {
@@ -37,7 +35,6 @@ public class SphereCollider implements Collider {
         this.colliderGroup = colliderGroup;
         this.center = center;
         this.radius = radius;
-        throw new UnsupportedOperationException("Not Implemented");
     }
 
     @Override
@@ -61,29 +58,27 @@ public class SphereCollider implements Collider {
 
     @Override
     public float exactDistanceTo(@NotNull SphereCollider other) {
-        return VMath.length(VMath.subtract(this.center, other.center, new ABFloat3()))
-                        - this.radius.get()
-                        - other.radius.get();
+        return DistanceFunctions.sdf(this, other);
     }
 
     @Override
     public float bestEffortDistanceTo(@NotNull AlignedBoxCollider other) {
-        return 0;
+        return exactDistanceTo(other);
     }
 
     @Override
     public float exactDistanceTo(@NotNull AlignedBoxCollider other) {
-        return 0;
+        return DistanceFunctions.sdf(this, other);
     }
 
     @Override
     public float bestEffortDistanceTo(@NotNull Collider other) {
-        return 0;
+        return other.bestEffortDistanceTo(this);
     }
 
     @Override
     public float exactDistanceTo(@NotNull Collider other) {
-        return 0;
+        return other.exactDistanceTo(this);
     }
 
     @Override
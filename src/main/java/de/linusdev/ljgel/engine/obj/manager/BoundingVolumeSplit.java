@@ -16,5 +16,747 @@
 
 package de.linusdev.ljgel.engine.obj.manager;
 
-public class BoundingVolumeSplit {
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Dynamic bounding volume hierarchy of axis-aligned bounding boxes. Each leaf (proxy) stores a fattened box, which
+ * contains the actual bounds plus a {@link #getMargin() margin}. As long as the actual bounds stay inside the fattened
+ * box, {@link #move(int, float, float, float, float) moving} a proxy does not change the tree.
+ * <br><br>
+ * New leaves are inserted next to the sibling, which increases the surface area of the tree the least (surface area
+ * heuristic). After each insertion or removal, the ancestors of the changed node are refitted and rotated, if swapping
+ * a child with a grandchild reduces the surface area. Each ancestor, whose children differ in height by more than one,
+ * is balanced first (like an AVL tree), and rotations, which would unbalance the tree, are skipped. The height of the
+ * tree is therefore at most about {@code 1.44 * log2(n)} and inserting, removing and moving are {@code O(log n)}.
+ * <br><br>
+ * Nodes are stored in parallel arrays and reused, so that the tree does not allocate after it has grown to its
+ * maximum size. This class is not thread-safe.
+ * @param <D> type of the data stored in each proxy
+ */
+public class BoundingVolumeSplit<D> implements Broadphase<D> {
+
+    public static final float DEFAULT_MARGIN = 0.1f;
+
+    public static final int NULL = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final float margin;
+
+    /*
+     * Node storage. A free node has a height of -1 and stores the next free node in parent.
+     */
+    private float @NotNull [] minX, minY, minZ, maxX, maxY, maxZ;
+    private int @NotNull [] parent, child1, child2, height;
+    private @Nullable Object @NotNull [] data;
+
+    private int root = NULL;
+    private int freeList = NULL;
+    private int capacity = 0;
+    private int proxyCount = 0;
+
+    private int @NotNull [] stack = new int[64];
+
+    public BoundingVolumeSplit() {
+        this(DEFAULT_MARGIN);
+    }
+
+    /**
+     * @param margin distance by which the bounds of each proxy are extended.
+     */
+    public BoundingVolumeSplit(float margin) {
+        this.margin = margin;
+
+        minX = minY = minZ = maxX = maxY = maxZ = new float[0];
+        parent = child1 = child2 = height = new int[0];
+        data = new Object[0];
+        grow(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public int insert(float x, float y, float z, float radius, @NotNull D data) {
+        int leaf = allocate();
+        setFatBounds(leaf, x, y, z, radius);
+        this.data[leaf] = data;
+        height[leaf] = 0;
+        insertLeaf(leaf);
+        proxyCount++;
+        return leaf;
+    }
+
+    @Override
+    public void remove(int proxy) {
+        assert isLeaf(proxy);
+        removeLeaf(proxy);
+        free(proxy);
+        proxyCount--;
+    }
+
+    /**
+     * Updates the bounds of given proxy.
+     * @return {@code true} if the sphere left the fattened bounds and the proxy was reinserted.
+     */
+    @Override
+    public boolean move(int proxy, float x, float y, float z, float radius) {
+        assert isLeaf(proxy);
+        if(
+                x - radius >= minX[proxy] && y - radius >= minY[proxy] && z - radius >= minZ[proxy]
+                && x + radius <= maxX[proxy] && y + radius <= maxY[proxy] && z + radius <= maxZ[proxy]
+        ) return false;
+
+        removeLeaf(proxy);
+        setFatBounds(proxy, x, y, z, radius);
+        insertLeaf(proxy);
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @NotNull D getData(int proxy) {
+        assert isLeaf(proxy);
+        return (D) data[proxy];
+    }
+
+    /**
+     * Calls given {@code consumer} once for every pair of proxies, whose fattened bounds overlap. The proxy with the
+     * smaller id is always passed as first argument.
+     */
+    @Override
+    public void queryPairs(@NotNull PairConsumer<D> consumer) {
+        for (int proxy = 0; proxy < capacity; proxy++) {
+            if(height[proxy] != 0)
+                continue;
+            queryPairs(proxy, consumer);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void queryPairs(int proxy, @NotNull PairConsumer<D> consumer) {
+        int top = 0;
+        stack[top++] = root;
+
+        while (top > 0) {
+            int node = stack[--top];
+            if(node == NULL || !overlaps(node, proxy))
+                continue;
+
+            if(height[node] == 0) {
+                // Every pair is found twice, only report it from the smaller proxy
+                if(node > proxy)
+                    consumer.accept((D) data[proxy], (D) data[node]);
+            } else {
+                if(top + 2 > stack.length)
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                stack[top++] = child1[node];
+                stack[top++] = child2[node];
+            }
+        }
+    }
+
+    /* ================================================================================================= *\
+    |                                                                                                     |
+    |                                               Queries                                               |
+    |                                                                                                     |
+    \* ================================================================================================= */
+
+    /*
+     * The queries do not use the stack field, so that they do not modify this tree and may run concurrently. Each
+     * thread keeps a traversal stack in QUERY_STACKS. A query takes it out while running, so that a query started by a
+     * callback of another query uses a new stack instead.
+     */
+
+    private static final @NotNull ThreadLocal<int[]> QUERY_STACKS = new ThreadLocal<>();
+
+    /**
+     * Stack for a query, which pushes up to {@code entrySize} ints per node.
+     */
+    private int @NotNull [] acquireQueryStack(int entrySize) {
+        // A depth first traversal, which pushes both children, holds at most height + 1 nodes
+        int required = entrySize * (getHeight() + 2);
+        int[] stack = QUERY_STACKS.get();
+        if(stack == null || stack.length < required)
+            return new int[Math.max(required, 64)];
+        QUERY_STACKS.set(null);
+        return stack;
+    }
+
+    private static void releaseQueryStack(int @NotNull [] stack) {
+        QUERY_STACKS.set(stack);
+    }
+
+    /**
+     * Calls given {@code consumer} once for every proxy, whose fattened bounds overlap given box.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void queryBox(
+            float minX, float minY, float minZ,
+            float maxX, float maxY, float maxZ,
+            @NotNull ProxyConsumer<? super D> consumer
+    ) {
+        if(root == NULL)
+            return;
+
+        int[] stack = acquireQueryStack(1);
+        int top = 0;
+        stack[top++] = root;
+
+        while (top > 0) {
+            int node = stack[--top];
+            if(
+                    this.minX[node] > maxX || this.maxX[node] < minX
+                    || this.minY[node] > maxY || this.maxY[node] < minY
+                    || this.minZ[node] > maxZ || this.maxZ[node] < minZ
+            ) continue;
+
+            if(height[node] == 0) {
+                consumer.accept((D) data[node]);
+                continue;
+            }
+
+            // child1 is visited first
+            stack[top++] = child2[node];
+            stack[top++] = child1[node];
+        }
+
+        releaseQueryStack(stack);
+    }
+
+    /**
+     * Calls given {@code callback} for every proxy, whose fattened bounds are hit by given ray. The child, which the
+     * ray enters first, is visited first, so that a clipped ray can skip the farther subtrees.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public float rayCast(
+            float x, float y, float z,
+            float dx, float dy, float dz,
+            float maxDistance,
+            @NotNull RayCastCallback<? super D> callback
+    ) {
+        if(root == NULL)
+            return maxDistance;
+        float rootEntry = rayEntry(root, x, y, z, dx, dy, dz);
+        if(rootEntry > maxDistance)
+            return maxDistance;
+
+        // Each entry is a node, whose bounds are hit by the ray, and the distance at which the ray enters them
+        int[] stack = acquireQueryStack(2);
+        int top = 0;
+        stack[top++] = root;
+        stack[top++] = Float.floatToRawIntBits(rootEntry);
+
+        while (top > 0) {
+            float entry = Float.intBitsToFloat(stack[--top]);
+            int node = stack[--top];
+
+            // The ray may have been clipped since this node was pushed
+            if(entry > maxDistance)
+                continue;
+
+            if(height[node] == 0) {
+                maxDistance = callback.hit((D) data[node], maxDistance);
+                continue;
+            }
+
+            int near = child1[node];
+            int far = child2[node];
+            float nearEntry = rayEntry(near, x, y, z, dx, dy, dz);
+            float farEntry = rayEntry(far, x, y, z, dx, dy, dz);
+
+            if(farEntry < nearEntry) {
+                int tmp = near; near = far; far = tmp;
+                float tmpEntry = nearEntry; nearEntry = farEntry; farEntry = tmpEntry;
+            }
+
+            // Push the far child first, so that the near child is visited first
+            if(farEntry <= maxDistance) {
+                stack[top++] = far;
+                stack[top++] = Float.floatToRawIntBits(farEntry);
+            }
+            if(nearEntry <= maxDistance) {
+                stack[top++] = near;
+                stack[top++] = Float.floatToRawIntBits(nearEntry);
+            }
+        }
+
+        releaseQueryStack(stack);
+        return maxDistance;
+    }
+
+    /**
+     * Distance along the ray, at which it enters the bounds of given {@code node}. {@code 0} if the origin is inside
+     * the bounds and {@link Float#POSITIVE_INFINITY} if the ray misses them.
+     */
+    private float rayEntry(int node, float x, float y, float z, float dx, float dy, float dz) {
+        float entry = 0f;
+        float exit = Float.POSITIVE_INFINITY;
+
+        // Slab test for each axis. Axes, which the ray is parallel to, are tested separately to avoid NaN values.
+        if(dx != 0f) {
+            float t1 = (minX[node] - x) / dx, t2 = (maxX[node] - x) / dx;
+            entry = Math.max(entry, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        } else if(x < minX[node] || x > maxX[node]) return Float.POSITIVE_INFINITY;
+
+        if(dy != 0f) {
+            float t1 = (minY[node] - y) / dy, t2 = (maxY[node] - y) / dy;
+            entry = Math.max(entry, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        } else if(y < minY[node] || y > maxY[node]) return Float.POSITIVE_INFINITY;
+
+        if(dz != 0f) {
+            float t1 = (minZ[node] - z) / dz, t2 = (maxZ[node] - z) / dz;
+            entry = Math.max(entry, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        } else if(z < minZ[node] || z > maxZ[node]) return Float.POSITIVE_INFINITY;
+
+        return entry <= exit ? entry : Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Calls given {@code consumer} once for every proxy, whose fattened bounds are possibly inside given
+     * {@code frustum}. Planes, which completely contain a node, are not tested again for its descendants.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void queryFrustum(@NotNull Frustum frustum, @NotNull ProxyConsumer<? super D> consumer) {
+        if(root == NULL)
+            return;
+
+        // Each entry is a node and its plane mask: bit i is set, if plane i must still be tested
+        int[] stack = acquireQueryStack(2);
+        int top = 0;
+        stack[top++] = root;
+        stack[top++] = (1 << Frustum.PLANE_COUNT) - 1;
+
+        nodes:
+        while (top > 0) {
+            int planeMask = stack[--top];
+            int node = stack[--top];
+
+            for (int p = 0; p < Frustum.PLANE_COUNT; p++) {
+                if((planeMask & (1 << p)) == 0)
+                    continue;
+
+                float x1 = minX[node], y1 = minY[node], z1 = minZ[node];
+                float x2 = maxX[node], y2 = maxY[node], z2 = maxZ[node];
+                if(frustum.isBoxOutside(p, x1, y1, z1, x2, y2, z2))
+                    continue nodes;
+                if(frustum.isBoxInside(p, x1, y1, z1, x2, y2, z2))
+                    planeMask &= ~(1 << p);
+            }
+
+            if(height[node] == 0) {
+                consumer.accept((D) data[node]);
+                continue;
+            }
+
+            // child1 is visited first
+            stack[top++] = child2[node];
+            stack[top++] = planeMask;
+            stack[top++] = child1[node];
+            stack[top++] = planeMask;
+        }
+
+        releaseQueryStack(stack);
+    }
+
+    public float getMargin() {
+        return margin;
+    }
+
+    @Override
+    public int getProxyCount() {
+        return proxyCount;
+    }
+
+    /**
+     * Height of the tree. {@code 0} if the tree contains a single proxy, {@code -1} if it is empty.
+     */
+    public int getHeight() {
+        return root == NULL ? -1 : height[root];
+    }
+
+    /**
+     * Sum of the surface areas of all internal nodes. This is the cost, which the insertion and the rotations minimize.
+     */
+    public float getInternalArea() {
+        float area = 0f;
+        for (int node = 0; node < capacity; node++)
+            if(height[node] > 0) area += area(node);
+        return area;
+    }
+
+    /* ================================================================================================= *\
+    |                                                                                                     |
+    |                                              Insertion                                              |
+    |                                                                                                     |
+    \* ================================================================================================= */
+
+    private void insertLeaf(int leaf) {
+        if(root == NULL) {
+            root = leaf;
+            parent[leaf] = NULL;
+            return;
+        }
+
+        int sibling = findBestSibling(leaf);
+
+        int oldParent = parent[sibling];
+        int newParent = allocate();
+        parent[newParent] = oldParent;
+        child1[newParent] = sibling;
+        child2[newParent] = leaf;
+        parent[sibling] = newParent;
+        parent[leaf] = newParent;
+
+        if(oldParent == NULL) {
+            root = newParent;
+        } else {
+            if(child1[oldParent] == sibling) child1[oldParent] = newParent;
+            else child2[oldParent] = newParent;
+        }
+
+        refitAncestors(newParent);
+    }
+
+    /**
+     * Descends the tree towards the child, which results in the smaller cost. The cost of a sibling is the area of the
+     * new parent plus the increase of the areas of all ancestors (inherited cost).
+     */
+    private int findBestSibling(int leaf) {
+        int node = root;
+
+        while (height[node] > 0) {
+            int c1 = child1[node];
+            int c2 = child2[node];
+
+            float area = area(node);
+            float combinedArea = unionArea(node, leaf);
+
+            // Cost of creating a new parent for this node and the leaf
+            float cost = 2f * combinedArea;
+            // Minimum cost of pushing the leaf further down the tree
+            float inheritanceCost = 2f * (combinedArea - area);
+
+            float cost1 = childCost(c1, leaf) + inheritanceCost;
+            float cost2 = childCost(c2, leaf) + inheritanceCost;
+
+            if(cost < cost1 && cost < cost2)
+                break;
+
+            node = cost1 < cost2 ? c1 : c2;
+        }
+
+        return node;
+    }
+
+    private float childCost(int child, int leaf) {
+        float combined = unionArea(child, leaf);
+        if(height[child] == 0)
+            return combined;
+        // Lower bound of the cost, if the leaf is inserted into the subtree of this child
+        return combined - area(child);
+    }
+
+    /* ================================================================================================= *\
+    |                                                                                                     |
+    |                                               Removal                                               |
+    |                                                                                                     |
+    \* ================================================================================================= */
+
+    private void removeLeaf(int leaf) {
+        if(leaf == root) {
+            root = NULL;
+            return;
+        }
+
+        int p = parent[leaf];
+        int grandParent = parent[p];
+        int sibling = child1[p] == leaf ? child2[p] : child1[p];
+
+        if(grandParent == NULL) {
+            root = sibling;
+            parent[sibling] = NULL;
+        } else {
+            if(child1[grandParent] == p) child1[grandParent] = sibling;
+            else child2[grandParent] = sibling;
+            parent[sibling] = grandParent;
+        }
+
+        free(p);
+        refitAncestors(grandParent);
+    }
+
+    /* ================================================================================================= *\
+    |                                                                                                     |
+    |                                         Refitting & Rotation                                        |
+    |                                                                                                     |
+    \* ================================================================================================= */
+
+    private void refitAncestors(int node) {
+        while (node != NULL) {
+            refit(node);
+            node = balance(node);
+            rotate(node);
+            node = parent[node];
+        }
+    }
+
+    /**
+     * If the heights of the children of given {@code node} differ by more than one, the taller child replaces
+     * {@code node} and {@code node} takes the shorter grandchild. Unlike the rotation of an AVL tree, the grandchildren
+     * may be reordered freely, so a single rotation is always enough.
+     * @return the node, which is now at the position of {@code node}
+     */
+    private int balance(int node) {
+        int b = child1[node];
+        int c = child2[node];
+        int diff = height[c] - height[b];
+
+        if(diff > 1) return promote(node, c, b);
+        if(diff < -1) return promote(node, b, c);
+        return node;
+    }
+
+    /**
+     * Replaces {@code node} with its {@code taller} child. {@code node} keeps its {@code other} child and takes the
+     * shorter child of {@code taller}.
+     * @return {@code taller}
+     */
+    private int promote(int node, int taller, int other) {
+        int f = child1[taller];
+        int g = child2[taller];
+        int tallerGrandChild = height[f] > height[g] ? f : g;
+        int shorterGrandChild = tallerGrandChild == f ? g : f;
+
+        int oldParent = parent[node];
+        parent[taller] = oldParent;
+        if(oldParent == NULL) root = taller;
+        else if(child1[oldParent] == node) child1[oldParent] = taller;
+        else child2[oldParent] = taller;
+
+        child1[taller] = node;
+        child2[taller] = tallerGrandChild;
+        parent[node] = taller;
+
+        child1[node] = other;
+        child2[node] = shorterGrandChild;
+        parent[shorterGrandChild] = node;
+
+        refit(node);
+        refit(taller);
+        return taller;
+    }
+
+    /**
+     * Recalculates bounds and height of given internal {@code node} from its children.
+     */
+    private void refit(int node) {
+        int c1 = child1[node];
+        int c2 = child2[node];
+        minX[node] = Math.min(minX[c1], minX[c2]);
+        minY[node] = Math.min(minY[c1], minY[c2]);
+        minZ[node] = Math.min(minZ[c1], minZ[c2]);
+        maxX[node] = Math.max(maxX[c1], maxX[c2]);
+        maxY[node] = Math.max(maxY[c1], maxY[c2]);
+        maxZ[node] = Math.max(maxZ[c1], maxZ[c2]);
+        height[node] = 1 + Math.max(height[c1], height[c2]);
+    }
+
+    /**
+     * Swaps a child of given {@code node} with a grandchild (or two grandchildren with each other), if this reduces
+     * the sum of the areas of the children of {@code node}. The bounds of {@code node} itself do not change. Swaps,
+     * which would unbalance {@code node} or its children or increase the height of {@code node}, are skipped.
+     */
+    private void rotate(int node) {
+        int b = child1[node];
+        int c = child2[node];
+
+        if(height[b] == 0 && height[c] == 0)
+            return;
+
+        float areaB = area(b);
+        float areaC = area(c);
+        int hb = height[b];
+        int hc = height[c];
+        // Height of node minus one, which must not increase
+        int maxHeight = Math.max(hb, hc);
+
+        int bestX = NULL, bestY = NULL;
+        float bestDelta = 0f;
+
+        if(height[c] > 0) {
+            int f = child1[c];
+            int g = child2[c];
+            int hf = height[f], hg = height[g];
+            // b <-> f: c becomes (b, g)
+            float delta = unionArea(b, g) - areaC;
+            if(delta < bestDelta && isBalancedSwap(hb, hg, hf, maxHeight)) { bestDelta = delta; bestX = b; bestY = f; }
+            // b <-> g: c becomes (b, f)
+            delta = unionArea(b, f) - areaC;
+            if(delta < bestDelta && isBalancedSwap(hb, hf, hg, maxHeight)) { bestDelta = delta; bestX = b; bestY = g; }
+        }
+
+        if(height[b] > 0) {
+            int d = child1[b];
+            int e = child2[b];
+            int hd = height[d], he = height[e];
+            // c <-> d: b becomes (c, e)
+            float delta = unionArea(c, e) - areaB;
+            if(delta < bestDelta && isBalancedSwap(hc, he, hd, maxHeight)) { bestDelta = delta; bestX = c; bestY = d; }
+            // c <-> e: b becomes (c, d)
+            delta = unionArea(c, d) - areaB;
+            if(delta < bestDelta && isBalancedSwap(hc, hd, he, maxHeight)) { bestDelta = delta; bestX = c; bestY = e; }
+
+            if(height[c] > 0) {
+                int f = child1[c];
+                int g = child2[c];
+                int hf = height[f], hg = height[g];
+                // d <-> f: b becomes (f, e), c becomes (d, g)
+                delta = unionArea(f, e) + unionArea(d, g) - areaB - areaC;
+                if(delta < bestDelta && isBalancedSwap(hf, he, hd, hg, maxHeight)) {
+                    bestDelta = delta; bestX = d; bestY = f;
+                }
+                // d <-> g: b becomes (g, e), c becomes (f, d)
+                delta = unionArea(g, e) + unionArea(f, d) - areaB - areaC;
+                if(delta < bestDelta && isBalancedSwap(hg, he, hf, hd, maxHeight)) { bestX = d; bestY = g; }
+            }
+        }
+
+        if(bestX == NULL)
+            return;
+
+        int parentX = parent[bestX];
+        int parentY = parent[bestY];
+        replaceChild(parentX, bestX, bestY);
+        replaceChild(parentY, bestY, bestX);
+
+        // Refit the deeper nodes first
+        if(parentX != node) refit(parentX);
+        if(parentY != node) refit(parentY);
+        refit(node);
+    }
+
+    /**
+     * Whether swapping a child of a node with a grandchild keeps the node balanced and does not increase its height.
+     * The changed child gets the children with the heights {@code h1} and {@code h2}, the other child of the node has
+     * the height {@code other}.
+     * @param maxHeight height of the taller child of the node before the swap
+     */
+    private static boolean isBalancedSwap(int h1, int h2, int other, int maxHeight) {
+        int changed = 1 + Math.max(h1, h2);
+        return Math.abs(h1 - h2) <= 1 && Math.abs(changed - other) <= 1 && Math.max(changed, other) <= maxHeight;
+    }
+
+    /**
+     * Whether swapping two grandchildren keeps the node balanced and does not increase its height. The first child
+     * gets the children with the heights {@code h1} and {@code h2}, the second child {@code h3} and {@code h4}.
+     * @param maxHeight height of the taller child of the node before the swap
+     */
+    private static boolean isBalancedSwap(int h1, int h2, int h3, int h4, int maxHeight) {
+        int first = 1 + Math.max(h1, h2);
+        int second = 1 + Math.max(h3, h4);
+        return Math.abs(h1 - h2) <= 1 && Math.abs(h3 - h4) <= 1 && Math.abs(first - second) <= 1
+                && Math.max(first, second) <= maxHeight;
+    }
+
+    private void replaceChild(int p, int oldChild, int newChild) {
+        if(child1[p] == oldChild) child1[p] = newChild;
+        else child2[p] = newChild;
+        parent[newChild] = p;
+    }
+
+    /* ================================================================================================= *\
+    |                                                                                                     |
+    |                                                Bounds                                               |
+    |                                                                                                     |
+    \* ================================================================================================= */
+
+    private void setFatBounds(int leaf, float x, float y, float z, float radius) {
+        float extent = radius + margin;
+        minX[leaf] = x - extent;
+        minY[leaf] = y - extent;
+        minZ[leaf] = z - extent;
+        maxX[leaf] = x + extent;
+        maxY[leaf] = y + extent;
+        maxZ[leaf] = z + extent;
+    }
+
+    private boolean overlaps(int a, int b) {
+        return minX[a] <= maxX[b] && maxX[a] >= minX[b]
+                && minY[a] <= maxY[b] && maxY[a] >= minY[b]
+                && minZ[a] <= maxZ[b] && maxZ[a] >= minZ[b];
+    }
+
+    private static float area(float dx, float dy, float dz) {
+        return 2f * (dx * dy + dy * dz + dz * dx);
+    }
+
+    private float area(int node) {
+        return area(maxX[node] - minX[node], maxY[node] - minY[node], maxZ[node] - minZ[node]);
+    }
+
+    private float unionArea(int a, int b) {
+        return area(
+                Math.max(maxX[a], maxX[b]) - Math.min(minX[a], minX[b]),
+                Math.max(maxY[a], maxY[b]) - Math.min(minY[a], minY[b]),
+                Math.max(maxZ[a], maxZ[b]) - Math.min(minZ[a], minZ[b])
+        );
+    }
+
+    /* ================================================================================================= *\
+    |                                                                                                     |
+    |                                              Node Pool                                              |
+    |                                                                                                     |
+    \* ================================================================================================= */
+
+    private boolean isLeaf(int node) {
+        return node >= 0 && node < capacity && height[node] == 0;
+    }
+
+    private int allocate() {
+        if(freeList == NULL)
+            grow(capacity * 2);
+
+        int node = freeList;
+        freeList = parent[node];
+        parent[node] = child1[node] = child2[node] = NULL;
+        height[node] = 0;
+        return node;
+    }
+
+    private void free(int node) {
+        parent[node] = freeList;
+        height[node] = -1;
+        data[node] = null;
+        freeList = node;
+    }
+
+    private void grow(int newCapacity) {
+        minX = Arrays.copyOf(minX, newCapacity);
+        minY = Arrays.copyOf(minY, newCapacity);
+        minZ = Arrays.copyOf(minZ, newCapacity);
+        maxX = Arrays.copyOf(maxX, newCapacity);
+        maxY = Arrays.copyOf(maxY, newCapacity);
+        maxZ = Arrays.copyOf(maxZ, newCapacity);
+        parent = Arrays.copyOf(parent, newCapacity);
+        child1 = Arrays.copyOf(child1, newCapacity);
+        child2 = Arrays.copyOf(child2, newCapacity);
+        height = Arrays.copyOf(height, newCapacity);
+        data = Arrays.copyOf(data, newCapacity);
+
+        // Link the new nodes into the free list, lowest index first
+        for (int node = newCapacity - 1; node >= capacity; node--) {
+            parent[node] = freeList;
+            height[node] = -1;
+            freeList = node;
+        }
+
+        capacity = newCapacity;
+    }
 }
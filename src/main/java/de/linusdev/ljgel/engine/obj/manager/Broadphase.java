@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.obj.manager;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Finds pairs of proxies, whose bounds possibly overlap. Each proxy is a sphere, which is bounded by an axis-aligned
+ * box. Implementations are not thread-safe, but the query methods do not modify the broadphase and do not allocate. They
+ * may therefore be called concurrently with each other, as long as the broadphase is not modified at the same time.
+ * @param <D> type of the data stored in each proxy
+ * @see BroadphaseType
+ */
+public interface Broadphase<D> {
+
+    /**
+     * Creates a new proxy for a sphere with given center and {@code radius}.
+     * @return id of the new proxy
+     */
+    int insert(float x, float y, float z, float radius, @NotNull D data);
+
+    /**
+     * Removes given proxy. Its id may be reused by following {@link #insert(float, float, float, float, Object)} calls.
+     */
+    void remove(int proxy);
+
+    /**
+     * Updates the bounds of given proxy.
+     * @return {@code true} if the internal structure had to be changed because of this move.
+     */
+    boolean move(int proxy, float x, float y, float z, float radius);
+
+    @NotNull D getData(int proxy);
+
+    /**
+     * Calls given {@code consumer} once for every pair of proxies, whose bounds possibly overlap. The proxy with the
+     * smaller id is always passed as first argument.
+     */
+    void queryPairs(@NotNull PairConsumer<D> consumer);
+
+    /**
+     * Calls given {@code consumer} once for every proxy, whose bounds possibly overlap given box.
+     */
+    void queryBox(
+            float minX, float minY, float minZ,
+            float maxX, float maxY, float maxZ,
+            @NotNull ProxyConsumer<? super D> consumer
+    );
+
+    /**
+     * Calls given {@code callback} for every proxy, whose bounds are possibly hit by given ray at a distance smaller
+     * than or equal to the current maximum distance. The value returned by the callback becomes the new maximum
+     * distance, which allows clipping the ray at the closest hit found so far.
+     * @param dx x component of the normalized direction of the ray
+     * @param dy y component of the normalized direction of the ray
+     * @param dz z component of the normalized direction of the ray
+     * @param maxDistance initial maximum distance
+     * @return the maximum distance after all callbacks
+     */
+    float rayCast(
+            float x, float y, float z,
+            float dx, float dy, float dz,
+            float maxDistance,
+            @NotNull RayCastCallback<? super D> callback
+    );
+
+    /**
+     * Calls given {@code consumer} once for every proxy, whose bounds are possibly inside given {@code frustum}.
+     */
+    void queryFrustum(@NotNull Frustum frustum, @NotNull ProxyConsumer<? super D> consumer);
+
+    int getProxyCount();
+
+    @FunctionalInterface
+    interface PairConsumer<D> {
+        void accept(@NotNull D a, @NotNull D b);
+    }
+
+    @FunctionalInterface
+    interface ProxyConsumer<D> {
+        void accept(@NotNull D data);
+    }
+
+    @FunctionalInterface
+    interface RayCastCallback<D> {
+        /**
+         * @param maxDistance current maximum distance of the ray
+         * @return new maximum distance. Must be smaller than or equal to {@code maxDistance}.
+         */
+        float hit(@NotNull D data, float maxDistance);
+    }
+}
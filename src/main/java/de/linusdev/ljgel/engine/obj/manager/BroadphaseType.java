@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.obj.manager;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link Broadphase} implementations, which can be chosen per collider group.
+ * @see GameObjectManager#GameObjectManager(int, java.util.function.IntFunction)
+ */
+public enum BroadphaseType {
+    /**
+     * {@link BoundingVolumeSplit}. Suited for objects of very different sizes and sparse scenes.
+     */
+    BOUNDING_VOLUME_HIERARCHY {
+        @Override
+        public <D> @NotNull Broadphase<D> create() {
+            return new BoundingVolumeSplit<>();
+        }
+    },
+    /**
+     * {@link SpatialHashGrid}. Suited for dense scenes of similarly sized objects, like particles or crowds.
+     */
+    SPATIAL_HASH_GRID {
+        @Override
+        public <D> @NotNull Broadphase<D> create() {
+            return new SpatialHashGrid<>();
+        }
+    },
+    ;
+
+    public abstract <D> @NotNull Broadphase<D> create();
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.obj.manager;
+
+import de.linusdev.ljgel.engine.cl.KernelSourceInfo;
+import de.linusdev.ljgel.engine.obj.collider.ColliderStore;
+import de.linusdev.ljgel.nat.cl.CL;
+import de.linusdev.ljgel.nat.cl.CLException;
+import de.linusdev.ljgel.nat.cl.objects.Buffer;
+import de.linusdev.ljgel.nat.cl.objects.CommandQueue;
+import de.linusdev.ljgel.nat.cl.objects.Context;
+import de.linusdev.ljgel.nat.cl.objects.Device;
+import de.linusdev.ljgel.nat.cl.objects.Kernel;
+import de.linusdev.ljgel.nat.cl.objects.Platform;
+import de.linusdev.ljgel.nat.cl.objects.Program;
+import de.linusdev.llog.LLog;
+import de.linusdev.llog.base.LogInstance;
+import de.linusdev.lutils.bitfield.LongBitfieldImpl;
+import de.linusdev.lutils.math.vector.buffer.intn.BBInt1;
+import de.linusdev.lutils.math.vector.buffer.longn.BBLong1;
+import de.linusdev.lutils.nat.struct.utils.BufferUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the candidate pairs of a {@link ColliderStore} on an OpenCL device. The colliders are sorted by their lower x
+ * bound on the host, then uploaded with a single write per tick. The {@code sweep} kernel (see
+ * {@code kernels/collision.cl}) sweeps along the x axis, tests the bounds of the other axes and calculates the rounded
+ * box distance of each overlapping pair. Pairs, whose distance is possibly smaller than or equal to {@code 0}, are
+ * written back as candidates. The distance on the device is calculated with a small tolerance, so the candidates always
+ * contain all pairs, which are colliding according to the {@link ColliderStore#distances(int[], int[], int, int,
+ * float[]) distances} calculated in java.
+ * <br><br>
+ * The sort order of the last tick is reused: if the colliders moved only a little, the insertion sort finishes in
+ * almost linear time. The colliders are {@link #submit(ColliderStore) submitted} without waiting for the device, so
+ * the calling thread can continue working, until the candidates are {@link #collect() collected}.
+ * <br><br>
+ * Works with any OpenCL 1.1 device, including CPU implementations like pocl. This class is not thread-safe. All
+ * methods may throw a {@link CLException}, after which this detector should be {@link #close() closed}.
+ */
+public class CLCollisionDetector implements AutoCloseable {
+
+    private final static @NotNull LogInstance log = LLog.getLogInstance();
+
+    public static final @NotNull String KERNEL_RESOURCE = "kernels/collision.cl";
+    public static final @NotNull String KERNEL_NAME = "sweep";
+
+    /**
+     * Floats before the first section of the uploaded data. The first int contains the count of pairs found.
+     */
+    private static final int HEADER_FLOATS = 4;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int INITIAL_PAIR_CAPACITY = 4096;
+    /**
+     * Maximum count of shifts per collider of the insertion sort, before the colliders are sorted from scratch.
+     */
+    private static final int SORT_SHIFTS_PER_COLLIDER = 4;
+
+    private final @NotNull Device device;
+    private @Nullable Context context;
+    private @Nullable CommandQueue queue;
+    private @Nullable Program program;
+    private @Nullable Kernel kernel;
+
+    private final @NotNull BBInt1 countArg;
+    private final @NotNull BBInt1 strideArg;
+    private final @NotNull BBInt1 maxPairsArg;
+    private final @NotNull BBLong1 globalWorkSize;
+
+    /*
+     * Uploaded colliders, see ColliderStore.pack
+     */
+    private @Nullable Buffer data;
+    private @NotNull ByteBuffer hostData;
+    private @NotNull FloatBuffer hostFloats;
+    private int capacity = 0;
+
+    /*
+     * Candidate pairs as indices into the sorted colliders
+     */
+    private @Nullable Buffer pairs;
+    private @NotNull ByteBuffer hostPairs;
+    private @NotNull IntBuffer hostPairInts;
+    private int pairCapacity = 0;
+    private final @NotNull ByteBuffer hostPairCount;
+
+    /**
+     * Store index of each sorted collider.
+     */
+    private int @NotNull [] order = new int[0];
+    private float @NotNull [] orderMinX = new float[0];
+    private long @NotNull [] sortKeys = new long[0];
+    private int count = 0;
+    private int stride = 0;
+    private int pairCount = 0;
+    private boolean submitted = false;
+
+    /**
+     * Creates a detector on the first GPU found. If there is no GPU, a CPU device is used.
+     * @return {@code null} if there is no OpenCL device or the kernel cannot be built on it.
+     */
+    public static @Nullable CLCollisionDetector create() {
+        try {
+            Device device = findDevice();
+            if(device == null) {
+                log.debug("No OpenCL device found, collisions are detected in java.");
+                return null;
+            }
+
+            return new CLCollisionDetector(device);
+        } catch (Throwable t) {
+            // Also catches the UnsatisfiedLinkError, if the native library is not loaded
+            log.warning("OpenCL collision detection is not available, collisions are detected in java.");
+            log.throwable(t);
+            return null;
+        }
+    }
+
+    private static @Nullable Device findDevice() {
+        CL.DeviceType[] types = {CL.DeviceType.CL_DEVICE_TYPE_GPU, CL.DeviceType.CL_DEVICE_TYPE_CPU, CL.DeviceType.CL_DEVICE_TYPE_ALL};
+
+        for (CL.DeviceType type : types) {
+            for (Platform platform : Platform.getPlatforms()) {
+                try {
+                    List<Device> devices = platform.getDevices(type);
+                    if(!devices.isEmpty())
+                        return devices.get(0);
+                } catch (CLException ignored) {
+                    // The platform has no device of this type
+                }
+            }
+        }
+
+        return null;
+    }
+
+    public CLCollisionDetector(@NotNull Device device) throws IOException {
+        this.device = device;
+        this.countArg = BBInt1.newAllocated(null);
+        this.strideArg = BBInt1.newAllocated(null);
+        this.maxPairsArg = BBInt1.newAllocated(null);
+        this.globalWorkSize = BBLong1.newAllocated(null);
+        this.hostPairCount = ByteBuffer.allocateDirect(Integer.BYTES).order(ByteOrder.nativeOrder());
+        this.hostData = ByteBuffer.allocateDirect(0);
+        this.hostFloats = hostData.asFloatBuffer();
+        this.hostPairs = ByteBuffer.allocateDirect(0);
+        this.hostPairInts = hostPairs.asIntBuffer();
+
+        try {
+            context = new Context(null, (info, privateInfo) -> log.warning("OpenCL context error: " + info), device);
+            queue = new CommandQueue(context, device);
+            program = new Program(context, KernelSourceInfo.ofUTF8StringResource(
+                    CLCollisionDetector.class, KERNEL_RESOURCE, KERNEL_NAME).getSourceString());
+
+            try {
+                program.build("", false, device);
+            } catch (CLException e) {
+                log.warning("Could not build " + KERNEL_RESOURCE + ":\n" + program.getBuildLog(device));
+                throw e;
+            }
+
+            kernel = new Kernel(program, KERNEL_NAME);
+            ensureCapacity(INITIAL_CAPACITY);
+            ensurePairCapacity(INITIAL_PAIR_CAPACITY);
+        } catch (Throwable t) {
+            close();
+            throw t;
+        }
+
+        log.debug("Collisions are detected on OpenCL device " + device.getName() + ".");
+    }
+
+    /**
+     * Sorts and uploads the colliders of given {@code store} and starts the sweep. Does not wait for the device.
+     * {@link #collect()} must be called before the next call of this method. The store must not change, until
+     * {@link #collect()} returned.
+     */
+    public void submit(@NotNull ColliderStore store) {
+        assert !submitted : "collect() was not called.";
+        assert queue != null && data != null;
+
+        sort(store);
+        stride = (count + 3) & ~3; // align sections to 16 bytes
+        ensureCapacity(stride);
+
+        hostData.putInt(0, 0);
+        store.pack(order, count, hostFloats, HEADER_FLOATS, stride);
+
+        // hostData must not change, until the write finished. This is the case after collect() returned.
+        CL.clEnqueueWriteBuffer(
+                queue.getPointer(), data.get(), false, 0L, dataBytes(stride),
+                BufferUtils.getHeapAddress(hostData), null, null
+        );
+        enqueueSweep();
+        readPairCount(false);
+        queue.flush();
+
+        submitted = true;
+    }
+
+    /**
+     * Waits for the device and reads the candidate pairs found by the last {@link #submit(ColliderStore) submit}. The
+     * pairs can then be accessed using {@link #getA(int)} and {@link #getB(int)}.
+     * @return count of candidate pairs
+     */
+    public int collect() {
+        assert submitted : "submit() was not called.";
+        assert queue != null && data != null && pairs != null;
+        submitted = false;
+
+        queue.finish();
+        int found = hostPairCount.getInt(0);
+
+        if(found > pairCapacity) {
+            // Not all pairs fit into the buffer: sweep again with enough space
+            ensurePairCapacity(found);
+            hostPairCount.putInt(0, 0);
+            CL.clEnqueueWriteBuffer(
+                    queue.getPointer(), data.get(), false, 0L, Integer.BYTES,
+                    BufferUtils.getHeapAddress(hostPairCount), null, null
+            );
+            enqueueSweep();
+            readPairCount(true);
+            found = hostPairCount.getInt(0);
+        }
+
+        if(found > 0) {
+            CL.clEnqueueReadBuffer(
+                    queue.getPointer(), pairs.get(), true, 0L, (long) found * 2 * Integer.BYTES,
+                    BufferUtils.getHeapAddress(hostPairs), null, null
+            );
+        }
+
+        pairCount = found;
+        return found;
+    }
+
+    /**
+     * Store index of the first collider of the {@code i}-th candidate pair.
+     */
+    public int getA(int i) {
+        assert i < pairCount;
+        return order[hostPairInts.get(i * 2)];
+    }
+
+    /**
+     * Store index of the second collider of the {@code i}-th candidate pair.
+     */
+    public int getB(int i) {
+        assert i < pairCount;
+        return order[hostPairInts.get(i * 2 + 1)];
+    }
+
+    public @NotNull Device getDevice() {
+        return device;
+    }
+
+    private void enqueueSweep() {
+        assert queue != null && kernel != null && data != null && pairs != null;
+        if(count == 0)
+            return;
+
+        countArg.set(count);
+        strideArg.set(stride);
+        maxPairsArg.set(pairCapacity);
+        globalWorkSize.set(count);
+
+        kernel.setKernelArg(0, data);
+        kernel.setKernelArg(1, countArg);
+        kernel.setKernelArg(2, strideArg);
+        kernel.setKernelArg(3, pairs);
+        kernel.setKernelArg(4, maxPairsArg);
+
+        queue.enqueueNDRangeKernel(kernel, 1, null, globalWorkSize, null, null, null);
+    }
+
+    private void readPairCount(boolean blocking) {
+        assert queue != null && data != null;
+        // No event is requested, the queue is in-order and finished in collect()
+        CL.clEnqueueReadBuffer(
+                queue.getPointer(), data.get(), blocking, 0L, Integer.BYTES,
+                BufferUtils.getHeapAddress(hostPairCount), null, null
+        );
+    }
+
+    /**
+     * Updates {@link #order}, so that the colliders are sorted by {@link ColliderStore#minX(int)}.
+     */
+    private void sort(@NotNull ColliderStore store) {
+        int size = store.size();
+
+        if(size != count) {
+            // Colliders were added or removed, the previous order is no longer a permutation of the store
+            count = size;
+            if(order.length < size) {
+                int length = Math.max(size, order.length * 2);
+                order = new int[length];
+                orderMinX = new float[length];
+                sortKeys = new long[length];
+            }
+            sortFromScratch(store);
+            return;
+        }
+
+        for (int i = 0; i < count; i++)
+            orderMinX[i] = store.minX(order[i]);
+
+        int budget = count * SORT_SHIFTS_PER_COLLIDER;
+        for (int i = 1; i < count; i++) {
+            int index = order[i];
+            float minX = orderMinX[i];
+            int j = i - 1;
+
+            while (j >= 0 && orderMinX[j] > minX) {
+                order[j + 1] = order[j];
+                orderMinX[j + 1] = orderMinX[j];
+                j--;
+                if(--budget < 0) {
+                    // Too much movement since the last tick
+                    sortFromScratch(store);
+                    return;
+                }
+            }
+
+            order[j + 1] = index;
+            orderMinX[j + 1] = minX;
+        }
+    }
+
+    private void sortFromScratch(@NotNull ColliderStore store) {
+        for (int i = 0; i < count; i++) {
+            // Flip the bits of negative floats, so that the signed int order matches the float order
+            int bits = Float.floatToRawIntBits(store.minX(i));
+            bits ^= (bits >> 31) & 0x7FFFFFFF;
+            sortKeys[i] = ((long) bits << 32) | i;
+        }
+
+        Arrays.sort(sortKeys, 0, count);
+
+        for (int i = 0; i < count; i++)
+            order[i] = (int) sortKeys[i];
+    }
+
+    private static long dataBytes(int stride) {
+        return (HEADER_FLOATS + (long) ColliderStore.PACKED_SECTIONS * stride) * Float.BYTES;
+    }
+
+    private void ensureCapacity(int required) {
+        if(required <= capacity)
+            return;
+        assert context != null;
+
+        int newCapacity = Math.max(required, capacity * 2);
+        Buffer newData = new Buffer(context, new LongBitfieldImpl<>(CL.CLMemFlag.CL_MEM_READ_WRITE), dataBytes(newCapacity));
+        if(data != null)
+            data.close();
+        data = newData;
+
+        hostData = ByteBuffer.allocateDirect((int) dataBytes(newCapacity)).order(ByteOrder.nativeOrder());
+        hostFloats = hostData.asFloatBuffer();
+        capacity = newCapacity;
+    }
+
+    private void ensurePairCapacity(int required) {
+        if(required <= pairCapacity)
+            return;
+        assert context != null;
+
+        int newCapacity = Math.max(required, pairCapacity * 2);
+        long bytes = (long) newCapacity * 2 * Integer.BYTES;
+        Buffer newPairs = new Buffer(context, new LongBitfieldImpl<>(CL.CLMemFlag.CL_MEM_WRITE_ONLY), bytes);
+        if(pairs != null)
+            pairs.close();
+        pairs = newPairs;
+
+        hostPairs = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+        hostPairInts = hostPairs.asIntBuffer();
+        pairCapacity = newCapacity;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if(queue != null && submitted) {
+                // Wait for the device to stop reading the host buffers
+                submitted = false;
+                queue.finish();
+            }
+        } finally {
+            release();
+        }
+    }
+
+    private void release() {
+        if(kernel != null) kernel.close();
+        if(program != null) program.close();
+        if(data != null) data.close();
+        if(pairs != null) pairs.close();
+        if(queue != null) queue.close();
+        if(context != null) context.close();
+
+        kernel = null;
+        program = null;
+        data = null;
+        pairs = null;
+        queue = null;
+        context = null;
+    }
+}
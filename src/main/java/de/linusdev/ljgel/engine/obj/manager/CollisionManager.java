@@ -17,40 +17,716 @@
 package de.linusdev.ljgel.engine.obj.manager;
 
 import de.linusdev.ljgel.engine.obj.GameObject;
+import de.linusdev.ljgel.engine.obj.collider.AlignedBoxCollider;
+import de.linusdev.ljgel.engine.obj.collider.Collider;
+import de.linusdev.ljgel.engine.obj.collider.ColliderStore;
+import de.linusdev.ljgel.engine.obj.collider.SphereCollider;
 import de.linusdev.ljgel.engine.ticker.Tickable;
 import de.linusdev.ljgel.engine.ticker.Ticker;
+import de.linusdev.llog.LLog;
+import de.linusdev.llog.base.LogInstance;
+import de.linusdev.lutils.math.vector.abstracts.floatn.Float3;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RecursiveAction;
 
+/**
+ * Detects collisions between the {@link GameObject game objects} of a single collider group. Candidate pairs are found
+ * using a {@link Broadphase} of given {@link BroadphaseType}. The distances of the candidates are calculated in batches
+ * by a {@link ColliderStore}. Candidates with a collider, which the store cannot represent exactly, are then pruned
+ * using {@link Collider#bestEffortDistanceTo(Collider)}, before the
+ * {@link Collider#exactDistanceTo(Collider) exact distance} is calculated. If the distance is smaller than or equal to
+ * {@code 0}, {@link GameObject#onCollision(GameObject)} is called on both objects.
+ * <br><br>
+ * The candidates are split into partitions of {@link #NARROW_PHASE_PARTITION_SIZE}, which are processed on the
+ * {@link Ticker#getTickPool() tick pool}. The contacts found are then sorted by the ids of the objects and the
+ * collision callbacks are called on the thread calling {@link #tick(Ticker)} in that order. The order of the callbacks
+ * therefore does not depend on the thread scheduling.
+ * <br><br>
+ * The result of each tested pair is cached by the ids of both objects. Each object accumulates its travel: an upper
+ * bound of the distance its surface moved. A separated pair is not tested again, as long as the travel of both objects
+ * since the last test is smaller than the distance at that test. A colliding pair is not tested again, as long as both
+ * objects did not move at all. Objects, which did not move for {@link #SLEEP_TICKS} ticks, are sleeping: their
+ * bounds in the broadphase are no longer updated, until they move again. Pairs are only cached, if both colliders are
+ * {@link ColliderStore#isExact(int) stored exactly}.
+ * <br><br>
+ * If a {@link #setDeviceDetector(CLCollisionDetector) device detector} is set and there are at least
+ * {@link #DEVICE_MIN_OBJECTS} objects, the candidate pairs are found on an OpenCL device instead of the broadphase. The
+ * broadphase is updated, while the device is working. The candidates are then processed by the same narrowphase, so
+ * the contacts are the same as without the device. If the device fails, the detector is closed and collisions are
+ * detected in java again.
+ * <br><br>
+ * Objects can be added and removed from any thread. These changes are applied at the start of the next tick.
+ * <br><br>
+ * The spatial queries (overlap queries, ray casts and frustum queries) use the broadphase and the colliders stored
+ * during the last tick. They do not modify the collision manager and do not allocate, but must not run while the
+ * collision manager {@link #tick(Ticker) ticks}. They may for example be called concurrently by game objects during
+ * their tick. To cull objects for rendering, the visible objects should be queried during the tick and handed to the
+ * render thread.
+ */
 public class CollisionManager<T extends GameObject<T>> implements Tickable {
 
+    private final static @NotNull LogInstance log = LLog.getLogInstance();
+
+    /**
+     * Count of candidate pairs processed by a single task of the {@link Ticker#getTickPool() tick pool}. If there are
+     * fewer candidates, the narrowphase runs on the calling thread.
+     */
+    public static final int NARROW_PHASE_PARTITION_SIZE = 1024;
+
+    /**
+     * Count of consecutive ticks without movement, after which an object is sleeping.
+     */
+    public static final int SLEEP_TICKS = 30;
+
+    /**
+     * Tolerance for rounding errors, when comparing the travel of two objects with the distance of their last test.
+     */
+    private static final float TRAVEL_TOLERANCE = 1e-4f;
+
+    /**
+     * Minimum count of objects, for which the {@link #setDeviceDetector(CLCollisionDetector) device detector} is used.
+     * For fewer objects, the overhead of the upload is larger than the gain.
+     */
+    public static final int DEVICE_MIN_OBJECTS = 4096;
+
+    private static final int NO_PROXY = -1;
+
     private final @NotNull ConcurrentMap<Integer, GameObjectInfo<T>> gameObjects;
+    private final @NotNull Queue<GameObjectInfo<T>> added = new ConcurrentLinkedQueue<>();
+    private final @NotNull Queue<GameObjectInfo<T>> removed = new ConcurrentLinkedQueue<>();
+
+    /*
+     * Only accessed by the thread calling tick
+     */
+    private final @NotNull Broadphase<GameObjectInfo<T>> broadphase;
+    private final @NotNull ArrayList<GameObjectInfo<T>> active = new ArrayList<>();
+    /**
+     * Collider of each object in {@link #active} at the same index.
+     */
+    private final @NotNull ColliderStore colliders = new ColliderStore();
+    private final @NotNull Broadphase.PairConsumer<GameObjectInfo<T>> addCandidate = this::addCandidate;
+    private volatile @Nullable CLCollisionDetector deviceDetector = null;
+
+    /*
+     * Candidate pairs found by the broadphase as indices into active
+     */
+    private int @NotNull [] candidateA = new int[64];
+    private int @NotNull [] candidateB = new int[64];
+    private float @NotNull [] candidateDistance = new float[64];
+    private int candidateCount = 0;
+    private int skippedCount = 0;
+
+    /**
+     * Contacts found in each partition of the candidates. Each buffer is only written by the thread processing its
+     * partition.
+     */
+    private @NotNull ContactBuffer @NotNull [] partitionContacts = new ContactBuffer[0];
+    /**
+     * Contacts of pairs, which were not tested again.
+     */
+    private final @NotNull ContactBuffer cachedContacts = new ContactBuffer();
+    private final @NotNull ContactBuffer contacts = new ContactBuffer();
+
+    /**
+     * Results of the pairs of the previous and of the current tick.
+     */
+    private @NotNull PairCache previousPairs = new PairCache();
+    private @NotNull PairCache currentPairs = new PairCache();
+
+    private volatile int testedPairs = 0;
+    private volatile int skippedPairs = 0;
+    private volatile int sleepingObjects = 0;
+    private volatile boolean detectedOnDevice = false;
 
     public CollisionManager() {
+        this(BroadphaseType.BOUNDING_VOLUME_HIERARCHY);
+    }
+
+    public CollisionManager(@NotNull BroadphaseType broadphaseType) {
         this.gameObjects = new ConcurrentHashMap<>();
+        this.broadphase = broadphaseType.create();
     }
 
-    public void addGameObject(@NotNull GameObject<T> gameObject) {
+    public void addGameObject(int id, @NotNull GameObject<T> gameObject) {
         assert gameObject.getCollider() != null;
+        GameObjectInfo<T> info = new GameObjectInfo<>(id, gameObject);
+        gameObjects.put(id, info);
+        added.offer(info);
     }
 
     public void removeGameObject(int id) {
+        GameObjectInfo<T> info = gameObjects.remove(id);
+        if(info != null)
+            removed.offer(info);
+    }
+
+    /**
+     * Sets the detector used to find the candidate pairs on an OpenCL device, if there are at least
+     * {@link #DEVICE_MIN_OBJECTS} objects. The detector is closed by this collision manager, if it fails.
+     * @param detector detector or {@code null} to find all candidates using the broadphase
+     * @see CLCollisionDetector#create()
+     */
+    public void setDeviceDetector(@Nullable CLCollisionDetector detector) {
+        this.deviceDetector = detector;
+    }
 
+    public @Nullable CLCollisionDetector getDeviceDetector() {
+        return deviceDetector;
     }
 
     @Override
     public void tick(@NotNull Ticker ticker) {
-            //TODO: use a hierarchy volume
+        applyChanges();
+
+        int sleeping = 0;
+        for (GameObjectInfo<T> info : active) {
+            float motion = colliders.set(info.index, info.collider);
+
+            if(motion > 0f || !colliders.isExact(info.index)) {
+                info.travel += motion;
+                info.stillTicks = 0;
+                info.sleeping = false;
+            } else if(info.stillTicks >= SLEEP_TICKS) {
+                sleeping++;
+                info.sleeping = true;
+            } else {
+                info.stillTicks++;
+                info.sleeping = false;
+            }
+        }
+
+        // The device works, while the broadphase is updated
+        CLCollisionDetector detector = deviceDetector;
+        if(detector != null && (active.size() < DEVICE_MIN_OBJECTS || !submit(detector)))
+            detector = null;
+
+        for (GameObjectInfo<T> info : active) {
+            if(info.sleeping)
+                continue;
+
+            Collider collider = info.collider;
+            Float3 center = collider.getCenter();
+            broadphase.move(info.proxy, center.x(), center.y(), center.z(), collider.getDiagonal() / 2f);
+        }
+
+        PairCache tmp = previousPairs;
+        previousPairs = currentPairs;
+        currentPairs = tmp;
+        currentPairs.clear();
+
+        candidateCount = 0;
+        skippedCount = 0;
+        cachedContacts.clear();
+        // Only results of a successful collect are used, otherwise the broadphase finds the candidates
+        boolean onDevice = detector != null && collect(detector);
+        if(!onDevice)
+            broadphase.queryPairs(addCandidate);
+
+        narrowPhase(ticker);
+        cacheResults();
+        dispatch();
+
+        testedPairs = candidateCount;
+        skippedPairs = skippedCount;
+        sleepingObjects = sleeping;
+        detectedOnDevice = onDevice;
+    }
+
+    /**
+     * @return {@code false} if the device failed
+     */
+    private boolean submit(@NotNull CLCollisionDetector detector) {
+        try {
+            detector.submit(colliders);
+            return true;
+        } catch (Throwable t) {
+            deviceFailed(detector, t);
+            return false;
+        }
+    }
+
+    /**
+     * Adds the candidates found by the device. The device tests all pairs, so the cached results are not used.
+     * @return {@code false} if the device failed
+     */
+    private boolean collect(@NotNull CLCollisionDetector detector) {
+        int count;
+        try {
+            count = detector.collect();
+        } catch (Throwable t) {
+            deviceFailed(detector, t);
+            return false;
+        }
+
+        if(candidateA.length < count) {
+            int capacity = Math.max(count, candidateA.length * 2);
+            candidateA = Arrays.copyOf(candidateA, capacity);
+            candidateB = Arrays.copyOf(candidateB, capacity);
+            candidateDistance = Arrays.copyOf(candidateDistance, capacity);
+        }
+
+        for (int i = 0; i < count; i++) {
+            candidateA[i] = detector.getA(i);
+            candidateB[i] = detector.getB(i);
+        }
+        candidateCount = count;
+        return true;
+    }
+
+    private void deviceFailed(@NotNull CLCollisionDetector detector, @NotNull Throwable t) {
+        log.warning("OpenCL collision detection failed, collisions are detected in java from now on.");
+        log.throwable(t);
+        deviceDetector = null;
+
+        try {
+            detector.close();
+        } catch (Throwable closeError) {
+            log.throwable(closeError);
+        }
+    }
+
+    private void applyChanges() {
+        GameObjectInfo<T> info;
+
+        while ((info = removed.poll()) != null) {
+            info.removed = true;
+            if(info.proxy == NO_PROXY)
+                continue;
+
+            broadphase.remove(info.proxy);
+            info.proxy = NO_PROXY;
+
+            // swap remove
+            colliders.remove(info.index);
+            GameObjectInfo<T> last = active.remove(active.size() - 1);
+            if(last != info) {
+                active.set(info.index, last);
+                last.index = info.index;
+            }
+        }
+
+        while ((info = added.poll()) != null) {
+            if(info.removed)
+                continue;
+
+            Float3 center = info.collider.getCenter();
+            info.proxy = broadphase.insert(center.x(), center.y(), center.z(), info.collider.getDiagonal() / 2f, info);
+            info.index = colliders.add();
+            colliders.set(info.index, info.collider);
+            active.add(info);
+        }
+    }
+
+    private void addCandidate(@NotNull GameObjectInfo<T> a, @NotNull GameObjectInfo<T> b) {
+        if(colliders.isExact(a.index) && colliders.isExact(b.index)) {
+            long key = ContactBuffer.key(a.id, b.id);
+            int slot = previousPairs.find(key);
+
+            if(slot != PairCache.NOT_FOUND) {
+                float distance = previousPairs.getDistance(slot);
+                double travel = previousPairs.getTravel(slot);
+                double travelSinceTest = a.travel + b.travel - travel;
+
+                if(distance > 0f ? travelSinceTest + TRAVEL_TOLERANCE < distance : travelSinceTest == 0d) {
+                    // The result of the last test is still valid
+                    currentPairs.put(key, distance, travel);
+                    if(distance <= 0f)
+                        cachedContacts.add(key, a.index, b.index);
+                    skippedCount++;
+                    return;
+                }
+            }
+        }
+
+        if(candidateCount == candidateA.length) {
+            int capacity = candidateCount * 2;
+            candidateA = Arrays.copyOf(candidateA, capacity);
+            candidateB = Arrays.copyOf(candidateB, capacity);
+            candidateDistance = Arrays.copyOf(candidateDistance, capacity);
+        }
+
+        candidateA[candidateCount] = a.index;
+        candidateB[candidateCount] = b.index;
+        candidateCount++;
+    }
+
+    /**
+     * Calculates the distances of all candidates and collects the colliding pairs into {@link #partitionContacts}.
+     */
+    private void narrowPhase(@NotNull Ticker ticker) {
+        int partitions = (candidateCount + NARROW_PHASE_PARTITION_SIZE - 1) / NARROW_PHASE_PARTITION_SIZE;
+        if(partitionContacts.length < partitions) {
+            int oldLength = partitionContacts.length;
+            partitionContacts = Arrays.copyOf(partitionContacts, Math.max(partitions, oldLength * 2));
+            for (int i = oldLength; i < partitionContacts.length; i++)
+                partitionContacts[i] = new ContactBuffer();
+        }
+
+        colliders.prepareDistances(candidateCount);
+
+        if(partitions <= 1) {
+            if(partitions == 1) narrowPhase(0);
+        } else {
+            ticker.getTickPool().invoke(new NarrowPhasePartition(0, partitions));
+        }
+
+        // Merge the contacts of all partitions and order them by the ids of the objects
+        contacts.clear();
+        contacts.addAll(cachedContacts);
+        for (int i = 0; i < partitions; i++)
+            contacts.addAll(partitionContacts[i]);
+        contacts.sort();
+    }
+
+    /**
+     * Stores the results of all tested candidates in {@link #currentPairs}.
+     */
+    private void cacheResults() {
+        for (int i = 0; i < candidateCount; i++) {
+            GameObjectInfo<T> a = active.get(candidateA[i]);
+            GameObjectInfo<T> b = active.get(candidateB[i]);
+            if(colliders.isExact(a.index) && colliders.isExact(b.index))
+                currentPairs.put(ContactBuffer.key(a.id, b.id), candidateDistance[i], a.travel + b.travel);
+        }
+    }
+
+    private void narrowPhase(int partition) {
+        ContactBuffer buffer = partitionContacts[partition];
+        int from = partition * NARROW_PHASE_PARTITION_SIZE;
+        int to = Math.min(from + NARROW_PHASE_PARTITION_SIZE, candidateCount);
+
+        buffer.clear();
+        colliders.distances(candidateA, candidateB, from, to, candidateDistance);
+
+        for (int i = from; i < to; i++) {
+            // Stored bounding spheres are never farther away than the actual colliders
+            if(candidateDistance[i] > 0f)
+                continue;
+
+            GameObjectInfo<T> a = active.get(candidateA[i]);
+            GameObjectInfo<T> b = active.get(candidateB[i]);
+
+            if(!colliders.isExact(a.index) || !colliders.isExact(b.index)) {
+                float distance = a.collider.bestEffortDistanceTo(b.collider);
+                if(distance <= 0f)
+                    distance = a.collider.exactDistanceTo(b.collider);
+                candidateDistance[i] = distance;
+                if(distance > 0f)
+                    continue;
+            }
+
+            buffer.add(ContactBuffer.key(a.id, b.id), a.index, b.index);
+        }
+    }
+
+    /**
+     * Calls {@link GameObject#onCollision(GameObject)} for all contacts on the calling thread. Contacts are ordered by
+     * the smaller object id first and the larger id second. The object with the smaller id is called first.
+     */
+    private void dispatch() {
+        for (int i = 0; i < contacts.size(); i++) {
+            GameObjectInfo<T> a = active.get(contacts.getA(i));
+            GameObjectInfo<T> b = active.get(contacts.getB(i));
+
+            if(b.id < a.id) {
+                GameObjectInfo<T> tmp = a;
+                a = b;
+                b = tmp;
+            }
+
+            a.gameObject.onCollision(b.gameObject);
+            b.gameObject.onCollision(a.gameObject);
+        }
+    }
+
+    /* ================================================================================================= *\
+    |                                                                                                     |
+    |                                           Spatial Queries                                           |
+    |                                                                                                     |
+    \* ================================================================================================= */
+
+    /**
+     * Adds all objects, whose collider overlaps given {@code shape}, to given {@code buffer}. If {@code shape} is the
+     * collider of an object of this collision manager, that object is found as well.
+     */
+    public void queryOverlap(@NotNull SphereCollider shape, @NotNull SpatialQueryBuffer<T> buffer) {
+        Float3 center = shape.getCenter();
+        queryOverlap(shape, center.x(), center.y(), center.z(), 0f, 0f, 0f, shape.getRadius().get(), buffer);
+    }
+
+    /**
+     * Adds all objects, whose collider overlaps given {@code shape}, to given {@code buffer}. If {@code shape} is the
+     * collider of an object of this collision manager, that object is found as well.
+     */
+    public void queryOverlap(@NotNull AlignedBoxCollider shape, @NotNull SpatialQueryBuffer<T> buffer) {
+        Float3 center = shape.getCenter();
+        Float3 size = shape.getSize();
+        queryOverlap(shape, center.x(), center.y(), center.z(), size.x(), size.y(), size.z(), 0f, buffer);
+    }
+
+    private void queryOverlap(
+            @NotNull Collider shape,
+            float x, float y, float z,
+            float extentX, float extentY, float extentZ,
+            float radius,
+            @NotNull SpatialQueryBuffer<T> buffer
+    ) {
+        SpatialQuery query = start(SpatialQuery.OVERLAP, buffer);
+        query.shape = shape;
+        query.x = x; query.y = y; query.z = z;
+        query.extentX = extentX; query.extentY = extentY; query.extentZ = extentZ;
+        query.radius = radius;
+
+        broadphase.queryBox(
+                x - extentX - radius, y - extentY - radius, z - extentZ - radius,
+                x + extentX + radius, y + extentY + radius, z + extentZ + radius,
+                query
+        );
+        query.reset();
+    }
+
+    /**
+     * Adds all objects, whose collider is possibly inside given {@code frustum}, to given {@code buffer}. The test is
+     * conservative, see {@link Frustum#intersectsBox(float, float, float, float, float, float)}.
+     */
+    public void queryFrustum(@NotNull Frustum frustum, @NotNull SpatialQueryBuffer<T> buffer) {
+        SpatialQuery query = start(SpatialQuery.FRUSTUM, buffer);
+        query.frustum = frustum;
+        broadphase.queryFrustum(frustum, query);
+        query.reset();
+    }
+
+    /**
+     * Adds all objects hit by given ray to given {@code buffer}, sorted by the distance of the hit. Colliders, which
+     * are not {@link ColliderStore#isExact(int) stored exactly}, are hit at their bounding sphere.
+     * @param dx x component of the direction of the ray. Does not need to be normalized.
+     * @param dy y component of the direction of the ray
+     * @param dz z component of the direction of the ray
+     * @param maxDistance maximum distance of a hit from the origin of the ray
+     */
+    public void rayCastAll(
+            float x, float y, float z,
+            float dx, float dy, float dz,
+            float maxDistance,
+            @NotNull SpatialQueryBuffer<T> buffer
+    ) {
+        int from = buffer.size();
+        SpatialQuery query = startRayCast(SpatialQuery.RAY_CAST_ALL, x, y, z, dx, dy, dz, buffer);
+        broadphase.rayCast(x, y, z, query.dx, query.dy, query.dz, maxDistance, query);
+        query.reset();
+        buffer.sortByDistance(from);
+    }
+
+    /**
+     * Finds the object, which is hit first by given ray. Colliders, which are not
+     * {@link ColliderStore#isExact(int) stored exactly}, are hit at their bounding sphere.
+     * <br><br>
+     * If a hit is found, given {@code buffer} is cleared and the hit is added. Otherwise, the buffer is not changed.
+     * This allows searching the closest hit of multiple collision managers, by passing the distance of the closest hit
+     * so far as {@code maxDistance}.
+     * @param dx x component of the direction of the ray. Does not need to be normalized.
+     * @param dy y component of the direction of the ray
+     * @param dz z component of the direction of the ray
+     * @param maxDistance maximum distance of a hit from the origin of the ray
+     * @return {@code true} if a hit was found
+     */
+    public boolean rayCastClosest(
+            float x, float y, float z,
+            float dx, float dy, float dz,
+            float maxDistance,
+            @NotNull SpatialQueryBuffer<T> buffer
+    ) {
+        SpatialQuery query = startRayCast(SpatialQuery.RAY_CAST_CLOSEST, x, y, z, dx, dy, dz, buffer);
+        broadphase.rayCast(x, y, z, query.dx, query.dy, query.dz, maxDistance, query);
+
+        GameObject<?> closest = query.closest;
+        float distance = query.closestDistance;
+        query.reset();
+
+        if(closest == null)
+            return false;
+
+        buffer.clear();
+        buffer.add(closest, distance);
+        return true;
+    }
+
+    private @NotNull SpatialQuery start(int type, @NotNull SpatialQueryBuffer<T> buffer) {
+        SpatialQuery query = buffer.query;
+        assert query.manager == null : "The buffer is already used by another query.";
+        query.manager = this;
+        query.type = type;
+        return query;
+    }
+
+    private @NotNull SpatialQuery startRayCast(
+            int type,
+            float x, float y, float z,
+            float dx, float dy, float dz,
+            @NotNull SpatialQueryBuffer<T> buffer
+    ) {
+        float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if(length == 0f)
+            throw new IllegalArgumentException("The direction of a ray must not be zero.");
+
+        SpatialQuery query = start(type, buffer);
+        query.x = x; query.y = y; query.z = z;
+        query.dx = dx / length; query.dy = dy / length; query.dz = dz / length;
+        return query;
+    }
+
+    /**
+     * Exact test of an object found by an overlap or frustum query.
+     */
+    @SuppressWarnings("unchecked")
+    void test(@NotNull SpatialQuery query, @NotNull Object data) {
+        GameObjectInfo<T> info = (GameObjectInfo<T>) data;
+        int index = info.index;
+
+        if(query.type == SpatialQuery.FRUSTUM) {
+            assert query.frustum != null;
+            float[] planes = query.frustum.planes;
+            for (int p = 0; p < planes.length; p += 4) {
+                if(colliders.planeDistance(index, planes[p], planes[p + 1], planes[p + 2], planes[p + 3]) < 0f)
+                    return;
+            }
+            query.buffer.add(info.gameObject, 0f);
+            return;
+        }
+
+        float distance = colliders.distance(
+                index, query.x, query.y, query.z, query.extentX, query.extentY, query.extentZ, query.radius
+        );
+        if(distance > 0f)
+            return;
+
+        if(!colliders.isExact(index)) {
+            // The stored bounding sphere only gives a lower bound of the distance
+            assert query.shape != null;
+            distance = query.shape.exactDistanceTo(info.collider);
+            if(distance > 0f)
+                return;
+        }
+
+        query.buffer.add(info.gameObject, distance);
+    }
+
+    /**
+     * Exact test of an object found by a ray cast.
+     */
+    @SuppressWarnings("unchecked")
+    float testRay(@NotNull SpatialQuery query, @NotNull Object data, float maxDistance) {
+        GameObjectInfo<T> info = (GameObjectInfo<T>) data;
+        float distance = colliders.rayDistance(
+                info.index, query.x, query.y, query.z, query.dx, query.dy, query.dz, maxDistance
+        );
+
+        if(distance == Float.POSITIVE_INFINITY)
+            return maxDistance;
+
+        if(query.type == SpatialQuery.RAY_CAST_ALL) {
+            query.buffer.add(info.gameObject, distance);
+            return maxDistance;
+        }
+
+        // Clip the ray at the closest hit
+        query.closest = info.gameObject;
+        query.closestDistance = distance;
+        return distance;
+    }
+
+    /**
+     * Count of objects currently contained in the broadphase.
+     */
+    public int getObjectCount() {
+        return broadphase.getProxyCount();
+    }
+
+    /**
+     * Count of candidate pairs, whose distance was calculated in the last tick.
+     */
+    public int getTestedPairCount() {
+        return testedPairs;
+    }
+
+    /**
+     * Count of candidate pairs, which were not tested in the last tick, because their cached result was still valid.
+     */
+    public int getSkippedPairCount() {
+        return skippedPairs;
+    }
+
+    /**
+     * Count of objects, which were sleeping in the last tick.
+     */
+    public int getSleepingObjectCount() {
+        return sleepingObjects;
+    }
+
+    /**
+     * Whether the candidate pairs of the last tick were found by the
+     * {@link #setDeviceDetector(CLCollisionDetector) device detector}.
+     */
+    public boolean isDetectedOnDevice() {
+        return detectedOnDevice;
     }
 
+    /**
+     * Splits a range of partitions in halves, until a single partition remains.
+     */
+    private class NarrowPhasePartition extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+
+        private NarrowPhasePartition(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from == 1) {
+                narrowPhase(from);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new NarrowPhasePartition(from, mid), new NarrowPhasePartition(mid, to));
+        }
+    }
 
     private static class GameObjectInfo<T extends GameObject<T>> {
+        public final int id;
         public final @NotNull GameObject<T> gameObject;
+        public final @NotNull Collider collider;
+
+        /*
+         * Only accessed by the thread calling tick
+         */
+        private int proxy = NO_PROXY;
+        private int index = -1;
+        private boolean removed = false;
+        /**
+         * Sum of the distances, by which the surface of the collider moved.
+         */
+        private double travel = 0d;
+        private int stillTicks = 0;
+        private boolean sleeping = false;
 
-        private GameObjectInfo(@NotNull GameObject<T> gameObject) {
+        private GameObjectInfo(int id, @NotNull GameObject<T> gameObject) {
+            this.id = id;
             this.gameObject = gameObject;
+            //noinspection DataFlowIssue: checked by CollisionManager.addGameObject
+            this.collider = gameObject.getCollider();
         }
     }
 }
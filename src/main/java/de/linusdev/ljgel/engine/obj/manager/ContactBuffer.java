@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.obj.manager;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of contacts. Each contact consists of a sort key and the indices of both objects. The arrays only
+ * grow, so a buffer does not allocate once the count of contacts stops growing. Not thread-safe.
+ */
+class ContactBuffer {
+
+    private long @NotNull [] keys = new long[16];
+    private int @NotNull [] a = new int[16];
+    private int @NotNull [] b = new int[16];
+    private int size = 0;
+
+    /**
+     * Sort key of a contact between the objects with given ids: ordered by the smaller id first, then by the larger id.
+     */
+    static long key(int id1, int id2) {
+        return ((long) Math.min(id1, id2) << 32) | (Math.max(id1, id2) & 0xFFFFFFFFL);
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void add(long key, int a, int b) {
+        ensureCapacity(size + 1);
+        keys[size] = key;
+        this.a[size] = a;
+        this.b[size] = b;
+        size++;
+    }
+
+    void addAll(@NotNull ContactBuffer other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.keys, 0, keys, size, other.size);
+        System.arraycopy(other.a, 0, a, size, other.size);
+        System.arraycopy(other.b, 0, b, size, other.size);
+        size += other.size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int getA(int index) {
+        return a[index];
+    }
+
+    int getB(int index) {
+        return b[index];
+    }
+
+    /**
+     * Sorts the contacts by their keys.
+     */
+    void sort() {
+        sort(0, size - 1);
+    }
+
+    private void sort(int low, int high) {
+        while (high - low > 16) {
+            // Median of three as pivot
+            int mid = (low + high) >>> 1;
+            if(keys[mid] < keys[low]) swap(mid, low);
+            if(keys[high] < keys[low]) swap(high, low);
+            if(keys[high] < keys[mid]) swap(high, mid);
+            long pivot = keys[mid];
+
+            int i = low, j = high;
+            while (i <= j) {
+                while (keys[i] < pivot) i++;
+                while (keys[j] > pivot) j--;
+                if(i <= j) swap(i++, j--);
+            }
+
+            // Recurse into the smaller half, loop on the larger one
+            if(j - low < high - i) {
+                sort(low, j);
+                low = i;
+            } else {
+                sort(i, high);
+                high = j;
+            }
+        }
+
+        // Insertion sort for small ranges
+        for (int i = low + 1; i <= high; i++) {
+            long key = keys[i];
+            int valueA = a[i];
+            int valueB = b[i];
+            int j = i - 1;
+            while (j >= low && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                a[j + 1] = a[j];
+                b[j + 1] = b[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            a[j + 1] = valueA;
+            b[j + 1] = valueB;
+        }
+    }
+
+    private void swap(int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+
+        int tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+
+        tmp = b[i];
+        b[i] = b[j];
+        b[j] = tmp;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if(capacity <= keys.length)
+            return;
+
+        int newCapacity = Math.max(capacity, keys.length * 2);
+        keys = Arrays.copyOf(keys, newCapacity);
+        a = Arrays.copyOf(a, newCapacity);
+        b = Arrays.copyOf(b, newCapacity);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.obj.manager;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Six planes bounding a view volume. Each plane {@code (a, b, c, d)} is normalized and a point {@code p} is on the
+ * inner side of the plane, if {@code a * p.x + b * p.y + c * p.z + d >= 0}. The planes are stored in a single array,
+ * so that a frustum can be reused every frame without allocating.
+ */
+public class Frustum {
+
+    public static final int PLANE_COUNT = 6;
+
+    public static final int LEFT = 0;
+    public static final int RIGHT = 1;
+    public static final int BOTTOM = 2;
+    public static final int TOP = 3;
+    public static final int NEAR = 4;
+    public static final int FAR = 5;
+
+    /**
+     * {@code a, b, c, d} of each plane.
+     */
+    final float @NotNull [] planes = new float[PLANE_COUNT * 4];
+
+    /**
+     * Sets the plane with given {@code index} and normalizes it.
+     */
+    public void setPlane(int index, float a, float b, float c, float d) {
+        float length = (float) Math.sqrt(a * a + b * b + c * c);
+        int i = index * 4;
+        planes[i] = a / length;
+        planes[i + 1] = b / length;
+        planes[i + 2] = c / length;
+        planes[i + 3] = d / length;
+    }
+
+    /**
+     * Extracts the planes from given view-projection matrix. The matrix is stored in column-major order and maps to
+     * the Vulkan clip space, in which the depth ranges from {@code 0} to {@code 1}.
+     * @param m column-major view-projection matrix with 16 elements
+     */
+    public void setFromViewProjection(float @NotNull [] m) {
+        assert m.length >= 16;
+        // Row i of the matrix is (m[i], m[4 + i], m[8 + i], m[12 + i])
+        setPlane(LEFT, m[3] + m[0], m[7] + m[4], m[11] + m[8], m[15] + m[12]);
+        setPlane(RIGHT, m[3] - m[0], m[7] - m[4], m[11] - m[8], m[15] - m[12]);
+        setPlane(BOTTOM, m[3] + m[1], m[7] + m[5], m[11] + m[9], m[15] + m[13]);
+        setPlane(TOP, m[3] - m[1], m[7] - m[5], m[11] - m[9], m[15] - m[13]);
+        setPlane(NEAR, m[2], m[6], m[10], m[14]);
+        setPlane(FAR, m[3] - m[2], m[7] - m[6], m[11] - m[10], m[15] - m[14]);
+    }
+
+    /**
+     * Signed distance of given point to the plane with given {@code index}. Negative if the point is outside.
+     */
+    public float distance(int index, float x, float y, float z) {
+        int i = index * 4;
+        return planes[i] * x + planes[i + 1] * y + planes[i + 2] * z + planes[i + 3];
+    }
+
+    /**
+     * Whether given axis-aligned box is at least partially on the inner side of all planes. The test is conservative:
+     * boxes close to the edges of the frustum may be reported as inside, even if they are not.
+     */
+    public boolean intersectsBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        for (int p = 0; p < PLANE_COUNT; p++) {
+            if(isBoxOutside(p, minX, minY, minZ, maxX, maxY, maxZ))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Whether given axis-aligned box is completely outside the plane with given {@code index}.
+     */
+    boolean isBoxOutside(int index, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        int i = index * 4;
+        float a = planes[i], b = planes[i + 1], c = planes[i + 2];
+        // Test the corner of the box, which is the farthest along the normal of the plane
+        return a * (a >= 0f ? maxX : minX) + b * (b >= 0f ? maxY : minY) + c * (c >= 0f ? maxZ : minZ)
+                + planes[i + 3] < 0f;
+    }
+
+    /**
+     * Whether given axis-aligned box is completely inside the plane with given {@code index}.
+     */
+    boolean isBoxInside(int index, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        int i = index * 4;
+        float a = planes[i], b = planes[i + 1], c = planes[i + 2];
+        // Test the corner of the box, which is the farthest against the normal of the plane
+        return a * (a >= 0f ? minX : maxX) + b * (b >= 0f ? minY : maxY) + c * (c >= 0f ? minZ : maxZ)
+                + planes[i + 3] >= 0f;
+    }
+
+    /**
+     * Whether given sphere is at least partially on the inner side of all planes.
+     */
+    public boolean intersectsSphere(float x, float y, float z, float radius) {
+        for (int p = 0; p < PLANE_COUNT; p++) {
+            if(distance(p, x, y, z) < -radius)
+                return false;
+        }
+        return true;
+    }
+}
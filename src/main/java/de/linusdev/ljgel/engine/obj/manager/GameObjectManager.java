@@ -17,7 +17,11 @@
 package de.linusdev.ljgel.engine.obj.manager;
 
 import de.linusdev.ljgel.engine.obj.GameObject;
+import de.linusdev.ljgel.engine.obj.collider.AlignedBoxCollider;
+import de.linusdev.ljgel.engine.obj.collider.SphereCollider;
 import de.linusdev.ljgel.engine.ticker.Tickable;
+import de.linusdev.ljgel.engine.ticker.TickableGroup;
+import de.linusdev.ljgel.engine.ticker.TickableState;
 import de.linusdev.ljgel.engine.ticker.Ticker;
 import org.jetbrains.annotations.NotNull;
 
@@ -26,23 +30,89 @@ import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 
+/**
+ * Manages all {@link GameObject game objects} of a scene. {@link GameObject#isParallelSafe() Parallel-safe} objects are
+ * split into partitions of up to {@link #PARTITION_SIZE} objects, which are ticked on the
+ * {@link Ticker#getTickPool() tick pool}. All other objects are ticked one after another on the calling thread.
+ * Objects may reduce their tick rate using {@link GameObject#getTickDivisor()}, see {@link TickableGroup}.
+ * <br><br>
+ * The spatial queries search the objects of all collider groups. Objects without a collider are never found. See
+ * {@link CollisionManager} for the threading rules of the queries.
+ */
 public class GameObjectManager<T extends GameObject<T>> implements
         Tickable,
         HasGameObjectManager<T>
 {
 
+    /**
+     * Maximum count of objects ticked by a single task of the {@link Ticker#getTickPool() tick pool}.
+     */
+    public static final int PARTITION_SIZE = 256;
+
     private final AtomicInteger nextId = new AtomicInteger(0);
     private final ConcurrentMap<Integer, GameObject<T>> gameObjects = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, TickableState> tickStates = new ConcurrentHashMap<>();
 
     private final List<CollisionManager<T>> collisionManagers;
 
+    /**
+     * Whether objects have been registered or unregistered since the last tick.
+     */
+    private volatile boolean objectsChanged = true;
+    private final @NotNull TickableGroup objectGroup = new TickableGroup(PARTITION_SIZE);
+    /**
+     * Only accessed by the thread calling {@link #tick(Ticker)}.
+     */
+    private long tickIndex = 0L;
+
     public GameObjectManager(int collisionGroupCount) {
+        this(collisionGroupCount, group -> BroadphaseType.BOUNDING_VOLUME_HIERARCHY);
+    }
+
+    /**
+     * @param collisionGroupCount count of collider groups
+     * @param broadphaseOfGroup {@link BroadphaseType} used by the {@link CollisionManager} of each collider group
+     */
+    public GameObjectManager(int collisionGroupCount, @NotNull IntFunction<BroadphaseType> broadphaseOfGroup) {
         this.collisionManagers = new ArrayList<>();
 
         for(int i=0; i < collisionGroupCount; i++) {
-            this.collisionManagers.add(new CollisionManager<>());
+            this.collisionManagers.add(new CollisionManager<>(broadphaseOfGroup.apply(i)));
+        }
+    }
+
+    /**
+     * Creates a {@link CLCollisionDetector} for the {@link CollisionManager} of each collider group, which does not
+     * have one yet. Collider groups with at least {@link CollisionManager#DEVICE_MIN_OBJECTS} objects then find their
+     * candidate pairs on an OpenCL device.
+     * @return {@code false} if no OpenCL device is available. No detector is set then and collisions are detected in
+     * java.
+     */
+    public boolean enableDeviceCollisionDetection() {
+        // Create all detectors first, so that either all or no collision managers use the device
+        List<CLCollisionDetector> detectors = new ArrayList<>();
+        for(CollisionManager<T> manager : collisionManagers) {
+            if(manager.getDeviceDetector() != null)
+                continue;
+
+            CLCollisionDetector detector = CLCollisionDetector.create();
+            if(detector == null) {
+                for (CLCollisionDetector created : detectors)
+                    created.close();
+                return false;
+            }
+            detectors.add(detector);
+        }
+
+        int i = 0;
+        for(CollisionManager<T> manager : collisionManagers) {
+            if(manager.getDeviceDetector() == null)
+                manager.setDeviceDetector(detectors.get(i++));
         }
+
+        return true;
     }
 
     public int registerObject(@NotNull GameObject<T> object) {
@@ -50,11 +120,13 @@ public class GameObjectManager<T extends GameObject<T>> implements
         synchronized (nextId) {
             id = nextId.getAndIncrement();
             gameObjects.put(id, object);
+            tickStates.put(id, new TickableState(object));
         }
+        objectsChanged = true;
 
         if(object.hasCollider()) {
             //noinspection DataFlowIssue: checked above
-            collisionManagers.get(object.getCollider().getColliderGroup()).addGameObject(object);
+            collisionManagers.get(object.getCollider().getColliderGroup()).addGameObject(id, object);
         }
 
         return id;
@@ -62,6 +134,8 @@ public class GameObjectManager<T extends GameObject<T>> implements
 
     public void unregisterObject(int id) {
         GameObject<T> object = gameObjects.remove(id);
+        tickStates.remove(id);
+        objectsChanged = true;
         if(object != null && object.hasCollider())
             //noinspection DataFlowIssue: checked above
             collisionManagers.get(object.getCollider().getColliderGroup()).removeGameObject(id);
@@ -72,8 +146,83 @@ public class GameObjectManager<T extends GameObject<T>> implements
         for(CollisionManager<T> manager : collisionManagers)
             manager.tick(ticker);
 
-        for(GameObject<T> obj : gameObjects.values())
-            obj.tick(ticker);
+        if(objectsChanged) {
+            // Reset before reading, so that concurrent changes are picked up in the next tick
+            objectsChanged = false;
+            objectGroup.set(tickStates.values());
+        }
+
+        objectGroup.tick(ticker, tickIndex++, ticker.getLastDeltaTime());
+    }
+
+    /**
+     * {@link CollisionManager} of given collider {@code group}.
+     */
+    public @NotNull CollisionManager<T> getCollisionManager(int group) {
+        return collisionManagers.get(group);
+    }
+
+    /**
+     * @see CollisionManager#queryOverlap(SphereCollider, SpatialQueryBuffer)
+     */
+    public void queryOverlap(@NotNull SphereCollider shape, @NotNull SpatialQueryBuffer<T> buffer) {
+        for(int i = 0; i < collisionManagers.size(); i++)
+            collisionManagers.get(i).queryOverlap(shape, buffer);
+    }
+
+    /**
+     * @see CollisionManager#queryOverlap(AlignedBoxCollider, SpatialQueryBuffer)
+     */
+    public void queryOverlap(@NotNull AlignedBoxCollider shape, @NotNull SpatialQueryBuffer<T> buffer) {
+        for(int i = 0; i < collisionManagers.size(); i++)
+            collisionManagers.get(i).queryOverlap(shape, buffer);
+    }
+
+    /**
+     * @see CollisionManager#queryFrustum(Frustum, SpatialQueryBuffer)
+     */
+    public void queryFrustum(@NotNull Frustum frustum, @NotNull SpatialQueryBuffer<T> buffer) {
+        for(int i = 0; i < collisionManagers.size(); i++)
+            collisionManagers.get(i).queryFrustum(frustum, buffer);
+    }
+
+    /**
+     * Adds all objects hit by given ray to given {@code buffer}, sorted by the distance of the hit.
+     * @see CollisionManager#rayCastAll(float, float, float, float, float, float, float, SpatialQueryBuffer)
+     */
+    public void rayCastAll(
+            float x, float y, float z,
+            float dx, float dy, float dz,
+            float maxDistance,
+            @NotNull SpatialQueryBuffer<T> buffer
+    ) {
+        int from = buffer.size();
+        for(int i = 0; i < collisionManagers.size(); i++)
+            collisionManagers.get(i).rayCastAll(x, y, z, dx, dy, dz, maxDistance, buffer);
+        buffer.sortByDistance(from);
+    }
+
+    /**
+     * Clears given {@code buffer} and adds the object, which is hit first by given ray, if any.
+     * @return {@code true} if a hit was found
+     * @see CollisionManager#rayCastClosest(float, float, float, float, float, float, float, SpatialQueryBuffer)
+     */
+    public boolean rayCastClosest(
+            float x, float y, float z,
+            float dx, float dy, float dz,
+            float maxDistance,
+            @NotNull SpatialQueryBuffer<T> buffer
+    ) {
+        buffer.clear();
+        boolean hit = false;
+        for(int i = 0; i < collisionManagers.size(); i++) {
+            // Only hits closer than the closest hit of the previous groups replace it
+            if(collisionManagers.get(i).rayCastClosest(x, y, z, dx, dy, dz, maxDistance, buffer)) {
+                maxDistance = buffer.getDistance(0);
+                hit = true;
+            }
+        }
+        return hit;
     }
 
     @Override
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.obj.manager;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash table from a pair key (see {@link ContactBuffer#key(int, int)}) to the distance of the pair at
+ * its last test and the summed travel of both objects at that time. {@link #clear() Clearing} the table is
+ * {@code O(1)}: a slot is only occupied, if its stamp matches the current stamp. Not thread-safe.
+ */
+class PairCache {
+
+    static final int NOT_FOUND = -1;
+
+    private long @NotNull [] keys;
+    private float @NotNull [] distances;
+    private double @NotNull [] travels;
+    private int @NotNull [] stamps;
+    private int mask;
+
+    private int stamp = 1;
+    private int size = 0;
+
+    PairCache() {
+        allocate(64);
+    }
+
+    private static int hash(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+
+    void clear() {
+        size = 0;
+        if(++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return slot of given {@code key} or {@link #NOT_FOUND}
+     */
+    int find(long key) {
+        for (int slot = hash(key) & mask; stamps[slot] == stamp; slot = (slot + 1) & mask) {
+            if(keys[slot] == key)
+                return slot;
+        }
+        return NOT_FOUND;
+    }
+
+    float getDistance(int slot) {
+        return distances[slot];
+    }
+
+    double getTravel(int slot) {
+        return travels[slot];
+    }
+
+    void put(long key, float distance, double travel) {
+        if((size + 1) * 2 > keys.length)
+            grow();
+
+        int slot = hash(key) & mask;
+        while (stamps[slot] == stamp && keys[slot] != key)
+            slot = (slot + 1) & mask;
+
+        if(stamps[slot] != stamp) {
+            stamps[slot] = stamp;
+            keys[slot] = key;
+            size++;
+        }
+        distances[slot] = distance;
+        travels[slot] = travel;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        distances = new float[capacity];
+        travels = new double[capacity];
+        stamps = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        float[] oldDistances = distances;
+        double[] oldTravels = travels;
+        int[] oldStamps = stamps;
+        int oldStamp = stamp;
+
+        allocate(oldKeys.length * 2);
+        stamp = 1;
+        size = 0;
+
+        for (int i = 0; i < oldKeys.length; i++)
+            if(oldStamps[i] == oldStamp)
+                put(oldKeys[i], oldDistances[i], oldTravels[i]);
+    }
+}
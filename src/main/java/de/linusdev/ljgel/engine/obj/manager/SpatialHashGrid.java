@@ -0,0 +1,459 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.obj.manager;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid {@link Broadphase}. Cells are mapped to the buckets of a hash table, so the grid is unbounded. The grid
+ * is rebuilt on every {@link #queryPairs(PairConsumer) query} using a counting sort into primitive arrays. These arrays
+ * only grow, so the grid does not allocate once the count of proxies stops growing.
+ * <br><br>
+ * Unless a fixed cell size is given, the cell size is {@link #CELL_SIZE_FACTOR} times the average diameter of all
+ * proxies. Proxies spanning more than {@link #MAX_CELLS_PER_PROXY} cells are not put into the grid, but are tested
+ * against all other proxies instead. This keeps a few large objects from filling the grid, but the grid should only
+ * be used for objects of similar size.
+ * <br><br>
+ * {@link #queryBox(float, float, float, float, float, float, ProxyConsumer) Box queries} use the grid of the last
+ * {@link #queryPairs(PairConsumer) pair query}, as long as no proxy was changed since then. Otherwise and for ray
+ * casts and frustum queries, all proxies are tested one after another. The proxies are stored in contiguous arrays, so
+ * this is still cheap for a few thousand proxies.
+ * @param <D> type of the data stored in each proxy
+ */
+public class SpatialHashGrid<D> implements Broadphase<D> {
+
+    public static final float CELL_SIZE_FACTOR = 2f;
+    public static final int MAX_CELLS_PER_PROXY = 64;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NULL = -1;
+
+    private final float fixedCellSize;
+
+    /*
+     * Proxy storage. A free proxy has a negative radius and stores the next free proxy in nextFree.
+     */
+    private float @NotNull [] x, y, z, radius;
+    private int @NotNull [] nextFree;
+    private @Nullable Object @NotNull [] data;
+    private int capacity = 0;
+    private int freeList = NULL;
+    private int proxyCount = 0;
+
+    /*
+     * Cell range of each proxy, calculated during the rebuild. minCellX is Integer.MIN_VALUE for large proxies.
+     */
+    private int @NotNull [] minCellX, minCellY, minCellZ, maxCellX, maxCellY, maxCellZ;
+
+    /*
+     * Grid: entries of bucket b are in [bucketStart[b], bucketStart[b + 1])
+     */
+    private int @NotNull [] bucketStart = new int[0];
+    private int @NotNull [] entryProxy = new int[0];
+    private int @NotNull [] entryCellX = new int[0], entryCellY = new int[0], entryCellZ = new int[0];
+    private int @NotNull [] large = new int[0];
+    private int largeCount = 0;
+    private int bucketMask = 0;
+
+    private float cellSize = 0f;
+    /**
+     * Whether the grid matches the current proxies. Changing a proxy invalidates the grid until the next rebuild.
+     */
+    private boolean gridValid = false;
+
+    public SpatialHashGrid() {
+        this(0f);
+    }
+
+    /**
+     * @param fixedCellSize edge length of each cell. If smaller than or equal to {@code 0}, the cell size is derived
+     *                      from the average size of the proxies.
+     */
+    public SpatialHashGrid(float fixedCellSize) {
+        this.fixedCellSize = fixedCellSize;
+
+        x = y = z = radius = new float[0];
+        nextFree = new int[0];
+        data = new Object[0];
+        minCellX = minCellY = minCellZ = maxCellX = maxCellY = maxCellZ = new int[0];
+        grow(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public int insert(float x, float y, float z, float radius, @NotNull D data) {
+        if(freeList == NULL)
+            grow(capacity * 2);
+
+        int proxy = freeList;
+        freeList = nextFree[proxy];
+        this.data[proxy] = data;
+        set(proxy, x, y, z, radius);
+        proxyCount++;
+        gridValid = false;
+        return proxy;
+    }
+
+    @Override
+    public void remove(int proxy) {
+        assert isProxy(proxy);
+        radius[proxy] = -1f;
+        data[proxy] = null;
+        nextFree[proxy] = freeList;
+        freeList = proxy;
+        proxyCount--;
+        gridValid = false;
+    }
+
+    /**
+     * Updates the bounds of given proxy. The grid is rebuilt on every pair query anyway, so this never changes the
+     * grid.
+     * @return {@code false}
+     */
+    @Override
+    public boolean move(int proxy, float x, float y, float z, float radius) {
+        assert isProxy(proxy);
+        set(proxy, x, y, z, radius);
+        gridValid = false;
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @NotNull D getData(int proxy) {
+        assert isProxy(proxy);
+        return (D) data[proxy];
+    }
+
+    @Override
+    public int getProxyCount() {
+        return proxyCount;
+    }
+
+    /**
+     * Cell size used by the last {@link #queryPairs(PairConsumer) query}.
+     */
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    @Override
+    public void queryPairs(@NotNull PairConsumer<D> consumer) {
+        if(proxyCount == 0)
+            return;
+
+        cellSize = fixedCellSize > 0f ? fixedCellSize : CELL_SIZE_FACTOR * 2f * averageRadius();
+        float inverseCellSize = 1f / cellSize;
+
+        largeCount = 0;
+        int entryCount = 0;
+
+        // Calculate the cell range of each proxy
+        for (int p = 0; p < capacity; p++) {
+            if(radius[p] < 0f)
+                continue;
+
+            int minX = cell(x[p] - radius[p], inverseCellSize), maxX = cell(x[p] + radius[p], inverseCellSize);
+            int minY = cell(y[p] - radius[p], inverseCellSize), maxY = cell(y[p] + radius[p], inverseCellSize);
+            int minZ = cell(z[p] - radius[p], inverseCellSize), maxZ = cell(z[p] + radius[p], inverseCellSize);
+            long cells = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+
+            if(cells > MAX_CELLS_PER_PROXY) {
+                if(largeCount == large.length)
+                    large = Arrays.copyOf(large, Math.max(INITIAL_CAPACITY, large.length * 2));
+                large[largeCount++] = p;
+                minCellX[p] = Integer.MIN_VALUE;
+                continue;
+            }
+
+            minCellX[p] = minX; maxCellX[p] = maxX;
+            minCellY[p] = minY; maxCellY[p] = maxY;
+            minCellZ[p] = minZ; maxCellZ[p] = maxZ;
+            entryCount += (int) cells;
+        }
+
+        int bucketCount = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, entryCount)) << 1);
+        int mask = bucketCount - 1;
+        bucketMask = mask;
+        ensureGridCapacity(bucketCount, entryCount);
+
+        // Counting sort of all entries into the buckets
+        Arrays.fill(bucketStart, 0, bucketCount + 1, 0);
+        for (int p = 0; p < capacity; p++) {
+            if(radius[p] < 0f || minCellX[p] == Integer.MIN_VALUE)
+                continue;
+            for (int cx = minCellX[p]; cx <= maxCellX[p]; cx++)
+                for (int cy = minCellY[p]; cy <= maxCellY[p]; cy++)
+                    for (int cz = minCellZ[p]; cz <= maxCellZ[p]; cz++)
+                        bucketStart[hash(cx, cy, cz) & mask]++;
+        }
+
+        for (int b = 1; b < bucketCount; b++)
+            bucketStart[b] += bucketStart[b - 1];
+        bucketStart[bucketCount] = entryCount;
+
+        for (int p = 0; p < capacity; p++) {
+            if(radius[p] < 0f || minCellX[p] == Integer.MIN_VALUE)
+                continue;
+            for (int cx = minCellX[p]; cx <= maxCellX[p]; cx++)
+                for (int cy = minCellY[p]; cy <= maxCellY[p]; cy++)
+                    for (int cz = minCellZ[p]; cz <= maxCellZ[p]; cz++) {
+                        int entry = --bucketStart[hash(cx, cy, cz) & mask];
+                        entryProxy[entry] = p;
+                        entryCellX[entry] = cx;
+                        entryCellY[entry] = cy;
+                        entryCellZ[entry] = cz;
+                    }
+        }
+        gridValid = true;
+
+        // Test all entries of the same cell against each other
+        for (int b = 0; b < bucketCount; b++) {
+            int end = bucketStart[b + 1];
+            for (int i = bucketStart[b]; i < end; i++) {
+                int a = entryProxy[i];
+                for (int j = i + 1; j < end; j++) {
+                    int c = entryProxy[j];
+                    if(a == c || entryCellX[i] != entryCellX[j] || entryCellY[i] != entryCellY[j]
+                            || entryCellZ[i] != entryCellZ[j] || !overlaps(a, c))
+                        continue;
+
+                    // Overlapping proxies share multiple cells, only report them in the cell containing the minimum
+                    // corner of the intersection of their bounds
+                    if(
+                            cell(Math.max(x[a] - radius[a], x[c] - radius[c]), inverseCellSize) != entryCellX[i]
+                            || cell(Math.max(y[a] - radius[a], y[c] - radius[c]), inverseCellSize) != entryCellY[i]
+                            || cell(Math.max(z[a] - radius[a], z[c] - radius[c]), inverseCellSize) != entryCellZ[i]
+                    ) continue;
+
+                    report(a, c, consumer);
+                }
+            }
+        }
+
+        // Test large proxies against all others
+        for (int l = 0; l < largeCount; l++) {
+            int a = large[l];
+            for (int c = 0; c < capacity; c++) {
+                if(c == a || radius[c] < 0f)
+                    continue;
+                // Pairs of two large proxies are only reported by the one with the smaller id
+                if(minCellX[c] == Integer.MIN_VALUE && c < a)
+                    continue;
+                if(overlaps(a, c))
+                    report(a, c, consumer);
+            }
+        }
+    }
+
+    /**
+     * Calls given {@code consumer} once for every proxy, whose bounds overlap given box.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void queryBox(
+            float minX, float minY, float minZ,
+            float maxX, float maxY, float maxZ,
+            @NotNull ProxyConsumer<? super D> consumer
+    ) {
+        if(proxyCount == 0)
+            return;
+
+        float inverseCellSize = 1f / cellSize;
+        int minCX = cell(minX, inverseCellSize), maxCX = cell(maxX, inverseCellSize);
+        int minCY = cell(minY, inverseCellSize), maxCY = cell(maxY, inverseCellSize);
+        int minCZ = cell(minZ, inverseCellSize), maxCZ = cell(maxZ, inverseCellSize);
+        long cells = (long) (maxCX - minCX + 1) * (maxCY - minCY + 1) * (maxCZ - minCZ + 1);
+
+        if(!gridValid || cells > proxyCount) {
+            // Testing all proxies is cheaper than visiting more cells than there are proxies
+            for (int p = 0; p < capacity; p++) {
+                if(radius[p] >= 0f && overlaps(p, minX, minY, minZ, maxX, maxY, maxZ))
+                    consumer.accept((D) data[p]);
+            }
+            return;
+        }
+
+        for (int cx = minCX; cx <= maxCX; cx++)
+            for (int cy = minCY; cy <= maxCY; cy++)
+                for (int cz = minCZ; cz <= maxCZ; cz++) {
+                    int b = hash(cx, cy, cz) & bucketMask;
+                    int end = bucketStart[b + 1];
+                    for (int i = bucketStart[b]; i < end; i++) {
+                        int p = entryProxy[i];
+                        if(entryCellX[i] != cx || entryCellY[i] != cy || entryCellZ[i] != cz
+                                || !overlaps(p, minX, minY, minZ, maxX, maxY, maxZ))
+                            continue;
+
+                        // Only report the proxy in the cell containing the minimum corner of the intersection
+                        if(
+                                cell(Math.max(x[p] - radius[p], minX), inverseCellSize) != cx
+                                || cell(Math.max(y[p] - radius[p], minY), inverseCellSize) != cy
+                                || cell(Math.max(z[p] - radius[p], minZ), inverseCellSize) != cz
+                        ) continue;
+
+                        consumer.accept((D) data[p]);
+                    }
+                }
+
+        for (int l = 0; l < largeCount; l++) {
+            int p = large[l];
+            if(overlaps(p, minX, minY, minZ, maxX, maxY, maxZ))
+                consumer.accept((D) data[p]);
+        }
+    }
+
+    /**
+     * Calls given {@code callback} for every proxy, whose bounding sphere is hit by given ray. The proxies are not
+     * visited in any particular order.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public float rayCast(
+            float x, float y, float z,
+            float dx, float dy, float dz,
+            float maxDistance,
+            @NotNull RayCastCallback<? super D> callback
+    ) {
+        for (int p = 0; p < capacity; p++) {
+            if(radius[p] < 0f)
+                continue;
+
+            // Ray-sphere intersection with a normalized direction
+            float ox = x - this.x[p], oy = y - this.y[p], oz = z - this.z[p];
+            float b = ox * dx + oy * dy + oz * dz;
+            float c = ox * ox + oy * oy + oz * oz - radius[p] * radius[p];
+            float entry;
+
+            if(c <= 0f) {
+                entry = 0f; // origin inside the sphere
+            } else {
+                if(b > 0f)
+                    continue;
+                // Use the point of the ray closest to the center, b * b - c loses precision for distant spheres
+                float px = ox - b * dx, py = oy - b * dy, pz = oz - b * dz;
+                float discriminant = radius[p] * radius[p] - (px * px + py * py + pz * pz);
+                if(discriminant < 0f)
+                    continue;
+                entry = -b - (float) Math.sqrt(discriminant);
+            }
+
+            if(entry <= maxDistance)
+                maxDistance = callback.hit((D) data[p], maxDistance);
+        }
+
+        return maxDistance;
+    }
+
+    /**
+     * Calls given {@code consumer} once for every proxy, whose bounding sphere is possibly inside given
+     * {@code frustum}.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void queryFrustum(@NotNull Frustum frustum, @NotNull ProxyConsumer<? super D> consumer) {
+        for (int p = 0; p < capacity; p++) {
+            if(radius[p] >= 0f && frustum.intersectsSphere(x[p], y[p], z[p], radius[p]))
+                consumer.accept((D) data[p]);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void report(int a, int b, @NotNull PairConsumer<D> consumer) {
+        if(a < b) consumer.accept((D) data[a], (D) data[b]);
+        else consumer.accept((D) data[b], (D) data[a]);
+    }
+
+    private float averageRadius() {
+        double sum = 0d;
+        for (int p = 0; p < capacity; p++)
+            if(radius[p] >= 0f) sum += radius[p];
+
+        // Avoid a cell size of 0 for point-like proxies
+        return Math.max((float) (sum / proxyCount), 1e-3f);
+    }
+
+    private static int cell(float value, float inverseCellSize) {
+        return (int) Math.floor(value * inverseCellSize);
+    }
+
+    private static int hash(int cx, int cy, int cz) {
+        return (cx * 73856093) ^ (cy * 19349663) ^ (cz * 83492791);
+    }
+
+    private boolean overlaps(int a, int b) {
+        float r = radius[a] + radius[b];
+        return Math.abs(x[a] - x[b]) <= r && Math.abs(y[a] - y[b]) <= r && Math.abs(z[a] - z[b]) <= r;
+    }
+
+    private boolean overlaps(int p, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        float r = radius[p];
+        return x[p] - r <= maxX && x[p] + r >= minX
+                && y[p] - r <= maxY && y[p] + r >= minY
+                && z[p] - r <= maxZ && z[p] + r >= minZ;
+    }
+
+    private void set(int proxy, float x, float y, float z, float radius) {
+        this.x[proxy] = x;
+        this.y[proxy] = y;
+        this.z[proxy] = z;
+        this.radius[proxy] = radius;
+    }
+
+    private boolean isProxy(int proxy) {
+        return proxy >= 0 && proxy < capacity && radius[proxy] >= 0f;
+    }
+
+    private void ensureGridCapacity(int bucketCount, int entryCount) {
+        if(bucketStart.length < bucketCount + 1)
+            bucketStart = new int[bucketCount + 1];
+
+        if(entryProxy.length < entryCount) {
+            int newLength = Math.max(entryCount, entryProxy.length * 2);
+            entryProxy = new int[newLength];
+            entryCellX = new int[newLength];
+            entryCellY = new int[newLength];
+            entryCellZ = new int[newLength];
+        }
+    }
+
+    private void grow(int newCapacity) {
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        z = Arrays.copyOf(z, newCapacity);
+        radius = Arrays.copyOf(radius, newCapacity);
+        nextFree = Arrays.copyOf(nextFree, newCapacity);
+        data = Arrays.copyOf(data, newCapacity);
+        minCellX = Arrays.copyOf(minCellX, newCapacity);
+        minCellY = Arrays.copyOf(minCellY, newCapacity);
+        minCellZ = Arrays.copyOf(minCellZ, newCapacity);
+        maxCellX = Arrays.copyOf(maxCellX, newCapacity);
+        maxCellY = Arrays.copyOf(maxCellY, newCapacity);
+        maxCellZ = Arrays.copyOf(maxCellZ, newCapacity);
+
+        // Link the new proxies into the free list, lowest index first
+        for (int proxy = newCapacity - 1; proxy >= capacity; proxy--) {
+            radius[proxy] = -1f;
+            nextFree[proxy] = freeList;
+            freeList = proxy;
+        }
+
+        capacity = newCapacity;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.obj.manager;
+
+import de.linusdev.ljgel.engine.obj.GameObject;
+import de.linusdev.ljgel.engine.obj.collider.Collider;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * State of a single spatial query. Each {@link SpatialQueryBuffer} owns one instance, which is passed to the
+ * {@link Broadphase} as consumer and callback, so that queries do not allocate. The proxies found by the broadphase are
+ * tested exactly by the {@link CollisionManager}, which started the query.
+ */
+class SpatialQuery implements Broadphase.ProxyConsumer<Object>, Broadphase.RayCastCallback<Object> {
+
+    static final int OVERLAP = 0;
+    static final int FRUSTUM = 1;
+    static final int RAY_CAST_ALL = 2;
+    static final int RAY_CAST_CLOSEST = 3;
+
+    final @NotNull SpatialQueryBuffer<?> buffer;
+
+    @Nullable CollisionManager<?> manager;
+    int type;
+
+    /*
+     * Overlap shape as rounded box or origin of the ray
+     */
+    float x, y, z;
+    float extentX, extentY, extentZ;
+    float radius;
+    @Nullable Collider shape;
+
+    /*
+     * Normalized direction of the ray
+     */
+    float dx, dy, dz;
+
+    @Nullable Frustum frustum;
+
+    /*
+     * Closest hit found so far
+     */
+    @Nullable GameObject<?> closest;
+    float closestDistance;
+
+    SpatialQuery(@NotNull SpatialQueryBuffer<?> buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void accept(@NotNull Object data) {
+        assert manager != null;
+        manager.test(this, data);
+    }
+
+    @Override
+    public float hit(@NotNull Object data, float maxDistance) {
+        assert manager != null;
+        return manager.testRay(this, data, maxDistance);
+    }
+
+    /**
+     * Releases all references, so that the buffer does not keep objects alive.
+     */
+    void reset() {
+        manager = null;
+        shape = null;
+        frustum = null;
+        closest = null;
+    }
+}
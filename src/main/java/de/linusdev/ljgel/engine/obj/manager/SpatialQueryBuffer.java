@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.obj.manager;
+
+import de.linusdev.ljgel.engine.obj.GameObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Reusable result buffer of the spatial queries of a {@link CollisionManager} or {@link GameObjectManager}. Queries add
+ * their results to the buffer without clearing it, so that the results of multiple queries can be collected. The
+ * arrays of the buffer only grow, so that queries do not allocate, once the buffer is large enough.
+ * <br><br>
+ * A buffer also holds the state of the query it is currently used for. It must therefore not be used by multiple
+ * queries at the same time. Each thread should use its own buffer.
+ */
+public class SpatialQueryBuffer<T extends GameObject<T>> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private @Nullable GameObject<?> @NotNull [] objects = new GameObject<?>[INITIAL_CAPACITY];
+    private float @NotNull [] distances = new float[INITIAL_CAPACITY];
+    private int size = 0;
+
+    final @NotNull SpatialQuery query = new SpatialQuery(this);
+
+    /**
+     * Removes all results.
+     */
+    public void clear() {
+        // Do not keep removed objects alive
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public @NotNull GameObject<T> get(int index) {
+        assert index >= 0 && index < size;
+        //noinspection DataFlowIssue: all objects below size are set
+        return (GameObject<T>) objects[index];
+    }
+
+    /**
+     * Distance of the result at given {@code index}. For ray casts this is the distance along the ray, for overlap
+     * queries the signed distance between the shape and the collider (smaller than or equal to {@code 0}) and for
+     * frustum queries it is always {@code 0}.
+     */
+    public float getDistance(int index) {
+        assert index >= 0 && index < size;
+        return distances[index];
+    }
+
+    void add(@NotNull GameObject<?> object, float distance) {
+        if(size == objects.length) {
+            objects = Arrays.copyOf(objects, size * 2);
+            distances = Arrays.copyOf(distances, size * 2);
+        }
+
+        objects[size] = object;
+        distances[size] = distance;
+        size++;
+    }
+
+    /**
+     * Sorts the results starting at given index by their distance. Uses an insertion sort, because ray casts usually
+     * hit only a few objects.
+     */
+    void sortByDistance(int from) {
+        for (int i = from + 1; i < size; i++) {
+            GameObject<?> object = objects[i];
+            float distance = distances[i];
+
+            int j = i - 1;
+            while (j >= from && distances[j] > distance) {
+                objects[j + 1] = objects[j];
+                distances[j + 1] = distances[j];
+                j--;
+            }
+
+            objects[j + 1] = object;
+            distances[j + 1] = distance;
+        }
+    }
+}
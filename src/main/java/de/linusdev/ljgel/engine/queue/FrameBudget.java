@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.queue;
+
+import de.linusdev.lutils.nat.memory.stack.Stack;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calculates the deadline for {@link TaskQueue#runQueuedTasks(Stack, long) queued tasks} of a render loop. The
+ * deadline is derived from the measured frame period minus the time the rendering itself requires. Time the renderer
+ * spends waiting (for example on fences or vsync) is not counted as required, because queued tasks can use it.
+ * <br><br>
+ * Frame periods, which are much longer than the current estimate (missed vsync, minimized window), are ignored, so
+ * that a missed frame does not increase the budget of the following frames. Only if the longer period persists, it is
+ * accepted as the new frame period.
+ * <br><br>
+ * This class is not thread-safe and should only be used by the render thread.
+ */
+public class FrameBudget {
+
+    public static final long DEFAULT_MIN_BUDGET_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+    public static final long DEFAULT_MAX_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    public static final long DEFAULT_SAFETY_MARGIN_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+    /**
+     * Weight of a new measurement in the moving averages.
+     */
+    private static final double SMOOTHING = 0.1;
+    /**
+     * Frame periods longer than the estimate times this factor are considered outliers.
+     */
+    private static final double OUTLIER_FACTOR = 1.5;
+    /**
+     * After this many consecutive outliers, the longer frame period is accepted.
+     */
+    private static final int MAX_OUTLIERS = 30;
+
+    private final long minBudgetNanos;
+    private final long maxBudgetNanos;
+    private final long safetyMarginNanos;
+
+    private long frameStart = -1L;
+    private long renderStart = -1L;
+
+    private double framePeriod = -1d;
+    private double renderWork = -1d;
+    private int outliers = 0;
+
+    public FrameBudget() {
+        this(DEFAULT_MIN_BUDGET_NANOS, DEFAULT_MAX_BUDGET_NANOS, DEFAULT_SAFETY_MARGIN_NANOS);
+    }
+
+    /**
+     * @param minBudgetNanos minimum budget, even if the rendering takes longer than the frame period.
+     * @param maxBudgetNanos maximum budget. Also used, while there are no measurements yet.
+     * @param safetyMarginNanos subtracted from the budget to account for jitter.
+     */
+    public FrameBudget(long minBudgetNanos, long maxBudgetNanos, long safetyMarginNanos) {
+        this.minBudgetNanos = minBudgetNanos;
+        this.maxBudgetNanos = maxBudgetNanos;
+        this.safetyMarginNanos = safetyMarginNanos;
+    }
+
+    private static double average(double current, double value) {
+        return current < 0d ? value : current + SMOOTHING * (value - current);
+    }
+
+    /**
+     * Must be called at the start of each frame, before the queued tasks are run.
+     */
+    public void frameStarted() {
+        long now = System.nanoTime();
+
+        if(frameStart != -1L) {
+            long period = now - frameStart;
+            boolean outlier = framePeriod > 0d && period > framePeriod * OUTLIER_FACTOR;
+
+            if(!outlier) {
+                outliers = 0;
+                framePeriod = average(framePeriod, period);
+            } else if(++outliers >= MAX_OUTLIERS) {
+                // The longer frame period persists, accept it
+                outliers = 0;
+                framePeriod = period;
+            }
+        }
+
+        frameStart = now;
+    }
+
+    /**
+     * Must be called directly before the renderer renders the frame.
+     */
+    public void renderStarted() {
+        renderStart = System.nanoTime();
+    }
+
+    /**
+     * Must be called directly after the renderer rendered the frame.
+     * @param waitNanos time the renderer was blocked waiting (for example on fences or for the next swap chain image).
+     */
+    public void renderFinished(long waitNanos) {
+        if(renderStart == -1L)
+            return;
+
+        long work = Math.max(0L, System.nanoTime() - renderStart - waitNanos);
+        renderWork = average(renderWork, work);
+    }
+
+    /**
+     * Budget for queued tasks in the current frame in nanoseconds.
+     */
+    public long budget() {
+        if(framePeriod < 0d || renderWork < 0d)
+            return maxBudgetNanos;
+
+        long budget = (long) (framePeriod - renderWork) - safetyMarginNanos;
+        return Math.max(minBudgetNanos, Math.min(maxBudgetNanos, budget));
+    }
+
+    /**
+     * {@link System#nanoTime()} until which the queued tasks of the current frame should be finished.
+     * @see TaskQueue#runQueuedTasks(Stack, long)
+     */
+    public long deadline() {
+        return (frameStart == -1L ? System.nanoTime() : frameStart) + budget();
+    }
+
+    /**
+     * Estimated frame period in nanoseconds or {@code -1} if not yet measured.
+     */
+    public long getFramePeriodNanos() {
+        return (long) framePeriod;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.queue;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static de.linusdev.ljgel.engine.queue.TaskQueue.MAX_TASK_ID;
+
+/**
+ * Unbounded {@link TaskQueueBackend} based on a {@link ConcurrentLinkedQueue}. Every offered future is wrapped in a
+ * {@link Wrapper}. Futures with a task id share a single pre-allocated {@link Wrapper} per id.
+ */
+public class LinkedTaskQueueBackend implements TaskQueueBackend {
+
+    protected final @NotNull AtomicReferenceArray<Wrapper<TQFutureImpl<?>>> wrappers;
+    protected final @NotNull Queue<Wrapper<TQFutureImpl<?>>> taskQueue;
+
+    public LinkedTaskQueueBackend() {
+        this.taskQueue = new ConcurrentLinkedQueue<>();
+        this.wrappers = new AtomicReferenceArray<>(MAX_TASK_ID + 1);
+
+        for(int i = 0; i < wrappers.length(); i++)
+            wrappers.set(i, new Wrapper<>(i));
+    }
+
+    @Override
+    public boolean offer(int id, @NotNull TQFutureImpl<?> future) {
+        if(id > 0 && id < wrappers.length())
+            return wrappers.get(id).queueIfNull(future, taskQueue);
+
+        taskQueue.offer(new Wrapper<>(id, future));
+        return true;
+    }
+
+    @Override
+    public @Nullable TQFutureImpl<?> getQueued(int id) {
+        if(id > 0 && id < wrappers.length())
+            return wrappers.get(id).getItem();
+        return null;
+    }
+
+    @Override
+    public @Nullable TQFutureImpl<?> peek() {
+        Wrapper<TQFutureImpl<?>> wrapper;
+        TQFutureImpl<?> future;
+        while ((wrapper = taskQueue.peek()) != null) {
+            future = wrapper.getItem();
+            if(future != null)
+                return future;
+            taskQueue.poll(); // Remove the empty wrapper
+        }
+
+        return null;
+    }
+
+    @Override
+    public @Nullable TQFutureImpl<?> poll() {
+        Wrapper<TQFutureImpl<?>> wrapper;
+        TQFutureImpl<?> future;
+        while ((wrapper = taskQueue.poll()) != null) {
+            future = wrapper.getItemAndSetToNull();
+            if(future != null)
+                return future;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.queue;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static de.linusdev.ljgel.engine.queue.TaskQueue.MAX_TASK_ID;
+import static de.linusdev.ljgel.engine.queue.TaskQueue.NO_TASK_ID;
+
+/**
+ * Lock-free {@link TaskQueueBackend} based on a bounded multi-producer/single-consumer ring buffer. All slots are
+ * allocated once during construction, so {@link #offer(int, TQFutureImpl) offering} a future does not allocate.
+ * <br><br>
+ * Futures with a task id are stored in a per-id slot, which is claimed using a single compare-and-set. The ring buffer
+ * then only contains the id. If the ring buffer is full, futures are put into an unbounded overflow queue instead.
+ * The FIFO order of tasks is only guaranteed as long as the ring buffer does not overflow.
+ */
+public class RingBufferTaskQueueBackend implements TaskQueueBackend {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final int capacity;
+    private final int mask;
+
+    /**
+     * Sequence of each slot. A slot with sequence {@code pos} can be written by the producer, which claimed {@code pos}.
+     * A slot with sequence {@code pos + 1} can be read by the consumer.
+     */
+    private final @NotNull AtomicLongArray sequences;
+    private final @Nullable TQFutureImpl<?> @NotNull [] futures;
+    private final int @NotNull [] ids;
+
+    /**
+     * Next position to be claimed by a producer.
+     */
+    private final @NotNull AtomicLong tail = new AtomicLong(0L);
+    /**
+     * Next position to be read. Only accessed by the consumer.
+     */
+    private long head = 0L;
+
+    /**
+     * Currently queued future for each task id.
+     */
+    private final @NotNull AtomicReferenceArray<TQFutureImpl<?>> pending;
+    private final @NotNull Queue<Wrapper<TQFutureImpl<?>>> overflow;
+    private final @NotNull LongAdder overflowCount = new LongAdder();
+
+    /**
+     * Future returned by the last {@link #peek()} call, which has not yet been {@link #poll() polled}.
+     * Only accessed by the consumer.
+     */
+    private @Nullable TQFutureImpl<?> peeked = null;
+    private int peekedId = NO_TASK_ID;
+
+    public RingBufferTaskQueueBackend() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity capacity of the ring buffer. Must be a power of two.
+     */
+    public RingBufferTaskQueueBackend(int capacity) {
+        if(capacity <= 0 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("capacity must be a power of two, but is " + capacity + ".");
+
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.futures = new TQFutureImpl<?>[capacity];
+        this.ids = new int[capacity];
+        this.pending = new AtomicReferenceArray<>(MAX_TASK_ID + 1);
+        this.overflow = new ConcurrentLinkedQueue<>();
+
+        for (int i = 0; i < capacity; i++)
+            sequences.set(i, i);
+    }
+
+    @Override
+    public boolean offer(int id, @NotNull TQFutureImpl<?> future) {
+        if(id > 0 && id < pending.length()) {
+            if(!pending.compareAndSet(id, null, future))
+                return false; // A future with the same id is already queued
+
+            if(!push(id, null)) {
+                overflowCount.increment();
+                overflow.offer(new Wrapper<>(id));
+            }
+            return true;
+        }
+
+        if(!push(NO_TASK_ID, future)) {
+            overflowCount.increment();
+            overflow.offer(new Wrapper<>(NO_TASK_ID, future));
+        }
+        return true;
+    }
+
+    /**
+     * Try to push given {@code id} and {@code future} into the ring buffer.
+     * @return {@code false} if the ring buffer is full.
+     */
+    private boolean push(int id, @Nullable TQFutureImpl<?> future) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long dif = sequences.get(index) - pos;
+
+            if(dif == 0) {
+                if(tail.compareAndSet(pos, pos + 1)) {
+                    ids[index] = id;
+                    futures[index] = future;
+                    // publish the slot to the consumer
+                    sequences.lazySet(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (dif < 0) {
+                // The consumer has not yet read this slot, ring buffer is full
+                return false;
+            } else {
+                // Another producer claimed this position
+                pos = tail.get();
+            }
+        }
+    }
+
+    @Override
+    public @Nullable TQFutureImpl<?> getQueued(int id) {
+        if(id > 0 && id < pending.length())
+            return pending.get(id);
+        return null;
+    }
+
+    @Override
+    public @Nullable TQFutureImpl<?> peek() {
+        if(peeked != null)
+            return peeked;
+
+        int id;
+        TQFutureImpl<?> future;
+
+        while (true) {
+            int index = (int) (head & mask);
+
+            if(sequences.get(index) == head + 1) {
+                id = ids[index];
+                future = futures[index];
+                futures[index] = null;
+                // release the slot for the producer, which will claim position head + capacity
+                sequences.lazySet(index, head + capacity);
+                head++;
+            } else {
+                Wrapper<TQFutureImpl<?>> wrapper = overflow.poll();
+                if(wrapper == null)
+                    return null;
+
+                id = wrapper.getId();
+                future = wrapper.getItemAndSetToNull();
+            }
+
+            // The per-id slot is not cleared until the future is polled
+            if(id > 0 && id < pending.length())
+                future = pending.get(id);
+
+            if(future != null) {
+                peekedId = id;
+                peeked = future;
+                return future;
+            }
+        }
+    }
+
+    @Override
+    public @Nullable TQFutureImpl<?> poll() {
+        TQFutureImpl<?> future = peek();
+        if(future == null)
+            return null;
+
+        if(peekedId > 0 && peekedId < pending.length())
+            pending.set(peekedId, null);
+
+        peeked = null;
+        peekedId = NO_TASK_ID;
+        return future;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Count of futures, which did not fit into the ring buffer and were put into the overflow queue. If this number
+     * grows regularly, the {@link #getCapacity() capacity} should be increased.
+     */
+    public long getOverflowCount() {
+        return overflowCount.sum();
+    }
+}
@@ -22,23 +22,99 @@ import de.linusdev.lutils.async.completeable.CompletableTask;
 import de.linusdev.lutils.async.error.ThrowableAsyncError;
 import de.linusdev.lutils.async.manager.AsyncManager;
 import de.linusdev.lutils.nat.memory.stack.Stack;
+import de.linusdev.lutils.async.error.AsyncError;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class TQFutureImpl<T> extends CompletableFuture<T, Nothing, CompletableTask<T, Nothing>> implements TQFuture<T> {
 
-    protected final @NotNull TQRunnable<T> runnable;
+    /**
+     * Guarded by {@code this}, may be replaced by {@link #coalesce(TQFutureImpl, TQMerger)} until the task is started.
+     */
+    protected @NotNull TQRunnable<T> runnable;
+    /**
+     * Futures, which have been coalesced into this one. They complete with the result of this future.
+     * Guarded by {@code this}.
+     */
+    private @Nullable List<TQFutureImpl<T>> coalesced = null;
+    private boolean started = false;
+
+    /**
+     * Task id this future was queued with.
+     */
+    protected int taskId = TaskQueue.NO_TASK_ID;
+    /**
+     * Task key this future was queued with or {@code null}.
+     */
+    protected @Nullable Object taskKey = null;
+    /**
+     * {@link System#nanoTime()} when this future was queued.
+     */
+    protected long queuedNanos;
 
     public TQFutureImpl(@NotNull AsyncManager asyncManager, @NotNull TQRunnable<T> runnable) {
         super(asyncManager, false);
         this.runnable = runnable;
     }
 
+    void queued(int taskId, @Nullable Object taskKey, long queuedNanos) {
+        this.taskId = taskId;
+        this.taskKey = taskKey;
+        this.queuedNanos = queuedNanos;
+    }
+
+    public int getTaskId() {
+        return taskId;
+    }
+
+    public @Nullable Object getTaskKey() {
+        return taskKey;
+    }
+
+    public long getQueuedNanos() {
+        return queuedNanos;
+    }
+
+    /**
+     * Merges the runnable of given {@code newer} future into this one, if this task has not yet been started.
+     * {@code newer} will then complete with the result of this task.
+     * @return {@code true} if {@code newer} was coalesced, {@code false} if this task has already been started.
+     */
+    synchronized boolean coalesce(@NotNull TQFutureImpl<T> newer, @NotNull TQMerger<T> merger) {
+        if(started)
+            return false;
+
+        runnable = merger.merge(runnable, newer.runnable);
+        if(coalesced == null)
+            coalesced = new ArrayList<>(2);
+        coalesced.add(newer);
+        return true;
+    }
+
     public void run(@NotNull Stack stack) {
+        TQRunnable<T> runnable;
+        List<TQFutureImpl<T>> coalesced;
+        synchronized (this) {
+            started = true;
+            runnable = this.runnable;
+            coalesced = this.coalesced;
+        }
+
+        T ret = null;
+        AsyncError error = null;
         try {
-            T ret = runnable.run(stack);
-            complete(ret, Nothing.INSTANCE, null);
+            ret = runnable.run(stack);
         } catch (Throwable t) {
-            complete(null, Nothing.INSTANCE, new ThrowableAsyncError(t));
+            error = new ThrowableAsyncError(t);
+        }
+
+        complete(ret, Nothing.INSTANCE, error);
+        if(coalesced != null) {
+            for (TQFutureImpl<T> future : coalesced)
+                future.complete(ret, Nothing.INSTANCE, error);
         }
     }
 }
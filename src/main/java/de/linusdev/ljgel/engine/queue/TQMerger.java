@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.queue;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Merges the runnable of a newer submission into an already queued runnable with the same task id.
+ * @see TaskQueue#coalesceForExecution(TaskPriority, int, TQRunnable, TQMerger)
+ */
+public interface TQMerger<T> {
+
+    /**
+     * Merger, which simply replaces the queued runnable with the newer one.
+     */
+    static <T> @NotNull TQMerger<T> latestWins() {
+        return (queued, newer) -> newer;
+    }
+
+    /**
+     * Called while the queued task cannot be started, so this method should return quickly.
+     * @param queued the currently queued runnable
+     * @param newer the runnable of the newer submission
+     * @return runnable, which will be run instead of {@code queued}
+     */
+    @NotNull TQRunnable<T> merge(@NotNull TQRunnable<T> queued, @NotNull TQRunnable<T> newer);
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.queue;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event for a single task executed by a {@link TaskQueue}. Only tasks running longer than the threshold
+ * (default: 1 ms) are recorded.
+ */
+@Name("de.linusdev.ljgel.TaskExecution")
+@Label("Task Execution")
+@Description("A task executed by a TaskQueue")
+@Category({"LJGEL", "Task Queue"})
+@Threshold("1 ms")
+@StackTrace(false)
+public class TaskExecutionEvent extends Event {
+
+    static final EventType TYPE = EventType.getEventType(TaskExecutionEvent.class);
+
+    @Label("Task Id")
+    public int taskId;
+
+    @Label("Task Name")
+    public String taskName;
+
+    @Label("Queue Latency")
+    @Description("Time between queuing and the start of the execution")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queueLatency;
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.queue;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Concurrent map from task keys to the currently queued future with that key. The map is split into a fixed number
+ * of segments, each of which is an open-addressing hash table with linear probing, guarded by its own lock. Removed
+ * entries are deleted by shifting the following entries back, so no tombstones are required and lookups stay
+ * {@code O(1)}, even after many insertions and removals.
+ * <br><br>
+ * Keys are compared using {@link Object#equals(Object)} and {@link Object#hashCode()}. This class is thread-safe.
+ */
+class TaskKeyMap {
+
+    /**
+     * Must be a power of two.
+     */
+    private static final int SEGMENT_COUNT = 16;
+    private static final int SEGMENT_SHIFT = Integer.numberOfTrailingZeros(SEGMENT_COUNT);
+    /**
+     * Must be a power of two.
+     */
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+    private final @NotNull Segment @NotNull [] segments;
+
+    TaskKeyMap() {
+        this.segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++)
+            segments[i] = new Segment();
+    }
+
+    private static int hash(@NotNull Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private @NotNull Segment segmentFor(int hash) {
+        return segments[hash & (SEGMENT_COUNT - 1)];
+    }
+
+    /**
+     * Associates given {@code future} with given {@code key}, if no future is associated with the key yet.
+     * @return the future currently associated with {@code key} or {@code null} if {@code future} has been added.
+     */
+    @Nullable TQFutureImpl<?> putIfAbsent(@NotNull Object key, @NotNull TQFutureImpl<?> future) {
+        int hash = hash(key);
+        return segmentFor(hash).putIfAbsent(hash >>> SEGMENT_SHIFT, key, future);
+    }
+
+    /**
+     * @return the future currently associated with {@code key} or {@code null}.
+     */
+    @Nullable TQFutureImpl<?> get(@NotNull Object key) {
+        int hash = hash(key);
+        return segmentFor(hash).get(hash >>> SEGMENT_SHIFT, key);
+    }
+
+    /**
+     * Removes the entry of given {@code key}, if it is associated with given {@code future}.
+     * @return {@code true} if the entry was removed.
+     */
+    boolean remove(@NotNull Object key, @NotNull TQFutureImpl<?> future) {
+        int hash = hash(key);
+        return segmentFor(hash).remove(hash >>> SEGMENT_SHIFT, key, future);
+    }
+
+    /**
+     * Current count of entries. Not atomic across segments.
+     */
+    int size() {
+        int size = 0;
+        for (Segment segment : segments)
+            size += segment.size();
+        return size;
+    }
+
+    private static class Segment {
+
+        private int @NotNull [] hashes = new int[INITIAL_SEGMENT_CAPACITY];
+        private @Nullable Object @NotNull [] keys = new Object[INITIAL_SEGMENT_CAPACITY];
+        private @Nullable TQFutureImpl<?> @NotNull [] values = new TQFutureImpl<?>[INITIAL_SEGMENT_CAPACITY];
+        private int size = 0;
+
+        /**
+         * Index of given {@code key} or of the empty slot, where it would be inserted.
+         */
+        private int indexOf(int hash, @NotNull Object key) {
+            int mask = keys.length - 1;
+            int i = hash & mask;
+            Object k;
+            while ((k = keys[i]) != null) {
+                if(hashes[i] == hash && (k == key || k.equals(key)))
+                    return i;
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        synchronized @Nullable TQFutureImpl<?> putIfAbsent(int hash, @NotNull Object key, @NotNull TQFutureImpl<?> future) {
+            int i = indexOf(hash, key);
+            if(keys[i] != null)
+                return values[i];
+
+            // Keep the load factor at or below 0.5
+            if((size + 1) * 2 > keys.length) {
+                grow();
+                i = indexOf(hash, key);
+            }
+
+            hashes[i] = hash;
+            keys[i] = key;
+            values[i] = future;
+            size++;
+            return null;
+        }
+
+        synchronized @Nullable TQFutureImpl<?> get(int hash, @NotNull Object key) {
+            return values[indexOf(hash, key)];
+        }
+
+        synchronized boolean remove(int hash, @NotNull Object key, @NotNull TQFutureImpl<?> future) {
+            int i = indexOf(hash, key);
+            if(keys[i] == null || values[i] != future)
+                return false;
+
+            // Shift following entries back, until an entry is at its home slot or an empty slot is reached
+            int mask = keys.length - 1;
+            int j = i;
+            while (true) {
+                j = (j + 1) & mask;
+                if(keys[j] == null)
+                    break;
+
+                int home = hashes[j] & mask;
+                // Entry j may be moved to i, if its home slot is not cyclically within (i, j]
+                boolean between = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+                if(!between) {
+                    hashes[i] = hashes[j];
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    i = j;
+                }
+            }
+
+            keys[i] = null;
+            values[i] = null;
+            size--;
+            return true;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private void grow() {
+            int[] oldHashes = hashes;
+            Object[] oldKeys = keys;
+            TQFutureImpl<?>[] oldValues = values;
+
+            hashes = new int[oldKeys.length * 2];
+            keys = new Object[oldKeys.length * 2];
+            values = new TQFutureImpl<?>[oldKeys.length * 2];
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                Object key = oldKeys[i];
+                if(key == null)
+                    continue;
+
+                int j = indexOf(oldHashes[i], key);
+                hashes[j] = oldHashes[i];
+                keys[j] = key;
+                values[j] = oldValues[i];
+            }
+        }
+    }
+}
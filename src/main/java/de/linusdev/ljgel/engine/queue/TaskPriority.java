@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.queue;
+
+import de.linusdev.lutils.nat.memory.stack.Stack;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Priority lanes of a {@link TaskQueue}. Lanes are executed in the order of this enum. Each lane has its own
+ * {@link TaskQueueBackend}, but task ids are deduplicated across all lanes: a task queued with an id, which is
+ * already queued in another lane, is cancelled or coalesced into the queued task.
+ */
+public enum TaskPriority {
+    /**
+     * Executed in the next {@link TaskQueue#runQueuedTasks(Stack, long) frame}, ignoring the time budget. Only use this
+     * for short tasks, which something else is waiting on (for example, closing the window).
+     */
+    URGENT(0),
+    /**
+     * Default priority. A task is only started, if its expected execution time fits into the remaining time budget
+     * of the frame and no task of a higher priority had to be deferred. If no task of this priority could run for
+     * {@code 2} consecutive frames, a single task will be executed, ignoring the time budget.
+     */
+    PER_FRAME(2),
+    /**
+     * Same as {@link #PER_FRAME}, but only a single task will be forced to run, if no task of this priority could
+     * run for {@code 8} consecutive frames.
+     */
+    BACKGROUND(8),
+    ;
+
+    static final @NotNull TaskPriority @NotNull [] VALUES = values();
+
+    private final int maxStarvedFrames;
+
+    TaskPriority(int maxStarvedFrames) {
+        this.maxStarvedFrames = maxStarvedFrames;
+    }
+
+    /**
+     * Count of consecutive frames, in which queued tasks of this priority could not run because of the time budget,
+     * after which a single task will be executed regardless of the time budget.
+     */
+    public int getMaxStarvedFrames() {
+        return maxStarvedFrames;
+    }
+
+    /**
+     * Whether tasks of this priority always run, regardless of the time budget.
+     */
+    public boolean ignoresBudget() {
+        return this == URGENT;
+    }
+}
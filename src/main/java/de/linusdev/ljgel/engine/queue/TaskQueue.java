@@ -24,10 +24,11 @@ import de.linusdev.lutils.async.manager.AsyncManager;
 import de.linusdev.lutils.nat.memory.stack.Stack;
 import org.jetbrains.annotations.*;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class TaskQueue {
 
@@ -50,105 +51,500 @@ public class TaskQueue {
         }
     }
 
+    /**
+     * Name given to {@link #getUniqueTaskId(String)}.
+     * @param id task id
+     * @return name of the task or {@code null} if {@code id} is not a valid task id.
+     */
+    public static @Nullable String getTaskName(int id) {
+        if(id <= 0 || id > MAX_TASK_ID) return null;
+        synchronized (idLock) {
+            return taskNames[id];
+        }
+    }
+
+
+    /**
+     * Upper limit for time budgets, so that {@code System.nanoTime() + budget} cannot overflow.
+     */
+    private static final long MAX_BUDGET_NANOS = Long.MAX_VALUE / 4;
 
     protected final @NotNull AsyncManager asyncManager;
     /**
-     * Consumer, which will be called after a future has been {@link #queue(int, TQFutureImpl) submitted} to the queue.
-     * Note, that the future might already be handled when the consumer is called, as it is not synchronized.
+     * Consumer, which will be called after a future has been {@link #queue(TaskPriority, int, TQFutureImpl) submitted}
+     * to the queue. Note, that the future might already be handled when the consumer is called, as it is not
+     * synchronized.
      */
     protected final @Nullable Consumer<TQFuture<?>> queuedFutureConsumer;
 
-    protected final @NotNull AtomicReferenceArray<Wrapper<TQFutureImpl<?>>> wrappers;
-    protected final @NotNull Queue<Wrapper<TQFutureImpl<?>>> taskQueue;
+    /**
+     * One {@link TaskQueueBackend} per {@link TaskPriority}.
+     */
+    protected final @NotNull TaskQueueBackend @NotNull [] backends;
+    /**
+     * Currently queued future per task id, shared by all {@link TaskPriority priority} lanes. The backends only know
+     * the futures of their own lane, so a task id queued in one lane could otherwise be queued in another lane again.
+     */
+    protected final @NotNull AtomicReferenceArray<TQFutureImpl<?>> queuedById;
+    /**
+     * Currently queued futures with a task key, see {@link #queueKeyedForExecution(TaskPriority, Object, TQRunnable)}.
+     */
+    protected final @NotNull TaskKeyMap keyedTasks;
     protected final long maxQueuedTaskMillisPerFrame;
 
-
+    protected final @NotNull TaskQueueStats stats;
+    /**
+     * Count of currently queued tasks. Used to calculate the amount of deferred tasks, when the time budget
+     * of a frame ran out, and by {@link #hasQueuedTasks()}.
+     */
+    protected final @NotNull LongAdder queuedTaskCount;
+    /**
+     * Count of consecutive frames per {@link TaskPriority}, in which queued tasks could not run. Only accessed by the
+     * thread running the queued tasks.
+     */
+    private final int @NotNull [] starvedFrames;
 
     public TaskQueue(
             @NotNull AsyncManager asyncManager,
             @Nullable Consumer<TQFuture<?>> queuedFutureConsumer,
             long maxQueuedTaskMillisPerFrame
+    ) {
+        this(asyncManager, queuedFutureConsumer, maxQueuedTaskMillisPerFrame, LinkedTaskQueueBackend::new);
+    }
+
+    /**
+     * @param backendFactory creates the {@link TaskQueueBackend} storing the queued futures of each
+     *                       {@link TaskPriority}. {@link LinkedTaskQueueBackend} is unbounded,
+     *                       {@link RingBufferTaskQueueBackend} does not allocate and does not lock while queuing.
+     */
+    public TaskQueue(
+            @NotNull AsyncManager asyncManager,
+            @Nullable Consumer<TQFuture<?>> queuedFutureConsumer,
+            long maxQueuedTaskMillisPerFrame,
+            @NotNull Supplier<? extends TaskQueueBackend> backendFactory
     ) {
         this.asyncManager = asyncManager;
         this.queuedFutureConsumer = queuedFutureConsumer;
-        this.taskQueue = new ConcurrentLinkedQueue<>();
-        this.wrappers = new AtomicReferenceArray<>(MAX_TASK_ID + 1);
         this.maxQueuedTaskMillisPerFrame = maxQueuedTaskMillisPerFrame;
+        this.backends = new TaskQueueBackend[TaskPriority.VALUES.length];
+        this.queuedById = new AtomicReferenceArray<>(MAX_TASK_ID + 1);
+        this.keyedTasks = new TaskKeyMap();
+        this.stats = new TaskQueueStats();
+        this.queuedTaskCount = new LongAdder();
+        this.starvedFrames = new int[TaskPriority.VALUES.length];
 
-        for(int i = 0; i < wrappers.length(); i++)
-            wrappers.set(i, new Wrapper<>(i));
+        for (int i = 0; i < backends.length; i++)
+            backends[i] = backendFactory.get();
+    }
+
+    @CallFromAnyThread
+    @NonBlocking
+    @ApiStatus.Internal
+    private void queue(@NotNull TaskPriority priority, int id, @NotNull TQFutureImpl<?> future) {
+        future.queued(id, null, System.nanoTime());
+        if(claimId(id, future) == null) {
+            queuedTaskCount.increment();
+            offer(priority, id, future);
+        } else {
+            //the same task has already been queued. So cancel this future.
+            stats.recordCancellation(id);
+            future.cancel();
+        }
+        if(queuedFutureConsumer != null)
+            queuedFutureConsumer.accept(future);
     }
 
+    /**
+     * Queues given {@code future}. If a task with the same {@code id} is already queued in any lane and has not yet
+     * been started, {@code future} is {@link TQFutureImpl#coalesce(TQFutureImpl, TQMerger) coalesced} into it instead.
+     */
     @CallFromAnyThread
     @NonBlocking
     @ApiStatus.Internal
-    private void queue(int id, @NotNull TQFutureImpl<?> future) {
-        if(id > 0 && id < wrappers.length()) {
-            if(!wrappers.get(id).queueIfNull(future, taskQueue)) {
-                //the same task has already been queued. So cancel this future.
-                future.cancel();
+    private <T> void coalesce(
+            @NotNull TaskPriority priority,
+            int id,
+            @NotNull TQFutureImpl<T> future,
+            @NotNull TQMerger<T> merger
+    ) {
+        future.queued(id, null, System.nanoTime());
+
+        TQFutureImpl<?> queued;
+        while ((queued = claimId(id, future)) != null) {
+            @SuppressWarnings("unchecked") // All tasks with the same coalescing id must have the same result type
+            TQFutureImpl<T> q = (TQFutureImpl<T>) queued;
+            if(q.coalesce(future, merger)) {
+                stats.recordCoalesced(id);
+                break;
             }
+            // The queued task has been started in the meantime, so the id can be queued again
+            Thread.onSpinWait();
+        }
+
+        if(queued == null) {
+            queuedTaskCount.increment();
+            offer(priority, id, future);
+        }
+
+        if(queuedFutureConsumer != null)
+            queuedFutureConsumer.accept(future);
+    }
+
+    /**
+     * Claims given task {@code id} for given {@code future} in {@link #queuedById}.
+     * @return {@code null} if the id was claimed or is {@link #NO_TASK_ID}, otherwise the already queued future.
+     */
+    private @Nullable TQFutureImpl<?> claimId(int id, @NotNull TQFutureImpl<?> future) {
+        if(id <= 0)
+            return null;
+        return queuedById.compareAndExchange(id, null, future);
+    }
+
+    /**
+     * Offers given {@code future}, whose {@code id} has already been {@link #claimId(int, TQFutureImpl) claimed}, to
+     * the backend of given {@code priority}.
+     */
+    private void offer(@NotNull TaskPriority priority, int id, @NotNull TQFutureImpl<?> future) {
+        boolean offered = backends[priority.ordinal()].offer(id, future);
+        // The id is released only after its future was polled, so the backend cannot reject it
+        assert offered;
+    }
+
+    /**
+     * Queues given {@code future} with given task {@code key}. If a task with an equal key is already queued, the
+     * future is cancelled instead.
+     */
+    @CallFromAnyThread
+    @NonBlocking
+    @ApiStatus.Internal
+    private void queueKeyed(@NotNull TaskPriority priority, @NotNull Object key, @NotNull TQFutureImpl<?> future) {
+        future.queued(NO_TASK_ID, key, System.nanoTime());
+        if(keyedTasks.putIfAbsent(key, future) == null) {
+            queuedTaskCount.increment();
+            backends[priority.ordinal()].offer(NO_TASK_ID, future);
         } else {
-            taskQueue.offer(new Wrapper<>(id, future));
+            //a task with the same key has already been queued. So cancel this future.
+            stats.recordCancellation(NO_TASK_ID);
+            future.cancel();
         }
         if(queuedFutureConsumer != null)
             queuedFutureConsumer.accept(future);
     }
 
+    /**
+     * Same as {@link #coalesce(TaskPriority, int, TQFutureImpl, TQMerger)}, but with a task {@code key}.
+     */
+    @CallFromAnyThread
+    @NonBlocking
+    @ApiStatus.Internal
+    private <T> void coalesceKeyed(
+            @NotNull TaskPriority priority,
+            @NotNull Object key,
+            @NotNull TQFutureImpl<T> future,
+            @NotNull TQMerger<T> merger
+    ) {
+        future.queued(NO_TASK_ID, key, System.nanoTime());
+
+        TQFutureImpl<?> queued;
+        while ((queued = keyedTasks.putIfAbsent(key, future)) != null) {
+            @SuppressWarnings("unchecked") // All tasks with equal coalescing keys must have the same result type
+            TQFutureImpl<T> q = (TQFutureImpl<T>) queued;
+            if(q.coalesce(future, merger)) {
+                stats.recordCoalesced(NO_TASK_ID);
+                break;
+            }
+            // The queued task has been started in the meantime, so the key can be queued again
+            Thread.onSpinWait();
+        }
+
+        if(queued == null) {
+            queuedTaskCount.increment();
+            backends[priority.ordinal()].offer(NO_TASK_ID, future);
+        }
+
+        if(queuedFutureConsumer != null)
+            queuedFutureConsumer.accept(future);
+    }
+
+    /**
+     * Runs queued tasks until {@link #maxQueuedTaskMillisPerFrame} have passed.
+     * @see #runQueuedTasks(Stack, long)
+     */
     @Blocking
     @ApiStatus.Internal
     public void runQueuedTasks(@NotNull Stack stack) {
-        final long startTime = System.currentTimeMillis();
+        long budget = Math.min(TimeUnit.MILLISECONDS.toNanos(maxQueuedTaskMillisPerFrame), MAX_BUDGET_NANOS);
+        runQueuedTasks(stack, System.nanoTime() + budget);
+    }
+
+    /**
+     * Runs queued tasks lane by lane in the order of the {@link TaskPriority priorities}. A task is only started if
+     * its {@link TaskQueueStats#getExpectedExecutionNanos(int) expected execution time} fits before given
+     * {@code deadlineNanos}. Tasks without a task id are started as long as the deadline has not passed. Tasks, which
+     * do not fit, stay queued for the next call. See {@link TaskPriority} for the rules of each lane.
+     * @param stack {@link Stack} passed to the tasks
+     * @param deadlineNanos {@link System#nanoTime()} until which all started tasks should be finished.
+     * @see FrameBudget
+     */
+    @Blocking
+    @ApiStatus.Internal
+    public void runQueuedTasks(@NotNull Stack stack, long deadlineNanos) {
         int taskCount = 0;
+        // Whether a task had to be deferred to the next frame
+        boolean budgetExceeded = false;
+
+        TaskQueueFrameEvent frameEvent = null;
+        if(TaskQueueFrameEvent.TYPE.isEnabled()) {
+            frameEvent = new TaskQueueFrameEvent();
+            frameEvent.begin();
+        }
+
+        // The end time of a task is used as start time of the next one, to save calls to nanoTime
+        long time = System.nanoTime();
+        for (TaskPriority priority : TaskPriority.VALUES) {
+            TaskQueueBackend backend = backends[priority.ordinal()];
+            boolean ran = false;
+
+            TQFutureImpl<?> future;
+            while ((future = backend.peek()) != null) {
+                if(!priority.ignoresBudget()) {
+                    boolean fits = !budgetExceeded
+                            && deadlineNanos - time >= stats.getExpectedExecutionNanos(future.getTaskId());
+                    boolean starved = !ran && starvedFrames[priority.ordinal()] >= priority.getMaxStarvedFrames();
 
-        Wrapper<TQFutureImpl<?>> wrapper;
-        TQFutureImpl<?> future;
-        while (
-                (System.currentTimeMillis() - startTime) < maxQueuedTaskMillisPerFrame &&
-                        (wrapper = taskQueue.poll()) != null
-        ) {
-            future = wrapper.getItemAndSetToNull();
-            if(future != null) {
-                future.run(stack);
+                    if(!fits && !starved) {
+                        budgetExceeded = true;
+                        break;
+                    }
+                }
+
+                backend.poll();
+                time = run(stack, future, time);
+                ran = true;
                 taskCount++;
             }
+
+            starvedFrames[priority.ordinal()] = (ran || future == null) ? 0 : starvedFrames[priority.ordinal()] + 1;
+        }
+
+        long deferred = budgetExceeded ? Math.max(0L, queuedTaskCount.sum()) : 0L;
+        stats.recordFrame(budgetExceeded, deferred);
+
+        if(frameEvent != null && (taskCount > 0 || deferred > 0L)) {
+            frameEvent.end();
+            if(frameEvent.shouldCommit()) {
+                frameEvent.executedTasks = taskCount;
+                frameEvent.budgetExceeded = budgetExceeded;
+                frameEvent.deferredTasks = deferred;
+                frameEvent.commit();
+            }
+        }
+    }
+
+    /**
+     * Runs given {@code future} and records its statistics.
+     * @param startTime {@link System#nanoTime()} at the start of the task
+     * @return {@link System#nanoTime()} at the end of the task
+     */
+    private long run(@NotNull Stack stack, @NotNull TQFutureImpl<?> future, long startTime) {
+        queuedTaskCount.decrement();
+
+        // The task id and key may be queued again as soon as the task is about to run
+        int id = future.getTaskId();
+        if(id > 0)
+            queuedById.compareAndSet(id, future, null);
+        Object key = future.getTaskKey();
+        if(key != null)
+            keyedTasks.remove(key, future);
+
+        if(TaskExecutionEvent.TYPE.isEnabled()) {
+            TaskExecutionEvent event = new TaskExecutionEvent();
+            event.begin();
+            future.run(stack);
+            event.end();
+            if(event.shouldCommit()) {
+                event.taskId = future.getTaskId();
+                event.taskName = getTaskName(future.getTaskId());
+                event.queueLatency = startTime - future.getQueuedNanos();
+                event.commit();
+            }
+        } else {
+            future.run(stack);
         }
 
-        //TODO: Debug stats, task time, task count, ...
+        long endTime = System.nanoTime();
+        stats.recordExecution(future.getTaskId(), startTime - future.getQueuedNanos(), endTime - startTime);
+        return endTime;
+    }
+
+    /**
+     * Whether tasks are queued, which have not been started yet. Tasks deferred to the next frame, because the time
+     * budget ran out, are still queued. A thread, which waits for new tasks between frames, should therefore only wait
+     * if this method returns {@code false}.
+     */
+    @CallFromAnyThread
+    public boolean hasQueuedTasks() {
+        return queuedTaskCount.sum() > 0L;
+    }
 
+    /**
+     * Always-on statistics of this queue.
+     * @see TaskQueueStats#snapshot()
+     */
+    @CallFromAnyThread
+    public @NotNull TaskQueueStats getStats() {
+        return stats;
     }
 
     @NonBlocking
     public <T> @NotNull TQFuture<T> queueForExecution(@Range(from = 0, to = MAX_TASK_ID) int id, @NotNull TQRunnable<T> runnable) {
+        return queueForExecution(TaskPriority.PER_FRAME, id, runnable);
+    }
+
+    @NonBlocking
+    public @NotNull TQFuture<Nothing> queueForExecution(@Range(from = 0, to = MAX_TASK_ID) int id, @NotNull TQVoidRunnable runnable) {
+        return queueForExecution(TaskPriority.PER_FRAME, id, runnable);
+    }
+
+    @NonBlocking
+    public <T> @NotNull TQFuture<T> queueForExecution(@NotNull TQRunnable<T> runnable) {
+        return queueForExecution(TaskPriority.PER_FRAME, NO_TASK_ID, runnable);
+    }
+
+    @NonBlocking
+    public @NotNull TQFuture<Nothing> queueForExecution(@NotNull TQVoidRunnable runnable) {
+        return queueForExecution(TaskPriority.PER_FRAME, NO_TASK_ID, runnable);
+    }
+
+    @NonBlocking
+    public <T> @NotNull TQFuture<T> queueForExecution(@NotNull TaskPriority priority, @NotNull TQRunnable<T> runnable) {
+        return queueForExecution(priority, NO_TASK_ID, runnable);
+    }
+
+    @NonBlocking
+    public @NotNull TQFuture<Nothing> queueForExecution(@NotNull TaskPriority priority, @NotNull TQVoidRunnable runnable) {
+        return queueForExecution(priority, NO_TASK_ID, runnable);
+    }
+
+    @NonBlocking
+    public <T> @NotNull TQFuture<T> queueForExecution(
+            @NotNull TaskPriority priority,
+            @Range(from = NO_TASK_ID, to = MAX_TASK_ID) int id,
+            @NotNull TQRunnable<T> runnable
+    ) {
         TQFutureImpl<T> f = new TQFutureImpl<>(asyncManager, runnable);
-        queue(id, f);
+        queue(priority, id, f);
         return f;
     }
 
     @NonBlocking
-    public @NotNull TQFuture<Nothing> queueForExecution(@Range(from = 0, to = MAX_TASK_ID) int id, @NotNull TQVoidRunnable runnable) {
+    public @NotNull TQFuture<Nothing> queueForExecution(
+            @NotNull TaskPriority priority,
+            @Range(from = NO_TASK_ID, to = MAX_TASK_ID) int id,
+            @NotNull TQVoidRunnable runnable
+    ) {
         TQFutureImpl<Nothing> f = new TQFutureImpl<>(asyncManager, s -> {
             runnable.run(s);
             return Nothing.INSTANCE;
         });
-        queue(id, f);
+        queue(priority, id, f);
         return f;
     }
 
+    /**
+     * @see #coalesceForExecution(TaskPriority, int, TQRunnable, TQMerger)
+     */
     @NonBlocking
-    public <T> @NotNull TQFuture<T> queueForExecution(@NotNull TQRunnable<T> runnable) {
+    public <T> @NotNull TQFuture<T> coalesceForExecution(@Range(from = 1, to = MAX_TASK_ID) int id, @NotNull TQRunnable<T> runnable) {
+        return coalesceForExecution(TaskPriority.PER_FRAME, id, runnable, TQMerger.latestWins());
+    }
+
+    /**
+     * @see #coalesceForExecution(TaskPriority, int, TQRunnable, TQMerger)
+     */
+    @NonBlocking
+    public @NotNull TQFuture<Nothing> coalesceForExecution(@Range(from = 1, to = MAX_TASK_ID) int id, @NotNull TQVoidRunnable runnable) {
+        return coalesceForExecution(TaskPriority.PER_FRAME, id, s -> {
+            runnable.run(s);
+            return Nothing.INSTANCE;
+        }, TQMerger.latestWins());
+    }
+
+    /**
+     * Queues given {@code runnable} like {@link #queueForExecution(TaskPriority, int, TQRunnable)}, but if a task with
+     * the same {@code id} is already queued, the returned future is not cancelled. Instead, given {@code merger}
+     * merges {@code runnable} into the queued task, which then runs only once. All futures coalesced this way complete
+     * with the result of that single run.
+     * <br><br>
+     * All tasks queued with the same {@code id} must have the same result type {@code T}.
+     * @param id task id, see {@link #getUniqueTaskId(String)}
+     * @param merger merges the runnable of the queued task with {@code runnable}. See {@link TQMerger#latestWins()}.
+     */
+    @NonBlocking
+    public <T> @NotNull TQFuture<T> coalesceForExecution(
+            @NotNull TaskPriority priority,
+            @Range(from = 1, to = MAX_TASK_ID) int id,
+            @NotNull TQRunnable<T> runnable,
+            @NotNull TQMerger<T> merger
+    ) {
         TQFutureImpl<T> f = new TQFutureImpl<>(asyncManager, runnable);
-        queue(NO_TASK_ID, f);
+        if(id > 0 && id <= MAX_TASK_ID) coalesce(priority, id, f, merger);
+        else queue(priority, id, f);
         return f;
     }
 
+    /**
+     * Queues given {@code runnable}, deduplicated by given task {@code key}. If a task with an equal key is already
+     * queued, the returned future is cancelled. Unlike {@link #getUniqueTaskId(String) task ids}, keys are scoped to
+     * this queue and are not limited in number. They are deduplicated across all {@link TaskPriority priorities}.
+     * <br><br>
+     * This is meant for per-object tasks, for example re-uploading a specific buffer. In that case, the buffer itself
+     * or a record containing it can be used as key.
+     * @param key task key, compared using {@link Object#equals(Object)} and {@link Object#hashCode()}.
+     */
     @NonBlocking
-    public @NotNull TQFuture<Nothing> queueForExecution(@NotNull TQVoidRunnable runnable) {
+    public <T> @NotNull TQFuture<T> queueKeyedForExecution(
+            @NotNull TaskPriority priority,
+            @NotNull Object key,
+            @NotNull TQRunnable<T> runnable
+    ) {
+        TQFutureImpl<T> f = new TQFutureImpl<>(asyncManager, runnable);
+        queueKeyed(priority, key, f);
+        return f;
+    }
+
+    /**
+     * @see #queueKeyedForExecution(TaskPriority, Object, TQRunnable)
+     */
+    @NonBlocking
+    public @NotNull TQFuture<Nothing> queueKeyedForExecution(
+            @NotNull TaskPriority priority,
+            @NotNull Object key,
+            @NotNull TQVoidRunnable runnable
+    ) {
         TQFutureImpl<Nothing> f = new TQFutureImpl<>(asyncManager, s -> {
             runnable.run(s);
             return Nothing.INSTANCE;
         });
-        queue(NO_TASK_ID, f);
+        queueKeyed(priority, key, f);
+        return f;
+    }
+
+    /**
+     * Same as {@link #coalesceForExecution(TaskPriority, int, TQRunnable, TQMerger)}, but deduplicated by given task
+     * {@code key} like {@link #queueKeyedForExecution(TaskPriority, Object, TQRunnable)}.
+     * <br><br>
+     * All tasks queued with equal keys must have the same result type {@code T}.
+     */
+    @NonBlocking
+    public <T> @NotNull TQFuture<T> coalesceKeyedForExecution(
+            @NotNull TaskPriority priority,
+            @NotNull Object key,
+            @NotNull TQRunnable<T> runnable,
+            @NotNull TQMerger<T> merger
+    ) {
+        TQFutureImpl<T> f = new TQFutureImpl<>(asyncManager, runnable);
+        coalesceKeyed(priority, key, f, merger);
         return f;
     }
 
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.queue;
+
+import de.linusdev.ljgel.api.misc.annos.CallFromAnyThread;
+import org.jetbrains.annotations.NonBlocking;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Storage used by a {@link TaskQueue}. Futures may be {@link #offer(int, TQFutureImpl) offered} from any thread, but
+ * only a single thread (the thread calling {@link TaskQueue#runQueuedTasks(de.linusdev.lutils.nat.memory.stack.Stack)})
+ * may {@link #peek() peek} and {@link #poll() poll}.
+ */
+public interface TaskQueueBackend {
+
+    /**
+     * Offer given future to this backend. If {@code id} is a valid task id (see {@link TaskQueue#getUniqueTaskId(String)}),
+     * the future must only be added if no other future with the same id is currently queued.
+     * @param id task id or {@link TaskQueue#NO_TASK_ID}
+     * @param future the future to queue
+     * @return {@code true} if the future was queued, {@code false} if a future with the same id is already queued.
+     */
+    @CallFromAnyThread
+    @NonBlocking
+    boolean offer(int id, @NotNull TQFutureImpl<?> future);
+
+    /**
+     * Currently queued future with given task {@code id}. The returned future may be polled concurrently.
+     * @param id task id
+     * @return queued future or {@code null} if no future with given id is queued or {@code id} is not a valid task id.
+     */
+    @CallFromAnyThread
+    @NonBlocking
+    @Nullable TQFutureImpl<?> getQueued(int id);
+
+    /**
+     * Retrieves, but does not remove the next future, which should be run. The next {@link #poll()} call will return the
+     * same future. As long as the future has not been polled, futures with the same task id will not be accepted.
+     * @return next future or {@code null} if this backend is empty.
+     */
+    @NonBlocking
+    @Nullable TQFutureImpl<?> peek();
+
+    /**
+     * Retrieves and removes the next future, which should be run. Once a future with a task id has been polled, a new
+     * future with the same id may be {@link #offer(int, TQFutureImpl) offered} again.
+     * @return next future or {@code null} if this backend is empty.
+     */
+    @NonBlocking
+    @Nullable TQFutureImpl<?> poll();
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.queue;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event for a single {@link TaskQueue#runQueuedTasks(de.linusdev.lutils.nat.memory.stack.Stack)} call, which
+ * executed at least one task or ran out of time budget.
+ */
+@Name("de.linusdev.ljgel.TaskQueueFrame")
+@Label("Task Queue Frame")
+@Description("Queued tasks executed by a TaskQueue in a single frame")
+@Category({"LJGEL", "Task Queue"})
+@StackTrace(false)
+public class TaskQueueFrameEvent extends Event {
+
+    static final EventType TYPE = EventType.getEventType(TaskQueueFrameEvent.class);
+
+    @Label("Executed Tasks")
+    public int executedTasks;
+
+    @Label("Budget Exceeded")
+    public boolean budgetExceeded;
+
+    @Label("Deferred Tasks")
+    @Description("Tasks still queued, when the time budget ran out")
+    public long deferredTasks;
+
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.queue;
+
+import de.linusdev.ljgel.api.misc.annos.CallFromAnyThread;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static de.linusdev.ljgel.engine.queue.TaskQueue.MAX_TASK_ID;
+
+/**
+ * Always-on statistics of a {@link TaskQueue}. Execution time and queue latency (time between queuing and the start
+ * of the execution) are recorded into power-of-two nanosecond histograms per task id. Tasks without an id are recorded
+ * at index {@code 0}. These tasks are unrelated to each other, so no {@link #getExpectedExecutionNanos(int) expected
+ * execution time} is tracked for them.
+ * <br><br>
+ * All values recorded by the thread running the queued tasks are written by that single thread only, which allows
+ * using a plain {@link AtomicLongArray#lazySet(int, long) lazySet} instead of atomic increments.
+ */
+public class TaskQueueStats {
+
+    /**
+     * Count of histogram buckets. Bucket {@code i} contains values in the range {@code [2^(i-1), 2^i)} nanoseconds.
+     * Bucket {@code 0} contains the value {@code 0}. The last bucket contains all values greater than or equal to
+     * {@code 2^(BUCKET_COUNT-2)} nanoseconds (about 1 second).
+     */
+    public static final int BUCKET_COUNT = 32;
+
+    private static final int ID_COUNT = MAX_TASK_ID + 1;
+
+    private static final int EXECUTION_COUNT = 0;
+    private static final int EXECUTION_TOTAL = 1;
+    private static final int EXECUTION_MAX = 2;
+    private static final int CANCELLATIONS = 3;
+    private static final int EXECUTION_AVERAGE = 4;
+    private static final int COALESCED = 5;
+    private static final int VALUES_PER_ID = 6;
+
+    /**
+     * Weight of a new execution time in the {@link #getExpectedExecutionNanos(int) moving average} is
+     * {@code 1 / 2^EXPECTED_EXECUTION_SHIFT}.
+     */
+    private static final int EXPECTED_EXECUTION_SHIFT = 3;
+
+    private final @NotNull AtomicLongArray values = new AtomicLongArray(ID_COUNT * VALUES_PER_ID);
+    private final @NotNull AtomicLongArray executionHistograms = new AtomicLongArray(ID_COUNT * BUCKET_COUNT);
+    private final @NotNull AtomicLongArray latencyHistograms = new AtomicLongArray(ID_COUNT * BUCKET_COUNT);
+
+    private volatile long frames = 0L;
+    private volatile long budgetExceededFrames = 0L;
+    private volatile long deferredTasks = 0L;
+
+    public static int indexOf(int taskId) {
+        return taskId > 0 && taskId <= MAX_TASK_ID ? taskId : 0;
+    }
+
+    public static int bucketOf(long nanos) {
+        if(nanos <= 0L) return 0;
+        return Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    /**
+     * Exclusive upper bound in nanoseconds of given histogram {@code bucket}.
+     */
+    public static long bucketUpperBoundNanos(int bucket) {
+        if(bucket >= BUCKET_COUNT - 1) return Long.MAX_VALUE;
+        return 1L << bucket;
+    }
+
+    private static void increment(@NotNull AtomicLongArray array, int index) {
+        array.lazySet(index, array.get(index) + 1L);
+    }
+
+    @ApiStatus.Internal
+    void recordExecution(int taskId, long latencyNanos, long executionNanos) {
+        int index = indexOf(taskId);
+        int base = index * VALUES_PER_ID;
+
+        long count = values.get(base + EXECUTION_COUNT);
+        values.lazySet(base + EXECUTION_COUNT, count + 1L);
+        values.lazySet(base + EXECUTION_TOTAL, values.get(base + EXECUTION_TOTAL) + executionNanos);
+        if(executionNanos > values.get(base + EXECUTION_MAX))
+            values.lazySet(base + EXECUTION_MAX, executionNanos);
+
+        if(index != 0) {
+            long average = values.get(base + EXECUTION_AVERAGE);
+            values.lazySet(base + EXECUTION_AVERAGE, count == 0L ?
+                    executionNanos : average + ((executionNanos - average) >> EXPECTED_EXECUTION_SHIFT));
+        }
+
+        increment(executionHistograms, index * BUCKET_COUNT + bucketOf(executionNanos));
+        increment(latencyHistograms, index * BUCKET_COUNT + bucketOf(latencyNanos));
+    }
+
+    /**
+     * Exponential moving average of the execution time of tasks with given {@code taskId}. {@code 0} if no task with
+     * given id has been executed yet or if {@code taskId} is {@link TaskQueue#NO_TASK_ID}.
+     */
+    public long getExpectedExecutionNanos(int taskId) {
+        return values.get(indexOf(taskId) * VALUES_PER_ID + EXECUTION_AVERAGE);
+    }
+
+    @CallFromAnyThread
+    @ApiStatus.Internal
+    void recordCancellation(int taskId) {
+        values.incrementAndGet(indexOf(taskId) * VALUES_PER_ID + CANCELLATIONS);
+    }
+
+    @CallFromAnyThread
+    @ApiStatus.Internal
+    void recordCoalesced(int taskId) {
+        values.incrementAndGet(indexOf(taskId) * VALUES_PER_ID + COALESCED);
+    }
+
+    @ApiStatus.Internal
+    @SuppressWarnings("NonAtomicOperationOnVolatileField") // single writer
+    void recordFrame(boolean budgetExceeded, long deferred) {
+        frames++;
+        if(budgetExceeded) budgetExceededFrames++;
+        deferredTasks += deferred;
+    }
+
+    /**
+     * Creates a snapshot of the current statistics. The snapshot is not atomic: tasks executed while the snapshot is
+     * created may be partially contained.
+     */
+    @CallFromAnyThread
+    public @NotNull Snapshot snapshot() {
+        List<TaskStats> tasks = new ArrayList<>();
+
+        for (int id = 0; id < ID_COUNT; id++) {
+            int base = id * VALUES_PER_ID;
+            long count = values.get(base + EXECUTION_COUNT);
+            long cancellations = values.get(base + CANCELLATIONS);
+            long coalesced = values.get(base + COALESCED);
+
+            if(count == 0L && cancellations == 0L && coalesced == 0L)
+                continue;
+
+            long[] executionHistogram = new long[BUCKET_COUNT];
+            long[] latencyHistogram = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                executionHistogram[i] = executionHistograms.get(id * BUCKET_COUNT + i);
+                latencyHistogram[i] = latencyHistograms.get(id * BUCKET_COUNT + i);
+            }
+
+            tasks.add(new TaskStats(
+                    id == 0 ? TaskQueue.NO_TASK_ID : id,
+                    id == 0 ? null : TaskQueue.getTaskName(id),
+                    count,
+                    values.get(base + EXECUTION_TOTAL),
+                    values.get(base + EXECUTION_MAX),
+                    cancellations,
+                    coalesced,
+                    executionHistogram,
+                    latencyHistogram
+            ));
+        }
+
+        return new Snapshot(Collections.unmodifiableList(tasks), frames, budgetExceededFrames, deferredTasks);
+    }
+
+    /**
+     * @param tasks statistics of all task ids, which were executed, cancelled or coalesced at least once.
+     * @param frames count of {@link TaskQueue#runQueuedTasks(de.linusdev.lutils.nat.memory.stack.Stack)} calls
+     * @param budgetExceededFrames count of frames, in which the time budget ran out
+     * @param deferredTasks sum of the tasks, which were still queued, when the time budget ran out. These tasks
+     *                      have been deferred to the next frame.
+     */
+    public record Snapshot(
+            @NotNull List<TaskStats> tasks,
+            long frames,
+            long budgetExceededFrames,
+            long deferredTasks
+    ) { }
+
+    /**
+     * @param taskId task id or {@link TaskQueue#NO_TASK_ID} for all tasks without an id
+     * @param taskName name given to {@link TaskQueue#getUniqueTaskId(String)}
+     * @param executionCount count of executed tasks
+     * @param totalExecutionNanos sum of the execution time of all executed tasks
+     * @param maxExecutionNanos the longest execution time
+     * @param cancellations count of futures, which were cancelled, because a task with the same id was already queued
+     * @param coalesced count of futures, which were coalesced into an already queued task with the same id
+     * @param executionHistogram execution time histogram, see {@link #BUCKET_COUNT}
+     * @param latencyHistogram queue latency histogram, see {@link #BUCKET_COUNT}
+     */
+    public record TaskStats(
+            int taskId,
+            @Nullable String taskName,
+            long executionCount,
+            long totalExecutionNanos,
+            long maxExecutionNanos,
+            long cancellations,
+            long coalesced,
+            long @NotNull [] executionHistogram,
+            long @NotNull [] latencyHistogram
+    ) {
+
+        public double averageExecutionNanos() {
+            return executionCount == 0L ? 0d : (double) totalExecutionNanos / executionCount;
+        }
+
+        /**
+         * Upper bound of the execution time in nanoseconds, below which given {@code percentile} of tasks completed.
+         * @param percentile value between {@code 0} and {@code 1}
+         */
+        public long executionPercentileNanos(double percentile) {
+            return percentile(executionHistogram, percentile);
+        }
+
+        /**
+         * Upper bound of the queue latency in nanoseconds, below which given {@code percentile} of tasks started.
+         * @param percentile value between {@code 0} and {@code 1}
+         */
+        public long latencyPercentileNanos(double percentile) {
+            return percentile(latencyHistogram, percentile);
+        }
+
+        private static long percentile(long @NotNull [] histogram, double percentile) {
+            long total = 0L;
+            for (long v : histogram) total += v;
+
+            long threshold = (long) Math.ceil(total * percentile);
+            long sum = 0L;
+            for (int i = 0; i < histogram.length; i++) {
+                sum += histogram[i];
+                if(sum >= threshold && sum > 0L)
+                    return bucketUpperBoundNanos(i);
+            }
+
+            return 0L;
+        }
+    }
+}
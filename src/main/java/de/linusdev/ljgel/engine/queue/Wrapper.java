@@ -40,6 +40,10 @@ public class Wrapper<T> {
         return id;
     }
 
+    public @Nullable T getItem() {
+        return item;
+    }
+
     public synchronized T getItemAndSetToNull() {
         T temp = item;
         item = null;
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.ticker;
+
+import de.linusdev.ljgel.engine.info.Game;
+import de.linusdev.llog.LLog;
+import de.linusdev.llog.base.LogInstance;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Base class of the {@link Ticker} implementations. Manages the {@link Tickable tickables} and calls them on each tick.
+ * <br><br>
+ * Tickables are grouped by their {@link TickPhase}. Within a phase, {@link Tickable#isParallelSafe() parallel-safe}
+ * tickables are ticked on the {@link #getTickPool() tick pool}, while all other tickables are ticked one after another
+ * on the ticker thread. The next phase starts after all tickables of the current phase finished. See
+ * {@link TickableGroup} for tick divisors and the {@link #setTickBudgetNanos(long) tick budget}.
+ */
+public abstract class AbstractTicker implements Ticker {
+
+    protected final static @NotNull LogInstance log = LLog.getLogInstance();
+
+    /**
+     * Upper limit for the tick budget, so that {@code System.nanoTime() + budget} cannot overflow.
+     */
+    private static final long MAX_BUDGET_NANOS = Long.MAX_VALUE / 4;
+
+    /**
+     * One group per {@link TickPhase}.
+     */
+    private final @NotNull TickableGroup @NotNull [] phases;
+
+    private volatile @NotNull ForkJoinPool tickPool = ForkJoinPool.commonPool();
+    private volatile long tickBudgetNanos = MAX_BUDGET_NANOS;
+
+    /**
+     * Only accessed by the ticker thread.
+     */
+    private long tickIndex = 0L;
+    protected volatile long tickDeadline = 0L;
+    protected volatile double deltaTime = 0d;
+    protected volatile double deltaTimeFactor = 1d;
+
+    protected AbstractTicker() {
+        this.phases = new TickableGroup[TickPhase.VALUES.length];
+        for (int i = 0; i < phases.length; i++)
+            phases[i] = new TickableGroup(1);
+    }
+
+    /**
+     * Creates the ticker for given {@code game}.
+     * @return {@code null} if {@link Game#getMillisPerTick()} is negative, which means the game does not tick.
+     * @throws IllegalArgumentException if {@link Game#getMillisPerTick()} is {@code 0}
+     * @see Game#isFixedTimestep()
+     */
+    public static @Nullable AbstractTicker create(@NotNull Game game) {
+        if(game.getMillisPerTick() < 0L)
+            return null;
+        checkMillisPerTick(game.getMillisPerTick());
+        if(game.isFixedTimestep())
+            return new FixedTimestepTicker(game.getMillisPerTick());
+        return new TickerImpl(game.getMillisPerTick());
+    }
+
+    /**
+     * @throws IllegalArgumentException if given {@code millisPerTick} is not positive
+     */
+    protected static long checkMillisPerTick(long millisPerTick) {
+        if(millisPerTick <= 0L)
+            throw new IllegalArgumentException("millisPerTick must be positive, but is " + millisPerTick + ".");
+        return millisPerTick;
+    }
+
+    public abstract void start();
+
+    public abstract void stop();
+
+    /**
+     * Ticks all {@link Tickable tickables} phase by phase.
+     * @param deltaTime delta time in seconds, already multiplied with the {@link #getDeltaTimeFactor() delta time factor}.
+     */
+    protected void tick(double deltaTime) {
+        this.deltaTime = deltaTime;
+        this.tickDeadline = System.nanoTime() + tickBudgetNanos;
+
+        for (TickableGroup phase : phases)
+            phase.tick(this, tickIndex, deltaTime);
+
+        tickIndex++;
+    }
+
+    @Override
+    public void setDeltaTimeFactor(double deltaTimeFactor) {
+        this.deltaTimeFactor = deltaTimeFactor;
+    }
+
+    @Override
+    public double getDeltaTimeFactor() {
+        return deltaTimeFactor;
+    }
+
+    @Override
+    public void pause() {
+        stop();
+    }
+
+    @Override
+    public void resume() {
+        start();
+    }
+
+    @Override
+    public void addTickable(@NotNull Tickable tickable) {
+        phases[tickable.getTickPhase().ordinal()].add(tickable);
+    }
+
+    @Override
+    public void removeTickable(@NotNull Tickable tickable) {
+        phases[tickable.getTickPhase().ordinal()].remove(tickable);
+    }
+
+    /**
+     * Sets the time budget of a single tick. After the budget ran out, {@link Tickable#isDeferrable() deferrable}
+     * tickables are deferred to the following ticks. Negative values disable the budget, which is the default.
+     */
+    public void setTickBudgetNanos(long tickBudgetNanos) {
+        this.tickBudgetNanos = tickBudgetNanos < 0L ? MAX_BUDGET_NANOS : Math.min(tickBudgetNanos, MAX_BUDGET_NANOS);
+    }
+
+    @Override
+    public long getTickDeadline() {
+        return tickDeadline;
+    }
+
+    /**
+     * Sets the pool, on which {@link Tickable#isParallelSafe() parallel-safe} tickables are ticked. Defaults to the
+     * {@link ForkJoinPool#commonPool() common pool}.
+     */
+    public void setTickPool(@NotNull ForkJoinPool tickPool) {
+        this.tickPool = tickPool;
+    }
+
+    @Override
+    public @NotNull ForkJoinPool getTickPool() {
+        return tickPool;
+    }
+
+    @Override
+    public double getLastDeltaTime() {
+        return deltaTime;
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.ticker;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link Ticker} with a fixed timestep based on {@link System#nanoTime()}. Elapsed time is accumulated and consumed
+ * in steps of exactly one tick, so the simulation does not drift, even if single ticks are late. The delta time passed
+ * to the tickables is always the tick period (multiplied with the {@link #getDeltaTimeFactor() delta time factor}).
+ * <br><br>
+ * If the ticker falls behind, up to {@link #getMaxCatchUpTicks()} ticks are run back to back. If the accumulated time
+ * still exceeds a tick after that, the remaining backlog is dropped (see {@link #getDroppedTicks()}), so that a
+ * simulation, which is too slow, cannot end in a spiral of ever increasing catch-up work.
+ * <br><br>
+ * Renderers can use {@link #getInterpolationAlpha()} to blend between the last two simulation states.
+ * <br><br>
+ * All ticks are run on a single daemon thread, which is started on the first {@link #start()} call. Pausing the ticker
+ * or changing the tick rate does not recreate the thread.
+ */
+public class FixedTimestepTicker extends AbstractTicker implements Runnable {
+
+    public static final int DEFAULT_MAX_CATCH_UP_TICKS = 5;
+
+    /**
+     * Waiting for the next tick is done by parking the thread until this amount of time before the tick and then
+     * spinning, because parking is not precise enough.
+     */
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private volatile long nanosPerTick;
+    private volatile int maxCatchUpTicks;
+
+    private volatile boolean running = false;
+    private @Nullable Thread thread = null;
+
+    /**
+     * {@link System#nanoTime()} the last tick corresponds to. This is not the time the last tick was actually run, but
+     * the time the simulation has advanced to.
+     */
+    private volatile long simulationTime = 0L;
+    private volatile double pausedAlpha = 0d;
+    private volatile long tickCount = 0L;
+    private volatile long droppedTicks = 0L;
+
+    /*
+     * Only accessed by the ticker thread
+     */
+    private long previous = 0L;
+    private long accumulator = 0L;
+
+    /**
+     * @param millisPerTick tick period in milliseconds. Must be positive.
+     */
+    public FixedTimestepTicker(long millisPerTick) {
+        this(TimeUnit.MILLISECONDS.toNanos(checkMillisPerTick(millisPerTick)), DEFAULT_MAX_CATCH_UP_TICKS);
+    }
+
+    /**
+     * @param nanosPerTick tick period in nanoseconds
+     * @param maxCatchUpTicks maximum count of ticks run back to back, if the ticker fell behind.
+     */
+    public FixedTimestepTicker(long nanosPerTick, int maxCatchUpTicks) {
+        setNanosPerTick(nanosPerTick);
+        setMaxCatchUpTicks(maxCatchUpTicks);
+    }
+
+    @Override
+    public synchronized void start() {
+        if(running)
+            return;
+
+        running = true;
+        if(thread == null) {
+            thread = new Thread(this, "fixed-timestep-ticker");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if(!running)
+            return;
+
+        pausedAlpha = getInterpolationAlpha();
+        running = false;
+        if(thread != null)
+            LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void changeMillisPerTick(long millisPerTick) {
+        setNanosPerTick(TimeUnit.MILLISECONDS.toNanos(checkMillisPerTick(millisPerTick)));
+    }
+
+    /**
+     * Changes the tick period. Takes effect with the next tick.
+     */
+    public synchronized void setNanosPerTick(long nanosPerTick) {
+        if(nanosPerTick <= 0L)
+            throw new IllegalArgumentException("nanosPerTick must be positive, but is " + nanosPerTick + ".");
+
+        this.nanosPerTick = nanosPerTick;
+        if(thread != null)
+            LockSupport.unpark(thread);
+    }
+
+    public long getNanosPerTick() {
+        return nanosPerTick;
+    }
+
+    public void setMaxCatchUpTicks(int maxCatchUpTicks) {
+        if(maxCatchUpTicks < 1)
+            throw new IllegalArgumentException("maxCatchUpTicks must be at least 1, but is " + maxCatchUpTicks + ".");
+        this.maxCatchUpTicks = maxCatchUpTicks;
+    }
+
+    public int getMaxCatchUpTicks() {
+        return maxCatchUpTicks;
+    }
+
+    /**
+     * Count of ticks run since the ticker was created.
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Count of ticks, which have been dropped, because the ticker could not catch up.
+     */
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    /**
+     * Fraction of the tick period, which has passed since the simulation time of the last tick. Between {@code 0}
+     * (state of the last tick) and {@code 1} (state of the next tick is due).
+     */
+    @Override
+    public double getInterpolationAlpha() {
+        if(!running)
+            return pausedAlpha;
+        return getInterpolationAlpha(System.nanoTime());
+    }
+
+    /**
+     * {@link #getInterpolationAlpha()} at given {@link System#nanoTime()}.
+     */
+    double getInterpolationAlpha(long now) {
+        double alpha = (double) (now - simulationTime) / nanosPerTick;
+        return Math.max(0d, Math.min(1d, alpha));
+    }
+
+    @Override
+    public void run() {
+        resume(System.nanoTime());
+
+        while (true) {
+            if(!running) {
+                while (!running)
+                    LockSupport.park(this);
+                // Do not catch up on the paused time
+                resume(System.nanoTime());
+                continue;
+            }
+
+            advance(System.nanoTime());
+            waitUntil(previous + nanosPerTick - accumulator);
+        }
+    }
+
+    /**
+     * Discards the accumulated time, so that the next tick is due one tick period after given {@code now}.
+     * @param now current {@link System#nanoTime()}
+     */
+    void resume(long now) {
+        previous = now;
+        accumulator = 0L;
+        simulationTime = now;
+    }
+
+    /**
+     * Accumulates the time passed since the last call and runs all ticks, which are due, but at most
+     * {@link #getMaxCatchUpTicks()}. The backlog exceeding that is dropped.
+     * @param now current {@link System#nanoTime()}
+     * @return count of ticks run
+     */
+    @SuppressWarnings("NonAtomicOperationOnVolatileField") // only written by the ticker thread
+    int advance(long now) {
+        long step = nanosPerTick;
+        accumulator += now - previous;
+        previous = now;
+
+        int ticks = 0;
+        int maxTicks = maxCatchUpTicks;
+        while (accumulator >= step && ticks < maxTicks) {
+            tick((deltaTimeFactor * (double) step) / 1_000_000_000d);
+            accumulator -= step;
+            ticks++;
+            tickCount++;
+        }
+
+        if(accumulator >= step) {
+            // Spiral of death protection: drop the backlog, that could not be caught up
+            droppedTicks += accumulator / step;
+            accumulator %= step;
+        }
+
+        simulationTime = previous - accumulator;
+        return ticks;
+    }
+
+    /**
+     * Waits until given {@link System#nanoTime()} or until the ticker is paused or the tick rate changed.
+     */
+    private void waitUntil(long deadline) {
+        long step = nanosPerTick;
+        long remaining;
+        while (running && step == nanosPerTick && (remaining = deadline - System.nanoTime()) > 0L) {
+            if(remaining > SPIN_NANOS)
+                LockSupport.parkNanos(this, remaining - SPIN_NANOS);
+            else
+                Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.ticker;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Phases of a single tick. Phases are run in the order of this enum. A phase only starts after all
+ * {@link Tickable tickables} of the previous phase finished.
+ * @see Tickable#getTickPhase()
+ */
+public enum TickPhase {
+    /**
+     * Game logic, which changes the intended movement of objects. Default phase.
+     */
+    PRE_PHYSICS,
+    /**
+     * Movement and collision detection.
+     */
+    PHYSICS,
+    /**
+     * Reactions to the results of the physics phase.
+     */
+    POST_PHYSICS,
+    /**
+     * Preparation of the state, which will be rendered.
+     */
+    PRE_RENDER,
+    ;
+
+    static final @NotNull TickPhase @NotNull [] VALUES = values();
+}
@@ -23,4 +23,39 @@ public interface Tickable {
 
     @NonBlocking
     void tick(@NotNull Ticker ticker);
+
+    /**
+     * Phase in which this tickable is ticked. Must not change while this tickable is added to a ticker.
+     */
+    default @NotNull TickPhase getTickPhase() {
+        return TickPhase.PRE_PHYSICS;
+    }
+
+    /**
+     * Whether this tickable may be ticked concurrently with other tickables of the same {@link #getTickPhase() phase}.
+     * Parallel-safe tickables are ticked on the {@link Ticker#getTickPool() tick pool}. Tickables, which are not
+     * parallel-safe, are ticked one after another on the ticker thread. Must not change while this tickable is added
+     * to a ticker.
+     */
+    default boolean isParallelSafe() {
+        return false;
+    }
+
+    /**
+     * This tickable is only ticked every {@code n}-th tick, where {@code n} is the returned value. The
+     * {@link Ticker#getLastDeltaTime() delta time} then contains the time of all ticks since this tickable was ticked
+     * the last time. May change at any time, for example to tick far-away objects less often.
+     */
+    default int getTickDivisor() {
+        return 1;
+    }
+
+    /**
+     * Whether this tickable may be deferred to the following ticks, if the time budget of the current tick ran out.
+     * Critical systems should not be deferrable, so that their tick rate stays stable. Must not change while this
+     * tickable is added to a ticker.
+     */
+    default boolean isDeferrable() {
+        return false;
+    }
 }
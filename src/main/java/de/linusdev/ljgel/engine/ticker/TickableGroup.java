@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.ticker;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Group of {@link Tickable tickables}, which are ticked together.
+ * <ul>
+ *     <li>
+ *         {@link Tickable#isParallelSafe() Parallel-safe} tickables are ticked on the
+ *         {@link Ticker#getTickPool() tick pool}, split into partitions of up to {@link #getPartitionSize()} tickables.
+ *         All other tickables are ticked one after another on the calling thread: first the tickables, which are
+ *         not deferrable, always in the order they were added in, then the deferrable ones.
+ *     </li>
+ *     <li>
+ *         A tickable is only ticked every {@link Tickable#getTickDivisor() n-th} tick.
+ *     </li>
+ *     <li>
+ *         {@link Tickable#isDeferrable() Deferrable} tickables are not started after the
+ *         {@link Ticker#getTickDeadline() deadline} of the tick has passed. They stay due and are ticked in the
+ *         following ticks. The deferrable tickables are visited round-robin, starting with the first one deferred in
+ *         the previous tick, so that all deferred tickables eventually run. At least one due deferrable tickable is ticked per
+ *         tick, even if the deadline has already passed.
+ *     </li>
+ * </ul>
+ * Tickables can be {@link #add(Tickable) added} and {@link #remove(Tickable) removed} from any thread.
+ * {@link #tick(Ticker, long, double)} must only be called by one thread at a time.
+ */
+public class TickableGroup {
+
+    private static final @NotNull TickableState @NotNull [] EMPTY = new TickableState[0];
+
+    private final int partitionSize;
+
+    /**
+     * Not deferrable and not parallel-safe. Copy on write, guarded by {@code this}.
+     */
+    private volatile @NotNull TickableState @NotNull [] sequential = EMPTY;
+    /**
+     * Deferrable and not parallel-safe. Copy on write, guarded by {@code this}.
+     */
+    private volatile @NotNull TickableState @NotNull [] deferrable = EMPTY;
+    /**
+     * Copy on write, guarded by {@code this}.
+     */
+    private volatile @NotNull TickableState @NotNull [] parallel = EMPTY;
+
+    /**
+     * Index at which the next tick starts visiting the tickables. Only accessed by the ticking thread.
+     */
+    private int deferrableCursor = 0;
+    private int parallelCursor = 0;
+
+    /**
+     * @param partitionSize maximum count of parallel-safe tickables ticked by a single task of the tick pool.
+     */
+    public TickableGroup(int partitionSize) {
+        if(partitionSize < 1)
+            throw new IllegalArgumentException("partitionSize must be at least 1, but is " + partitionSize + ".");
+        this.partitionSize = partitionSize;
+    }
+
+    public int getPartitionSize() {
+        return partitionSize;
+    }
+
+    public synchronized void add(@NotNull Tickable tickable) {
+        TickableState state = new TickableState(tickable);
+        if(tickable.isParallelSafe()) parallel = append(parallel, state);
+        else if(tickable.isDeferrable()) deferrable = append(deferrable, state);
+        else sequential = append(sequential, state);
+    }
+
+    public synchronized void remove(@NotNull Tickable tickable) {
+        if(tickable.isParallelSafe()) parallel = remove(parallel, tickable);
+        else if(tickable.isDeferrable()) deferrable = remove(deferrable, tickable);
+        else sequential = remove(sequential, tickable);
+    }
+
+    /**
+     * Replaces all tickables of this group with given {@code states}. Useful, if the tickables change often and are
+     * stored somewhere else anyway.
+     */
+    public synchronized void set(@NotNull Iterable<TickableState> states) {
+        List<TickableState> sequential = new ArrayList<>();
+        List<TickableState> deferrable = new ArrayList<>();
+        List<TickableState> parallel = new ArrayList<>();
+        for (TickableState state : states) {
+            Tickable tickable = state.getTickable();
+            if(tickable.isParallelSafe()) parallel.add(state);
+            else if(tickable.isDeferrable()) deferrable.add(state);
+            else sequential.add(state);
+        }
+
+        this.sequential = sequential.toArray(EMPTY);
+        this.deferrable = deferrable.toArray(EMPTY);
+        this.parallel = parallel.toArray(EMPTY);
+    }
+
+    private static @NotNull TickableState @NotNull [] append(@NotNull TickableState @NotNull [] states, @NotNull TickableState state) {
+        TickableState[] copy = Arrays.copyOf(states, states.length + 1);
+        copy[copy.length - 1] = state;
+        return copy;
+    }
+
+    private static @NotNull TickableState @NotNull [] remove(@NotNull TickableState @NotNull [] states, @NotNull Tickable tickable) {
+        for (int i = 0; i < states.length; i++) {
+            if(states[i].getTickable() != tickable)
+                continue;
+
+            TickableState[] copy = new TickableState[states.length - 1];
+            System.arraycopy(states, 0, copy, 0, i);
+            System.arraycopy(states, i + 1, copy, i, states.length - i - 1);
+            return copy;
+        }
+
+        return states;
+    }
+
+    /**
+     * Ticks all due tickables of this group and waits until they finished.
+     * @param ticker ticker of the current tick
+     * @param tickIndex index of the current tick, used for the {@link Tickable#getTickDivisor() tick divisors}
+     * @param deltaTime delta time of the current tick in seconds
+     */
+    public void tick(@NotNull Ticker ticker, long tickIndex, double deltaTime) {
+        TickableState[] sequential = this.sequential;
+        TickableState[] deferrable = this.deferrable;
+        TickableState[] parallel = this.parallel;
+        long deadline = ticker.getTickDeadline();
+
+        ForkJoinTask<?> task = null;
+        ParallelTick action = null;
+        if(parallel.length > 0) {
+            int start = parallelCursor % parallel.length;
+            action = new ParallelTick(ticker, parallel, start, tickIndex, deltaTime, deadline);
+            task = ticker.getTickPool().submit(action);
+        }
+
+        for (TickableState state : sequential) {
+            if(state.update(ticker, tickIndex, deltaTime))
+                state.tick();
+        }
+
+        if(deferrable.length > 0) {
+            int start = deferrableCursor % deferrable.length;
+            int deferred = -1;
+            boolean progress = false;
+
+            for (int k = 0; k < deferrable.length; k++) {
+                TickableState state = deferrable[(start + k) % deferrable.length];
+                if(!state.update(ticker, tickIndex, deltaTime))
+                    continue;
+
+                if(progress && System.nanoTime() - deadline > 0L) {
+                    if(deferred == -1) deferred = k;
+                    continue;
+                }
+                progress = true;
+                state.tick();
+            }
+
+            if(deferred != -1)
+                deferrableCursor = (start + deferred) % deferrable.length;
+        }
+
+        if(task != null) {
+            task.join();
+            int deferred = action.firstDeferred.get();
+            if(deferred != Integer.MAX_VALUE)
+                parallelCursor = (action.start + deferred) % parallel.length;
+        }
+    }
+
+    /**
+     * Root task ticking all parallel-safe tickables.
+     */
+    private class ParallelTick extends RecursiveAction {
+
+        private final @NotNull Ticker ticker;
+        private final @NotNull TickableState @NotNull [] states;
+        private final int start;
+        private final long tickIndex;
+        private final double deltaTime;
+        private final long deadline;
+
+        /**
+         * Smallest visiting position (relative to {@link #start}) of a deferred tickable.
+         */
+        private final @NotNull AtomicInteger firstDeferred = new AtomicInteger(Integer.MAX_VALUE);
+        private final @NotNull AtomicBoolean progress = new AtomicBoolean(false);
+
+        private ParallelTick(
+                @NotNull Ticker ticker,
+                @NotNull TickableState @NotNull [] states,
+                int start, long tickIndex, double deltaTime, long deadline
+        ) {
+            this.ticker = ticker;
+            this.states = states;
+            this.start = start;
+            this.tickIndex = tickIndex;
+            this.deltaTime = deltaTime;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected void compute() {
+            new Partition(this, 0, states.length).compute();
+        }
+
+        void tick(int from, int to) {
+            for (int k = from; k < to; k++) {
+                TickableState state = states[(start + k) % states.length];
+                if(!state.update(ticker, tickIndex, deltaTime))
+                    continue;
+
+                if(state.getTickable().isDeferrable()) {
+                    if(System.nanoTime() - deadline > 0L && !progress.compareAndSet(false, true)) {
+                        firstDeferred.accumulateAndGet(k, Math::min);
+                        continue;
+                    }
+                    progress.lazySet(true);
+                }
+
+                state.tick();
+            }
+        }
+    }
+
+    /**
+     * Splits a range of the parallel-safe tickables in halves, until at most {@link #partitionSize} remain.
+     */
+    private class Partition extends RecursiveAction {
+
+        private final @NotNull ParallelTick root;
+        private final int from;
+        private final int to;
+
+        private Partition(@NotNull ParallelTick root, int from, int to) {
+            this.root = root;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= partitionSize) {
+                root.tick(from, to);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new Partition(root, from, mid), new Partition(root, mid, to));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.ticker;
+
+import de.linusdev.llog.LLog;
+import de.linusdev.llog.base.LogInstance;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Scheduling state of a single {@link Tickable} inside a {@link TickableGroup}. The tickable is ticked with this state
+ * as {@link Ticker}, so that {@link #getLastDeltaTime()} returns the time accumulated since the tickable last ran.
+ * All other methods are delegated to the ticker of the current tick.
+ * <br><br>
+ * A state is only updated and ticked by a single thread per tick.
+ */
+public class TickableState implements Ticker {
+
+    private final static @NotNull LogInstance log = LLog.getLogInstance();
+
+    private final @NotNull Tickable tickable;
+    /**
+     * Spreads tickables with the same {@link Tickable#getTickDivisor() divisor} over different ticks.
+     */
+    private final int offset;
+
+    /**
+     * Ticker of the current tick, set in {@link #update(Ticker, long, double)}.
+     */
+    @SuppressWarnings("NotNullFieldNotInitialized")
+    private @NotNull Ticker ticker;
+    private double accumulatedDelta = 0d;
+    private double lastDelta = 0d;
+    private boolean pending = false;
+
+    public TickableState(@NotNull Tickable tickable) {
+        this.tickable = tickable;
+        this.offset = System.identityHashCode(tickable) & 0xFFFF;
+    }
+
+    public @NotNull Tickable getTickable() {
+        return tickable;
+    }
+
+    /**
+     * Accumulates given {@code deltaTime} and checks whether the tickable is due in the current tick.
+     * @param ticker ticker of the current tick
+     * @param tickIndex index of the current tick
+     * @param deltaTime delta time of the current tick
+     * @return {@code true} if the tickable should be {@link #tick() ticked}. Stays {@code true} in the following ticks,
+     * until the tickable has been ticked.
+     */
+    boolean update(@NotNull Ticker ticker, long tickIndex, double deltaTime) {
+        this.ticker = ticker;
+        accumulatedDelta += deltaTime;
+
+        if(!pending) {
+            int divisor = Math.max(1, tickable.getTickDivisor());
+            pending = (tickIndex + offset) % divisor == 0L;
+        }
+
+        return pending;
+    }
+
+    /**
+     * Ticks the tickable with the delta time accumulated since its last tick.
+     */
+    void tick() {
+        lastDelta = accumulatedDelta;
+        accumulatedDelta = 0d;
+        pending = false;
+
+        try {
+            tickable.tick(this);
+        } catch (Throwable t) {
+            log.throwable(t);
+        }
+    }
+
+    /**
+     * Delta time accumulated since the tickable was ticked the last time. Larger than the delta time of the ticker, if
+     * the tickable has a {@link Tickable#getTickDivisor() tick divisor} or was deferred.
+     */
+    @Override
+    public double getLastDeltaTime() {
+        return lastDelta;
+    }
+
+    @Override
+    public void addTickable(@NotNull Tickable tickable) {
+        ticker.addTickable(tickable);
+    }
+
+    @Override
+    public void removeTickable(@NotNull Tickable tickable) {
+        ticker.removeTickable(tickable);
+    }
+
+    @Override
+    public void changeMillisPerTick(long millisPerTick) {
+        ticker.changeMillisPerTick(millisPerTick);
+    }
+
+    @Override
+    public void setDeltaTimeFactor(double deltaTimeFactor) {
+        ticker.setDeltaTimeFactor(deltaTimeFactor);
+    }
+
+    @Override
+    public double getDeltaTimeFactor() {
+        return ticker.getDeltaTimeFactor();
+    }
+
+    @Override
+    public void pause() {
+        ticker.pause();
+    }
+
+    @Override
+    public void resume() {
+        ticker.resume();
+    }
+
+    @Override
+    public double getInterpolationAlpha() {
+        return ticker.getInterpolationAlpha();
+    }
+
+    @Override
+    public @NotNull ForkJoinPool getTickPool() {
+        return ticker.getTickPool();
+    }
+
+    @Override
+    public long getTickDeadline() {
+        return ticker.getTickDeadline();
+    }
+}
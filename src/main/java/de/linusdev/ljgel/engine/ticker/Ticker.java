@@ -18,6 +18,8 @@ package de.linusdev.ljgel.engine.ticker;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.concurrent.ForkJoinPool;
+
 public interface Ticker {
 
     void addTickable(@NotNull Tickable tickable);
@@ -36,4 +38,22 @@ public interface Ticker {
 
     double getLastDeltaTime();
 
+    /**
+     * Fraction of the tick period, which has passed since the last tick. Between {@code 0} and {@code 1}. Renderers
+     * can use this value to interpolate between the state of the previous and the last tick.
+     */
+    double getInterpolationAlpha();
+
+    /**
+     * Work-stealing pool, on which {@link Tickable#isParallelSafe() parallel-safe} tickables are ticked. Tickables may
+     * use it to split their own work.
+     */
+    @NotNull ForkJoinPool getTickPool();
+
+    /**
+     * {@link System#nanoTime()} until which the current tick should be finished. {@link Tickable#isDeferrable()
+     * Deferrable} tickables are not started after this deadline.
+     */
+    long getTickDeadline();
+
 }
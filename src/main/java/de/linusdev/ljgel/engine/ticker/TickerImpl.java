@@ -16,9 +16,6 @@
 
 package de.linusdev.ljgel.engine.ticker;
 
-import de.linusdev.llog.LLog;
-import de.linusdev.llog.base.LogInstance;
-import de.linusdev.lutils.collections.llist.LLinkedList;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -27,91 +24,62 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * {@link Ticker}, which ticks at a fixed rate using a {@link ScheduledExecutorService}. The delta time passed to the
+ * tickables is the measured time since the last tick. Ticks which are late are not caught up.
+ * @see FixedTimestepTicker
+ */
 @SuppressWarnings("unused")
-public class TickerImpl implements Runnable, Ticker {
-
-    private final static @NotNull LogInstance log = LLog.getLogInstance();
+public class TickerImpl extends AbstractTicker implements Runnable {
 
-    private final @NotNull LLinkedList<Tickable> tickables;
-    private long millisPerTick;
+    private volatile long millisPerTick;
 
     private final @NotNull ScheduledExecutorService executor;
     private @Nullable ScheduledFuture<?> future;
 
-    private long lastTickStart = 0L;
-    private double deltaTime = 0d;
-    private double deltaTimeFactor = 1d;
+    private volatile long lastTickStart = 0L;
 
     public TickerImpl(long millisPerTick) {
-        this.tickables = new LLinkedList<>();
-        this.millisPerTick = millisPerTick;
+        this.millisPerTick = checkMillisPerTick(millisPerTick);
         this.executor = Executors.newSingleThreadScheduledExecutor();
     }
 
+    @Override
     public synchronized void start() {
-        lastTickStart = System.currentTimeMillis() - millisPerTick;
+        lastTickStart = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(millisPerTick);
         if(future == null || future.isDone())
             future = executor.scheduleAtFixedRate(this, 0, millisPerTick, TimeUnit.MILLISECONDS);
     }
 
+    @Override
     public synchronized void stop() {
         if(future != null)
             future.cancel(false);
     }
 
-    public synchronized void changeMillisPerTick(long millisPerTick) {
-        executor.shutdown();
-        try {
-            //noinspection ResultOfMethodCallIgnored
-            executor.awaitTermination(this.millisPerTick, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException ignored) {}
-        this.millisPerTick = millisPerTick;
-        start();
-    }
-
-    public void setDeltaTimeFactor(double deltaTimeFactor) {
-        this.deltaTimeFactor = deltaTimeFactor;
-    }
-
     @Override
-    public double getDeltaTimeFactor() {
-        return deltaTimeFactor;
-    }
-
-    @Override
-    public void pause() {
+    public synchronized void changeMillisPerTick(long millisPerTick) {
+        boolean running = future != null && !future.isDone();
+        checkMillisPerTick(millisPerTick);
         stop();
+        this.millisPerTick = millisPerTick;
+        if(running)
+            start();
     }
 
     @Override
-    public void resume() {
-        start();
-    }
-
-    public void addTickable(@NotNull Tickable tickable) {
-        tickables.add(tickable);
-    }
-
-    public void removeTickable(@NotNull Tickable tickable) {
-        tickables.remove(tickable);
+    public double getInterpolationAlpha() {
+        long nanosPerTick = TimeUnit.MILLISECONDS.toNanos(millisPerTick);
+        if(nanosPerTick <= 0L)
+            return 1d;
+        return Math.min(1d, (double) (System.nanoTime() - lastTickStart) / nanosPerTick);
     }
 
     @Override
     public void run() {
-        try {
-            long delta = System.currentTimeMillis() - lastTickStart;
-            deltaTime = (deltaTimeFactor * (double) delta) / 1000d;
-            lastTickStart = System.currentTimeMillis();
-
-            for (Tickable tickable : tickables) {
-                tickable.tick(this);
-            }
-        } catch (Throwable t) {
-            log.throwable(t);
-        }
-    }
-
-    public double getLastDeltaTime() {
-        return deltaTime;
+        long now = System.nanoTime();
+        long delta = now - lastTickStart;
+        lastTickStart = now;
+        tick((deltaTimeFactor * (double) delta) / 1_000_000_000d);
     }
 }
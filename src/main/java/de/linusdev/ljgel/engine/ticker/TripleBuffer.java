@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.ticker;
+
+import de.linusdev.lutils.nat.struct.abstracts.Structure;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free handoff of {@link Structure}-based game state from the ticker thread (writer) to the render thread
+ * (reader). The writer writes into its {@link #getBack() back} buffer and {@link #publish() publishes} it. The reader
+ * {@link #acquire() acquires} the latest published snapshot. Neither side ever waits for the other and the reader never
+ * sees a snapshot, which is still being written.
+ * <br><br>
+ * Three buffers are used for the handoff: the back buffer of the writer, the ready buffer and the
+ * {@link #getLatest() latest} snapshot of the reader. Publishing and acquiring swap a buffer with the ready buffer using
+ * a single atomic operation. The reader additionally keeps the {@link #getPrevious() previous} snapshot, so it can
+ * interpolate between the last two ticks (see {@link #getInterpolationAlpha(long)}). A renderer running at 144 Hz can
+ * therefore smoothly display a simulation running at 30 Hz.
+ * <br><br>
+ * The interpolation alpha is calculated like {@link Ticker#getInterpolationAlpha()}, but based on the time the
+ * snapshots were published. The alpha of the ticker changes when the ticker finished its tick, which is not
+ * necessarily the time, the reader acquires the snapshot of that tick. Combining both would move the displayed state
+ * backwards for a frame.
+ * <br><br>
+ * The back buffer contains an old snapshot, when it is handed to the writer. The writer must either write the complete
+ * state each time or keep its state in a separate structure, which is copied once using {@link #publish(Structure)}.
+ */
+public class TripleBuffer<S extends Structure> {
+
+    private static final int INDEX_MASK = 0b11;
+    /**
+     * Set in {@link #ready}, if the ready buffer has been published and not yet acquired.
+     */
+    private static final int FRESH = 0b100;
+
+    private final @NotNull S @NotNull [] buffers;
+    /**
+     * Sequence number of the snapshot in each buffer. Written by the writer before publishing and read by the reader
+     * after acquiring the buffer.
+     */
+    private final long @NotNull [] sequences = new long[4];
+    /**
+     * {@link System#nanoTime()} the snapshot in each buffer was published at. Accessed like {@link #sequences}.
+     */
+    private final long @NotNull [] publishNanos = new long[4];
+
+    /**
+     * Index of the ready buffer and the {@link #FRESH} flag.
+     */
+    private final @NotNull AtomicInteger ready = new AtomicInteger(1);
+
+    /*
+     * Only accessed by the writer
+     */
+    private int back = 0;
+    private long published = 0L;
+
+    /*
+     * Only accessed by the reader
+     */
+    private int latest = 2;
+    private int previous = 3;
+
+    /**
+     * @param factory creates an allocated structure. Called four times. All structures must have the same size.
+     */
+    @SuppressWarnings("unchecked")
+    public TripleBuffer(@NotNull Supplier<@NotNull S> factory) {
+        this.buffers = (S[]) new Structure[4];
+        for (int i = 0; i < buffers.length; i++)
+            buffers[i] = factory.get();
+
+        for (S buffer : buffers) {
+            if(buffer.getRequiredSize() != buffers[0].getRequiredSize())
+                throw new IllegalArgumentException("All structures must have the same size.");
+        }
+    }
+
+    /* ================================================================================================= *\
+    |                                                                                                     |
+    |                                               Writer                                                |
+    |                                                                                                     |
+    \* ================================================================================================= */
+
+    /**
+     * The buffer the writer may write into. Contains an old snapshot. Only the writer may call this method. Changes
+     * after the next {@link #publish()} call.
+     */
+    public @NotNull S getBack() {
+        return buffers[back];
+    }
+
+    /**
+     * Publishes the {@link #getBack() back} buffer. The writer receives a new back buffer. Only the writer may call this
+     * method.
+     */
+    public void publish() {
+        sequences[back] = ++published;
+        publishNanos[back] = System.nanoTime();
+        // getAndSet publishes all writes to the back buffer
+        back = ready.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Copies given {@code state} into the {@link #getBack() back} buffer and {@link #publish() publishes} it. Only the
+     * writer may call this method.
+     * @param state structure of the same size as the structures of this triple buffer
+     */
+    public void publish(@NotNull S state) {
+        ByteBuffer source = state.getByteBuffer();
+        ByteBuffer target = buffers[back].getByteBuffer();
+        target.put(0, source, 0, buffers[back].getRequiredSize());
+        publish();
+    }
+
+    /**
+     * Count of snapshots published so far. Only the writer may call this method.
+     */
+    public long getPublishedCount() {
+        return published;
+    }
+
+    /* ================================================================================================= *\
+    |                                                                                                     |
+    |                                               Reader                                                |
+    |                                                                                                     |
+    \* ================================================================================================= */
+
+    /**
+     * Acquires the snapshot published last, if it has not been acquired yet. The snapshot acquired before becomes the
+     * {@link #getPrevious() previous} snapshot. Only the reader may call this method.
+     * @return {@code true} if a new snapshot was acquired
+     */
+    public boolean acquire() {
+        // Only the reader clears the flag, so it is still set after the check
+        if((ready.get() & FRESH) == 0)
+            return false;
+
+        // Hand the oldest snapshot back to the writer
+        int acquired = ready.getAndSet(previous) & INDEX_MASK;
+        previous = latest;
+        latest = acquired;
+        return true;
+    }
+
+    /**
+     * The snapshot acquired last. Contains the state of the initially created structures, if no snapshot has been
+     * acquired yet. Only the reader may call this method. Changes after the next successful {@link #acquire()} call.
+     */
+    public @NotNull S getLatest() {
+        return buffers[latest];
+    }
+
+    /**
+     * The snapshot acquired before {@link #getLatest() the latest} snapshot. Only the reader may call this method.
+     * @see #isPreviousDirectlyBeforeLatest()
+     */
+    public @NotNull S getPrevious() {
+        return buffers[previous];
+    }
+
+    /**
+     * Sequence number of the {@link #getLatest() latest} snapshot. The first published snapshot has the sequence
+     * number {@code 1}. {@code 0} if no snapshot has been acquired yet. Only the reader may call this method.
+     */
+    public long getLatestSequence() {
+        return sequences[latest];
+    }
+
+    /**
+     * Whether the {@link #getPrevious() previous} snapshot was published directly before the
+     * {@link #getLatest() latest} snapshot. This is not the case, if the reader did not acquire every snapshot, for
+     * example because rendering is slower than ticking. Only the reader may call this method.
+     */
+    public boolean isPreviousDirectlyBeforeLatest() {
+        return sequences[latest] != 0L && sequences[previous] + 1L == sequences[latest];
+    }
+
+    /**
+     * Factor to interpolate from the {@link #getPrevious() previous} to the {@link #getLatest() latest} snapshot:
+     * {@code previous + (latest - previous) * alpha}. The time passed since the latest snapshot was published, divided
+     * by the time between publishing both snapshots. Between {@code 0} and {@code 1}.
+     * <br><br>
+     * If the previous snapshot was not {@link #isPreviousDirectlyBeforeLatest() published directly before} the latest
+     * one, it is not the state of the previous tick and {@code 1} is returned, so that the latest snapshot is displayed
+     * as it is. Only the reader may call this method.
+     * @param nanoTime current {@link System#nanoTime()}
+     */
+    public float getInterpolationAlpha(long nanoTime) {
+        if(!isPreviousDirectlyBeforeLatest())
+            return 1f;
+
+        long interval = publishNanos[latest] - publishNanos[previous];
+        if(interval <= 0L)
+            return 1f;
+
+        double alpha = (double) (nanoTime - publishNanos[latest]) / interval;
+        return (float) Math.max(0d, Math.min(1d, alpha));
+    }
+
+    /**
+     * Interpolates between the value of the {@link #getPrevious() previous} and the {@link #getLatest() latest}
+     * snapshot.
+     * @param alpha see {@link #getInterpolationAlpha(long)}
+     */
+    public static float interpolate(float previous, float latest, float alpha) {
+        return previous + (latest - previous) * alpha;
+    }
+}
@@ -19,6 +19,8 @@ package de.linusdev.ljgel.engine.vk;
 import de.linusdev.ljgel.engine.AbstractEngine;
 import de.linusdev.ljgel.engine.NativeInteropEngine;
 import de.linusdev.ljgel.engine.exception.EngineException;
+import de.linusdev.ljgel.engine.job.JobGraph;
+import de.linusdev.ljgel.engine.queue.TaskPriority;
 import de.linusdev.ljgel.engine.queue.TaskQueue;
 import de.linusdev.ljgel.engine.scene.Loader;
 import de.linusdev.ljgel.engine.scene.State;
@@ -147,7 +149,7 @@ public class VulkanEngine<GAME extends VulkanGame> extends AbstractEngine<GAME>
             scene.currentState().set(State.LOADING);
             loader.start(stack);
             scene.currentState().set(State.LOADED);
-            currentScene = new SceneHolder(scene, instance, swapChain, renderer);
+            currentScene = new SceneHolder(scene, instance, swapChain, renderer, new JobGraph(executors.cpuPool()));
             currentRenderPass = new RenderPassHolder(scene.getRenderPass());
             scene.currentState().set(State.RENDERING);
         } catch (IOException e) {
@@ -183,6 +185,7 @@ public class VulkanEngine<GAME extends VulkanGame> extends AbstractEngine<GAME>
             window.close();
             device.close();
             instance.close();
+            executors.shutdown();
 
         });
 
@@ -244,7 +247,7 @@ public class VulkanEngine<GAME extends VulkanGame> extends AbstractEngine<GAME>
 
             scene.currentState().set(State.LOADED);
 
-            fut.complete(new LoadedScene<>(scene, s -> renderThread.getTaskQueue().queueForExecution(LOAD_SCENE_TASK_ID, renderThreadStack -> {
+            fut.complete(new LoadedScene<>(scene, s -> renderThread.getTaskQueue().queueForExecution(TaskPriority.BACKGROUND, LOAD_SCENE_TASK_ID, renderThreadStack -> {
                 // Wait until the old resources (Frame buffers) are not used anymore
                 renderer.waitIdle();
 
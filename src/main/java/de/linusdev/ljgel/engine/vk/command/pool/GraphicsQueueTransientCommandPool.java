@@ -16,6 +16,8 @@
 
 package de.linusdev.ljgel.engine.vk.command.pool;
 
+import de.linusdev.ljgel.engine.queue.TQVoidRunnable;
+import de.linusdev.ljgel.engine.queue.TaskPriority;
 import de.linusdev.ljgel.engine.vk.VulkanEngine;
 import de.linusdev.ljgel.engine.vk.device.Device;
 import de.linusdev.ljgel.engine.vk.instance.Instance;
@@ -32,7 +34,9 @@ import de.linusdev.lutils.async.Nothing;
 import de.linusdev.lutils.async.completeable.CompletableFuture;
 import de.linusdev.lutils.nat.memory.stack.Stack;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import static de.linusdev.lutils.nat.pointer.TypedPointer64.ref;
@@ -76,6 +80,22 @@ public class GraphicsQueueTransientCommandPool extends CommandPool {
      */
     public Future<Nothing, VulkanEngine<?>> submitSingleTimeCommand(
             @NotNull Consumer<VkCommandBuffer> recordCommandBuffer
+    ) {
+        return submitSingleTimeCommand((stack, vkCommandBuffer) -> recordCommandBuffer.accept(vkCommandBuffer), null);
+    }
+
+    /**
+     * Will record and queue a command buffer using given {@code recordCommandBuffer} function. The recording and
+     * queuing of the command buffer happens on the {@link VulkanEngine#getRenderThread() renderThread}.
+     * @param recordCommandBuffer function to record command buffer. commandBuffer has already begun when this function
+     *                            is called and will be automatically ended when this function returns.
+     * @param onCompleted queued on the {@link VulkanEngine#getRenderThread() renderThread}, after the fence of the
+     *                    command buffer signaled. May for example free resources only used by the command buffer.
+     * @return {@link Future} to wait until the work is done.
+     */
+    public Future<Nothing, VulkanEngine<?>> submitSingleTimeCommand(
+            @NotNull BiConsumer<Stack, VkCommandBuffer> recordCommandBuffer,
+            @Nullable TQVoidRunnable onCompleted
     ) {
         var fut = CompletableFuture.<Nothing, VulkanEngine<?>>create(engine.getAsyncManager(), true);
 
@@ -99,7 +119,7 @@ public class GraphicsQueueTransientCommandPool extends CommandPool {
 
             vkInstance.vkBeginCommandBuffer(vkCommandBuffer, ref(beginInfo));
 
-            recordCommandBuffer.accept(vkCommandBuffer);
+            recordCommandBuffer.accept(stack, vkCommandBuffer);
 
             vkInstance.vkEndCommandBuffer(vkCommandBuffer);
 
@@ -116,9 +136,11 @@ public class GraphicsQueueTransientCommandPool extends CommandPool {
 
             vkInstance.vkQueueSubmit(device.getGraphicsQueue(), 1, ref(submitInfo), fence);
 
-            engine.runSupervisedV(() -> {
+            engine.runSupervisedNativeBlockingV(() -> {
                 vkInstance.vkWaitForFences(device.getVkDevice(), 1, ref(fence), true, Long.MAX_VALUE).check();
                 vkInstance.vkDestroyFence(device.getVkDevice(), fence, ref(null));
+                if(onCompleted != null)
+                    engine.getRenderThread().getTaskQueue().queueForExecution(TaskPriority.BACKGROUND, onCompleted);
                 fut.complete(Nothing.INSTANCE, engine, null);
             });
 
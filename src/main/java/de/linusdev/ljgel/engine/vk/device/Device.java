@@ -277,6 +277,36 @@ public class Device implements AutoCloseable {
         return ret;
     }
 
+    /**
+     * Size in bytes of the memory heap the memory type with given {@code memoryTypeIndex} belongs to.
+     */
+    public long getMemoryHeapSizeOf(@NotNull Stack stack, int memoryTypeIndex) {
+        VkPhysicalDeviceMemoryProperties memProps = stack.push(new VkPhysicalDeviceMemoryProperties());
+        vkInstance.vkGetPhysicalDeviceMemoryProperties(vkPhysicalDevice, ref(memProps));
+
+        int heapIndex = memProps.memoryTypes.get(memoryTypeIndex).heapIndex.get();
+        long size = memProps.memoryHeaps.get(heapIndex).size.get();
+
+        stack.pop(); // memProps
+
+        return size;
+    }
+
+    /**
+     * Granularity in bytes, at which linear resources (buffers and linear tiling images) and non-linear resources
+     * (optimal tiling images) must be separated, if they are bound to the same {@code VkDeviceMemory}.
+     */
+    public long getBufferImageGranularity() {
+        return deviceProperties.limits.bufferImageGranularity.get();
+    }
+
+    /**
+     * Alignment in bytes, which the offset of a uniform buffer descriptor must have.
+     */
+    public long getMinUniformBufferOffsetAlignment() {
+        return deviceProperties.limits.minUniformBufferOffsetAlignment.get();
+    }
+
     public @NotNull VkDevice getVkDevice() {
         return vkDevice;
     }
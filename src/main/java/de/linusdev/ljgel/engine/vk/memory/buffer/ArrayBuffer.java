@@ -44,7 +44,7 @@ public abstract class ArrayBuffer<V extends Structure> {
         this.input = input;
         this.output = output;
         this.offset = allocate(new VkDeviceSize());
-        this.offset.set(0);
+        this.offset.set(output.getBufferOffset());
     }
 
     public abstract void bufferCopyCommand(
@@ -53,7 +53,7 @@ public abstract class ArrayBuffer<V extends Structure> {
     );
 
     public @NotNull VkBuffer getVkBuffer() {
-        return output.getVulkanBuffer().getVkBuffer();
+        return output.getVkBuffer();
     }
 
     public @NotNull VkDeviceSize getOffset() {
@@ -67,4 +67,8 @@ public abstract class ArrayBuffer<V extends Structure> {
     public @NotNull BufferArrayInput<V> getInput() {
         return input;
     }
+
+    public @NotNull BufferOutput getOutput() {
+        return output;
+    }
 }
@@ -64,6 +64,11 @@ public class BufferArrayInput<V extends Structure> extends BufferInput implement
         return backedArray.getInfo();
     }
 
+    @Override
+    public @NotNull Structure getBackedStructure() {
+        return backedArray;
+    }
+
     @Override
     public void vulkanBufferMapped(@NotNull ByteBuffer mapped) {
         backedArray.claimBuffer(mapped);
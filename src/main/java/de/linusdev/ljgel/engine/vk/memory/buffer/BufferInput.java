@@ -17,27 +17,95 @@
 package de.linusdev.ljgel.engine.vk.memory.buffer;
 
 import de.linusdev.ljgel.engine.vk.memory.manager.MappingListener;
-import de.linusdev.ljgel.engine.vk.memory.manager.objects.buffer.VulkanBuffer;
+import de.linusdev.ljgel.engine.vk.memory.manager.objects.buffer.BufferRange;
+import de.linusdev.ljgel.engine.vk.memory.upload.UploadManager;
 import de.linusdev.ljgel.nat.vulkan.handles.VkBuffer;
+import de.linusdev.lutils.nat.struct.abstracts.Structure;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
 public abstract class BufferInput implements MappingListener {
 
-    protected VulkanBuffer vulkanBuffer;
+    protected BufferRange bufferRange;
+    /**
+     * Whether the staging buffer range has been {@link #releaseBufferRange() released}.
+     */
+    private boolean released = false;
 
     @ApiStatus.Internal
-    public void setVulkanBuffer(@NotNull VulkanBuffer vulkanBuffer) {
-        this.vulkanBuffer = vulkanBuffer;
-        vulkanBuffer.setMappingListener(this);
+    public void setBufferRange(@NotNull BufferRange bufferRange) {
+        this.bufferRange = bufferRange;
+        bufferRange.setMappingListener(this);
     }
 
-    public VulkanBuffer getVulkanBuffer() {
-        return vulkanBuffer;
+    /**
+     * Detaches the staging buffer range from this input, so it can be freed. The
+     * {@link #getBackedStructure() backed structure} still refers to the mapped memory of the range and must not be
+     * accessed afterward. This input cannot be copied anymore.
+     * @return the detached range
+     */
+    @ApiStatus.Internal
+    public @NotNull BufferRange releaseBufferRange() {
+        checkNotReleased();
+        BufferRange range = bufferRange;
+        if(range == null)
+            throw new IllegalStateException("This input has no buffer range.");
+        range.setMappingListener(null);
+        bufferRange = null;
+        released = true;
+        return range;
+    }
+
+    /**
+     * Whether the staging buffer range of this input has been {@link #releaseBufferRange() released}, after it was
+     * uploaded once.
+     */
+    public boolean isReleased() {
+        return released;
+    }
+
+    /**
+     * @throws IllegalStateException if the staging buffer range of this input has been
+     * {@link #releaseBufferRange() released}.
+     */
+    public void checkNotReleased() {
+        if(released)
+            throw new IllegalStateException("The staging buffer of this input has already been freed after a static upload.");
+    }
+
+    /**
+     * Backs this input with host memory instead of a mapped buffer. Used for inputs without a staging buffer of their
+     * own, which are uploaded using an {@link UploadManager}.
+     */
+    @ApiStatus.Internal
+    public void allocateHostMemory() {
+        Structure.allocate(getBackedStructure());
+    }
+
+    /**
+     * The structure written by the user, which is copied to the output.
+     */
+    public abstract @NotNull Structure getBackedStructure();
+
+    /**
+     * The staging buffer range of this input or {@code null} if this input is backed by
+     * {@link #allocateHostMemory() host memory}.
+     */
+    public BufferRange getBufferRange() {
+        return bufferRange;
     }
 
     public @NotNull VkBuffer getVkBuffer() {
-        return vulkanBuffer.getVkBuffer();
+        checkNotReleased();
+        return bufferRange.getVkBuffer();
+    }
+
+    /**
+     * Offset in bytes of this input inside its {@link #getVkBuffer() VkBuffer}.
+     */
+    public long getBufferOffset() {
+        checkNotReleased();
+        return bufferRange.getBufferOffset();
     }
 
 }
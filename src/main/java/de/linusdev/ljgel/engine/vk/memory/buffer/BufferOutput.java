@@ -16,20 +16,32 @@
 
 package de.linusdev.ljgel.engine.vk.memory.buffer;
 
-import de.linusdev.ljgel.engine.vk.memory.manager.objects.buffer.VulkanBuffer;
+import de.linusdev.ljgel.engine.vk.memory.manager.objects.buffer.BufferRange;
+import de.linusdev.ljgel.nat.vulkan.handles.VkBuffer;
 import org.jetbrains.annotations.NotNull;
 
 public class BufferOutput {
 
-    private final @NotNull VulkanBuffer vulkanBuffer;
+    private final @NotNull BufferRange bufferRange;
 
     public BufferOutput(
-            @NotNull VulkanBuffer vulkanBuffer
+            @NotNull BufferRange bufferRange
     ) {
-        this.vulkanBuffer = vulkanBuffer;
+        this.bufferRange = bufferRange;
     }
 
-    public @NotNull VulkanBuffer getVulkanBuffer() {
-        return vulkanBuffer;
+    public @NotNull BufferRange getBufferRange() {
+        return bufferRange;
+    }
+
+    public @NotNull VkBuffer getVkBuffer() {
+        return bufferRange.getVkBuffer();
+    }
+
+    /**
+     * Offset in bytes of this output inside its {@link #getVkBuffer() VkBuffer}.
+     */
+    public long getBufferOffset() {
+        return bufferRange.getBufferOffset();
     }
 }
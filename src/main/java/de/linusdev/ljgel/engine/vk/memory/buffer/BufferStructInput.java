@@ -30,6 +30,11 @@ public class BufferStructInput<S extends Structure> extends BufferInput implemen
         this.backedStruct = backedStruct;
     }
 
+    @Override
+    public @NotNull Structure getBackedStructure() {
+        return backedStruct;
+    }
+
     @Override
     public void vulkanBufferMapped(@NotNull ByteBuffer mapped) {
         this.backedStruct.claimBuffer(mapped);
@@ -42,6 +42,10 @@ public class IndexBuffer<I extends Structure> extends ArrayBuffer<I> {
 
     @Override
     public void bufferCopyCommand(@NotNull Stack stack, @NotNull VkCommandBuffer vkCommandBuffer) {
+        input.checkNotReleased();
+        // Inputs without a staging buffer are uploaded by an UploadManager
+        if(input.getBufferRange() == null) return;
+
         VkPipelineStageFlags flags = stack.push(new VkPipelineStageFlags());
         flags.set(VkPipelineStageFlagBits.VERTEX_INPUT);
         VkPipelineStageFlags flags2 = stack.push(new VkPipelineStageFlags());
@@ -54,18 +58,20 @@ public class IndexBuffer<I extends Structure> extends ArrayBuffer<I> {
         vkBufferMemoryBarrier.srcQueueFamilyIndex.set(APIConstants.VK_QUEUE_FAMILY_IGNORED);
         vkBufferMemoryBarrier.dstQueueFamilyIndex.set(APIConstants.VK_QUEUE_FAMILY_IGNORED);
         vkBufferMemoryBarrier.buffer.set(getVkBuffer());
-        vkBufferMemoryBarrier.offset.set(0);
-        vkBufferMemoryBarrier.size.set(APIConstants.VK_WHOLE_SIZE);
+        vkBufferMemoryBarrier.offset.set(output.getBufferOffset());
+        vkBufferMemoryBarrier.size.set(output.getBufferRange().getSize());
         vkInstance.vkCmdPipelineBarrier(vkCommandBuffer, flags, flags2, flags3, 0, ref(null), 1, ref(vkBufferMemoryBarrier), 0, ref(null));
 
 
         VkBufferCopy region = stack.push(new VkBufferCopy());
-        region.size.set(input.getVulkanBuffer().getSize());
+        region.srcOffset.set(input.getBufferOffset());
+        region.dstOffset.set(output.getBufferOffset());
+        region.size.set(input.getBufferRange().getSize());
 
         vkInstance.vkCmdCopyBuffer(
                 vkCommandBuffer,
-                input.getVulkanBuffer().getVkBuffer(),
-                output.getVulkanBuffer().getVkBuffer(),
+                input.getVkBuffer(),
+                output.getVkBuffer(),
                 1,
                 ref(region)
         );
@@ -78,8 +84,8 @@ public class IndexBuffer<I extends Structure> extends ArrayBuffer<I> {
         vkBufferMemoryBarrier.srcQueueFamilyIndex.set(APIConstants.VK_QUEUE_FAMILY_IGNORED);
         vkBufferMemoryBarrier.dstQueueFamilyIndex.set(APIConstants.VK_QUEUE_FAMILY_IGNORED);
         vkBufferMemoryBarrier.buffer.set(getVkBuffer());
-        vkBufferMemoryBarrier.offset.set(0);
-        vkBufferMemoryBarrier.size.set(APIConstants.VK_WHOLE_SIZE);
+        vkBufferMemoryBarrier.offset.set(output.getBufferOffset());
+        vkBufferMemoryBarrier.size.set(output.getBufferRange().getSize());
         vkInstance.vkCmdPipelineBarrier(vkCommandBuffer, flags, flags2, flags3, 0, ref(null), 1, ref(vkBufferMemoryBarrier), 0, ref(null));
 
         stack.pop();stack.pop();stack.pop();stack.pop(); // flags, flags2, flags3, vkBufferMemoryBarrier
@@ -82,9 +82,9 @@ public class UniformBuffer<S extends Structure> implements ShaderBinding {
         int i = 0;
         for (VkDescriptorSet vkdescriptorSet : vkDescriptorSets) {
             VkDescriptorBufferInfo bufferInfo = stack.push(new VkDescriptorBufferInfo());
-            bufferInfo.buffer.set(input[i].getVulkanBuffer().getVkBuffer());
-            bufferInfo.offset.set(0);
-            bufferInfo.range.set(input[i].getVulkanBuffer().getSize());
+            bufferInfo.buffer.set(input[i].getVkBuffer());
+            bufferInfo.offset.set(input[i].getBufferOffset());
+            bufferInfo.range.set(input[i].getBufferRange().getSize());
 
             VkWriteDescriptorSet writeDescriptorSet = writes.get(i);
             writeDescriptorSet.sType.set(VkStructureType.WRITE_DESCRIPTOR_SET);
@@ -65,7 +65,9 @@ public class VertexBuffer<V extends Structure> extends ArrayBuffer<V> {
     @Override
     public void bufferCopyCommand(@NotNull Stack stack, @NotNull VkCommandBuffer vkCommandBuffer) {
 
-        if(!input.getVulkanBuffer().isMapped()) return;
+        input.checkNotReleased();
+        // Inputs without a staging buffer are uploaded by an UploadManager
+        if(input.getBufferRange() == null || !input.getBufferRange().isMapped()) return;
 
         VkPipelineStageFlags flags = stack.push(new VkPipelineStageFlags());
         flags.set(VkPipelineStageFlagBits.VERTEX_INPUT);
@@ -79,18 +81,20 @@ public class VertexBuffer<V extends Structure> extends ArrayBuffer<V> {
         vkBufferMemoryBarrier.srcQueueFamilyIndex.set(APIConstants.VK_QUEUE_FAMILY_IGNORED);
         vkBufferMemoryBarrier.dstQueueFamilyIndex.set(APIConstants.VK_QUEUE_FAMILY_IGNORED);
         vkBufferMemoryBarrier.buffer.set(getVkBuffer());
-        vkBufferMemoryBarrier.offset.set(0);
-        vkBufferMemoryBarrier.size.set(APIConstants.VK_WHOLE_SIZE);
+        vkBufferMemoryBarrier.offset.set(output.getBufferOffset());
+        vkBufferMemoryBarrier.size.set(output.getBufferRange().getSize());
         vkInstance.vkCmdPipelineBarrier(vkCommandBuffer, flags, flags2, flags3, 0, ref(null), 1, ref(vkBufferMemoryBarrier), 0, ref(null));
 
 
         VkBufferCopy region = stack.push(new VkBufferCopy());
-        region.size.set(input.getVulkanBuffer().getSize());
+        region.srcOffset.set(input.getBufferOffset());
+        region.dstOffset.set(output.getBufferOffset());
+        region.size.set(input.getBufferRange().getSize());
 
         vkInstance.vkCmdCopyBuffer(
                 vkCommandBuffer,
-                input.getVulkanBuffer().getVkBuffer(),
-                output.getVulkanBuffer().getVkBuffer(),
+                input.getVkBuffer(),
+                output.getVkBuffer(),
                 1,
                 ref(region)
         );
@@ -103,8 +107,8 @@ public class VertexBuffer<V extends Structure> extends ArrayBuffer<V> {
         vkBufferMemoryBarrier.srcQueueFamilyIndex.set(APIConstants.VK_QUEUE_FAMILY_IGNORED);
         vkBufferMemoryBarrier.dstQueueFamilyIndex.set(APIConstants.VK_QUEUE_FAMILY_IGNORED);
         vkBufferMemoryBarrier.buffer.set(getVkBuffer());
-        vkBufferMemoryBarrier.offset.set(0);
-        vkBufferMemoryBarrier.size.set(APIConstants.VK_WHOLE_SIZE);
+        vkBufferMemoryBarrier.offset.set(output.getBufferOffset());
+        vkBufferMemoryBarrier.size.set(output.getBufferRange().getSize());
         vkInstance.vkCmdPipelineBarrier(vkCommandBuffer, flags, flags2, flags3, 0, ref(null), 1, ref(vkBufferMemoryBarrier), 0, ref(null));
 
         stack.pop();stack.pop();stack.pop();stack.pop(); // flags, flags2, flags3, vkBufferMemoryBarrier
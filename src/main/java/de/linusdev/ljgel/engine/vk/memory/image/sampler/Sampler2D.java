@@ -25,6 +25,7 @@ import de.linusdev.ljgel.nat.vulkan.bitmasks.enums.VkShaderStageFlagBits;
 import de.linusdev.ljgel.nat.vulkan.enums.VkDescriptorType;
 import de.linusdev.ljgel.nat.vulkan.enums.VkImageLayout;
 import de.linusdev.ljgel.nat.vulkan.enums.VkStructureType;
+import de.linusdev.ljgel.nat.vulkan.handles.VkBuffer;
 import de.linusdev.ljgel.nat.vulkan.handles.VkCommandBuffer;
 import de.linusdev.ljgel.nat.vulkan.handles.VkDescriptorSet;
 import de.linusdev.ljgel.nat.vulkan.handles.VkInstance;
@@ -81,11 +82,26 @@ public class Sampler2D<S extends Structure> implements ShaderBinding {
             @NotNull VkCommandBuffer vkCommandBuffer,
             boolean generateMipLevels
     ) {
+        bufferCopyCommand(stack, vkCommandBuffer, input.getVkBuffer(), input.getBufferOffset(), generateMipLevels);
+    }
+
+    /**
+     * Copies the image from given {@code srcBuffer} instead of the buffer of the {@link #getInput() input}.
+     * @param srcOffset offset in bytes of the image inside {@code srcBuffer}
+     * @param generateMipLevels whether to generate mip levels. If this sampler has no mip levels (only 1 mip level), this is ignored.
+     */
+    public void bufferCopyCommand(
+            @NotNull Stack stack,
+            @NotNull VkCommandBuffer vkCommandBuffer,
+            @NotNull VkBuffer srcBuffer,
+            long srcOffset,
+            boolean generateMipLevels
+    ) {
 
         output.getImage().transitionLayoutCommand(stack, vkCommandBuffer, VkImageLayout.TRANSFER_DST_OPTIMAL);
 
         VkBufferImageCopy region = stack.push(new VkBufferImageCopy());
-        region.bufferOffset.set(0);
+        region.bufferOffset.set(srcOffset);
         region.bufferRowLength.set(0);
         region.bufferImageHeight.set(0);
 
@@ -103,7 +119,7 @@ public class Sampler2D<S extends Structure> implements ShaderBinding {
 
         vkInstance.vkCmdCopyBufferToImage(
                 vkCommandBuffer,
-                input.getVkBuffer(),
+                srcBuffer,
                 output.getVkImage(),
                 VkImageLayout.TRANSFER_DST_OPTIMAL,
                 1,
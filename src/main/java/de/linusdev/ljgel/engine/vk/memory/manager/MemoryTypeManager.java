@@ -95,6 +95,13 @@ public interface MemoryTypeManager extends AutoCloseable {
         object.unbind(stack);
     }
 
+    /**
+     * Allows accessing protected method {@link VulkanMemoryBoundObject#recreateForMove(Stack)}.
+     */
+    default @NotNull Runnable recreateForMoveOf(@NotNull VulkanMemoryBoundObject object, @NotNull Stack stack) {
+        return object.recreateForMove(stack);
+    }
+
     /**
      * Allows accessing protected method {@link VulkanMemoryBoundObject#setMemoryTypeManager(MemoryTypeManager)}.
      */
@@ -166,6 +166,17 @@ public abstract class VulkanMemoryBoundObject implements AutoCloseable {
         state = State.BOUND;
     }
 
+    /**
+     * Replaces the handle of this object with a new one without destroying the old handle, so the
+     * {@link MemoryTypeManager} can bind it to another range, while the device may still use the old handle.
+     * Afterward, this object is in the state {@link State#RECREATED}.
+     * @return action destroying the old handle. Must be run, once the device does not use the old handle anymore.
+     * @see #isMovable()
+     */
+    protected @NotNull Runnable recreateForMove(@NotNull Stack stack) {
+        throw new UnsupportedOperationException("Object '" + debugName + "' cannot be moved.");
+    }
+
     protected void mapped(@NotNull ByteBuffer mappedByteBuffer) {
         assert assertState(State.BOUND);
         this.isMapped = true;
@@ -184,6 +195,30 @@ public abstract class VulkanMemoryBoundObject implements AutoCloseable {
             @NotNull IntBitfield<VkMemoryPropertyFlagBits> memFlags
     ) throws EngineException;
 
+    /**
+     * Whether this object is a linear resource (a buffer or an image with linear tiling). Linear and non-linear
+     * resources must be separated by {@link Device#getBufferImageGranularity()} in memory.
+     */
+    public abstract boolean isLinearResource();
+
+    /**
+     * Whether a {@link MemoryTypeManager} may move this object to another memory range using
+     * {@link #recreateForMove(Stack)}. Objects referenced by descriptor sets are not movable, because the descriptor
+     * sets would still refer to the old handle.
+     */
+    public boolean isMovable() {
+        return false;
+    }
+
+    /**
+     * Whether the device may write to the memory of this object, for example as destination of a transfer command.
+     * A {@link MemoryTypeManager} must not copy the memory of such objects with the host, while the device may still
+     * write to it.
+     */
+    public boolean isWrittenByDevice() {
+        return true;
+    }
+
     protected boolean assertState(@NotNull State state) {
         if(this.state == state) return true;
 
@@ -220,6 +255,14 @@ public abstract class VulkanMemoryBoundObject implements AutoCloseable {
         return offset;
     }
 
+    /**
+     * The {@link MemoryTypeManager} managing the memory of this object or {@code null} if it has not been added to
+     * one yet.
+     */
+    public @Nullable MemoryTypeManager getMemoryTypeManager() {
+        return memoryTypeManager;
+    }
+
     public boolean isMapped() {
         return isMapped;
     }
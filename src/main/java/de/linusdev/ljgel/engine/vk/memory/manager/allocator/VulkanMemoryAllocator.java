@@ -16,22 +16,438 @@
 
 package de.linusdev.ljgel.engine.vk.memory.manager.allocator;
 
+import de.linusdev.ljgel.engine.exception.EngineException;
+import de.linusdev.ljgel.engine.vk.VulkanEngine;
+import de.linusdev.ljgel.engine.vk.command.pool.GraphicsQueueTransientCommandPool;
 import de.linusdev.ljgel.engine.vk.device.Device;
+import de.linusdev.ljgel.engine.vk.memory.buffer.ArrayBuffer;
+import de.linusdev.ljgel.engine.vk.memory.buffer.BufferArrayInput;
+import de.linusdev.ljgel.engine.vk.memory.buffer.BufferInput;
+import de.linusdev.ljgel.engine.vk.memory.buffer.BufferOutput;
+import de.linusdev.ljgel.engine.vk.memory.buffer.BufferStructInput;
+import de.linusdev.ljgel.engine.vk.memory.buffer.index.IndexBuffer;
+import de.linusdev.ljgel.engine.vk.memory.buffer.uniform.UniformBuffer;
+import de.linusdev.ljgel.engine.vk.memory.buffer.vertex.VertexBuffer;
+import de.linusdev.ljgel.engine.vk.memory.buffer.vertex.VertexElement;
+import de.linusdev.ljgel.engine.vk.memory.image.ImageOutput;
+import de.linusdev.ljgel.engine.vk.memory.image.sampler.Sampler2D;
+import de.linusdev.ljgel.engine.vk.memory.manager.VulkanMemoryBoundObject;
+import de.linusdev.ljgel.engine.vk.memory.manager.objects.buffer.BufferArena;
+import de.linusdev.ljgel.engine.vk.memory.manager.objects.buffer.BufferArenaRange;
+import de.linusdev.ljgel.engine.vk.memory.manager.objects.buffer.BufferRange;
+import de.linusdev.ljgel.engine.vk.memory.manager.objects.buffer.VulkanBuffer;
+import de.linusdev.ljgel.engine.vk.memory.manager.objects.image.VulkanImage;
+import de.linusdev.ljgel.engine.vk.memory.manager.objects.image.VulkanSamplerImage;
+import de.linusdev.ljgel.engine.vk.memory.upload.UploadManager;
+import de.linusdev.ljgel.nat.vulkan.bitmasks.enums.*;
+import de.linusdev.ljgel.nat.vulkan.enums.VkFormat;
+import de.linusdev.ljgel.nat.vulkan.enums.VkImageLayout;
+import de.linusdev.ljgel.nat.vulkan.enums.VkImageTiling;
+import de.linusdev.ljgel.nat.vulkan.enums.VkVertexInputRate;
+import de.linusdev.ljgel.nat.vulkan.handles.VkCommandBuffer;
 import de.linusdev.ljgel.nat.vulkan.handles.VkInstance;
+import de.linusdev.lutils.bitfield.IntBitfield;
+import de.linusdev.lutils.async.Future;
+import de.linusdev.lutils.async.Nothing;
+import de.linusdev.lutils.bitfield.IntBitfieldImpl;
+import de.linusdev.lutils.image.ImageSize;
+import de.linusdev.lutils.image.PixelFormat;
+import de.linusdev.lutils.image.buffer.BBInt32Image;
+import de.linusdev.lutils.nat.enums.EnumValue32;
+import de.linusdev.lutils.nat.memory.stack.Stack;
+import de.linusdev.lutils.nat.struct.UStructSupplier;
+import de.linusdev.lutils.nat.struct.abstracts.Structure;
+import de.linusdev.lutils.nat.struct.info.ArrayInfo;
+import de.linusdev.lutils.nat.struct.info.StructureInfo;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates buffers and images and manages the memory bound to them. Subclasses decide how the memory of the
+ * {@link #add(Stack, VulkanMemoryBoundObject, VkMemoryPropertyFlagBits...) added} objects is allocated.
+ */
 public abstract class VulkanMemoryAllocator implements AutoCloseable {
 
     protected final @NotNull VkInstance vkInstance;
     protected final @NotNull Device device;
     protected final @NotNull String debugName;
 
+    /**
+     * Minimum alignment of ranges of a {@link BufferArena}.
+     */
+    public static final long MIN_BUFFER_RANGE_ALIGNMENT = 16L;
+
+    /**
+     * {@code null} until {@link #enableBufferArenas(int)} is called.
+     */
+    private @Nullable Map<ArenaKey, BufferArena<VulkanBuffer>> bufferArenas = null;
+    private int bufferArenaChunkSize;
+
+    /**
+     * {@code null} until {@link #createUploadManager(Stack, String, int, int)} is called.
+     */
+    protected @Nullable UploadManager uploadManager = null;
+
     protected VulkanMemoryAllocator(@NotNull Device device, @NotNull String debugName) {
         this.vkInstance = device.getVkInstance();
         this.device = device;
         this.debugName = debugName;
     }
 
+    public <V extends Structure> VertexBuffer<V> createVertexBuffer(
+            @NotNull Stack stack,
+            @NotNull String debugName,
+            @NotNull Class<?> elementClass,
+            @NotNull UStructSupplier<V> elementCreator,
+            @NotNull List<VertexElement> attributeDescriptors,
+            int vertexCount,
+            int binding,
+            @NotNull VkVertexInputRate vertexInputRate
+    ) throws EngineException {
+
+        BufferArrayInput<V> vertexInput = new BufferArrayInput<>(vertexCount, elementClass, elementCreator);
+        ArrayInfo info = vertexInput.getBackedArrayInfo();
+        BufferRange bufferRange = addBuffer(stack, debugName, info.getRequiredSize(),
+                new IntBitfieldImpl<>(VkBufferUsageFlagBits.VERTEX_BUFFER),
+                VkMemoryPropertyFlagBits.HOST_VISIBLE, // staging buffer must be mapped
+                VkMemoryPropertyFlagBits.HOST_COHERENT // automatically detect changes
+        );
+        vertexInput.setBufferRange(bufferRange);
+
+        BufferOutput vertexOutput = new BufferOutput(bufferRange);
+
+        return new VertexBuffer<>(vkInstance, vertexInput, vertexOutput, binding, vertexInputRate, attributeDescriptors);
+    }
+
+    public <V extends Structure> VertexBuffer<V> createStagedVertexBuffer(
+            @NotNull Stack stack,
+            @NotNull String debugName,
+            @NotNull Class<?> elementClass,
+            @NotNull UStructSupplier<V> elementCreator,
+            @NotNull List<VertexElement> attributeDescriptors,
+            int vertexCount,
+            int binding,
+            @NotNull VkVertexInputRate vertexInputRate
+    ) throws EngineException {
+        BufferArrayInput<V> vertexInput = new BufferArrayInput<>(vertexCount, elementClass, elementCreator);
+        ArrayInfo info = vertexInput.getBackedArrayInfo();
+        setStagingBuffer(stack, vertexInput, debugName + "-in", info.getRequiredSize());
+
+
+        BufferRange vertexBuffer = addBuffer(stack, debugName + "-out", info.getRequiredSize(), new IntBitfieldImpl<>(
+                VkBufferUsageFlagBits.TRANSFER_DST,
+                VkBufferUsageFlagBits.VERTEX_BUFFER
+        ), VkMemoryPropertyFlagBits.DEVICE_LOCAL);
+        BufferOutput vertexOutput = new BufferOutput(vertexBuffer);
+
+
+        return new VertexBuffer<>(vkInstance, vertexInput, vertexOutput, binding, vertexInputRate, attributeDescriptors);
+    }
+
+    public <V extends Structure> IndexBuffer<V> createStagedInstanceBuffer(
+            @NotNull Stack stack,
+            @NotNull String debugName,
+            @NotNull Class<?> elementClass,
+            @NotNull UStructSupplier<V> elementCreator,
+            int instanceCount
+    ) throws EngineException {
+
+        BufferArrayInput<V> vertexInput = new BufferArrayInput<>(instanceCount, elementClass, elementCreator);
+        ArrayInfo info = vertexInput.getBackedArrayInfo();
+        setStagingBuffer(stack, vertexInput, debugName + "-in", info.getRequiredSize());
+
+
+        BufferRange vertexBuffer = addBuffer(stack, debugName + "-out", info.getRequiredSize(), new IntBitfieldImpl<>(
+                VkBufferUsageFlagBits.TRANSFER_DST,
+                VkBufferUsageFlagBits.INDEX_BUFFER
+        ), VkMemoryPropertyFlagBits.DEVICE_LOCAL);
+        BufferOutput vertexOutput = new BufferOutput(vertexBuffer);
+
+
+        return new IndexBuffer<>(vkInstance, vertexInput, vertexOutput);
+    }
+
+    public <S extends Structure> UniformBuffer<S> createUniformBuffer(
+            @NotNull Stack stack,
+            @NotNull String debugName,
+            @NotNull UStructSupplier<S> structCreator,
+            int dupeCount,
+            int binding
+    ) throws EngineException {
+
+        BufferStructInput<S>[] inputs = new BufferStructInput[dupeCount];
+        BufferOutput[] outputs = new BufferOutput[dupeCount];
+
+        for (int i = 0; i < dupeCount; i++) {
+            S struct = structCreator.supply();
+
+            inputs[i] = new BufferStructInput<>(struct);
+            BufferRange bufferRange = addBuffer(stack, debugName + "[" + i + "]", struct.getRequiredSize(), new IntBitfieldImpl<>(
+                    VkBufferUsageFlagBits.UNIFORM_BUFFER
+                    ),
+                    VkMemoryPropertyFlagBits.HOST_VISIBLE, // staging buffer must be mapped
+                    VkMemoryPropertyFlagBits.HOST_COHERENT // automatically detect changes
+            );
+            inputs[i].setBufferRange(bufferRange);
+            outputs[i] = new BufferOutput(bufferRange);
+        }
+
+        return new UniformBuffer<>(vkInstance, device, binding, inputs, outputs);
+    }
+
+    /**
+     *
+     * @param generateMipLevels whether to generate mip level images.
+     * @param autoGenerateMipLevels whether the generated mip level images are later going to be automatically filed using {@link VulkanImage#generateMipmaps(Stack, VkCommandBuffer, VkImageLayout)}.
+     */
+    public Sampler2D<BBInt32Image> createStagedSampler(
+            @NotNull Stack stack,
+            @NotNull String debugName,
+            int binding,
+            @NotNull ImageSize size,
+            @NotNull VkImageLayout layout,
+            boolean generateMipLevels,
+            boolean autoGenerateMipLevels
+    ) throws EngineException {
+
+        BufferStructInput<BBInt32Image> input = new BufferStructInput<>(BBInt32Image.newAllocatable(size, PixelFormat.R8G8B8A8_SRGB));
+        StructureInfo info = input.getBackedStruct().getInfo();
+        setStagingBuffer(stack, input, debugName + "-in", info.getRequiredSize());
+
+        IntBitfield<VkImageUsageFlagBits> usage = new IntBitfieldImpl<>(
+                VkImageUsageFlagBits.TRANSFER_DST,
+                VkImageUsageFlagBits.SAMPLED
+        );
+
+        if(generateMipLevels && autoGenerateMipLevels) usage.set(VkImageUsageFlagBits.TRANSFER_SRC);
+
+        VulkanSamplerImage image = new VulkanSamplerImage(
+                device, debugName + "-out", info.getRequiredSize(), size,
+                usage,
+                new IntBitfieldImpl<>(VkImageAspectFlagBits.COLOR),
+                VkImageTiling.OPTIMAL,
+                VkFormat.R8G8B8A8_SRGB,
+                generateMipLevels
+        ).create(stack);
+        add(stack, image, VkMemoryPropertyFlagBits.DEVICE_LOCAL);
+        ImageOutput output = new ImageOutput(image);
+
+
+        // If the image is only uploaded once, use uploadStatic(...) to free the staging buffer afterward
+        return new Sampler2D<>(vkInstance, device, input, output, binding, size, layout);
+    }
+
+    public @NotNull VulkanImage createDeviceLocalVulkanImage(
+            @NotNull Stack stack,
+            @NotNull String debugName,
+            @NotNull ImageSize size,
+            @NotNull VkFormat format,
+            @NotNull VkImageTiling tiling,
+            @NotNull IntBitfield<VkImageUsageFlagBits> usage,
+            @NotNull IntBitfield<VkImageAspectFlagBits> viewAspectMask,
+            boolean generateMipLevels,
+            @NotNull EnumValue32<VkSampleCountFlagBits> sampleCount
+    ) throws EngineException {
+        VulkanImage image = new VulkanImage(device, debugName, -1, size, usage, viewAspectMask, tiling, format,
+                generateMipLevels,sampleCount).create(stack);
+        add(stack, image, VkMemoryPropertyFlagBits.DEVICE_LOCAL);
+        return image;
+    }
+
+    /**
+     * Uploads the input of given static {@code buffer} once and frees its staging buffer, as soon as the fence of the
+     * copy signaled. The memory of the staging buffer is returned to this allocator for reuse. The input must not be
+     * accessed after this call and the buffer cannot be copied again.
+     * @param commandPool pool to submit the copy with
+     * @return {@link Future}, which completes after the copy is done
+     * @throws IllegalArgumentException if the buffer has no staging buffer of its own
+     * @throws IllegalStateException if the staging buffer has already been freed
+     */
+    public @NotNull Future<Nothing, VulkanEngine<?>> uploadStatic(
+            @NotNull GraphicsQueueTransientCommandPool commandPool,
+            @NotNull ArrayBuffer<?> buffer
+    ) {
+        checkStagingBuffer(buffer.getInput());
+        if(buffer.getInput().getBufferRange() == buffer.getOutput().getBufferRange())
+            throw new IllegalArgumentException("Buffer has no staging buffer, its input is its output.");
+
+        return commandPool.submitSingleTimeCommand(
+                buffer::bufferCopyCommand,
+                stack -> freeStagingBuffer(buffer.getInput())
+        );
+    }
+
+    /**
+     * Uploads the input of given static {@code sampler} once and frees its staging buffer, as soon as the fence of the
+     * copy signaled.
+     * @param generateMipLevels whether to generate mip levels after the copy
+     * @see #uploadStatic(GraphicsQueueTransientCommandPool, ArrayBuffer)
+     */
+    public @NotNull Future<Nothing, VulkanEngine<?>> uploadStatic(
+            @NotNull GraphicsQueueTransientCommandPool commandPool,
+            @NotNull Sampler2D<?> sampler,
+            boolean generateMipLevels
+    ) {
+        checkStagingBuffer(sampler.getInput());
+        return commandPool.submitSingleTimeCommand(
+                (stack, vkCommandBuffer) -> sampler.bufferCopyCommand(stack, vkCommandBuffer, generateMipLevels),
+                stack -> freeStagingBuffer(sampler.getInput())
+        );
+    }
+
+    private static void checkStagingBuffer(@NotNull BufferInput input) {
+        input.checkNotReleased();
+        if(input.getBufferRange() == null)
+            throw new IllegalArgumentException("Input has no staging buffer, it must be uploaded by the upload manager.");
+    }
+
+    /**
+     * Frees the staging buffer of given {@code input}. The device must not use it anymore.
+     * @see BufferInput#releaseBufferRange()
+     */
+    public void freeStagingBuffer(@NotNull BufferInput input) {
+        if(input.getBufferRange() == null)
+            return; // uploaded by the upload manager, there is no staging buffer
+        BufferRange range = input.releaseBufferRange();
+        if(range instanceof BufferArenaRange arenaRange) arenaRange.close();
+        else free((VulkanBuffer) range);
+    }
+
+    /**
+     * Destroys given {@code object} and frees its memory.
+     * @param object object created by this allocator
+     */
+    public abstract void free(@NotNull VulkanMemoryBoundObject object);
+
+    /**
+     * Allocates and binds memory for all objects, which have been added or changed since the last call.
+     */
+    public abstract void allocate(@NotNull Stack stack);
+
+    /**
+     * Adds given {@code object} to the memory type matching given {@code flags}. Memory is bound to the object
+     * during the next {@link #allocate(Stack)} call.
+     */
+    protected abstract void add(
+            @NotNull Stack stack,
+            @NotNull VulkanMemoryBoundObject object,
+            VkMemoryPropertyFlagBits... flags
+    ) throws EngineException;
+
+    /**
+     * Creates all buffers created after this call as ranges of shared {@link BufferArena arenas}, one arena for each
+     * combination of buffer usage and memory properties. This reduces the count of {@code VkBuffer} handles and
+     * memory bindings to one per chunk and lets draws share vertex and index buffer binds.
+     * @param chunkSize size in bytes of the {@code VkBuffer} of a chunk. Larger buffers get a chunk of their own.
+     */
+    public void enableBufferArenas(int chunkSize) {
+        if(bufferArenas == null)
+            bufferArenas = new HashMap<>();
+        this.bufferArenaChunkSize = chunkSize;
+    }
+
+    /**
+     * Creates a buffer with given {@code usage} and adds it to the memory type matching given {@code flags}. If
+     * {@link #enableBufferArenas(int) buffer arenas are enabled}, a range of the matching arena is returned instead
+     * of a new {@link VulkanBuffer}.
+     */
+    protected @NotNull BufferRange addBuffer(
+            @NotNull Stack stack,
+            @NotNull String debugName,
+            int size,
+            @NotNull IntBitfield<VkBufferUsageFlagBits> usage,
+            VkMemoryPropertyFlagBits... flags
+    ) throws EngineException {
+        if(bufferArenas == null) {
+            VulkanBuffer buffer = new VulkanBuffer(device, debugName, size, usage).create(stack);
+            add(stack, buffer, flags);
+            return buffer;
+        }
+
+        int memoryFlags = 0;
+        for (VkMemoryPropertyFlagBits flag : flags)
+            memoryFlags |= flag.getValue();
+
+        BufferArena<VulkanBuffer> arena = bufferArenas.get(new ArenaKey(usage.getValue(), memoryFlags));
+        if(arena == null) {
+            long alignment = MIN_BUFFER_RANGE_ALIGNMENT;
+            if(usage.isSet(VkBufferUsageFlagBits.UNIFORM_BUFFER))
+                alignment = Math.max(alignment, device.getMinUniformBufferOffsetAlignment());
+
+            arena = new BufferArena<>(this.debugName + "-arena", bufferArenaChunkSize, alignment,
+                    (s, chunkName, chunkSize) -> {
+                        VulkanBuffer chunk = new VulkanBuffer(device, chunkName, chunkSize, usage).create(s);
+                        add(s, chunk, flags);
+                        return chunk;
+                    },
+                    this::free
+            );
+            bufferArenas.put(new ArenaKey(usage.getValue(), memoryFlags), arena);
+        }
+
+        return arena.allocate(stack, debugName, size);
+    }
+
+    /**
+     * Creates an {@link UploadManager} with a staging ring of {@code ringSize} bytes. Staged buffers and samplers
+     * created after this call have no staging buffer of their own. Their inputs are backed by host memory and must
+     * be uploaded using the returned manager instead of their {@code bufferCopyCommand}.
+     * @param ringSize size in bytes of the staging ring. Rounded up to a multiple of {@link UploadManager#COPY_ALIGNMENT}.
+     * @param framesInFlight count of frames in flight
+     */
+    public @NotNull UploadManager createUploadManager(
+            @NotNull Stack stack,
+            @NotNull String debugName,
+            int ringSize,
+            int framesInFlight
+    ) throws EngineException {
+        int alignedSize = (int) ((ringSize + UploadManager.COPY_ALIGNMENT - 1) & -UploadManager.COPY_ALIGNMENT);
+        VulkanBuffer ringBuffer = new VulkanBuffer(device, debugName, alignedSize, new IntBitfieldImpl<>(
+                VkBufferUsageFlagBits.TRANSFER_SRC
+        )).create(stack);
+
+        add(stack, ringBuffer,
+                VkMemoryPropertyFlagBits.HOST_VISIBLE, // ring must be mapped
+                VkMemoryPropertyFlagBits.HOST_COHERENT
+        );
+
+        uploadManager = new UploadManager(vkInstance, ringBuffer, framesInFlight);
+        return uploadManager;
+    }
+
+    /**
+     * Sets a staging buffer for given {@code input} or backs it with host memory, if this allocator has an
+     * {@link #uploadManager}.
+     */
+    protected void setStagingBuffer(
+            @NotNull Stack stack,
+            @NotNull BufferInput input,
+            @NotNull String debugName,
+            int size
+    ) throws EngineException {
+        if(uploadManager != null) {
+            input.allocateHostMemory();
+            return;
+        }
+
+        input.setBufferRange(addStagingBuffer(stack, debugName, size));
+    }
+
+    protected @NotNull BufferRange addStagingBuffer(@NotNull Stack stack, @NotNull String debugName, int size) throws EngineException {
+        return addBuffer(stack, debugName, size, new IntBitfieldImpl<>(
+                        VkBufferUsageFlagBits.TRANSFER_SRC
+                ),
+                VkMemoryPropertyFlagBits.HOST_VISIBLE, // staging buffer must be mapped
+                VkMemoryPropertyFlagBits.HOST_COHERENT
+        );
+    }
+
     @Override
     public abstract void close();
-}
\ No newline at end of file
+
+    private record ArenaKey(int usage, int memoryFlags) { }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.vk.memory.manager.allocator.block;
+
+import de.linusdev.ljgel.engine.exception.EngineException;
+import de.linusdev.ljgel.engine.vk.device.Device;
+import de.linusdev.ljgel.engine.vk.memory.manager.VulkanMemoryBoundObject;
+import de.linusdev.ljgel.engine.vk.memory.manager.allocator.VulkanMemoryAllocator;
+import de.linusdev.ljgel.engine.vk.memory.manager.block.BlockDefragmenter;
+import de.linusdev.ljgel.engine.vk.memory.manager.block.BlockMemoryTypeManager;
+import de.linusdev.ljgel.nat.vulkan.bitmasks.enums.VkMemoryPropertyFlagBits;
+import de.linusdev.ljgel.nat.vulkan.handles.VkCommandBuffer;
+import de.linusdev.llog.LLog;
+import de.linusdev.llog.base.LogInstance;
+import de.linusdev.lutils.bitfield.IntBitfieldImpl;
+import de.linusdev.lutils.nat.memory.stack.Stack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link VulkanMemoryAllocator}, which sub-allocates the memory of its objects from large blocks using a
+ * {@link BlockMemoryTypeManager} per memory type. Unlike the
+ * {@link de.linusdev.ljgel.engine.vk.memory.manager.allocator.ondemand.OnDemandVulkanMemoryAllocator}, adding,
+ * resizing or {@link #free(VulkanMemoryBoundObject) freeing} an object never reallocates or rebinds any other object.
+ * This allows streaming objects in and out at runtime. Sparse blocks left behind can be emptied by a
+ * {@link #createDefragmenter(int) defragmenter}.
+ */
+public class BlockVulkanMemoryAllocator extends VulkanMemoryAllocator {
+
+    private final static @NotNull LogInstance LOG = LLog.getLogInstance();
+
+    /**
+     * Default size of a block: 64 MiB.
+     */
+    public static final long DEFAULT_BLOCK_SIZE = 64L * 1024L * 1024L;
+    /**
+     * Blocks are never larger than this part of their memory heap, so small heaps (for example device local,
+     * host visible memory) are not used up by a single block.
+     */
+    public static final int MAX_HEAP_FRACTION = 8;
+
+    BlockMemoryTypeManager[] typeManagers = new BlockMemoryTypeManager[32];
+
+    private final long preferredBlockSize;
+    private @Nullable BlockDefragmenter defragmenter = null;
+
+    public BlockVulkanMemoryAllocator(@NotNull Device device, @NotNull String debugName) {
+        this(device, debugName, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param preferredBlockSize size of the allocated blocks in bytes. Limited to {@link #MAX_HEAP_FRACTION} of the
+     *                           heap. Objects larger than the block size get a dedicated block.
+     */
+    public BlockVulkanMemoryAllocator(@NotNull Device device, @NotNull String debugName, long preferredBlockSize) {
+        super(device, debugName);
+        if(preferredBlockSize <= 0L || preferredBlockSize > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("preferredBlockSize must be in range (0, " + Integer.MAX_VALUE
+                    + "], but is " + preferredBlockSize + ".");
+        this.preferredBlockSize = preferredBlockSize;
+    }
+
+    @Override
+    public void allocate(@NotNull Stack stack) {
+        LOG.debug("Start allocating memory for allocator '" + debugName + "'.");
+        for (BlockMemoryTypeManager typeManager : typeManagers) {
+            if(typeManager != null) typeManager.allocate(stack);
+        }
+    }
+
+    @Override
+    protected void add(@NotNull Stack stack, @NotNull VulkanMemoryBoundObject object, VkMemoryPropertyFlagBits... flags) throws EngineException {
+        int memoryTypeIndex = object.calculateMemoryTypeIndex(stack, new IntBitfieldImpl<>(flags));
+        if(typeManagers[memoryTypeIndex] == null) {
+            long heapSize = device.getMemoryHeapSizeOf(stack, memoryTypeIndex);
+            long blockSize = Math.min(preferredBlockSize, Math.max(1L, heapSize / MAX_HEAP_FRACTION));
+
+            typeManagers[memoryTypeIndex] = new BlockMemoryTypeManager(
+                    stack, vkInstance, device,
+                    debugName + "[" + memoryTypeIndex + "]",
+                    memoryTypeIndex, blockSize
+            );
+        }
+
+        typeManagers[memoryTypeIndex].addObject(object);
+    }
+
+    /**
+     * Destroys given {@code object} and frees its memory. No other object is affected.
+     * @param object object created by this allocator
+     */
+    @Override
+    public void free(@NotNull VulkanMemoryBoundObject object) {
+        object.close();
+        for (BlockMemoryTypeManager typeManager : typeManagers) {
+            if(typeManager != null && object.getMemoryTypeManager() == typeManager) {
+                typeManager.free(object);
+                return;
+            }
+        }
+
+        throw new IllegalArgumentException("Object '" + object.getDebugName() + "' was not created by allocator '"
+                + debugName + "'.");
+    }
+
+    /**
+     * Creates a {@link BlockDefragmenter}, which empties sparse blocks of all memory types of this allocator. It must
+     * be {@link BlockDefragmenter#step(Stack, VkCommandBuffer, int) stepped} once per frame.
+     * @param framesInFlight count of frames in flight
+     * @param maxBytesPerFrame maximum count of bytes moved per frame
+     */
+    public @NotNull BlockDefragmenter createDefragmenter(int framesInFlight, long maxBytesPerFrame) {
+        if(defragmenter != null)
+            throw new IllegalStateException("Allocator '" + debugName + "' already has a defragmenter.");
+        defragmenter = new BlockDefragmenter(vkInstance, typeManagers, framesInFlight, maxBytesPerFrame,
+                BlockDefragmenter.DEFAULT_MAX_OCCUPANCY);
+        return defragmenter;
+    }
+
+    /**
+     * See {@link #createDefragmenter(int, long)}. Moves at most {@link BlockDefragmenter#DEFAULT_MAX_BYTES_PER_FRAME}
+     * bytes per frame.
+     */
+    public @NotNull BlockDefragmenter createDefragmenter(int framesInFlight) {
+        return createDefragmenter(framesInFlight, BlockDefragmenter.DEFAULT_MAX_BYTES_PER_FRAME);
+    }
+
+    /**
+     * Count of blocks of all memory types.
+     */
+    public int getBlockCount() {
+        int sum = 0;
+        for (BlockMemoryTypeManager typeManager : typeManagers) {
+            if(typeManager != null) sum += typeManager.getBlockCount();
+        }
+        return sum;
+    }
+
+    /**
+     * Sum of the sizes of all blocks of all memory types in bytes.
+     */
+    public long getAllocatedBytes() {
+        long sum = 0L;
+        for (BlockMemoryTypeManager typeManager : typeManagers) {
+            if(typeManager != null) sum += typeManager.getAllocatedBytes();
+        }
+        return sum;
+    }
+
+    /**
+     * Sum of the memory bound to objects of all memory types in bytes.
+     */
+    public long getUsedBytes() {
+        long sum = 0L;
+        for (BlockMemoryTypeManager typeManager : typeManagers) {
+            if(typeManager != null) sum += typeManager.getUsedBytes();
+        }
+        return sum;
+    }
+
+    @Override
+    public void close() {
+        // Free the old ranges of moved objects, before their blocks are freed
+        if(defragmenter != null)
+            defragmenter.flush();
+        for (BlockMemoryTypeManager typeManager : typeManagers) {
+            if(typeManager != null) typeManager.close();
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.vk.memory.manager.block;
+
+import de.linusdev.ljgel.engine.vk.memory.manager.VulkanMemoryBoundObject;
+import de.linusdev.ljgel.nat.vulkan.bitmasks.VkDependencyFlags;
+import de.linusdev.ljgel.nat.vulkan.bitmasks.VkPipelineStageFlags;
+import de.linusdev.ljgel.nat.vulkan.bitmasks.enums.VkAccessFlagBits;
+import de.linusdev.ljgel.nat.vulkan.bitmasks.enums.VkPipelineStageFlagBits;
+import de.linusdev.ljgel.nat.vulkan.enums.VkStructureType;
+import de.linusdev.ljgel.nat.vulkan.handles.VkBuffer;
+import de.linusdev.ljgel.nat.vulkan.handles.VkCommandBuffer;
+import de.linusdev.ljgel.nat.vulkan.handles.VkInstance;
+import de.linusdev.ljgel.nat.vulkan.structs.VkBufferCopy;
+import de.linusdev.ljgel.nat.vulkan.structs.VkMemoryBarrier;
+import de.linusdev.lutils.nat.memory.stack.Stack;
+import de.linusdev.lutils.nat.struct.array.StructureArray;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static de.linusdev.lutils.nat.pointer.TypedPointer64.ofArray;
+import static de.linusdev.lutils.nat.pointer.TypedPointer64.ref;
+
+/**
+ * Empties sparse {@link MemoryBlock blocks} of {@link BlockMemoryTypeManager block managers} over multiple frames, so
+ * they can be freed. Each {@link #step(Stack, VkCommandBuffer, int) step} moves at most
+ * {@link #getMaxBytesPerFrame()} bytes of {@link VulkanMemoryBoundObject#isMovable() movable} objects into denser
+ * blocks. Memory, which is device local or {@link VulkanMemoryBoundObject#isWrittenByDevice() written by the device},
+ * is copied with transfer commands recorded into the frame's command buffer. Only memory, which is host visible and
+ * only written by the host, is copied by the host.
+ * <br><br>
+ * Moved objects are rebound right away and notify their
+ * {@link de.linusdev.ljgel.engine.vk.memory.manager.MappingListener MappingListener}. Their old handles and ranges
+ * are freed after {@code framesInFlight} frames, when the device does not use them anymore. This class must only be
+ * used by the render thread.
+ */
+public class BlockDefragmenter {
+
+    /**
+     * Default count of bytes moved per frame: 8 MiB.
+     */
+    public static final long DEFAULT_MAX_BYTES_PER_FRAME = 8L * 1024L * 1024L;
+    /**
+     * By default, blocks which are less than half used are emptied.
+     */
+    public static final double DEFAULT_MAX_OCCUPANCY = 0.5;
+
+    private final @NotNull VkInstance vkInstance;
+    private final @Nullable BlockMemoryTypeManager @NotNull [] typeManagers;
+    private final long maxBytesPerFrame;
+    private final double maxOccupancy;
+
+    /**
+     * Actions freeing old handles and ranges for each frame in flight.
+     */
+    private final @NotNull List<Runnable> @NotNull [] retired;
+    private int currentFrame = 0;
+
+    /*
+     * Copies recorded during the current step
+     */
+    private @Nullable VkBuffer @NotNull [] srcBuffers = new VkBuffer[8];
+    private @Nullable VkBuffer @NotNull [] dstBuffers = new VkBuffer[8];
+    private long @NotNull [] srcOffsets = new long[8];
+    private long @NotNull [] dstOffsets = new long[8];
+    private long @NotNull [] sizes = new long[8];
+    private int copyCount = 0;
+
+    /*
+     * Stats
+     */
+    private long lastMovedBytes = 0L;
+    private long totalMovedBytes = 0L;
+    private int movedObjectCount = 0;
+
+    /**
+     * @param typeManagers managers to defragment. May contain {@code null} entries and may be filled later.
+     * @param framesInFlight count of frames in flight
+     * @param maxBytesPerFrame maximum count of bytes moved per {@link #step(Stack, VkCommandBuffer, int) step}
+     * @param maxOccupancy only blocks with a smaller ratio of used bytes are emptied
+     */
+    @SuppressWarnings("unchecked")
+    public BlockDefragmenter(
+            @NotNull VkInstance vkInstance,
+            @Nullable BlockMemoryTypeManager @NotNull [] typeManagers,
+            int framesInFlight,
+            long maxBytesPerFrame,
+            double maxOccupancy
+    ) {
+        if(maxBytesPerFrame <= 0L)
+            throw new IllegalArgumentException("maxBytesPerFrame must be positive, but is " + maxBytesPerFrame + ".");
+        this.vkInstance = vkInstance;
+        this.typeManagers = typeManagers;
+        this.maxBytesPerFrame = maxBytesPerFrame;
+        this.maxOccupancy = maxOccupancy;
+
+        this.retired = new List[framesInFlight];
+        for (int i = 0; i < framesInFlight; i++)
+            retired[i] = new ArrayList<>();
+    }
+
+    /**
+     * Frees the old handles and ranges retired during the last use of given frame in flight and moves objects within
+     * the budget of this frame. Must be called after the fence of the frame has been waited on and before anything
+     * else is recorded into {@code vkCommandBuffer}.
+     * @param vkCommandBuffer command buffer of the frame, which is recording
+     * @param frame index of the frame in flight
+     */
+    public void step(@NotNull Stack stack, @NotNull VkCommandBuffer vkCommandBuffer, int frame) {
+        currentFrame = frame;
+        runRetired(retired[frame]);
+
+        long moved = 0L;
+        for (BlockMemoryTypeManager typeManager : typeManagers) {
+            if(moved >= maxBytesPerFrame)
+                break;
+            if(typeManager != null)
+                moved += typeManager.defragment(stack, this, maxBytesPerFrame - moved, maxOccupancy);
+        }
+
+        lastMovedBytes = moved;
+        totalMovedBytes += moved;
+        recordCopies(stack, vkCommandBuffer);
+    }
+
+    /**
+     * Records a copy from {@code src} to {@code dst} during the current {@link #step(Stack, VkCommandBuffer, int) step}.
+     * @return {@code false} if one of the blocks has no {@link MemoryBlock#getTransferBuffer(Stack) transfer buffer}.
+     */
+    boolean copy(
+            @NotNull Stack stack,
+            @NotNull MemoryBlock src, long srcOffset,
+            @NotNull MemoryBlock dst, long dstOffset,
+            long size
+    ) {
+        VkBuffer srcBuffer = src.getTransferBuffer(stack);
+        VkBuffer dstBuffer = dst.getTransferBuffer(stack);
+        if(srcBuffer == null || dstBuffer == null)
+            return false;
+
+        if(copyCount == sizes.length) {
+            srcBuffers = Arrays.copyOf(srcBuffers, copyCount * 2);
+            dstBuffers = Arrays.copyOf(dstBuffers, copyCount * 2);
+            srcOffsets = Arrays.copyOf(srcOffsets, copyCount * 2);
+            dstOffsets = Arrays.copyOf(dstOffsets, copyCount * 2);
+            sizes = Arrays.copyOf(sizes, copyCount * 2);
+        }
+
+        srcBuffers[copyCount] = srcBuffer;
+        dstBuffers[copyCount] = dstBuffer;
+        srcOffsets[copyCount] = srcOffset;
+        dstOffsets[copyCount] = dstOffset;
+        sizes[copyCount] = size;
+        copyCount++;
+        return true;
+    }
+
+    /**
+     * Runs given {@code action} once the current frame in flight is used again, which means the device finished
+     * the current frame. Called once per moved object.
+     */
+    void retire(@NotNull Runnable action) {
+        retired[currentFrame].add(action);
+        movedObjectCount++;
+    }
+
+    private void recordCopies(@NotNull Stack stack, @NotNull VkCommandBuffer vkCommandBuffer) {
+        if(copyCount == 0)
+            return;
+
+        VkPipelineStageFlags srcStage = stack.push(new VkPipelineStageFlags());
+        VkPipelineStageFlags dstStage = stack.push(new VkPipelineStageFlags());
+        VkDependencyFlags dependencyFlags = stack.push(new VkDependencyFlags());
+        VkMemoryBarrier barrier = stack.push(new VkMemoryBarrier());
+
+        // Wait for the writes of the previous frames, before reading the old ranges
+        srcStage.set(VkPipelineStageFlagBits.ALL_COMMANDS);
+        dstStage.set(VkPipelineStageFlagBits.TRANSFER);
+        barrier.sType.set(VkStructureType.MEMORY_BARRIER);
+        barrier.srcAccessMask.set(VkAccessFlagBits.MEMORY_WRITE);
+        barrier.dstAccessMask.set(VkAccessFlagBits.TRANSFER_READ, VkAccessFlagBits.TRANSFER_WRITE);
+        vkInstance.vkCmdPipelineBarrier(vkCommandBuffer, srcStage, dstStage, dependencyFlags, 1, ref(barrier), 0, ref(null), 0, ref(null));
+
+        // One command per pair of blocks
+        int first = 0;
+        while (first < copyCount) {
+            int end = first + 1;
+            while (end < copyCount && srcBuffers[end] == srcBuffers[first] && dstBuffers[end] == dstBuffers[first])
+                end++;
+
+            StructureArray<VkBufferCopy> regions = stack.pushArray(end - first, VkBufferCopy.class, VkBufferCopy::new);
+            for (int i = first; i < end; i++) {
+                VkBufferCopy region = regions.get(i - first);
+                region.srcOffset.set(srcOffsets[i]);
+                region.dstOffset.set(dstOffsets[i]);
+                region.size.set(sizes[i]);
+            }
+
+            vkInstance.vkCmdCopyBuffer(vkCommandBuffer, srcBuffers[first], dstBuffers[first], end - first, ofArray(regions));
+            stack.pop(); // regions
+            first = end;
+        }
+
+        // Make the copies visible to all following commands
+        srcStage.set(VkPipelineStageFlagBits.TRANSFER);
+        dstStage.set(VkPipelineStageFlagBits.ALL_COMMANDS);
+        barrier.srcAccessMask.set(VkAccessFlagBits.TRANSFER_WRITE);
+        barrier.dstAccessMask.set(VkAccessFlagBits.MEMORY_READ, VkAccessFlagBits.MEMORY_WRITE);
+        vkInstance.vkCmdPipelineBarrier(vkCommandBuffer, srcStage, dstStage, dependencyFlags, 1, ref(barrier), 0, ref(null), 0, ref(null));
+
+        stack.pop(); stack.pop(); stack.pop(); stack.pop(); // barrier, dependencyFlags, dstStage, srcStage
+
+        Arrays.fill(srcBuffers, 0, copyCount, null);
+        Arrays.fill(dstBuffers, 0, copyCount, null);
+        copyCount = 0;
+    }
+
+    private void runRetired(@NotNull List<Runnable> actions) {
+        for (Runnable action : actions)
+            action.run();
+        actions.clear();
+    }
+
+    /**
+     * Frees all retired handles and ranges. The device must not use any of them anymore, for example because it is
+     * idle.
+     */
+    public void flush() {
+        for (List<Runnable> actions : retired)
+            runRetired(actions);
+    }
+
+    public long getMaxBytesPerFrame() {
+        return maxBytesPerFrame;
+    }
+
+    /**
+     * Bytes moved during the last {@link #step(Stack, VkCommandBuffer, int) step}.
+     */
+    public long getLastMovedBytes() {
+        return lastMovedBytes;
+    }
+
+    /**
+     * Bytes moved since this defragmenter has been created.
+     */
+    public long getTotalMovedBytes() {
+        return totalMovedBytes;
+    }
+
+    /**
+     * Count of objects moved since this defragmenter has been created.
+     */
+    public int getMovedObjectCount() {
+        return movedObjectCount;
+    }
+
+    /**
+     * External fragmentation of the memory of all managers: {@code 1 - largestFreeRange / freeBytes}. {@code 0} if
+     * all free bytes are in a single range or nothing is free. Close to {@code 1} if the free bytes are split into
+     * many small ranges.
+     */
+    public double getFragmentationRatio() {
+        long free = 0L;
+        long largestFree = 0L;
+        for (BlockMemoryTypeManager typeManager : typeManagers) {
+            if(typeManager == null) continue;
+            free += typeManager.getAllocatedBytes() - typeManager.getUsedBytes();
+            largestFree = Math.max(largestFree, typeManager.getLargestFreeRange());
+        }
+
+        return fragmentationRatio(free, largestFree);
+    }
+
+    /**
+     * {@code 1 - largestFreeRange / freeBytes} or {@code 0} if nothing is free.
+     */
+    static double fragmentationRatio(long freeBytes, long largestFreeRange) {
+        if(freeBytes == 0L)
+            return 0.0;
+        return 1.0 - (double) largestFreeRange / freeBytes;
+    }
+}
@@ -0,0 +1,465 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.vk.memory.manager.block;
+
+import de.linusdev.ljgel.engine.vk.device.Device;
+import de.linusdev.ljgel.engine.vk.memory.manager.MemoryRequirementsChange;
+import de.linusdev.ljgel.engine.vk.memory.manager.MemoryTypeManager;
+import de.linusdev.ljgel.engine.vk.memory.manager.VulkanMemoryBoundObject;
+import de.linusdev.ljgel.nat.vulkan.bitmasks.enums.VkMemoryPropertyFlagBits;
+import de.linusdev.ljgel.nat.vulkan.handles.VkInstance;
+import de.linusdev.llog.LLog;
+import de.linusdev.llog.base.LogInstance;
+import de.linusdev.lutils.bitfield.IntBitfield;
+import de.linusdev.lutils.nat.memory.stack.Stack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * {@link MemoryTypeManager}, which allocates large {@link MemoryBlock blocks} of memory and sub-allocates the memory
+ * of its objects from them. Adding, resizing or removing an object only allocates or frees the range of that object,
+ * all other objects stay bound where they are. A new block is only allocated, if no existing block has enough space.
+ * <br><br>
+ * If the device's {@link Device#getBufferImageGranularity() buffer image granularity} is greater than {@code 1},
+ * linear and non-linear resources are placed in separate blocks, so they can never share a granularity page.
+ * <br><br>
+ * Sparse blocks can be emptied over multiple frames by a {@link BlockDefragmenter}.
+ */
+public class BlockMemoryTypeManager implements MemoryTypeManager {
+
+    private final static @NotNull LogInstance LOG = LLog.getLogInstance();
+
+    private final @NotNull VkInstance vkInstance;
+    private final @NotNull Device device;
+
+    private final @NotNull String debugName;
+    private final int memoryTypeIndex;
+    private final @NotNull IntBitfield<VkMemoryPropertyFlagBits> memoryTypeFlags;
+    private final long blockSize;
+    private final long bufferImageGranularity;
+
+    private final @NotNull List<MemoryBlock> blocks = new ArrayList<>();
+    private final @NotNull Map<VulkanMemoryBoundObject, Allocation> allocations = new IdentityHashMap<>();
+    /**
+     * Objects, which have been added, but not yet allocated.
+     */
+    private final @NotNull List<VulkanMemoryBoundObject> pending = new ArrayList<>();
+    /**
+     * Block the {@link BlockDefragmenter} currently moves objects out of. No new objects are placed in it, until it
+     * has been freed or only immovable objects are left in it.
+     */
+    private @Nullable MemoryBlock evacuating = null;
+
+    /**
+     * @param blockSize size of newly allocated blocks in bytes. Objects larger than this get a block of their own.
+     */
+    public BlockMemoryTypeManager(
+            @NotNull Stack stack,
+            @NotNull VkInstance vkInstance,
+            @NotNull Device device,
+            @NotNull String debugName,
+            int memoryTypeIndex,
+            long blockSize
+    ) {
+        this.vkInstance = vkInstance;
+        this.device = device;
+        this.debugName = debugName;
+        this.memoryTypeIndex = memoryTypeIndex;
+        this.memoryTypeFlags = device.getMemoryPropFlagsOf(stack, memoryTypeIndex);
+        this.blockSize = blockSize;
+        this.bufferImageGranularity = device.getBufferImageGranularity();
+    }
+
+    @Override
+    public void onChanged(@NotNull Stack stack, @NotNull VulkanMemoryBoundObject object, @Nullable MemoryRequirementsChange change) {
+        Allocation allocation = allocations.get(object);
+        if(allocation == null)
+            return; // Not yet allocated, will be bound during the next allocate call
+
+        if(fits(allocation, object)) {
+            LOG.debug("Object '" + object.getDebugName() + "' still fits into its range. rebinding...");
+            bind(stack, object, allocation.block());
+            return;
+        }
+
+        // Only this object moves, all other objects stay where they are
+        LOG.debug("Object '" + object.getDebugName() + "' does not fit into its range anymore. Manager '" + debugName
+                + "' moves it.");
+        release(allocation);
+        allocations.remove(object);
+        place(stack, object);
+    }
+
+    @Override
+    public void addObject(@NotNull VulkanMemoryBoundObject object) {
+        pending.add(object);
+        setMemoryTypeManagerOf(object, this);
+    }
+
+    @Override
+    public void allocate(@NotNull Stack stack) {
+        if(pending.isEmpty())
+            return;
+
+        LOG.debug("Manager '" + debugName + "' allocates memory for " + pending.size() + " objects. index="
+                + memoryTypeIndex + ", properties=" + memoryTypeFlags.toList(VkMemoryPropertyFlagBits.class) + ".");
+
+        for (VulkanMemoryBoundObject object : pending)
+            place(stack, object);
+        pending.clear();
+    }
+
+    /**
+     * Frees the memory range of given {@code object}. The object must be destroyed or recreated before, because its
+     * range may be handed out to another object right away.
+     * @return {@code false} if given object is not managed by this manager.
+     */
+    public boolean free(@NotNull VulkanMemoryBoundObject object) {
+        if(pending.remove(object))
+            return true;
+
+        Allocation allocation = allocations.remove(object);
+        if(allocation == null)
+            return false;
+
+        release(allocation);
+        return true;
+    }
+
+    /**
+     * Whether given {@code object} fits into its current range without moving.
+     */
+    private boolean fits(@NotNull Allocation allocation, @NotNull VulkanMemoryBoundObject object) {
+        TlsfAllocator allocator = allocation.block().getAllocator();
+        long offset = allocator.getOffset(allocation.range());
+        return object.getActualSize().get() <= allocator.getSize(allocation.range())
+                && offset % Math.max(1L, object.getRequiredAlignment()) == 0L;
+    }
+
+    /**
+     * Finds a free range for given {@code object}, allocating a new block if required, and binds the object to it.
+     */
+    private void place(@NotNull Stack stack, @NotNull VulkanMemoryBoundObject object) {
+        long size = object.getActualSize().get();
+        long alignment = Math.max(1L, object.getRequiredAlignment());
+        boolean linear = object.isLinearResource();
+
+        MemoryBlock block = null;
+        int range = TlsfAllocator.NO_SPACE;
+        for (MemoryBlock b : blocks) {
+            if(b == evacuating || !accepts(b, linear))
+                continue;
+
+            range = b.getAllocator().allocate(size, alignment);
+            if(range != TlsfAllocator.NO_SPACE) {
+                block = b;
+                break;
+            }
+        }
+
+        if(block == null) {
+            // Objects larger than the block size get a dedicated block
+            long newBlockSize = Math.max(blockSize, TlsfAllocator.alignUp(size, alignment));
+            LOG.debug("Manager '" + debugName + "' allocates a new block of " + newBlockSize + " bytes. index="
+                    + memoryTypeIndex + ", properties=" + memoryTypeFlags.toList(VkMemoryPropertyFlagBits.class) + ".");
+            block = new MemoryBlock(stack, vkInstance, device, memoryTypeIndex, newBlockSize, linear, canBeMapped());
+            blocks.add(block);
+            range = block.getAllocator().allocate(size, alignment);
+            if(range == TlsfAllocator.NO_SPACE)
+                throw new IllegalStateException("Object '" + object.getDebugName() + "' does not fit into a new block of "
+                        + newBlockSize + " bytes. size=" + size + ", alignment=" + alignment);
+        }
+
+        allocations.put(object, new Allocation(block, range));
+        setOffsetOf(object, block.getAllocator().getOffset(range));
+        LOG.debug("Binding memory to object '" + object.getDebugName() + "'. offset=" + object.getOffset().get());
+        bind(stack, object, block);
+    }
+
+    /**
+     * Moves {@link VulkanMemoryBoundObject#isMovable() movable} objects out of the sparsest block into the other
+     * blocks, until {@code maxBytes} have been moved. No new blocks are allocated. The old ranges stay allocated
+     * until the defragmenter {@link BlockDefragmenter#retire(Runnable) retires} them, the emptied block is freed then.
+     * @param maxOccupancy only blocks with a smaller ratio of used bytes are emptied
+     * @return bytes moved
+     */
+    long defragment(@NotNull Stack stack, @NotNull BlockDefragmenter defragmenter, long maxBytes, double maxOccupancy) {
+        if(evacuating != null && !blocks.contains(evacuating))
+            evacuating = null; // Freed already
+        if(evacuating == null)
+            evacuating = selectSparseBlock(maxOccupancy);
+        if(evacuating == null)
+            return 0L;
+
+        MemoryBlock source = evacuating;
+        long moved = 0L;
+        boolean movedAll = true;
+        for (Map.Entry<VulkanMemoryBoundObject, Allocation> entry : List.copyOf(allocations.entrySet())) {
+            VulkanMemoryBoundObject object = entry.getKey();
+            if(entry.getValue().block() != source || !object.isMovable())
+                continue;
+
+            long size = object.getActualSize().get();
+            if(!isWithinBudget(moved, size, maxBytes)) {
+                // Continue next frame
+                movedAll = false;
+                break;
+            }
+
+            if(!move(stack, defragmenter, object, entry.getValue())) {
+                movedAll = false;
+                break;
+            }
+            moved += size;
+        }
+
+        if(movedAll && containsObjects(source)) {
+            // Only immovable objects are left, the block may be used again
+            evacuating = null;
+        }
+        // Otherwise, the block stays excluded until it is freed, once the moves are retired
+        return moved;
+    }
+
+    /**
+     * Whether an object of {@code size} bytes may still be moved, after {@code moved} bytes have been moved with a
+     * budget of {@code maxBytes}. Objects larger than the budget are moved alone.
+     */
+    static boolean isWithinBudget(long moved, long size, long maxBytes) {
+        return moved == 0L || moved + size <= maxBytes;
+    }
+
+    private boolean containsObjects(@NotNull MemoryBlock block) {
+        for (Allocation allocation : allocations.values())
+            if(allocation.block() == block) return true;
+        return false;
+    }
+
+    /**
+     * Sparsest block with a ratio of used bytes smaller than {@code maxOccupancy}, which contains at least one
+     * {@link VulkanMemoryBoundObject#isMovable() movable} object.
+     */
+    private @Nullable MemoryBlock selectSparseBlock(double maxOccupancy) {
+        if(blocks.size() < 2)
+            return null;
+
+        List<MemoryBlock> candidates = new ArrayList<>();
+        for (Map.Entry<VulkanMemoryBoundObject, Allocation> entry : allocations.entrySet()) {
+            MemoryBlock block = entry.getValue().block();
+            if(entry.getKey().isMovable() && !candidates.contains(block))
+                candidates.add(block);
+        }
+
+        return selectSparsest(candidates, MemoryBlock::getAllocator, maxOccupancy);
+    }
+
+    /**
+     * Block of given {@code candidates} with the smallest ratio of used bytes, if that ratio is smaller than
+     * {@code maxOccupancy}.
+     */
+    static <B> @Nullable B selectSparsest(
+            @NotNull List<B> candidates,
+            @NotNull Function<B, TlsfAllocator> allocatorOf,
+            double maxOccupancy
+    ) {
+        B sparsest = null;
+        double sparsestOccupancy = maxOccupancy;
+        for (B block : candidates) {
+            TlsfAllocator allocator = allocatorOf.apply(block);
+            double occupancy = (double) allocator.getUsedBytes() / allocator.getCapacity();
+            if(occupancy < sparsestOccupancy) {
+                sparsest = block;
+                sparsestOccupancy = occupancy;
+            }
+        }
+
+        return sparsest;
+    }
+
+    /**
+     * Moves given {@code object} into the densest other block with enough space.
+     * @return {@code false} if no other block has enough space
+     */
+    private boolean move(
+            @NotNull Stack stack,
+            @NotNull BlockDefragmenter defragmenter,
+            @NotNull VulkanMemoryBoundObject object,
+            @NotNull Allocation from
+    ) {
+        long size = object.getActualSize().get();
+        long alignment = Math.max(1L, object.getRequiredAlignment());
+        boolean linear = object.isLinearResource();
+
+        // Prefer dense blocks, so sparse blocks empty out
+        List<MemoryBlock> targets = new ArrayList<>(blocks);
+        targets.sort((a, b) -> Long.compare(b.getAllocator().getUsedBytes(), a.getAllocator().getUsedBytes()));
+
+        MemoryBlock target = null;
+        int range = TlsfAllocator.NO_SPACE;
+        for (MemoryBlock b : targets) {
+            if(b == from.block() || b == evacuating || !accepts(b, linear))
+                continue;
+
+            range = b.getAllocator().allocate(size, alignment);
+            if(range != TlsfAllocator.NO_SPACE) {
+                target = b;
+                break;
+            }
+        }
+
+        if(target == null)
+            return false;
+
+        long srcOffset = object.getOffset().get();
+        long dstOffset = target.getAllocator().getOffset(range);
+        ByteBuffer srcMapped = from.block().getMappedMemory();
+        ByteBuffer dstMapped = target.getMappedMemory();
+        if(srcMapped != null && dstMapped != null && isOnlyWrittenByHost(object)) {
+            // No pending device writes, so the host can copy it right away
+            dstMapped.put((int) dstOffset, srcMapped, (int) srcOffset, (int) size);
+        } else if(!defragmenter.copy(stack, from.block(), srcOffset, target, dstOffset, size)) {
+            target.getAllocator().free(range);
+            return false;
+        }
+
+        LOG.debug("Manager '" + debugName + "' moves object '" + object.getDebugName() + "' from offset " + srcOffset
+                + " to offset " + dstOffset + " in another block.");
+        Runnable destroyOld = recreateForMoveOf(object, stack);
+        allocations.put(object, new Allocation(target, range));
+        setOffsetOf(object, dstOffset);
+        bind(stack, object, target);
+
+        // The device may still use the old range in the frames in flight
+        defragmenter.retire(() -> {
+            destroyOld.run();
+            release(from);
+        });
+        return true;
+    }
+
+    /**
+     * Whether the memory of given {@code object} is only written by the host. Device local memory, which is host
+     * visible as well, is usually written by the device (for example by uploads of the frames in flight), so it is
+     * always copied by the device.
+     */
+    private boolean isOnlyWrittenByHost(@NotNull VulkanMemoryBoundObject object) {
+        return !memoryTypeFlags.isSet(VkMemoryPropertyFlagBits.DEVICE_LOCAL) && !object.isWrittenByDevice();
+    }
+
+    private void bind(@NotNull Stack stack, @NotNull VulkanMemoryBoundObject object, @NotNull MemoryBlock block) {
+        bindTo(object, stack, block.getVkDeviceMemory());
+        ByteBuffer mapped = block.getMappedMemory();
+        if(mapped != null)
+            map(object, mapped);
+    }
+
+    /**
+     * Frees the range of given allocation. Empty blocks are freed, unless it is the last block.
+     */
+    private void release(@NotNull Allocation allocation) {
+        MemoryBlock block = allocation.block();
+        block.getAllocator().free(allocation.range());
+
+        if(block.getAllocator().isEmpty() && blocks.size() > 1) {
+            LOG.debug("Manager '" + debugName + "' frees an empty block of " + block.getSize() + " bytes.");
+            blocks.remove(block);
+            block.close();
+        }
+    }
+
+    private boolean accepts(@NotNull MemoryBlock block, boolean linear) {
+        return bufferImageGranularity <= 1L || block.isLinear() == linear;
+    }
+
+    public boolean canBeMapped() {
+        return memoryTypeFlags.isSet(VkMemoryPropertyFlagBits.HOST_VISIBLE);
+    }
+
+    /**
+     * See {@link Device#getBufferImageGranularity()}.
+     */
+    public long getBufferImageGranularity() {
+        return bufferImageGranularity;
+    }
+
+    public int getBlockCount() {
+        return blocks.size();
+    }
+
+    /**
+     * Sum of the sizes of all blocks in bytes.
+     */
+    public long getAllocatedBytes() {
+        long sum = 0L;
+        for (MemoryBlock block : blocks)
+            sum += block.getSize();
+        return sum;
+    }
+
+    /**
+     * Sum of the sizes of all ranges bound to objects in bytes.
+     */
+    public long getUsedBytes() {
+        long sum = 0L;
+        for (MemoryBlock block : blocks)
+            sum += block.getAllocator().getUsedBytes();
+        return sum;
+    }
+
+    /**
+     * Size of the largest free range of all blocks in bytes.
+     */
+    public long getLargestFreeRange() {
+        long largest = 0L;
+        for (MemoryBlock block : blocks)
+            largest = Math.max(largest, block.getAllocator().getLargestFreeRange());
+        return largest;
+    }
+
+    @Override
+    public int getMemoryTypeIndex() {
+        return memoryTypeIndex;
+    }
+
+    @Override
+    public void close() {
+        for (VulkanMemoryBoundObject object : allocations.keySet())
+            object.close();
+        for (VulkanMemoryBoundObject object : pending)
+            object.close();
+        allocations.clear();
+        pending.clear();
+
+        for (MemoryBlock block : blocks)
+            block.close();
+        blocks.clear();
+    }
+
+    /**
+     * @param block block the range belongs to
+     * @param range handle of the {@link TlsfAllocator} range
+     */
+    private record Allocation(@NotNull MemoryBlock block, int range) { }
+}
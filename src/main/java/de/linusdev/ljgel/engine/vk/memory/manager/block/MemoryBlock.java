@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.vk.memory.manager.block;
+
+import de.linusdev.ljgel.engine.vk.device.Device;
+import de.linusdev.ljgel.nat.vulkan.VkDeviceSize;
+import de.linusdev.ljgel.nat.vulkan.bitmasks.VkMemoryMapFlags;
+import de.linusdev.ljgel.nat.vulkan.bitmasks.enums.VkBufferUsageFlagBits;
+import de.linusdev.ljgel.nat.vulkan.enums.VkSharingMode;
+import de.linusdev.ljgel.nat.vulkan.enums.VkStructureType;
+import de.linusdev.ljgel.nat.vulkan.handles.VkBuffer;
+import de.linusdev.ljgel.nat.vulkan.handles.VkDeviceMemory;
+import de.linusdev.ljgel.nat.vulkan.handles.VkInstance;
+import de.linusdev.ljgel.nat.vulkan.structs.VkBufferCreateInfo;
+import de.linusdev.ljgel.nat.vulkan.structs.VkMemoryAllocateInfo;
+import de.linusdev.ljgel.nat.vulkan.structs.VkMemoryRequirements;
+import de.linusdev.lutils.nat.memory.stack.Stack;
+import de.linusdev.lutils.nat.pointer.BBPointer64;
+import de.linusdev.lutils.nat.struct.abstracts.Structure;
+import de.linusdev.lutils.nat.struct.utils.BufferUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static de.linusdev.lutils.nat.pointer.TypedPointer64.ref;
+
+/**
+ * A single {@link VkDeviceMemory} allocation of a {@link BlockMemoryTypeManager}. Its ranges are handed out by a
+ * {@link TlsfAllocator}. Host visible blocks are mapped once, when they are created.
+ * <br><br>
+ * For copies between blocks, a {@link #getTransferBuffer(Stack) transfer buffer} spanning the whole block can be
+ * created.
+ */
+public class MemoryBlock implements AutoCloseable {
+
+    private final @NotNull VkInstance vkInstance;
+    private final @NotNull Device device;
+
+    private final int memoryTypeIndex;
+    private final long size;
+    /**
+     * Whether this block contains linear resources. See {@link BlockMemoryTypeManager#getBufferImageGranularity()}.
+     */
+    private final boolean linear;
+    private final @NotNull TlsfAllocator allocator;
+
+    /*
+     * Managed by this class
+     */
+    private final @NotNull VkDeviceMemory vkDeviceMemory;
+    private @Nullable ByteBuffer mappedMemory;
+    private @Nullable VkBuffer transferBuffer;
+    /**
+     * Whether creating the {@link #transferBuffer} has been tried already.
+     */
+    private boolean transferBufferCreated = false;
+
+    MemoryBlock(
+            @NotNull Stack stack,
+            @NotNull VkInstance vkInstance,
+            @NotNull Device device,
+            int memoryTypeIndex,
+            long size,
+            boolean linear,
+            boolean map
+    ) {
+        this.vkInstance = vkInstance;
+        this.device = device;
+        this.memoryTypeIndex = memoryTypeIndex;
+        this.size = size;
+        this.linear = linear;
+        this.allocator = new TlsfAllocator(size);
+        this.vkDeviceMemory = Structure.allocate(new VkDeviceMemory());
+
+        // Allocate the memory
+        VkMemoryAllocateInfo allocInfo = stack.push(new VkMemoryAllocateInfo());
+        allocInfo.sType.set(VkStructureType.MEMORY_ALLOCATE_INFO);
+        allocInfo.allocationSize.set(size);
+        allocInfo.memoryTypeIndex.set(memoryTypeIndex);
+        vkInstance.vkAllocateMemory(device.getVkDevice(), ref(allocInfo), ref(null), ref(vkDeviceMemory)).check();
+        stack.pop(); // allocInfo
+
+        if(map) {
+            VkMemoryMapFlags flags = stack.push(new VkMemoryMapFlags());
+            BBPointer64 pointer = stack.pushPointer();
+            VkDeviceSize offset = stack.push(new VkDeviceSize());
+            VkDeviceSize vkSize = stack.push(new VkDeviceSize());
+
+            offset.set(0);
+            vkSize.set(size);
+
+            vkInstance.vkMapMemory(device.getVkDevice(), vkDeviceMemory, offset, vkSize, flags, ref(pointer)).check();
+            long pointerToMappedMemory = pointer.get();
+
+            stack.pop(); // vkSize
+            stack.pop(); // offset
+            stack.pop(); // pointer
+            stack.pop(); // flags
+
+            mappedMemory = BufferUtils.getByteBufferFromPointer(pointerToMappedMemory, (int) size).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public boolean isLinear() {
+        return linear;
+    }
+
+    public @NotNull TlsfAllocator getAllocator() {
+        return allocator;
+    }
+
+    public @NotNull VkDeviceMemory getVkDeviceMemory() {
+        return vkDeviceMemory;
+    }
+
+    /**
+     * The whole block mapped to host memory or {@code null} if the block is not host visible.
+     */
+    public @Nullable ByteBuffer getMappedMemory() {
+        return mappedMemory;
+    }
+
+    /**
+     * A {@link VkBuffer} with {@code TRANSFER_SRC} and {@code TRANSFER_DST} usage bound to the whole block, which is
+     * created on the first call. Offsets in this buffer equal offsets in the block.
+     * @return the transfer buffer or {@code null} if such a buffer cannot be bound to this block's memory type.
+     */
+    public @Nullable VkBuffer getTransferBuffer(@NotNull Stack stack) {
+        if(transferBufferCreated)
+            return transferBuffer;
+        transferBufferCreated = true;
+
+        VkBuffer buffer = Structure.allocate(new VkBuffer());
+        VkBufferCreateInfo bufferCreateInfo = stack.push(new VkBufferCreateInfo());
+        bufferCreateInfo.sType.set(VkStructureType.BUFFER_CREATE_INFO);
+        bufferCreateInfo.size.set(size);
+        bufferCreateInfo.usage.set(VkBufferUsageFlagBits.TRANSFER_SRC, VkBufferUsageFlagBits.TRANSFER_DST);
+        bufferCreateInfo.sharingMode.set(VkSharingMode.EXCLUSIVE);
+        vkInstance.vkCreateBuffer(device.getVkDevice(), ref(bufferCreateInfo), ref(null), ref(buffer)).check();
+        stack.pop(); // bufferCreateInfo
+
+        VkMemoryRequirements memoryRequirements = stack.push(new VkMemoryRequirements());
+        vkInstance.vkGetBufferMemoryRequirements(device.getVkDevice(), buffer, ref(memoryRequirements));
+        boolean compatible = memoryRequirements.size.get() <= size
+                && (memoryRequirements.memoryTypeBits.get() & (1 << memoryTypeIndex)) != 0;
+        stack.pop(); // memoryRequirements
+
+        if(!compatible) {
+            vkInstance.vkDestroyBuffer(device.getVkDevice(), buffer, ref(null));
+            return null;
+        }
+
+        VkDeviceSize offset = stack.push(new VkDeviceSize());
+        offset.set(0);
+        vkInstance.vkBindBufferMemory(device.getVkDevice(), buffer, vkDeviceMemory, offset).check();
+        stack.pop(); // offset
+
+        transferBuffer = buffer;
+        return transferBuffer;
+    }
+
+    @Override
+    public void close() {
+        if(transferBuffer != null)
+            vkInstance.vkDestroyBuffer(device.getVkDevice(), transferBuffer, ref(null));
+        transferBuffer = null;
+        // Freeing the memory implicitly unmaps it
+        vkInstance.vkFreeMemory(device.getVkDevice(), vkDeviceMemory, ref(null));
+        vkDeviceMemory.set(null);
+        mappedMemory = null;
+    }
+}
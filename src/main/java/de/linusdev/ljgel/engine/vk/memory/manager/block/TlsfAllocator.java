@@ -0,0 +1,428 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.vk.memory.manager.block;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Two-level segregated fit (TLSF) allocator, which manages ranges of a single block of memory. It does not touch
+ * the memory itself, it only hands out offsets. {@link #allocate(long, long) Allocation} and {@link #free(int) free}
+ * run in constant time: free ranges are kept in lists segregated by size, which are found using two levels of
+ * bitmaps. Adjacent free ranges are merged when a range is freed.
+ * <br><br>
+ * Ranges are identified by an {@code int} handle. All information about the ranges is stored in arrays, which only
+ * grow, if more ranges exist than ever before. This class is not thread-safe.
+ */
+public class TlsfAllocator {
+
+    /**
+     * Returned by {@link #allocate(long, long)}, if no free range is large enough.
+     */
+    public static final int NO_SPACE = -1;
+
+    /**
+     * Each first level list (power of two size class) is split into {@code 2^SL_BITS} second level lists.
+     */
+    private static final int SL_BITS = 5;
+    private static final int SL_COUNT = 1 << SL_BITS;
+    private static final int FL_COUNT = 64 - SL_BITS + 1;
+
+    /**
+     * Free ranges smaller than this are not split off an allocated range, but stay part of it.
+     */
+    private static final long MIN_SPLIT_SIZE = 16L;
+
+    private static final int NONE = -1;
+
+    private final long capacity;
+
+    /*
+     * Ranges. A range is either free or allocated. Unused handles are kept in a stack.
+     */
+    private long @NotNull [] offsets;
+    private long @NotNull [] sizes;
+    private int @NotNull [] prevPhysical;
+    private int @NotNull [] nextPhysical;
+    private int @NotNull [] prevFree;
+    private int @NotNull [] nextFree;
+    private boolean @NotNull [] free;
+
+    private int @NotNull [] unusedHandles;
+    private int unusedHandleCount = 0;
+    private int handleCount = 0;
+
+    /*
+     * Segregated free lists
+     */
+    private long flBitmap = 0L;
+    private final int @NotNull [] slBitmaps = new int[FL_COUNT];
+    private final int @NotNull [] freeLists = new int[FL_COUNT * SL_COUNT];
+
+    private long usedBytes = 0L;
+    private int allocationCount = 0;
+
+    /**
+     * @param capacity size in bytes of the managed memory
+     */
+    public TlsfAllocator(long capacity) {
+        if(capacity <= 0L)
+            throw new IllegalArgumentException("capacity must be greater than 0, but is " + capacity + ".");
+        this.capacity = capacity;
+
+        int initialHandles = 64;
+        this.offsets = new long[initialHandles];
+        this.sizes = new long[initialHandles];
+        this.prevPhysical = new int[initialHandles];
+        this.nextPhysical = new int[initialHandles];
+        this.prevFree = new int[initialHandles];
+        this.nextFree = new int[initialHandles];
+        this.free = new boolean[initialHandles];
+        this.unusedHandles = new int[initialHandles];
+
+        Arrays.fill(freeLists, NONE);
+
+        int range = newHandle(0L, capacity);
+        prevPhysical[range] = NONE;
+        nextPhysical[range] = NONE;
+        insertFree(range);
+    }
+
+    /**
+     * Allocates a range of at least {@code size} bytes, whose offset is a multiple of {@code alignment}.
+     * @param size required size in bytes
+     * @param alignment required alignment. Must be a power of two.
+     * @return handle of the allocated range or {@link #NO_SPACE}
+     */
+    public int allocate(long size, long alignment) {
+        if(size <= 0L)
+            throw new IllegalArgumentException("size must be greater than 0, but is " + size + ".");
+        if(alignment <= 0L || Long.bitCount(alignment) != 1)
+            throw new IllegalArgumentException("alignment must be a power of two, but is " + alignment + ".");
+
+        // Any range found for this size can hold the aligned allocation
+        long searchSize = size + alignment - 1L;
+        if(searchSize < 0L || size > capacity)
+            return NO_SPACE;
+
+        int range = searchSize <= capacity ? findFree(searchSize) : NONE;
+        if(range == NONE)
+            range = findFit(size, alignment);
+        if(range == NONE)
+            return NO_SPACE;
+        removeFree(range);
+
+        // Split off the padding in front of the aligned offset
+        long padding = alignUp(offsets[range], alignment) - offsets[range];
+        if(padding > 0L) {
+            int front = newHandle(offsets[range], padding);
+            linkBefore(front, range);
+            offsets[range] += padding;
+            sizes[range] -= padding;
+            insertFree(front);
+        }
+
+        // Split off the remaining space
+        if(sizes[range] - size >= MIN_SPLIT_SIZE) {
+            int back = newHandle(offsets[range] + size, sizes[range] - size);
+            linkAfter(back, range);
+            sizes[range] = size;
+            insertFree(back);
+        }
+
+        free[range] = false;
+        usedBytes += sizes[range];
+        allocationCount++;
+        return range;
+    }
+
+    /**
+     * Frees given range and merges it with adjacent free ranges.
+     * @param handle handle returned by {@link #allocate(long, long)}
+     */
+    public void free(int handle) {
+        // Released handles have a size of 0
+        if(handle < 0 || handle >= handleCount || free[handle] || sizes[handle] == 0L)
+            throw new IllegalArgumentException("Handle " + handle + " is not allocated.");
+
+        usedBytes -= sizes[handle];
+        allocationCount--;
+        free[handle] = true;
+
+        int prev = prevPhysical[handle];
+        if(prev != NONE && free[prev]) {
+            removeFree(prev);
+            sizes[prev] += sizes[handle];
+            unlink(handle);
+            releaseHandle(handle);
+            handle = prev;
+        }
+
+        int next = nextPhysical[handle];
+        if(next != NONE && free[next]) {
+            removeFree(next);
+            sizes[handle] += sizes[next];
+            unlink(next);
+            releaseHandle(next);
+        }
+
+        insertFree(handle);
+    }
+
+    public long getOffset(int handle) {
+        return offsets[handle];
+    }
+
+    /**
+     * Size of given range. May be slightly larger than the size requested in {@link #allocate(long, long)}.
+     */
+    public long getSize(int handle) {
+        return sizes[handle];
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sum of the sizes of all allocated ranges.
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public int getAllocationCount() {
+        return allocationCount;
+    }
+
+    public boolean isEmpty() {
+        return allocationCount == 0;
+    }
+
+    /**
+     * Size of the largest free range in bytes. Only the ranges of the largest non-empty free list are checked.
+     */
+    public long getLargestFreeRange() {
+        if(flBitmap == 0L)
+            return 0L;
+        int fl = 63 - Long.numberOfLeadingZeros(flBitmap);
+        int sl = 31 - Integer.numberOfLeadingZeros(slBitmaps[fl]);
+
+        long largest = 0L;
+        for(int range = freeLists[fl * SL_COUNT + sl]; range != NONE; range = nextFree[range])
+            largest = Math.max(largest, sizes[range]);
+        return largest;
+    }
+
+    /*
+     * Size classes
+     */
+
+    private static int firstLevel(long size) {
+        if(size < SL_COUNT)
+            return 0;
+        return 63 - Long.numberOfLeadingZeros(size) - SL_BITS + 1;
+    }
+
+    private static int secondLevel(long size, int fl) {
+        if(fl == 0)
+            return (int) size;
+        return (int) (size >>> (fl - 1)) - SL_COUNT;
+    }
+
+    /**
+     * Rounds given {@code size} up to the next size class, so that every range in the list of the rounded size is
+     * at least {@code size} bytes large.
+     */
+    private static long roundUpToSizeClass(long size) {
+        if(size >= SL_COUNT)
+            size += (1L << (63 - Long.numberOfLeadingZeros(size) - SL_BITS)) - 1L;
+        return size;
+    }
+
+    private static int listIndex(long size) {
+        int fl = firstLevel(size);
+        return fl * SL_COUNT + secondLevel(size, fl);
+    }
+
+    /**
+     * Finds a free range, which is at least {@code size} bytes large.
+     */
+    private int findFree(long size) {
+        size = roundUpToSizeClass(size);
+
+        int fl = firstLevel(size);
+        if(fl >= FL_COUNT)
+            return NONE;
+        int sl = secondLevel(size, fl);
+
+        int slMap = slBitmaps[fl] & (-1 << sl);
+        if(slMap == 0) {
+            long flMap = fl + 1 < 64 ? flBitmap & (-1L << (fl + 1)) : 0L;
+            if(flMap == 0L)
+                return NONE;
+            fl = Long.numberOfTrailingZeros(flMap);
+            slMap = slBitmaps[fl];
+        }
+
+        return freeLists[fl * SL_COUNT + Integer.numberOfTrailingZeros(slMap)];
+    }
+
+    /**
+     * Finds a free range, which can hold {@code size} bytes at an offset aligned to {@code alignment}, by checking
+     * every range in the lists skipped by {@link #findFree(long)}. These lists may contain ranges, which are smaller
+     * than {@code size + alignment - 1}, but large enough for the actual padding of their offset. For example,
+     * a range of exactly {@code size} bytes at an aligned offset. Only used if {@link #findFree(long)} fails, so
+     * allocations, which fit into the fast path, stay constant time.
+     */
+    private int findFit(long size, long alignment) {
+        long searchSize = size + alignment - 1L;
+        int first = listIndex(size);
+        int end = searchSize <= capacity
+                ? Math.min(listIndex(roundUpToSizeClass(searchSize)), FL_COUNT * SL_COUNT)
+                : FL_COUNT * SL_COUNT;
+
+        for (int list = first; list < end; list++) {
+            int fl = list >>> SL_BITS;
+            if((slBitmaps[fl] & (1 << (list & (SL_COUNT - 1)))) == 0)
+                continue;
+
+            for (int range = freeLists[list]; range != NONE; range = nextFree[range]) {
+                long padding = alignUp(offsets[range], alignment) - offsets[range];
+                if(padding + size <= sizes[range])
+                    return range;
+            }
+        }
+
+        return NONE;
+    }
+
+    private void insertFree(int range) {
+        int fl = firstLevel(sizes[range]);
+        int sl = secondLevel(sizes[range], fl);
+        int list = fl * SL_COUNT + sl;
+
+        int head = freeLists[list];
+        prevFree[range] = NONE;
+        nextFree[range] = head;
+        if(head != NONE)
+            prevFree[head] = range;
+        freeLists[list] = range;
+        free[range] = true;
+
+        slBitmaps[fl] |= 1 << sl;
+        flBitmap |= 1L << fl;
+    }
+
+    private void removeFree(int range) {
+        int prev = prevFree[range];
+        int next = nextFree[range];
+
+        if(next != NONE)
+            prevFree[next] = prev;
+
+        if(prev != NONE) {
+            nextFree[prev] = next;
+            return;
+        }
+
+        int fl = firstLevel(sizes[range]);
+        int sl = secondLevel(sizes[range], fl);
+        freeLists[fl * SL_COUNT + sl] = next;
+
+        if(next == NONE) {
+            slBitmaps[fl] &= ~(1 << sl);
+            if(slBitmaps[fl] == 0)
+                flBitmap &= ~(1L << fl);
+        }
+    }
+
+    /*
+     * Physical neighbours
+     */
+
+    private void linkBefore(int range, int next) {
+        int prev = prevPhysical[next];
+        prevPhysical[range] = prev;
+        nextPhysical[range] = next;
+        prevPhysical[next] = range;
+        if(prev != NONE)
+            nextPhysical[prev] = range;
+    }
+
+    private void linkAfter(int range, int prev) {
+        int next = nextPhysical[prev];
+        prevPhysical[range] = prev;
+        nextPhysical[range] = next;
+        nextPhysical[prev] = range;
+        if(next != NONE)
+            prevPhysical[next] = range;
+    }
+
+    private void unlink(int range) {
+        int prev = prevPhysical[range];
+        int next = nextPhysical[range];
+        if(prev != NONE)
+            nextPhysical[prev] = next;
+        if(next != NONE)
+            prevPhysical[next] = prev;
+    }
+
+    /*
+     * Handles
+     */
+
+    private int newHandle(long offset, long size) {
+        int handle;
+        if(unusedHandleCount > 0) {
+            handle = unusedHandles[--unusedHandleCount];
+        } else {
+            if(handleCount == offsets.length)
+                grow();
+            handle = handleCount++;
+        }
+
+        offsets[handle] = offset;
+        sizes[handle] = size;
+        free[handle] = false;
+        return handle;
+    }
+
+    private void releaseHandle(int handle) {
+        free[handle] = false;
+        sizes[handle] = 0L;
+        unusedHandles[unusedHandleCount++] = handle;
+    }
+
+    private void grow() {
+        int length = offsets.length * 2;
+        offsets = Arrays.copyOf(offsets, length);
+        sizes = Arrays.copyOf(sizes, length);
+        prevPhysical = Arrays.copyOf(prevPhysical, length);
+        nextPhysical = Arrays.copyOf(nextPhysical, length);
+        prevFree = Arrays.copyOf(prevFree, length);
+        nextFree = Arrays.copyOf(nextFree, length);
+        free = Arrays.copyOf(free, length);
+        unusedHandles = Arrays.copyOf(unusedHandles, length);
+    }
+
+    public static long alignUp(long value, long alignment) {
+        return (value + alignment - 1L) & -alignment;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.vk.memory.manager.objects.buffer;
+
+import de.linusdev.ljgel.engine.exception.EngineException;
+import de.linusdev.ljgel.engine.vk.memory.manager.MappingListener;
+import de.linusdev.ljgel.engine.vk.memory.manager.block.TlsfAllocator;
+import de.linusdev.lutils.nat.memory.stack.Stack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hands out {@link BufferArenaRange ranges} of a few large {@link VulkanBuffer VulkanBuffers} (chunks), which all
+ * have the same usage and memory properties. Instead of one {@code VkBuffer} per vertex, index, uniform or staging
+ * buffer, only one {@code VkBuffer} per chunk has to be created and bound to memory. Draws using ranges of the same
+ * chunk can share a single vertex or index buffer bind.
+ * <br><br>
+ * Ranges larger than the chunk size get a chunk of their own. Chunks are created by the {@link ChunkFactory} given
+ * to the constructor. A chunk is freed, as soon as its last range is {@link BufferArenaRange#close() closed},
+ * unless it is the only chunk of the arena.
+ * <br><br>
+ * The arena only depends on the {@link BufferRange} of its chunks, so that the range bookkeeping works without a
+ * device.
+ * @param <B> type of the chunk buffers, {@link VulkanBuffer} outside of tests
+ */
+public class BufferArena<B extends BufferRange> {
+
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    @FunctionalInterface
+    public interface ChunkFactory<B extends BufferRange> {
+        /**
+         * Creates a {@link VulkanBuffer} with the usage of the arena and adds it to a memory allocator.
+         */
+        @NotNull B create(@NotNull Stack stack, @NotNull String debugName, int size) throws EngineException;
+    }
+
+    private final @NotNull String debugName;
+    private final int chunkSize;
+    /**
+     * Minimum alignment of all ranges.
+     */
+    private final long alignment;
+    private final @NotNull ChunkFactory<B> chunkFactory;
+    private final @NotNull Consumer<B> chunkReleaser;
+
+    private final @NotNull List<Chunk<B>> chunks = new ArrayList<>();
+
+    /**
+     * @param chunkSize size of a chunk in bytes
+     * @param alignment minimum alignment of all ranges. Must be a power of two.
+     * @param chunkReleaser frees the memory of an empty chunk
+     */
+    public BufferArena(
+            @NotNull String debugName,
+            int chunkSize,
+            long alignment,
+            @NotNull ChunkFactory<B> chunkFactory,
+            @NotNull Consumer<B> chunkReleaser
+    ) {
+        if(alignment <= 0L || Long.bitCount(alignment) != 1)
+            throw new IllegalArgumentException("alignment must be a power of two, but is " + alignment + ".");
+        this.debugName = debugName;
+        this.chunkSize = chunkSize;
+        this.alignment = alignment;
+        this.chunkFactory = chunkFactory;
+        this.chunkReleaser = chunkReleaser;
+    }
+
+    /**
+     * Allocates a range of {@code size} bytes. A new chunk is created, if no existing chunk has enough space.
+     * Memory is bound to new chunks, when the memory allocator allocates memory the next time.
+     * @param debugName name of the range
+     */
+    public @NotNull BufferArenaRange allocate(
+            @NotNull Stack stack,
+            @NotNull String debugName,
+            int size
+    ) throws EngineException {
+        for (Chunk<B> chunk : chunks) {
+            int handle = chunk.allocator.allocate(size, alignment);
+            if(handle != TlsfAllocator.NO_SPACE)
+                return chunk.add(debugName, handle, size);
+        }
+
+        // Ranges larger than the chunk size get a chunk of their own
+        int newChunkSize = Math.max(chunkSize, size);
+        String chunkName = this.debugName + "-chunk[" + chunks.size() + "]";
+        Chunk<B> chunk = new Chunk<>(this, chunkFactory.create(stack, chunkName, newChunkSize));
+        chunks.add(chunk);
+
+        int handle = chunk.allocator.allocate(size, alignment);
+        assert handle != TlsfAllocator.NO_SPACE;
+        return chunk.add(debugName, handle, size);
+    }
+
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Count of ranges, which have not been {@link BufferArenaRange#close() closed} yet.
+     */
+    public int getRangeCount() {
+        int sum = 0;
+        for (Chunk<B> chunk : chunks)
+            sum += chunk.ranges.size();
+        return sum;
+    }
+
+    /**
+     * A single {@link VulkanBuffer} of the arena.
+     */
+    static final class Chunk<B extends BufferRange> implements MappingListener {
+
+        final @NotNull BufferArena<B> arena;
+        final @NotNull B buffer;
+        final @NotNull TlsfAllocator allocator;
+        final @NotNull List<BufferArenaRange> ranges = new ArrayList<>();
+        @Nullable ByteBuffer mapped;
+
+        Chunk(@NotNull BufferArena<B> arena, @NotNull B buffer) {
+            this.arena = arena;
+            this.buffer = buffer;
+            this.allocator = new TlsfAllocator(buffer.getSize());
+            buffer.setMappingListener(this);
+        }
+
+        @NotNull BufferArenaRange add(@NotNull String debugName, int handle, int size) {
+            BufferArenaRange range = new BufferArenaRange(this, debugName, handle, allocator.getOffset(handle), size);
+            ranges.add(range);
+            return range;
+        }
+
+        void remove(@NotNull BufferArenaRange range) {
+            ranges.remove(range);
+            allocator.free(range.handle);
+
+            if(allocator.isEmpty() && arena.chunks.size() > 1) {
+                arena.chunks.remove(this);
+                buffer.setMappingListener(null);
+                arena.chunkReleaser.accept(buffer);
+            }
+        }
+
+        @Nullable ByteBuffer slice(@NotNull BufferArenaRange range) {
+            if(mapped == null)
+                return null;
+            return mapped.slice((int) range.getBufferOffset(), range.getSize()).order(ByteOrder.nativeOrder());
+        }
+
+        @Override
+        public void vulkanBufferMapped(@NotNull ByteBuffer mapped) {
+            this.mapped = mapped;
+            for (BufferArenaRange range : ranges)
+                range.mapped(mapped.slice((int) range.getBufferOffset(), range.getSize()).order(ByteOrder.nativeOrder()));
+        }
+    }
+}
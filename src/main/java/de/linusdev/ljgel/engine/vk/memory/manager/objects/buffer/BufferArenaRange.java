@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.vk.memory.manager.objects.buffer;
+
+import de.linusdev.ljgel.engine.vk.memory.manager.MappingListener;
+import de.linusdev.ljgel.nat.vulkan.handles.VkBuffer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A range of a chunk of a {@link BufferArena}. The range never moves inside its chunk, so its
+ * {@link #getBufferOffset() offset} can be stored in commands and descriptors. {@link #close() Closing} the range
+ * returns it to the arena.
+ */
+public class BufferArenaRange implements BufferRange, AutoCloseable {
+
+    private final @NotNull BufferArena.Chunk<?> chunk;
+    private final @NotNull String debugName;
+    final int handle;
+    private final long offset;
+    private final int size;
+
+    private @Nullable MappingListener mappingListener;
+    private boolean closed = false;
+
+    BufferArenaRange(
+            @NotNull BufferArena.Chunk<?> chunk,
+            @NotNull String debugName,
+            int handle,
+            long offset,
+            int size
+    ) {
+        this.chunk = chunk;
+        this.debugName = debugName;
+        this.handle = handle;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    void mapped(@NotNull ByteBuffer mapped) {
+        if(mappingListener != null) mappingListener.vulkanBufferMapped(mapped);
+    }
+
+    @Override
+    public @NotNull VkBuffer getVkBuffer() {
+        return chunk.buffer.getVkBuffer();
+    }
+
+    @Override
+    public long getBufferOffset() {
+        return offset;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean isMapped() {
+        return chunk.mapped != null;
+    }
+
+    @Override
+    public void setMappingListener(@Nullable MappingListener mappingListener) {
+        this.mappingListener = mappingListener;
+        ByteBuffer mapped = chunk.slice(this);
+        if(mappingListener != null && mapped != null) mappingListener.vulkanBufferMapped(mapped);
+    }
+
+    /**
+     * The buffer of the chunk this range belongs to. A {@link VulkanBuffer}, if the arena was created by a memory
+     * allocator.
+     */
+    public @NotNull BufferRange getChunkBuffer() {
+        return chunk.buffer;
+    }
+
+    public @NotNull String getDebugName() {
+        return debugName;
+    }
+
+    /**
+     * Returns this range to its arena. The range must not be used by the device anymore.
+     */
+    @Override
+    public void close() {
+        if(closed) return;
+        closed = true;
+        mappingListener = null;
+        chunk.remove(this);
+    }
+}
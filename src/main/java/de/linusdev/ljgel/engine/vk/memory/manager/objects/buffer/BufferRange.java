@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.vk.memory.manager.objects.buffer;
+
+import de.linusdev.ljgel.engine.vk.memory.manager.MappingListener;
+import de.linusdev.ljgel.nat.vulkan.handles.VkBuffer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A range of a {@link VkBuffer}. Either a whole {@link VulkanBuffer} or a {@link BufferArenaRange range} of a
+ * {@link BufferArena}. All commands and descriptors using the range must use its {@link #getBufferOffset() offset}
+ * and {@link #getSize() size} instead of the whole buffer.
+ */
+public interface BufferRange {
+
+    @NotNull VkBuffer getVkBuffer();
+
+    /**
+     * Offset in bytes of this range inside its {@link #getVkBuffer() buffer}.
+     */
+    long getBufferOffset();
+
+    /**
+     * Size in bytes of this range.
+     */
+    int getSize();
+
+    /**
+     * Whether this range is mapped to host memory.
+     */
+    boolean isMapped();
+
+    /**
+     * Sets the listener, which is called every time this range is mapped. If the range is already mapped, it is
+     * called right away.
+     */
+    void setMappingListener(@Nullable MappingListener mappingListener);
+}
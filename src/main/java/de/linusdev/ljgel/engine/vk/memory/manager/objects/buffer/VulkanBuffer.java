@@ -35,7 +35,7 @@ import org.jetbrains.annotations.NotNull;
 import static de.linusdev.lutils.nat.pointer.TypedPointer64.ref;
 import static de.linusdev.lutils.nat.struct.abstracts.Structure.allocate;
 
-public class VulkanBuffer extends VulkanMemoryBoundObject {
+public class VulkanBuffer extends VulkanMemoryBoundObject implements BufferRange {
 
     /*
      * Information stored in this class
@@ -68,7 +68,16 @@ public class VulkanBuffer extends VulkanMemoryBoundObject {
     protected void recreate(@NotNull Stack stack) {
         close();
         state = State.RECREATED;
+        createHandle(stack);
 
+        if(memoryTypeManager != null)
+            memoryTypeManager.onChanged(stack, this, null);
+    }
+
+    /**
+     * Creates a new handle in {@link #vkBuffer}. The old handle is not destroyed.
+     */
+    private void createHandle(@NotNull Stack stack) {
         VkBufferCreateInfo bufferCreateInfo = stack.push(new VkBufferCreateInfo());
         bufferCreateInfo.sType.set(VkStructureType.BUFFER_CREATE_INFO);
         bufferCreateInfo.size.set(size);
@@ -78,9 +87,52 @@ public class VulkanBuffer extends VulkanMemoryBoundObject {
         vkInstance.vkCreateBuffer(device.getVkDevice(), ref(bufferCreateInfo), ref(null), ref(vkBuffer)).check();
 
         stack.pop(); // bufferCreateInfo
+    }
 
-        if(memoryTypeManager != null)
-            memoryTypeManager.onChanged(stack, this, null);
+    /**
+     * Buffers used by descriptor sets (uniform, storage and texel buffers) are not movable.
+     */
+    @Override
+    public boolean isMovable() {
+        return !usage.isSet(VkBufferUsageFlagBits.UNIFORM_BUFFER)
+                && !usage.isSet(VkBufferUsageFlagBits.STORAGE_BUFFER)
+                && !usage.isSet(VkBufferUsageFlagBits.UNIFORM_TEXEL_BUFFER)
+                && !usage.isSet(VkBufferUsageFlagBits.STORAGE_TEXEL_BUFFER);
+    }
+
+    /**
+     * Buffers, which are transfer destinations or storage buffers, may be written by the device.
+     */
+    @Override
+    public boolean isWrittenByDevice() {
+        return usage.isSet(VkBufferUsageFlagBits.TRANSFER_DST)
+                || usage.isSet(VkBufferUsageFlagBits.STORAGE_BUFFER)
+                || usage.isSet(VkBufferUsageFlagBits.STORAGE_TEXEL_BUFFER);
+    }
+
+    /**
+     * The {@link VkBuffer} instance stays the same, only its handle changes. Command buffers recorded afterward use
+     * the new handle.
+     */
+    @Override
+    protected @NotNull Runnable recreateForMove(@NotNull Stack stack) {
+        assert assertStatePast(State.BOUND);
+
+        VkBuffer oldBuffer = allocate(new VkBuffer());
+        oldBuffer.set(vkBuffer.get());
+
+        isMapped = false;
+        mappedByteBuffer = null;
+        state = State.RECREATED;
+        createHandle(stack);
+
+        // Same create info, so the requirements do not change
+        VkMemoryRequirements memoryRequirements = stack.push(new VkMemoryRequirements());
+        vkInstance.vkGetBufferMemoryRequirements(device.getVkDevice(), vkBuffer, ref(memoryRequirements));
+        assert memoryRequirements.size.get() == actualSize.get();
+        stack.pop(); // memoryRequirements
+
+        return () -> vkInstance.vkDestroyBuffer(device.getVkDevice(), oldBuffer, ref(null));
     }
 
     @Override
@@ -112,10 +164,24 @@ public class VulkanBuffer extends VulkanMemoryBoundObject {
         return memoryTypeIndex;
     }
 
+    @Override
+    public boolean isLinearResource() {
+        return true;
+    }
+
+    @Override
     public @NotNull VkBuffer getVkBuffer() {
         return vkBuffer;
     }
 
+    /**
+     * A {@link VulkanBuffer} always spans the whole {@link VkBuffer}.
+     */
+    @Override
+    public long getBufferOffset() {
+        return 0L;
+    }
+
 
     @Override
     public void close() {
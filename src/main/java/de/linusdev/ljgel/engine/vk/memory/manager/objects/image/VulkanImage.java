@@ -179,6 +179,11 @@ public class VulkanImage extends VulkanMemoryBoundObject {
         return memoryTypeIndex;
     }
 
+    @Override
+    public boolean isLinearResource() {
+        return vkImageTiling == VkImageTiling.LINEAR;
+    }
+
     protected void createImageView(@NotNull Stack stack) {
         assert assertStatePast(BOUND);
 
@@ -375,6 +380,14 @@ public class VulkanImage extends VulkanMemoryBoundObject {
             sourceStage.set(VkPipelineStageFlagBits.TRANSFER);
             destinationStage.set(VkPipelineStageFlagBits.FRAGMENT_SHADER);
 
+        } else if (currentLayout == VkImageLayout.SHADER_READ_ONLY_OPTIMAL && layoutToTransitionTo == VkImageLayout.TRANSFER_DST_OPTIMAL) {
+            // The image is uploaded again
+            barrier.srcAccessMask.set(VkAccessFlagBits.SHADER_READ);
+            barrier.dstAccessMask.set(VkAccessFlagBits.TRANSFER_WRITE);
+
+            sourceStage.set(VkPipelineStageFlagBits.FRAGMENT_SHADER);
+            destinationStage.set(VkPipelineStageFlagBits.TRANSFER);
+
         } else {
             throw new IllegalArgumentException("Unsupported layout transition!");
         }
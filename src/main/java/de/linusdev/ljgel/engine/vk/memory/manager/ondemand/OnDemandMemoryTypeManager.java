@@ -120,6 +120,14 @@ public class OnDemandMemoryTypeManager implements MemoryTypeManager {
         setMemoryTypeManagerOf(object, this);
     }
 
+    /**
+     * Removes given {@code object}, which must already be closed. Its memory is reclaimed the next time this manager
+     * has to reallocate, because the other objects must not be rebound while they may be in use.
+     */
+    public void removeObject(@NotNull VulkanMemoryBoundObject object) {
+        objects.remove(object);
+    }
+
     public void allocate(@NotNull Stack stack) {
         if(!requiresAllocation) {
             LOG.debug("Manager '" + debugName  + "' does not require allocation. index=" + memoryTypeIndex + ", properties=" + memoryTypeFlags.toList(VkMemoryPropertyFlagBits.class) + "." );
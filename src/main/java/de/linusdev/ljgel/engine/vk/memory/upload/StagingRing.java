@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.vk.memory.upload;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Hands out ranges of a ring of {@link #getCapacity() capacity} bytes. The ranges allocated between
+ * {@link #beginFrame(int)} and {@link #endFrame()} belong to that frame in flight and are released, when the same
+ * frame in flight {@link #beginFrame(int) begins} the next time (after its fence has been waited on).
+ * <br><br>
+ * Positions are counted monotonically and only mapped to ring offsets on allocation, so no wrap-around state has to be
+ * stored. This class is not thread-safe.
+ */
+public class StagingRing {
+
+    public static final long NO_SPACE = -1L;
+
+    private final long capacity;
+
+    /**
+     * Position of {@link #head} at the end of each frame in flight.
+     */
+    private final long @NotNull [] frameEnds;
+
+    /**
+     * Position after the last allocated byte.
+     */
+    private long head = 0L;
+    /**
+     * Position of the first byte, that may still be in use by the device.
+     */
+    private long tail = 0L;
+
+    private int currentFrame = 0;
+    private long frameStart = 0L;
+
+    public StagingRing(long capacity, int framesInFlight) {
+        if(capacity <= 0L)
+            throw new IllegalArgumentException("capacity must be positive, but is " + capacity + ".");
+        this.capacity = capacity;
+        this.frameEnds = new long[framesInFlight];
+    }
+
+    /**
+     * Releases all ranges allocated during the last use of given frame in flight. Must be called after the fence of
+     * this frame has been waited on.
+     * @param frame index of the frame in flight
+     */
+    public void beginFrame(int frame) {
+        currentFrame = frame;
+        tail = Math.max(tail, frameEnds[frame]);
+        frameStart = head;
+    }
+
+    /**
+     * All ranges allocated since {@link #beginFrame(int)} belong to the current frame in flight.
+     */
+    public void endFrame() {
+        frameEnds[currentFrame] = head;
+    }
+
+    /**
+     * Allocates {@code size} bytes, which do not wrap around the end of the ring.
+     * @param alignment alignment of the returned offset. Must be a power of two.
+     * @return offset in bytes of the range inside the ring or {@link #NO_SPACE} if the ring is full.
+     */
+    public long allocate(long size, long alignment) {
+        long position = (head + alignment - 1) & -alignment;
+        long offset = position % capacity;
+
+        if(offset + size > capacity) {
+            // Skip the remaining bytes at the end of the ring
+            position += capacity - offset;
+            offset = 0L;
+        }
+
+        if(position + size - tail > capacity)
+            return NO_SPACE;
+
+        head = position + size;
+        return offset;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Bytes, which may still be in use by the device, including bytes skipped at the end of the ring.
+     */
+    public long getUsedBytes() {
+        return head - tail;
+    }
+
+    /**
+     * Bytes allocated since the last {@link #beginFrame(int)}.
+     */
+    public long getCurrentFrameBytes() {
+        return head - frameStart;
+    }
+
+    /**
+     * Releases all ranges of all frames. The device must not use any of them anymore.
+     */
+    public void reset() {
+        tail = head;
+        Arrays.fill(frameEnds, head);
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.vk.memory.upload;
+
+import de.linusdev.ljgel.engine.vk.memory.buffer.ArrayBuffer;
+import de.linusdev.ljgel.engine.vk.memory.buffer.BufferArrayInput;
+import de.linusdev.ljgel.engine.vk.memory.image.sampler.Sampler2D;
+import de.linusdev.ljgel.engine.vk.memory.manager.MappingListener;
+import de.linusdev.ljgel.engine.vk.memory.manager.objects.buffer.BufferRange;
+import de.linusdev.ljgel.engine.vk.memory.manager.objects.buffer.VulkanBuffer;
+import de.linusdev.ljgel.nat.vulkan.bitmasks.VkDependencyFlags;
+import de.linusdev.ljgel.nat.vulkan.bitmasks.VkPipelineStageFlags;
+import de.linusdev.ljgel.nat.vulkan.bitmasks.enums.VkAccessFlagBits;
+import de.linusdev.ljgel.nat.vulkan.bitmasks.enums.VkPipelineStageFlagBits;
+import de.linusdev.ljgel.nat.vulkan.enums.VkStructureType;
+import de.linusdev.ljgel.nat.vulkan.handles.VkBuffer;
+import de.linusdev.ljgel.nat.vulkan.handles.VkCommandBuffer;
+import de.linusdev.ljgel.nat.vulkan.handles.VkInstance;
+import de.linusdev.ljgel.nat.vulkan.structs.VkBufferCopy;
+import de.linusdev.ljgel.nat.vulkan.structs.VkMemoryBarrier;
+import de.linusdev.lutils.nat.memory.stack.Stack;
+import de.linusdev.lutils.nat.struct.array.StructureArray;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import static de.linusdev.lutils.nat.pointer.TypedPointer64.ofArray;
+import static de.linusdev.lutils.nat.pointer.TypedPointer64.ref;
+
+/**
+ * Uploads buffer and image data through a persistently mapped {@link StagingRing staging ring}, which is shared by
+ * all resources. Data is {@link #stage(BufferRange, long, int) staged} into the ring, when it changed. Once per
+ * frame, {@link #recordCommands(Stack, VkCommandBuffer)} records all staged copies: one {@code vkCmdCopyBuffer} per
+ * destination {@code VkBuffer}, enclosed by a single pre- and post-barrier, followed by the image copies.
+ * <br><br>
+ * Resources uploaded this way need no staging buffer of their own, see
+ * {@link de.linusdev.ljgel.engine.vk.memory.manager.allocator.VulkanMemoryAllocator#createUploadManager(Stack, String, int, int)
+ * VulkanMemoryAllocator.createUploadManager}. This class must only be used by the render thread.
+ */
+public class UploadManager implements MappingListener {
+
+    /**
+     * Alignment of all ranges in the ring. Satisfies the offset requirements of buffer to image copies of all
+     * color formats up to 16 bytes per texel.
+     */
+    public static final long COPY_ALIGNMENT = 16L;
+
+    private final @NotNull VkInstance vkInstance;
+    private final @NotNull VulkanBuffer ringBuffer;
+    private final @NotNull StagingRing ring;
+    private @Nullable ByteBuffer mapped;
+
+    /*
+     * Staged copies
+     */
+    private final @NotNull IdentityHashMap<VkBuffer, CopyBatch> batchesByBuffer = new IdentityHashMap<>();
+    private final @NotNull List<CopyBatch> batches = new ArrayList<>();
+    private final @NotNull ArrayDeque<CopyBatch> unusedBatches = new ArrayDeque<>();
+    private final @NotNull List<ImageCopy> imageCopies = new ArrayList<>();
+
+    /*
+     * Stats of the last recorded frame
+     */
+    private long lastUploadedBytes = 0L;
+    private int lastCopyCommandCount = 0;
+
+    /**
+     * @param ringBuffer host visible and coherent buffer with {@code TRANSFER_SRC} usage, which is used as ring. Its
+     *                   size must be a multiple of {@link #COPY_ALIGNMENT}.
+     * @param framesInFlight count of frames in flight
+     */
+    public UploadManager(@NotNull VkInstance vkInstance, @NotNull VulkanBuffer ringBuffer, int framesInFlight) {
+        this.vkInstance = vkInstance;
+        this.ringBuffer = ringBuffer;
+        this.ring = new StagingRing(ringBuffer.getSize(), framesInFlight);
+        ringBuffer.setMappingListener(this);
+    }
+
+    @Override
+    public void vulkanBufferMapped(@NotNull ByteBuffer mapped) {
+        this.mapped = mapped;
+    }
+
+    /**
+     * Releases the ring space used by the last use of given frame in flight. Must be called after the fence of the
+     * frame has been waited on and before any data of the frame is staged.
+     * @param frame index of the frame in flight
+     */
+    public void beginFrame(int frame) {
+        ring.beginFrame(frame);
+    }
+
+    /**
+     * Reserves {@code size} bytes in the ring, which are copied to {@code dst} at {@code dstOffset} during the next
+     * {@link #recordCommands(Stack, VkCommandBuffer)}. The returned buffer must be filled before that.
+     * @param dstOffset offset in bytes inside {@code dst}
+     * @return buffer to write the data to or {@code null} if the ring is full. The data may be staged again next frame.
+     */
+    public @Nullable ByteBuffer stage(@NotNull BufferRange dst, long dstOffset, int size) {
+        if(dstOffset + size > dst.getSize())
+            throw new IllegalArgumentException("Range exceeds the destination: offset=" + dstOffset + ", size=" + size
+                    + ", destination size=" + dst.getSize());
+
+        long srcOffset = allocate(size);
+        if(srcOffset == StagingRing.NO_SPACE)
+            return null;
+
+        CopyBatch batch = batchesByBuffer.get(dst.getVkBuffer());
+        if(batch == null) {
+            batch = unusedBatches.isEmpty() ? new CopyBatch() : unusedBatches.poll();
+            batch.dst = dst.getVkBuffer();
+            batchesByBuffer.put(batch.dst, batch);
+            batches.add(batch);
+        }
+        batch.add(srcOffset, dst.getBufferOffset() + dstOffset, size);
+
+        return slice(srcOffset, size);
+    }
+
+    /**
+     * Stages the elements {@code [firstElement, firstElement + count)} of the input of given {@code buffer}.
+     * @return {@code false} if the ring is full. The elements may be uploaded again next frame.
+     */
+    public boolean upload(@NotNull ArrayBuffer<?> buffer, int firstElement, int count) {
+        BufferArrayInput<?> input = buffer.getInput();
+        int stride = input.getStride();
+
+        ByteBuffer target = stage(buffer.getOutput().getBufferRange(), (long) firstElement * stride, count * stride);
+        if(target == null)
+            return false;
+
+        target.put(0, input.getBackedArray().getByteBuffer(), firstElement * stride, count * stride);
+        return true;
+    }
+
+    /**
+     * Stages the {@link ArrayBuffer#getCurrentCount() current} elements of the input of given {@code buffer}.
+     * @see #upload(ArrayBuffer, int, int)
+     */
+    public boolean upload(@NotNull ArrayBuffer<?> buffer) {
+        return upload(buffer, 0, buffer.getCurrentCount());
+    }
+
+    /**
+     * Stages the input of given {@code sampler}. The image is copied after all buffer copies.
+     * @param generateMipLevels whether to generate mip levels after the copy
+     * @return {@code false} if the ring is full. The image may be uploaded again next frame.
+     */
+    public boolean upload(@NotNull Sampler2D<?> sampler, boolean generateMipLevels) {
+        ByteBuffer source = sampler.getInput().getBackedStructure().getByteBuffer();
+        int size = source.capacity();
+
+        long srcOffset = allocate(size);
+        if(srcOffset == StagingRing.NO_SPACE)
+            return false;
+
+        slice(srcOffset, size).put(0, source, 0, size);
+        imageCopies.add(new ImageCopy(sampler, srcOffset, generateMipLevels));
+        return true;
+    }
+
+    public boolean hasPendingUploads() {
+        return !batches.isEmpty() || !imageCopies.isEmpty();
+    }
+
+    /**
+     * Records all staged copies into given command buffer, which must be recording and outside a render pass. The
+     * staged ring space belongs to the current frame in flight afterwards.
+     */
+    public void recordCommands(@NotNull Stack stack, @NotNull VkCommandBuffer vkCommandBuffer) {
+        lastUploadedBytes = ring.getCurrentFrameBytes();
+        lastCopyCommandCount = batches.size() + imageCopies.size();
+        ring.endFrame();
+
+        if(!batches.isEmpty()) {
+            VkPipelineStageFlags srcStage = stack.push(new VkPipelineStageFlags());
+            VkPipelineStageFlags dstStage = stack.push(new VkPipelineStageFlags());
+            VkDependencyFlags dependencyFlags = stack.push(new VkDependencyFlags());
+            VkMemoryBarrier barrier = stack.push(new VkMemoryBarrier());
+
+            // Wait for the reads of the previous frames, before overwriting. Uniforms may also be read by the fragment shader
+            srcStage.set(
+                    VkPipelineStageFlagBits.VERTEX_INPUT, VkPipelineStageFlagBits.VERTEX_SHADER, VkPipelineStageFlagBits.FRAGMENT_SHADER
+            );
+            dstStage.set(VkPipelineStageFlagBits.TRANSFER);
+            barrier.sType.set(VkStructureType.MEMORY_BARRIER);
+            barrier.srcAccessMask.set(VkAccessFlagBits.VERTEX_ATTRIBUTE_READ, VkAccessFlagBits.INDEX_READ, VkAccessFlagBits.UNIFORM_READ);
+            barrier.dstAccessMask.set(VkAccessFlagBits.TRANSFER_WRITE);
+            vkInstance.vkCmdPipelineBarrier(vkCommandBuffer, srcStage, dstStage, dependencyFlags, 1, ref(barrier), 0, ref(null), 0, ref(null));
+
+            for (CopyBatch batch : batches) {
+                StructureArray<VkBufferCopy> regions = stack.pushArray(batch.count, VkBufferCopy.class, VkBufferCopy::new);
+                for (int i = 0; i < batch.count; i++) {
+                    VkBufferCopy region = regions.get(i);
+                    region.srcOffset.set(batch.srcOffsets[i]);
+                    region.dstOffset.set(batch.dstOffsets[i]);
+                    region.size.set(batch.sizes[i]);
+                }
+
+                vkInstance.vkCmdCopyBuffer(vkCommandBuffer, ringBuffer.getVkBuffer(), batch.dst, batch.count, ofArray(regions));
+                stack.pop(); // regions
+            }
+
+            // Make the copies visible to the reads of this frame
+            srcStage.set(VkPipelineStageFlagBits.TRANSFER);
+            dstStage.set(
+                    VkPipelineStageFlagBits.VERTEX_INPUT, VkPipelineStageFlagBits.VERTEX_SHADER, VkPipelineStageFlagBits.FRAGMENT_SHADER
+            );
+            barrier.srcAccessMask.set(VkAccessFlagBits.TRANSFER_WRITE);
+            barrier.dstAccessMask.set(VkAccessFlagBits.VERTEX_ATTRIBUTE_READ, VkAccessFlagBits.INDEX_READ, VkAccessFlagBits.UNIFORM_READ);
+            vkInstance.vkCmdPipelineBarrier(vkCommandBuffer, srcStage, dstStage, dependencyFlags, 1, ref(barrier), 0, ref(null), 0, ref(null));
+
+            stack.pop(); stack.pop(); stack.pop(); stack.pop(); // barrier, dependencyFlags, dstStage, srcStage
+
+            for (CopyBatch batch : batches) {
+                batchesByBuffer.remove(batch.dst);
+                batch.clear();
+                unusedBatches.add(batch);
+            }
+            batches.clear();
+        }
+
+        for (ImageCopy copy : imageCopies)
+            copy.sampler.bufferCopyCommand(stack, vkCommandBuffer, ringBuffer.getVkBuffer(), copy.srcOffset, copy.generateMipLevels);
+        imageCopies.clear();
+    }
+
+    /**
+     * Bytes staged during the last recorded frame.
+     */
+    public long getLastUploadedBytes() {
+        return lastUploadedBytes;
+    }
+
+    /**
+     * Count of copy commands ({@code vkCmdCopyBuffer} and {@code vkCmdCopyBufferToImage}) recorded during the last
+     * recorded frame.
+     */
+    public int getLastCopyCommandCount() {
+        return lastCopyCommandCount;
+    }
+
+    public @NotNull StagingRing getRing() {
+        return ring;
+    }
+
+    private long allocate(int size) {
+        if(mapped == null)
+            throw new IllegalStateException("The staging ring is not mapped yet. Allocate the memory of the allocator first.");
+        return ring.allocate(size, COPY_ALIGNMENT);
+    }
+
+    private @NotNull ByteBuffer slice(long offset, int size) {
+        assert mapped != null;
+        return mapped.slice((int) offset, size).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Copy regions of a single destination buffer.
+     */
+    private static final class CopyBatch {
+        @Nullable VkBuffer dst;
+        long @NotNull [] srcOffsets = new long[8];
+        long @NotNull [] dstOffsets = new long[8];
+        long @NotNull [] sizes = new long[8];
+        int count = 0;
+
+        void add(long srcOffset, long dstOffset, long size) {
+            if(count > 0) {
+                int last = count - 1;
+                if(srcOffsets[last] + sizes[last] == srcOffset && dstOffsets[last] + sizes[last] == dstOffset) {
+                    // Continues the last region in both buffers
+                    sizes[last] += size;
+                    return;
+                }
+            }
+
+            if(count == sizes.length) {
+                srcOffsets = Arrays.copyOf(srcOffsets, count * 2);
+                dstOffsets = Arrays.copyOf(dstOffsets, count * 2);
+                sizes = Arrays.copyOf(sizes, count * 2);
+            }
+
+            srcOffsets[count] = srcOffset;
+            dstOffsets[count] = dstOffset;
+            sizes[count] = size;
+            count++;
+        }
+
+        void clear() {
+            dst = null;
+            count = 0;
+        }
+    }
+
+    private record ImageCopy(@NotNull Sampler2D<?> sampler, long srcOffset, boolean generateMipLevels) { }
+}
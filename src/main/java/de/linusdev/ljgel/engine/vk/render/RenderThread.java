@@ -17,6 +17,8 @@
 package de.linusdev.ljgel.engine.vk.render;
 
 import de.linusdev.ljgel.engine.exception.EngineException;
+import de.linusdev.ljgel.engine.queue.FrameBudget;
+import de.linusdev.ljgel.engine.queue.TaskPriority;
 import de.linusdev.ljgel.engine.queue.TaskQueue;
 import de.linusdev.ljgel.engine.vk.VulkanEngine;
 import de.linusdev.ljgel.engine.vk.device.Device;
@@ -49,6 +51,7 @@ public class RenderThread extends Thread {
     private final @NotNull VulkanEngine<?> engine;
     private final @NotNull DirectMemoryStack64 stack;
     private final @NotNull TaskQueue taskQueue;
+    private final @NotNull FrameBudget frameBudget;
     private final @NotNull VkInstance vkInstance;
     private final @NotNull Device device;
     private final @NotNull SwapChain swapChain;
@@ -76,6 +79,7 @@ public class RenderThread extends Thread {
         this.warmUpEndedFuture = CompletableFuture.create(engine.getAsyncManager(), false);
 
         this.taskQueue = new TaskQueue(engine.getAsyncManager(), fut -> taskQueueWaiter.signal(),20);
+        this.frameBudget = new FrameBudget();
 
         this.stack = new DirectMemoryStack64();
 
@@ -84,7 +88,7 @@ public class RenderThread extends Thread {
 
         window.listeners().addWindowCloseListener(() -> {
             ignoreInterrupts(() -> {
-                taskQueue.queueForExecution(stack -> {
+                taskQueue.queueForExecution(TaskPriority.URGENT, stack -> {
                     shouldStop = true;
                     renderer.waitIdle();
                     renderer.close();
@@ -97,7 +101,7 @@ public class RenderThread extends Thread {
             // In order to avoid stuttering we have to wait the event polling until the next frame, with
             // the resized swap chain, is submitted
             ignoreInterrupts(() -> {
-                taskQueue.queueForExecution(stack -> {
+                taskQueue.queueForExecution(TaskPriority.URGENT, stack -> {
                     renderer.render(stack);
                 }).get();
             });
@@ -155,7 +159,8 @@ public class RenderThread extends Thread {
         try {
             while (!shouldStop) {
 
-                taskQueue.runQueuedTasks(stack);
+                frameBudget.frameStarted();
+                taskQueue.runQueuedTasks(stack, frameBudget.deadline());
 
                 if(shouldStop)
                     break;
@@ -183,7 +188,9 @@ public class RenderThread extends Thread {
                         })
                 );
 
+                frameBudget.renderStarted();
                 renderer.render(stack);
+                frameBudget.renderFinished(renderer.getLastRenderWaitNanos());
             }
 
             threadDeathFuture.complete(Nothing.INSTANCE, this, null);
@@ -23,6 +23,13 @@ public interface Renderer extends AutoCloseable {
 
     @NotNull RenderState render(@NotNull Stack stack);
 
+    /**
+     * Time in nanoseconds the last {@link #render(Stack)} call was blocked, waiting for the gpu or the swap chain.
+     */
+    default long getLastRenderWaitNanos() {
+        return 0L;
+    }
+
     void waitIdle() throws InterruptedException;
 
     @Override
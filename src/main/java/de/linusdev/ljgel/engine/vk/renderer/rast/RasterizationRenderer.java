@@ -70,6 +70,7 @@ public class RasterizationRenderer implements Renderer {
      * Structs required during rendering
      */
     private int currentFrame = 0;
+    private long lastRenderWaitNanos = 0L;
     private final @NotNull BBUInt1 currentImageIndex;
     private final @NotNull VkCommandBufferResetFlags commandBufferResetFlags;
     private final @NotNull VkPipelineStageFlags pipelineStageFlags;
@@ -172,11 +173,14 @@ public class RasterizationRenderer implements Renderer {
         // Get the swap chain
         VkSwapchainKHR vkSwapChain = swapChain.getVkSwapChain();
 
+        long waitStart = System.nanoTime();
+
         // wait for previous frame to be submitted
         vkInstance.vkWaitForFences(device.getVkDevice(), 1, ref(frameSubmittedFences.get(currentFrame)), true, Long.MAX_VALUE).check();
 
         // acquire Image from the swap chain
         ReturnedVkResult result = vkInstance.vkAcquireNextImageKHR(device.getVkDevice(), vkSwapChain, Long.MAX_VALUE, imageAvailableSemaphores.get(currentFrame), fenceNullHandle, ref(currentImageIndex));
+        lastRenderWaitNanos = System.nanoTime() - waitStart;
 
         // Check if we need to recreate the swap chain
         if(result.is(VkResult.VK_ERROR_OUT_OF_DATE_KHR)) return RenderState.SWAP_CHAIN_OUT_OF_DATE;
@@ -213,6 +217,11 @@ public class RasterizationRenderer implements Renderer {
         return RenderState.NONE;
     }
 
+    @Override
+    public long getLastRenderWaitNanos() {
+        return lastRenderWaitNanos;
+    }
+
     @Override
     public void waitIdle() throws InterruptedException {
         vkInstance.vkDeviceWaitIdle(device.getVkDevice());
@@ -16,8 +16,10 @@
 
 package de.linusdev.ljgel.engine.vk.scene;
 
+import de.linusdev.ljgel.engine.job.JobGraph;
 import de.linusdev.ljgel.engine.ticker.Tickable;
 import de.linusdev.ljgel.engine.ticker.Ticker;
+import de.linusdev.ljgel.engine.ticker.TripleBuffer;
 import de.linusdev.ljgel.engine.vk.instance.Instance;
 import de.linusdev.ljgel.engine.vk.renderer.rast.RasterizationRenderer;
 import de.linusdev.ljgel.engine.vk.renderer.rast.RenderCommandsFunction;
@@ -28,22 +30,36 @@ import de.linusdev.lutils.nat.memory.stack.Stack;
 import de.linusdev.lutils.thread.var.SyncVarImpl;
 import org.jetbrains.annotations.NotNull;
 
+/**
+ * Holds the current {@link VkScene}. {@link #tick(Ticker)} is called on the thread of the ticker, while
+ * {@link #render(Stack, int, int, VkCommandBuffer)} is called on the render thread. State written during the tick and
+ * read during rendering must therefore be handed over, for example using a {@link TripleBuffer}.
+ * <br><br>
+ * Before each frame is rendered, the scene {@link VkScene#declareJobs(JobGraph, int) declares} the jobs of that frame.
+ * They run in parallel to the command recording and are all finished, before the recorded commands are submitted.
+ */
 public class SceneHolder extends SyncVarImpl<@NotNull VkScene<?>> implements Tickable, RenderCommandsFunction {
 
     private final @NotNull VkInstance vkInstance;
     private final @NotNull SwapChain swapChain;
     private final @NotNull RasterizationRenderer renderer;
+    /**
+     * Only accessed by the render thread.
+     */
+    private final @NotNull JobGraph jobGraph;
 
     public SceneHolder(
             @NotNull VkScene<?> scene,
             @NotNull Instance instance,
             @NotNull SwapChain swapChain,
-            @NotNull RasterizationRenderer renderer
+            @NotNull RasterizationRenderer renderer,
+            @NotNull JobGraph jobGraph
     ) {
         super(scene);
         this.vkInstance = instance.getVkInstance();
         this.swapChain = swapChain;
         this.renderer = renderer;
+        this.jobGraph = jobGraph;
     }
 
     @Override
@@ -55,6 +71,19 @@ public class SceneHolder extends SyncVarImpl<@NotNull VkScene<?>> implements Tic
     @Override
     public void render(@NotNull Stack stack, int currentFrameBufferImageIndex, int currentFrame, @NotNull VkCommandBuffer commandBuffer) {
         VkScene<?> scene = get();
-        scene.render(stack, vkInstance, swapChain.getExtend(), currentFrameBufferImageIndex, currentFrame, commandBuffer, renderer.getFrameBuffers().getFrameBuffer(currentFrameBufferImageIndex));
+        scene.declareJobs(jobGraph, currentFrame);
+        jobGraph.start();
+        try {
+            scene.render(stack, vkInstance, swapChain.getExtend(), currentFrameBufferImageIndex, currentFrame, commandBuffer, renderer.getFrameBuffers().getFrameBuffer(currentFrameBufferImageIndex));
+        } finally {
+            jobGraph.finish();
+        }
+    }
+
+    /**
+     * Job graph of the frames. Its statistics can be used to measure the CPU time of the frames.
+     */
+    public @NotNull JobGraph getJobGraph() {
+        return jobGraph;
     }
 }
@@ -16,6 +16,8 @@
 
 package de.linusdev.ljgel.engine.vk.scene;
 
+import de.linusdev.ljgel.engine.job.Job;
+import de.linusdev.ljgel.engine.job.JobGraph;
 import de.linusdev.ljgel.engine.scene.Scene;
 import de.linusdev.ljgel.engine.scene.State;
 import de.linusdev.ljgel.engine.vk.VulkanEngine;
@@ -97,6 +99,18 @@ public abstract class VkScene<GAME extends VulkanGame> implements Scene, SwapCha
         calcViewportAndScissors();
     }
 
+    /**
+     * Called on the render thread before {@link #render(Stack, VkInstance, Extend2D, int, int, VkCommandBuffer,
+     * VkFramebuffer) render}. Declares the CPU work of the frame, like culling, animation or uniform updates, as jobs
+     * of given {@code graph}. The jobs are started after this method returned and run in parallel to the command
+     * recording. {@code render} should only {@link Job#join() join} the jobs, whose results it needs for recording.
+     * All jobs are finished, before the recorded commands are submitted.
+     * @param currentFrame index of the frame in flight
+     */
+    protected void declareJobs(@NotNull JobGraph graph, int currentFrame) {
+
+    }
+
     protected abstract void render(
             @NotNull Stack stack,
             @NotNull VkInstance vkInstance,
@@ -29,7 +29,6 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import static de.linusdev.ljgel.nat.glfw3.GLFW.glfwCreateWindowSurface;
-import static de.linusdev.ljgel.nat.glfw3.GLFW.glfwWaitEvents;
 import static de.linusdev.ljgel.nat.glfw3.GLFWValues.GLFW_DONT_CARE;
 import static de.linusdev.lutils.nat.pointer.Pointer64.refL;
 import static de.linusdev.lutils.nat.pointer.TypedPointer64.ref;
@@ -56,14 +55,6 @@ public class VulkanWindow extends GLFWWindow {
         setWindowSizeLimits(1, 1, GLFW_DONT_CARE, GLFW_DONT_CARE);
     }
 
-    @Override
-    protected void perFrameOperations() {
-        // Wait events instead of just polling. This makes sure, that this thread isn't running all the time
-        // with nothing to do. A side effect of this is, that every time, this threads has to do something unrelated to
-        // window events glfwPostEmptyEvent() must be called to wake this thread.
-        glfwWaitEvents();
-    }
-
     protected @NotNull ReturnedVkResult createVkWindowSurface() {
         return new ReturnedVkResult(glfwCreateWindowSurface(
                 vkInstance.get(),
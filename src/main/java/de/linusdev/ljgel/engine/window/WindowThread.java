@@ -29,6 +29,13 @@ import de.linusdev.lutils.nat.memory.stack.Stack;
 import de.linusdev.lutils.nat.memory.stack.impl.DirectMemoryStack64;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Thread owning a {@link GLFWWindow}. The window is not rendered on this thread, so it runs the
+ * {@link GLFWWindow#waitingEventLoop waiting event loop}: it sleeps until a window event arrives or a task is queued
+ * to its {@link #getTaskQueue() task queue}. While idle, it does not use any CPU time.
+ */
 public class WindowThread<W extends GLFWWindow> extends Thread {
 
     private final @NotNull TFunction<WindowThread<W>, W, Throwable> windowSupplier;
@@ -36,9 +43,21 @@ public class WindowThread<W extends GLFWWindow> extends Thread {
     private final @NotNull CompletableFuture<W, WindowThread<W>, CompletableTask<W, WindowThread<W>>> creationFuture;
     private final @NotNull CompletableFuture<W, WindowThread<W>, CompletableTask<W, WindowThread<W>>> threadDeathFuture;
 
+    /**
+     * Maximum time in seconds the thread sleeps without any window events or queued tasks. Only a safety net: queued
+     * tasks always {@link #wakeUp() wake} the thread.
+     */
+    public static final double MAX_EVENT_WAIT_SECONDS = 1d;
+
     private final @NotNull TaskQueue taskQueue;
     private final @NotNull Stack stack;
 
+    /**
+     * Whether {@link GLFW#glfwPostEmptyEvent()} has been called since the thread last woke up. Multiple tasks queued
+     * while the thread is busy only post a single empty event.
+     */
+    private final @NotNull AtomicBoolean wakeUpPending = new AtomicBoolean(false);
+
     public WindowThread(
             @NotNull Engine<?> engine,
             @NotNull TFunction<WindowThread<W>, W, Throwable> windowSupplier
@@ -50,7 +69,7 @@ public class WindowThread<W extends GLFWWindow> extends Thread {
         this.creationFuture = CompletableFuture.create(engine.getAsyncManager(), false);
         this.threadDeathFuture = CompletableFuture.create(engine.getAsyncManager(), false);
 
-        this.taskQueue = new TaskQueue(engine.getAsyncManager(), fut -> GLFW.glfwPostEmptyEvent(), 20);
+        this.taskQueue = new TaskQueue(engine.getAsyncManager(), fut -> wakeUp(), 20);
     }
 
     public @NotNull Future<W, WindowThread<W>> create() {
@@ -70,6 +89,14 @@ public class WindowThread<W extends GLFWWindow> extends Thread {
         return taskQueue;
     }
 
+    /**
+     * Wakes this thread, if it is waiting for window events.
+     */
+    public void wakeUp() {
+        if(!wakeUpPending.get() && wakeUpPending.compareAndSet(false, true))
+            GLFW.glfwPostEmptyEvent();
+    }
+
     @Override
     public void run() {
         try {
@@ -77,7 +104,11 @@ public class WindowThread<W extends GLFWWindow> extends Thread {
             creationFuture.complete(window, this, null);
 
             window.listeners().addWindowRefreshListener(() -> taskQueue.runQueuedTasks(stack));
-            window.eventLoop(frameInfo -> taskQueue.runQueuedTasks(stack));
+            window.waitingEventLoop(frameInfo -> {
+                // Tasks queued from now on must wake the thread again
+                wakeUpPending.set(false);
+                taskQueue.runQueuedTasks(stack);
+            }, taskQueue::hasQueuedTasks, MAX_EVENT_WAIT_SECONDS);
             threadDeathFuture.complete(window, this, null);
         } catch (Throwable t) {
             creationFuture.complete(null, this, new ThrowableAsyncError(t));
@@ -41,6 +41,7 @@ public class Buffer extends MemoryObject {
         super(true, null);
         allocate();
         set(clCreateBuffer(context.getPointer(), clMemFlags, hostPtr));
+        closed = false;
     }
 
     public Buffer(
@@ -49,7 +50,9 @@ public class Buffer extends MemoryObject {
             long size
     ) {
         super(true, null);
+        allocate();
         set(clCreateBuffer(context.getPointer(), clMemFlags, size));
+        closed = false;
     }
 
     @SuppressWarnings("UnusedReturnValue")
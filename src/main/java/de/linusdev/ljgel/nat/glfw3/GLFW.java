@@ -341,6 +341,11 @@ public class GLFW {
 
     public static native void glfwWaitEvents();
 
+    /**
+     * Same as {@link #glfwWaitEvents()}, but returns after at most {@code timeout} seconds.
+     */
+    public static native void glfwWaitEventsTimeout(double timeout);
+
     public static native void glfwSetWindowSizeLimits(long pointer, int minWidth, int minHeight, int maxWidth, int maxHeight);
 
     public static native void glfwSetWindowAspectRatio(long pointer, int numerator, int denominator);
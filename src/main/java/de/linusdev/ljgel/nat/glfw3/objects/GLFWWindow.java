@@ -33,6 +33,8 @@ import org.jetbrains.annotations.Blocking;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.function.BooleanSupplier;
+
 import static de.linusdev.ljgel.nat.glfw3.GLFW.*;
 
 @SuppressWarnings("unused")
@@ -111,6 +113,47 @@ public class GLFWWindow implements
         windowCloseOperations();
     }
 
+    /**
+     * Event loop for windows, which are not rendered on this thread. Instead of polling events in a tight loop,
+     * this thread sleeps until a window event arrived, {@link de.linusdev.ljgel.nat.glfw3.GLFW#glfwPostEmptyEvent()}
+     * was called or {@code maxWaitSeconds} passed. Every time it wakes up, given {@code updateListener} is called once.
+     * Work, which is not related to window events, must therefore call {@code glfwPostEmptyEvent()} to wake this
+     * thread.
+     * <br><br>
+     * If {@code workPending} returns {@code true} after the update listener has been called, events are only polled,
+     * so that the remaining work continues in the next iteration without waiting.
+     * @param updateListener called once per iteration
+     * @param workPending whether the update listener has work left, which must not wait for the next event
+     * @param maxWaitSeconds maximum time to wait for events in seconds. {@link Double#POSITIVE_INFINITY} to wait
+     *                       until an event arrives.
+     */
+    @CallOnlyFromUIThread(value = "glfw", creates = true, claims = true)
+    @Blocking
+    public void waitingEventLoop(
+            @NotNull UpdateListener updateListener,
+            @NotNull BooleanSupplier workPending,
+            double maxWaitSeconds
+    ) {
+        long frameStartMillis = System.currentTimeMillis();
+
+        while (!glfwWindowShouldClose(pointer)) {
+            updateListener.update0(frameInfo);
+
+            if(workPending.getAsBoolean())
+                glfwPollEvents();
+            else if(maxWaitSeconds == Double.POSITIVE_INFINITY)
+                glfwWaitEvents();
+            else
+                glfwWaitEventsTimeout(maxWaitSeconds);
+
+            //submit frame time
+            frameInfo.submitFrame(System.currentTimeMillis() - frameStartMillis);
+            frameStartMillis = System.currentTimeMillis();
+        }
+
+        windowCloseOperations();
+    }
+
     protected void perFrameOperations() {
         // poll for events
         glfwPollEvents();
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.async;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the executor for blocking tasks. Java 21 variant, which runs each task on its own virtual thread.
+ */
+public class BlockingExecutors {
+
+    /**
+     * Whether {@link #create()} returns an executor running tasks on virtual threads.
+     */
+    public static boolean isVirtual() {
+        return true;
+    }
+
+    /**
+     * Creates an executor, which starts a new virtual thread for each task.
+     */
+    public static @NotNull ExecutorService create() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ljgel-blocking-", 0).factory());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Sort-and-sweep broadphase and rounded box distances of the colliders of a collision manager.
+ *
+ * Layout of data (see ColliderStore.pack and CLCollisionDetector):
+ *   int at index 0: count of pairs found, must be 0 before the kernel runs
+ *   HEADER_FLOATS + s * stride + i: value s of the i-th collider. Colliders are sorted by their lower x bound.
+ */
+
+// Distances must not be more precise than the ones calculated in java
+#pragma OPENCL FP_CONTRACT OFF
+
+#define HEADER_FLOATS 4
+
+#define MIN_X 0
+#define MAX_X 1
+#define MIN_Y 2
+#define MAX_Y 3
+#define MIN_Z 4
+#define MAX_Z 5
+#define CENTER_X 6
+#define CENTER_Y 7
+#define CENTER_Z 8
+#define EXTENT_X 9
+#define EXTENT_Y 10
+#define EXTENT_Z 11
+#define RADIUS 12
+
+#define section(S) (data + HEADER_FLOATS + (S) * stride)
+
+/**
+ * Signed distance of the point (x, y, z) to an axis-aligned box centered at the origin with given half extents, which
+ * is rounded by given radius. Same as DistanceFunctions.roundedBox.
+ */
+float roundedBox(float x, float y, float z, float extentX, float extentY, float extentZ, float radius) {
+    float qx = fabs(x) - extentX;
+    float qy = fabs(y) - extentY;
+    float qz = fabs(z) - extentZ;
+
+    float ox = fmax(qx, 0.f);
+    float oy = fmax(qy, 0.f);
+    float oz = fmax(qz, 0.f);
+    return sqrt(ox * ox + oy * oy + oz * oz) + fmin(fmax(qx, fmax(qy, qz)), 0.f) - radius;
+}
+
+/**
+ * Each work item sweeps the colliders following collider i, until their lower x bound is greater than the upper x bound
+ * of collider i. Pairs with overlapping bounds, whose distance is possibly smaller than or equal to 0, are written into
+ * pairs. The distance is tested with a tolerance, because sqrt may be less precise than in java. The pairs are
+ * therefore only candidates, which must be tested again.
+ */
+__kernel void sweep(
+    __global float* data,
+    const int count,
+    const int stride,
+    __global int2* pairs,
+    const int maxPairs
+    )
+{
+    const int i = get_global_id(0);
+    if(i >= count)
+        return;
+
+    volatile __global int* pairCount = (volatile __global int*) data;
+
+    __global const float* minX = section(MIN_X);
+    __global const float* minY = section(MIN_Y);
+    __global const float* maxY = section(MAX_Y);
+    __global const float* minZ = section(MIN_Z);
+    __global const float* maxZ = section(MAX_Z);
+    __global const float* centerX = section(CENTER_X);
+    __global const float* centerY = section(CENTER_Y);
+    __global const float* centerZ = section(CENTER_Z);
+    __global const float* extentX = section(EXTENT_X);
+    __global const float* extentY = section(EXTENT_Y);
+    __global const float* extentZ = section(EXTENT_Z);
+    __global const float* radius = section(RADIUS);
+
+    const float maxXi = section(MAX_X)[i];
+    const float minYi = minY[i], maxYi = maxY[i];
+    const float minZi = minZ[i], maxZi = maxZ[i];
+
+    for(int j = i + 1; j < count && minX[j] <= maxXi; j++) {
+        if(minY[j] > maxYi || maxY[j] < minYi || minZ[j] > maxZi || maxZ[j] < minZi)
+            continue;
+
+        float x = centerX[i] - centerX[j];
+        float y = centerY[i] - centerY[j];
+        float z = centerZ[i] - centerZ[j];
+        float r = radius[i] + radius[j];
+        float distance = roundedBox(
+                x, y, z,
+                extentX[i] + extentX[j], extentY[i] + extentY[j], extentZ[i] + extentZ[j],
+                r
+        );
+
+        if(distance <= 1e-5f * (r + fabs(x) + fabs(y) + fabs(z)) + 1e-6f) {
+            int slot = atomic_inc(pairCount);
+            if(slot < maxPairs)
+                pairs[slot] = (int2)(i, j);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.ecs;
+
+import de.linusdev.ljgel.engine.ticker.FixedTimestepTicker;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.linusdev.ljgel.engine.ecs.EntityManagerTest.*;
+
+/**
+ * Measures the time to update {@link #ENTITIES} moving entities of the {@link EntityManager}. Results are printed to
+ * {@link System#out}. Only run by the {@code benchmark} task.
+ */
+@Tag("benchmark")
+class EntityManagerBenchmarkTest {
+
+    private static final int ENTITIES = 200_000;
+    private static final int WARM_UP_TICKS = 20;
+    private static final int TICKS = 100;
+
+    @Test
+    void movingEntities() {
+        EntityManager manager = new EntityManager();
+        FixedTimestepTicker ticker = new FixedTimestepTicker(10);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ticker.setTickPool(pool);
+
+        // Half of the entities expire after their lifetime
+        for (int i = 0; i < ENTITIES; i++) {
+            long entity = i % 2 == 0 ? manager.create(POSITION, VELOCITY) : manager.create(POSITION, VELOCITY, LIFETIME);
+            manager.setFloat(entity, VELOCITY, 0, 1f);
+            manager.setFloat(entity, VELOCITY, 1, i % 10);
+            if(i % 2 == 1) manager.setInt(entity, LIFETIME, 0, 1 + i % 5);
+        }
+
+        manager.addSystem(new MovementSystem());
+        manager.addSystem(new LifetimeSystem(manager, new AtomicInteger()));
+
+        for (int i = 0; i < WARM_UP_TICKS; i++)
+            manager.tick(ticker);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < TICKS; i++)
+            manager.tick(ticker);
+        long time = System.nanoTime() - start;
+        pool.shutdown();
+
+        System.out.printf("[entity-manager] %d entities: %.3f ms per tick%n",
+                manager.getEntityCount(), time / 1_000_000d / TICKS);
+    }
+}
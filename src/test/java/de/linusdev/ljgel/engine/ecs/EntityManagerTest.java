@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.ecs;
+
+import de.linusdev.ljgel.engine.ticker.FixedTimestepTicker;
+import de.linusdev.ljgel.engine.ticker.Ticker;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityManagerTest {
+
+    static final ComponentType POSITION = ComponentType.floats("position", 3);
+    static final ComponentType VELOCITY = ComponentType.floats("velocity", 3);
+    static final ComponentType LIFETIME = ComponentType.ints("lifetime", 1);
+
+    /**
+     * Enough entities for several chunks per archetype.
+     */
+    private static final int ENTITIES = 4 * EntityManager.CHUNK_SIZE + 100;
+    static final float DELTA = 0.1f;
+
+    @Test
+    void generationalHandles() {
+        EntityManager manager = new EntityManager();
+        long a = manager.create(POSITION);
+        long b = manager.create(POSITION);
+        long c = manager.create(POSITION);
+
+        assertTrue(manager.destroy(b));
+        assertFalse(manager.destroy(b));
+        assertFalse(manager.isAlive(b));
+
+        // The index is reused with a new generation
+        long d = manager.create(POSITION);
+        assertEquals(EntityManager.index(b), EntityManager.index(d));
+        assertNotEquals(b, d);
+        assertFalse(manager.isAlive(b));
+        assertTrue(manager.isAlive(a) && manager.isAlive(c) && manager.isAlive(d));
+        assertFalse(manager.isAlive(EntityManager.NULL));
+        assertEquals(3, manager.getEntityCount());
+        assertThrows(IllegalArgumentException.class, () -> manager.setFloat(b, POSITION, 0, 1f));
+    }
+
+    @Test
+    void archetypeChanges() {
+        EntityManager manager = new EntityManager();
+        long[] entities = new long[100];
+        for (int i = 0; i < entities.length; i++) {
+            entities[i] = manager.create(POSITION, VELOCITY);
+            manager.setFloat(entities[i], POSITION, 1, i);
+            manager.setFloat(entities[i], VELOCITY, 2, -i);
+        }
+
+        // Moving entities between archetypes keeps the values of the remaining components
+        for (int i = 0; i < entities.length; i += 3) {
+            manager.addComponent(entities[i], LIFETIME);
+            manager.setInt(entities[i], LIFETIME, 0, i);
+        }
+        for (int i = 0; i < entities.length; i += 5)
+            manager.removeComponent(entities[i], VELOCITY);
+        for (int i = 1; i < entities.length; i += 7)
+            manager.destroy(entities[i]);
+
+        assertEquals(manager.getArchetype(POSITION, VELOCITY), manager.getArchetype(VELOCITY, POSITION, VELOCITY));
+        for (int i = 0; i < entities.length; i++) {
+            if(i % 7 == 1) {
+                assertFalse(manager.isAlive(entities[i]));
+                continue;
+            }
+
+            assertEquals(i, manager.getFloat(entities[i], POSITION, 1), 0f);
+            assertEquals(i % 5 != 0, manager.hasComponent(entities[i], VELOCITY));
+            if(i % 5 != 0) assertEquals(-i, manager.getFloat(entities[i], VELOCITY, 2), 0f);
+            if(i % 3 == 0) assertEquals(i, manager.getInt(entities[i], LIFETIME, 0));
+            else assertFalse(manager.hasComponent(entities[i], LIFETIME));
+        }
+    }
+
+    @Test
+    void parallelSystems() {
+        EntityManager manager = new EntityManager();
+        FixedTimestepTicker ticker = new FixedTimestepTicker(10);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ticker.setTickPool(pool);
+
+        // Half of the entities expire after their lifetime
+        long[] entities = new long[ENTITIES];
+        for (int i = 0; i < ENTITIES; i++) {
+            entities[i] = i % 2 == 0 ? manager.create(POSITION, VELOCITY) : manager.create(POSITION, VELOCITY, LIFETIME);
+            manager.setFloat(entities[i], VELOCITY, 0, 1f);
+            manager.setFloat(entities[i], VELOCITY, 1, i % 10);
+            if(i % 2 == 1) manager.setInt(entities[i], LIFETIME, 0, 1 + i % 5);
+        }
+
+        AtomicInteger expired = new AtomicInteger();
+        manager.addSystem(new MovementSystem());
+        manager.addSystem(new LifetimeSystem(manager, expired));
+
+        for (int i = 0; i < 5; i++)
+            manager.tick(ticker);
+        // The destruction is applied at the start of the following tick
+        manager.tick(ticker);
+
+        assertEquals(ENTITIES / 2, expired.get());
+        assertEquals(ENTITIES / 2, manager.getEntityCount());
+        for (int i = 0; i < ENTITIES; i += 2) {
+            assertEquals(6 * DELTA, manager.getFloat(entities[i], POSITION, 0), 1e-5f);
+            assertEquals(6 * DELTA * (i % 10), manager.getFloat(entities[i], POSITION, 1), 1e-4f);
+        }
+
+        for (int i = 1; i < ENTITIES; i += 2)
+            assertFalse(manager.isAlive(entities[i]));
+
+        pool.shutdown();
+    }
+
+    @Test
+    void throwingSystem() {
+        EntityManager manager = new EntityManager();
+        FixedTimestepTicker ticker = new FixedTimestepTicker(10);
+
+        // More entities than the initial capacity of the destroy queue
+        long[] entities = new long[100];
+        for (int i = 0; i < entities.length; i++)
+            entities[i] = manager.create(POSITION, LIFETIME);
+        for (int i = 0; i < entities.length; i++)
+            manager.setInt(entities[i], LIFETIME, 0, 1);
+        long survivor = manager.create(POSITION);
+
+        AtomicInteger expired = new AtomicInteger();
+        AtomicInteger updated = new AtomicInteger();
+        manager.addSystem(new LifetimeSystem(manager, expired));
+        manager.addSystem((ActionSystem) () -> { throw new IllegalStateException("test"); });
+        manager.addSystem((ActionSystem) updated::incrementAndGet);
+
+        // The system after the throwing one is still updated
+        manager.tick(ticker);
+        assertEquals(entities.length, expired.get());
+        assertEquals(1, updated.get());
+
+        // and the entities destroyed later are destroyed in the next tick
+        manager.tick(ticker);
+        assertEquals(2, updated.get());
+        assertEquals(1, manager.getEntityCount());
+        assertTrue(manager.isAlive(survivor));
+        for (long entity : entities)
+            assertFalse(manager.isAlive(entity));
+
+        // Entities can be changed again after a system threw
+        assertTrue(manager.isAlive(manager.create(POSITION)));
+    }
+
+    /**
+     * Runs an action once per tick, if there are entities with a position but without a lifetime.
+     */
+    @FunctionalInterface
+    interface ActionSystem extends EntitySystem {
+
+        void run();
+
+        @Override
+        default long getRequiredComponents() {
+            return POSITION.getMask();
+        }
+
+        @Override
+        default long getExcludedComponents() {
+            return LIFETIME.getMask();
+        }
+
+        @Override
+        default void update(@NotNull Archetype archetype, int from, int to, @NotNull Ticker ticker) {
+            run();
+        }
+    }
+
+    static class MovementSystem implements EntitySystem {
+
+        @Override
+        public long getRequiredComponents() {
+            return ComponentType.mask(POSITION, VELOCITY);
+        }
+
+        @Override
+        public void update(@NotNull Archetype archetype, int from, int to, @NotNull Ticker ticker) {
+            float[] position = archetype.getFloats(POSITION);
+            float[] velocity = archetype.getFloats(VELOCITY);
+            for (int i = from * 3; i < to * 3; i++)
+                position[i] += velocity[i] * DELTA;
+        }
+
+        @Override
+        public boolean isParallelSafe() {
+            return true;
+        }
+    }
+
+    record LifetimeSystem(@NotNull EntityManager manager, @NotNull AtomicInteger expired) implements EntitySystem {
+
+        @Override
+        public long getRequiredComponents() {
+            return LIFETIME.getMask();
+        }
+
+        @Override
+        public void update(@NotNull Archetype archetype, int from, int to, @NotNull Ticker ticker) {
+            int[] lifetime = archetype.getInts(LIFETIME);
+            for (int row = from; row < to; row++) {
+                if(--lifetime[row] == 0) {
+                    manager.destroyLater(archetype.getEntity(row));
+                    expired.incrementAndGet();
+                }
+            }
+        }
+
+        @Override
+        public boolean isParallelSafe() {
+            return true;
+        }
+    }
+}
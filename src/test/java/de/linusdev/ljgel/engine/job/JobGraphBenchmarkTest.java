@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.job;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the frame time of a {@link JobGraph} with the sum of the job times and measures the overhead per frame.
+ * Results are printed to {@link System#out}. Only run by the {@code benchmark} task.
+ */
+@Tag("benchmark")
+class JobGraphBenchmarkTest {
+
+    private static final int FRAMES = 10_000;
+    private static final long SLEEP_MILLIS = 20L;
+
+    @Test
+    void criticalPath() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        JobGraph graph = new JobGraph(pool);
+        Runnable sleep = () -> {
+            try {
+                Thread.sleep(SLEEP_MILLIS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        };
+
+        // Four independent jobs, then one job depending on all of them: the critical path contains two jobs
+        Job a = graph.add(sleep);
+        Job b = graph.add(sleep);
+        Job c = graph.add(sleep);
+        Job d = graph.add(sleep);
+        Job last = graph.add(sleep, a, b);
+        graph.dependsOn(last, c);
+        graph.dependsOn(last, d);
+
+        graph.start();
+        graph.finish();
+
+        double frameMillis = graph.getLastFrameNanos() / 1_000_000d;
+        double workMillis = graph.getLastWorkNanos() / 1_000_000d;
+        System.out.printf("[critical path] frame: %.2f ms, sum of jobs: %.2f ms%n", frameMillis, workMillis);
+        assertTrue(workMillis >= 5 * SLEEP_MILLIS);
+        assertTrue(frameMillis < 4 * SLEEP_MILLIS, "Jobs did not run in parallel: " + frameMillis + " ms");
+
+        pool.shutdown();
+    }
+
+    @Test
+    void allocationPerFrame() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        JobGraph graph = new JobGraph(pool);
+        AtomicInteger counter = new AtomicInteger();
+        Runnable increment = counter::incrementAndGet;
+
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        Job previous = null;
+        long allocated = 0L;
+        long start = 0L;
+        for (int frame = 0; frame < FRAMES * 2; frame++) {
+            if(frame == FRAMES) {
+                // Warmed up
+                allocated = bean.getThreadAllocatedBytes(threadId);
+                start = System.nanoTime();
+            }
+
+            Job root = graph.add(increment);
+            Job left = graph.add(increment, root);
+            Job right = graph.add(increment, root);
+            graph.add(increment, left, right);
+            graph.start();
+            graph.finish();
+
+            if(previous != null)
+                assertSame(previous, root);
+            previous = root;
+        }
+        allocated = bean.getThreadAllocatedBytes(threadId) - allocated;
+        long time = System.nanoTime() - start;
+
+        assertEquals(FRAMES * 2 * 4, counter.get());
+        System.out.printf("[overhead] %.2f us per frame with 4 jobs, %.2f bytes allocated per frame%n",
+                time / 1000d / FRAMES, (double) allocated / FRAMES);
+
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.job;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobGraphTest {
+
+    @Test
+    void dependencies() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        JobGraph graph = new JobGraph(pool);
+        AtomicInteger step = new AtomicInteger();
+        int[] order = new int[4];
+
+        for (int frame = 0; frame < 100; frame++) {
+            step.set(0);
+            // Diamond: a -> (b, c) -> d
+            Job a = graph.add(() -> order[0] = step.incrementAndGet());
+            Job b = graph.add(() -> order[1] = step.incrementAndGet(), a);
+            Job c = graph.add(() -> order[2] = step.incrementAndGet(), a);
+            Job d = graph.add(() -> order[3] = step.incrementAndGet(), b, c);
+            assertEquals(4, graph.getJobCount());
+
+            graph.start();
+            d.join();
+            assertEquals(1, order[0]);
+            assertTrue(order[1] > 1 && order[2] > 1);
+            assertEquals(4, order[3]);
+            graph.finish();
+        }
+
+        // Jobs can only depend on jobs added before them
+        Job first = graph.add(() -> {});
+        Job second = graph.add(() -> {});
+        assertThrows(IllegalArgumentException.class, () -> graph.dependsOn(first, second));
+        graph.start();
+        assertThrows(IllegalStateException.class, () -> graph.add(() -> {}));
+        graph.finish();
+
+        pool.shutdown();
+    }
+
+    @Test
+    void failures() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        JobGraph graph = new JobGraph(pool);
+        AtomicInteger runs = new AtomicInteger();
+        IllegalStateException exception = new IllegalStateException("test");
+
+        Job failing = graph.add(() -> { throw exception; });
+        Job dependent = graph.add(runs::incrementAndGet, failing);
+        Job independent = graph.add(runs::incrementAndGet);
+
+        graph.start();
+        independent.join();
+        dependent.quietlyJoin();
+        assertTrue(dependent.isCompletedAbnormally());
+        assertThrows(IllegalStateException.class, graph::finish);
+        assertEquals(1, runs.get());
+
+        // The graph can be used again
+        Job job = graph.add(runs::incrementAndGet);
+        graph.start();
+        job.join();
+        graph.finish();
+        assertEquals(2, runs.get());
+        assertFalse(job.isCompletedAbnormally());
+
+        pool.shutdown();
+    }
+
+    @Test
+    void jobsAreReused() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        JobGraph graph = new JobGraph(pool);
+        AtomicInteger counter = new AtomicInteger();
+        Runnable increment = counter::incrementAndGet;
+
+        Job previous = null;
+        for (int frame = 0; frame < 100; frame++) {
+            Job root = graph.add(increment);
+            Job left = graph.add(increment, root);
+            Job right = graph.add(increment, root);
+            graph.add(increment, left, right);
+            graph.start();
+            graph.finish();
+
+            // The jobs of the last frame are reused
+            if(previous != null)
+                assertSame(previous, root);
+            previous = root;
+        }
+
+        assertEquals(100 * 4, counter.get());
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.obj.collider;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static de.linusdev.ljgel.engine.obj.collider.ColliderStoreTest.createColliders;
+
+/**
+ * Compares the time per pair of the batch distances of the {@link ColliderStore} and the distance functions of the
+ * colliders. Results are printed to {@link System#out}. Only run by the {@code benchmark} task.
+ */
+@Tag("benchmark")
+class ColliderStoreBenchmarkTest {
+
+    private static final int COLLIDERS = 10_000;
+    private static final int PAIRS = 1 << 20;
+    private static final int ROUNDS = 20;
+
+    @Test
+    void timePerPair() {
+        Random random = new Random(1);
+        Collider[] colliders = createColliders(random, COLLIDERS);
+        ColliderStore store = new ColliderStore();
+        for (Collider collider : colliders)
+            store.set(store.add(), collider);
+
+        int[] a = new int[PAIRS];
+        int[] b = new int[PAIRS];
+        float[] distances = new float[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            a[i] = random.nextInt(COLLIDERS);
+            b[i] = random.nextInt(COLLIDERS);
+        }
+
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // Warm up both paths
+        float sum = 0f;
+        for (int round = 0; round < ROUNDS; round++) {
+            store.distances(a, b, PAIRS, distances);
+            for (int i = 0; i < PAIRS; i++)
+                sum += colliders[a[i]].exactDistanceTo(colliders[b[i]]);
+        }
+
+        long allocated = bean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++)
+            store.distances(a, b, PAIRS, distances);
+        long batchTime = System.nanoTime() - start;
+        allocated = bean.getThreadAllocatedBytes(threadId) - allocated;
+
+        start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++)
+            for (int i = 0; i < PAIRS; i++)
+                sum += colliders[a[i]].exactDistanceTo(colliders[b[i]]);
+        long colliderTime = System.nanoTime() - start;
+
+        System.out.printf("[batch] %.2f ns per pair, %d bytes allocated%n", (double) batchTime / ROUNDS / PAIRS, allocated);
+        System.out.printf("[collider] %.2f ns per pair (%f)%n", (double) colliderTime / ROUNDS / PAIRS, sum);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.obj.collider;
+
+import de.linusdev.lutils.math.vector.array.floatn.ABFloat1;
+import de.linusdev.lutils.math.vector.array.floatn.ABFloat3;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the batch distances of the {@link ColliderStore} against the distance functions of the colliders.
+ */
+class ColliderStoreTest {
+
+    private static final int COLLIDERS = 1_000;
+    private static final int PAIRS = 1 << 14;
+
+    static @NotNull Collider @NotNull [] createColliders(@NotNull Random random, int count) {
+        Collider[] colliders = new Collider[count];
+        for (int i = 0; i < count; i++) {
+            ABFloat3 center = new ABFloat3(random.nextFloat() * 20f, random.nextFloat() * 20f, random.nextFloat() * 20f);
+            if(random.nextBoolean())
+                colliders[i] = new SphereCollider(0, center, new ABFloat1(0.5f + random.nextFloat() * 2f));
+            else
+                colliders[i] = new AlignedBoxCollider(center, new ABFloat3(
+                        0.5f + random.nextFloat() * 2f, 0.5f + random.nextFloat() * 2f, 0.5f + random.nextFloat() * 2f
+                ));
+        }
+        return colliders;
+    }
+
+    @Test
+    void matchesColliders() {
+        Random random = new Random(0);
+        Collider[] colliders = createColliders(random, COLLIDERS);
+        ColliderStore store = new ColliderStore();
+        for (Collider collider : colliders)
+            store.set(store.add(), collider);
+
+        int[] a = new int[PAIRS];
+        int[] b = new int[PAIRS];
+        float[] distances = new float[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            a[i] = random.nextInt(COLLIDERS);
+            b[i] = random.nextInt(COLLIDERS);
+        }
+
+        store.distances(a, b, PAIRS, distances);
+        for (int i = 0; i < PAIRS; i++) {
+            assertEquals(colliders[a[i]].exactDistanceTo(colliders[b[i]]), distances[i], 1e-4f);
+            assertEquals(distances[i], store.distance(a[i], b[i]), 1e-4f);
+        }
+
+        // Touching boxes and overlapping spheres
+        AlignedBoxCollider box1 = new AlignedBoxCollider(new ABFloat3(0f, 0f, 0f), new ABFloat3(1f, 1f, 1f));
+        AlignedBoxCollider box2 = new AlignedBoxCollider(new ABFloat3(2f, 0.5f, 0f), new ABFloat3(1f, 1f, 1f));
+        SphereCollider sphere = new SphereCollider(0, new ABFloat3(3f, 3f, 0f), new ABFloat1(1f));
+        assertEquals(0f, box1.exactDistanceTo(box2), 1e-6f);
+        assertEquals(0.5f, sphere.exactDistanceTo(box2), 1e-6f);
+    }
+
+    @Test
+    void packedBounds() {
+        Random random = new Random(2);
+        Collider[] colliders = createColliders(random, COLLIDERS);
+        ColliderStore store = new ColliderStore();
+        for (Collider collider : colliders)
+            store.set(store.add(), collider);
+
+        // Pack in reverse order
+        int[] order = new int[COLLIDERS];
+        for (int i = 0; i < COLLIDERS; i++)
+            order[i] = COLLIDERS - 1 - i;
+
+        int offset = 4;
+        FloatBuffer packed = FloatBuffer.allocate(offset + ColliderStore.PACKED_SECTIONS * COLLIDERS);
+        store.pack(order, COLLIDERS, packed, offset, COLLIDERS);
+
+        for (int i = 0; i < COLLIDERS; i++) {
+            assertEquals(store.minX(order[i]), packed.get(offset + ColliderStore.PACKED_MIN_X * COLLIDERS + i));
+            assertEquals(
+                    colliders[order[i]].getCenter().y(),
+                    packed.get(offset + ColliderStore.PACKED_CENTER_Y * COLLIDERS + i)
+            );
+        }
+
+        // Colliding pairs must have overlapping bounds
+        int colliding = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            int a = random.nextInt(COLLIDERS);
+            int b = random.nextInt(COLLIDERS);
+            if(store.distance(order[a], order[b]) > 0f)
+                continue;
+
+            colliding++;
+            for (int axis = 0; axis < 3; axis++) {
+                int min = offset + (ColliderStore.PACKED_MIN_X + axis * 2) * COLLIDERS;
+                int max = offset + (ColliderStore.PACKED_MAX_X + axis * 2) * COLLIDERS;
+                assertTrue(packed.get(min + a) <= packed.get(max + b) && packed.get(min + b) <= packed.get(max + a));
+            }
+        }
+        assertTrue(colliding > 0);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.obj.manager;
+
+import de.linusdev.ljgel.engine.obj.collider.SphereCollider;
+import de.linusdev.ljgel.engine.ticker.FixedTimestepTicker;
+import de.linusdev.lutils.math.vector.array.floatn.ABFloat1;
+import de.linusdev.lutils.math.vector.array.floatn.ABFloat3;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static de.linusdev.ljgel.engine.obj.manager.SphereObject.uniform;
+
+/**
+ * Compares the tick time of each {@link BroadphaseType} for uniformly distributed and clustered moving objects and
+ * the time of spatial queries. Results are printed to {@link System#out}. Only run by the {@code benchmark} task.
+ */
+@Tag("benchmark")
+class CollisionManagerBenchmarkTest {
+
+    private static final int OBJECTS = 10_000;
+    private static final float WORLD_SIZE = 200f;
+    private static final int WARM_UP_TICKS = 20;
+    private static final int TICKS = 100;
+
+    @Test
+    void spatialQueries() {
+        for (BroadphaseType type : BroadphaseType.values()) {
+            GameObjectManager<SphereObject> manager = new GameObjectManager<>(1, group -> type);
+            FixedTimestepTicker ticker = new FixedTimestepTicker(10);
+            Random random = new Random(5);
+
+            for (int i = 0; i < OBJECTS; i++)
+                new SphereObject(manager, i, uniform(random, WORLD_SIZE), 0.5f + random.nextFloat());
+            manager.tick(ticker);
+
+            benchmarkQueries(type, manager, random);
+        }
+    }
+
+    private void benchmarkQueries(
+            @NotNull BroadphaseType type,
+            @NotNull GameObjectManager<SphereObject> manager,
+            @NotNull Random random
+    ) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        SpatialQueryBuffer<SphereObject> buffer = new SpatialQueryBuffer<>();
+        SphereCollider shape = new SphereCollider(0, new ABFloat3(0f, 0f, 0f), new ABFloat1(5f));
+        ABFloat3 center = (ABFloat3) shape.getCenter();
+        int queries = 20_000;
+        long results = 0L;
+
+        for (int round = 0; round < 2; round++) {
+            long allocated = bean.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                center.x(random.nextFloat() * WORLD_SIZE);
+                center.y(random.nextFloat() * WORLD_SIZE);
+                center.z(random.nextFloat() * WORLD_SIZE);
+
+                buffer.clear();
+                manager.queryOverlap(shape, buffer);
+                manager.rayCastClosest(center.x(), center.y(), center.z(), 1f, 0.5f, 0.25f, WORLD_SIZE, buffer);
+                results += buffer.size();
+            }
+            long time = System.nanoTime() - start;
+            allocated = bean.getThreadAllocatedBytes(threadId) - allocated;
+
+            // The first round warms up the queries and grows the buffer
+            if(round == 1)
+                System.out.printf("[%s] %d objects: %.2f us per overlap query and ray cast (%d results, %d bytes allocated)%n",
+                        type, OBJECTS, time / 1000d / queries, results, allocated);
+        }
+    }
+
+    @Test
+    void movingObjects() {
+        for (BroadphaseType type : BroadphaseType.values()) {
+            benchmark(type, "uniform", random -> uniform(random, WORLD_SIZE));
+            benchmark(type, "clustered", new Function<>() {
+                private final List<ABFloat3> clusters = new ArrayList<>();
+
+                @Override
+                public ABFloat3 apply(Random random) {
+                    if(clusters.size() < 20)
+                        clusters.add(uniform(random, WORLD_SIZE));
+                    ABFloat3 cluster = clusters.get(random.nextInt(clusters.size()));
+                    return new ABFloat3(
+                            cluster.x() + (float) random.nextGaussian() * 8f,
+                            cluster.y() + (float) random.nextGaussian() * 8f,
+                            cluster.z() + (float) random.nextGaussian() * 8f
+                    );
+                }
+            });
+        }
+    }
+
+    private void benchmark(@NotNull BroadphaseType type, @NotNull String distribution, @NotNull Function<Random, ABFloat3> positions) {
+        GameObjectManager<SphereObject> manager = new GameObjectManager<>(1, group -> type);
+        FixedTimestepTicker ticker = new FixedTimestepTicker(10);
+        Random random = new Random(2);
+        List<SphereObject> objects = new ArrayList<>();
+
+        for (int i = 0; i < OBJECTS; i++)
+            objects.add(new SphereObject(manager, i, positions.apply(random), 0.5f + random.nextFloat()));
+
+        for (int i = 0; i < WARM_UP_TICKS; i++)
+            manager.tick(ticker);
+
+        long collisions = 0L;
+        long start = System.nanoTime();
+        for (int i = 0; i < TICKS; i++) {
+            for (SphereObject object : objects) {
+                object.move(random, 0.05f);
+                collisions += object.collisions.size();
+                object.collisions.clear();
+            }
+            manager.tick(ticker);
+        }
+        long time = System.nanoTime() - start;
+
+        CollisionManager<SphereObject> collisionManager = manager.getCollisionManager(0);
+        System.out.printf("[%s, %s] %d moving objects: %.2f ms per tick (%d collisions, %d pairs tested, %d skipped)%n",
+                type, distribution, OBJECTS, time / 1_000_000d / TICKS, collisions / 2,
+                collisionManager.getTestedPairCount(), collisionManager.getSkippedPairCount());
+    }
+}
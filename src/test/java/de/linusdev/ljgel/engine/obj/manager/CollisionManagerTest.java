@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.obj.manager;
+
+import de.linusdev.ljgel.engine.obj.collider.AlignedBoxCollider;
+import de.linusdev.ljgel.engine.obj.collider.Collider;
+import de.linusdev.ljgel.engine.obj.collider.SphereCollider;
+import de.linusdev.ljgel.engine.ticker.FixedTimestepTicker;
+import de.linusdev.lutils.math.vector.array.floatn.ABFloat1;
+import de.linusdev.lutils.math.vector.array.floatn.ABFloat3;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static de.linusdev.ljgel.engine.obj.manager.SphereObject.uniform;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks the collisions and spatial queries of the {@link CollisionManager} against a brute force search.
+ */
+class CollisionManagerTest {
+
+    private static final int OBJECTS = 2_000;
+    private static final float WORLD_SIZE = 100f;
+
+    @Test
+    void balancedTree() {
+        BoundingVolumeSplit<Integer> tree = new BoundingVolumeSplit<>();
+        Random random = new Random(0);
+        int[] proxies = new int[OBJECTS];
+
+        // Sorted insertion is the worst case for a tree without rotations
+        for (int i = 0; i < OBJECTS; i++)
+            proxies[i] = tree.insert(i, 0f, 0f, 0.5f, i);
+        assertBalanced(tree, OBJECTS);
+
+        // Remove every other proxy and reinsert it as a shell around all others. Without balancing, each shell becomes
+        // the sibling of the root and the tree degrades into a chain
+        for (int i = 0; i < OBJECTS; i += 2)
+            tree.remove(proxies[i]);
+        assertBalanced(tree, OBJECTS / 2);
+        for (int i = 0; i < OBJECTS; i += 2)
+            proxies[i] = tree.insert(OBJECTS / 2f, 0f, 0f, OBJECTS + i, i);
+        assertBalanced(tree, OBJECTS);
+
+        // Remove the proxies on the line and insert them again inside the shells
+        for (int i = 1; i < OBJECTS; i += 2)
+            tree.remove(proxies[i]);
+        assertBalanced(tree, OBJECTS / 2);
+        for (int i = 1; i < OBJECTS; i += 2)
+            proxies[i] = tree.insert(i, 0f, 0f, 0.5f, i);
+        assertBalanced(tree, OBJECTS);
+
+        for (int i = 0; i < OBJECTS; i++)
+            tree.move(proxies[i], random.nextFloat() * WORLD_SIZE, random.nextFloat() * WORLD_SIZE, 0f, 0.5f);
+        assertBalanced(tree, OBJECTS);
+        for (int i = 0; i < OBJECTS; i += 2)
+            tree.remove(proxies[i]);
+        assertBalanced(tree, OBJECTS / 2);
+    }
+
+    /**
+     * Asserts, that the height of given {@code tree} is at most the maximum height of an AVL tree with
+     * {@code 2 * proxyCount - 1} nodes and that a query of all proxies finds each of them.
+     */
+    private static void assertBalanced(@NotNull BoundingVolumeSplit<Integer> tree, int proxyCount) {
+        assertEquals(proxyCount, tree.getProxyCount());
+        Set<Integer> found = new HashSet<>();
+        float inf = Float.POSITIVE_INFINITY;
+        tree.queryBox(-inf, -inf, -inf, inf, inf, inf, data -> assertTrue(found.add(data)));
+        assertEquals(proxyCount, found.size());
+
+        double maxHeight = 1.4405 * Math.log(2 * proxyCount + 1) / Math.log(2) - 0.3277;
+        assertTrue(tree.getHeight() <= maxHeight, "height: " + tree.getHeight() + ", max: " + maxHeight);
+    }
+
+    @Test
+    void matchesBruteForce() {
+        for (BroadphaseType type : BroadphaseType.values()) {
+            GameObjectManager<SphereObject> manager = new GameObjectManager<>(1, group -> type);
+            FixedTimestepTicker ticker = new FixedTimestepTicker(10);
+            Random random = new Random(1);
+            List<SphereObject> objects = new ArrayList<>();
+
+            for (int i = 0; i < 2_000; i++)
+                objects.add(new SphereObject(manager, i, uniform(random, 50f), 0.5f + random.nextFloat()));
+            // A few large objects, which span many grid cells
+            for (int i = 0; i < 5; i++)
+                objects.add(new SphereObject(manager, 2_000 + i, uniform(random, 50f), 20f));
+
+            for (int round = 0; round < 5; round++) {
+                for (SphereObject object : objects)
+                    object.collisions.clear();
+
+                manager.tick(ticker);
+
+                for (SphereObject a : objects) {
+                    Set<Integer> expected = new HashSet<>();
+                    for (SphereObject b : objects)
+                        if(a != b && a.collider.exactDistanceTo(b.collider) <= 0f)
+                            expected.add(b.index);
+                    assertEquals(expected, a.collisions, type.name());
+                }
+
+                // Move all objects and remove some of them
+                for (SphereObject object : objects)
+                    object.move(random, 3f);
+                for (int i = 0; i < 100; i++)
+                    objects.remove(random.nextInt(objects.size())).unregister();
+            }
+        }
+    }
+
+    @Test
+    void deviceMatchesJava() {
+        GameObjectManager<SphereObject> deviceManager = new GameObjectManager<>(1);
+        assumeTrue(deviceManager.enableDeviceCollisionDetection(), "No OpenCL device available.");
+        GameObjectManager<SphereObject> javaManager = new GameObjectManager<>(1);
+        FixedTimestepTicker ticker = new FixedTimestepTicker(10);
+
+        // Same scene in both managers, large enough to be detected on the device
+        Random random = new Random(6);
+        List<SphereObject> onDevice = new ArrayList<>();
+        List<SphereObject> inJava = new ArrayList<>();
+        for (int i = 0; i < CollisionManager.DEVICE_MIN_OBJECTS + 1_000; i++) {
+            ABFloat3 center = uniform(random, 60f);
+            float radius = 0.5f + random.nextFloat();
+            onDevice.add(new SphereObject(deviceManager, i, center, radius));
+            inJava.add(new SphereObject(javaManager, i, new ABFloat3(center.x(), center.y(), center.z()), radius));
+        }
+
+        try {
+            for (int round = 0; round < 3; round++) {
+                deviceManager.tick(ticker);
+                javaManager.tick(ticker);
+
+                assertTrue(deviceManager.getCollisionManager(0).isDetectedOnDevice());
+                assertFalse(javaManager.getCollisionManager(0).isDetectedOnDevice());
+                long contacts = 0L;
+                for (int i = 0; i < onDevice.size(); i++) {
+                    assertEquals(inJava.get(i).collisions, onDevice.get(i).collisions);
+                    contacts += inJava.get(i).collisions.size();
+                }
+                assertTrue(contacts > 0L);
+
+                // Move both scenes the same way
+                Random moveDevice = new Random(round);
+                Random moveJava = new Random(round);
+                for (int i = 0; i < onDevice.size(); i++) {
+                    onDevice.get(i).collisions.clear();
+                    inJava.get(i).collisions.clear();
+                    onDevice.get(i).move(moveDevice, 2f);
+                    inJava.get(i).move(moveJava, 2f);
+                }
+            }
+        } finally {
+            CLCollisionDetector detector = deviceManager.getCollisionManager(0).getDeviceDetector();
+            if(detector != null)
+                detector.close();
+        }
+    }
+
+    @Test
+    void deterministicCallbackOrder() {
+        List<List<Long>> logs = new ArrayList<>();
+
+        for (int threads : new int[]{1, 4}) {
+            GameObjectManager<SphereObject> manager = new GameObjectManager<>(1);
+            FixedTimestepTicker ticker = new FixedTimestepTicker(10);
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            ticker.setTickPool(pool);
+
+            Random random = new Random(3);
+            List<Long> log = new ArrayList<>();
+            for (int i = 0; i < 5_000; i++) {
+                SphereObject object = new SphereObject(manager, i, uniform(random, 40f), 0.5f + random.nextFloat());
+                object.callbackLog = log;
+            }
+
+            manager.tick(ticker);
+            pool.shutdown();
+            logs.add(log);
+
+            // Sorted by the smaller id first, the larger id second
+            for (int i = 2; i < log.size(); i += 2)
+                assertTrue(log.get(i - 2) <= log.get(i));
+        }
+
+        assertTrue(logs.get(0).size() > 2 * CollisionManager.NARROW_PHASE_PARTITION_SIZE);
+        assertEquals(logs.get(0), logs.get(1));
+    }
+
+    @Test
+    void contactCacheAndSleeping() {
+        GameObjectManager<SphereObject> manager = new GameObjectManager<>(1);
+        CollisionManager<SphereObject> collisionManager = manager.getCollisionManager(0);
+        FixedTimestepTicker ticker = new FixedTimestepTicker(10);
+        Random random = new Random(4);
+        List<SphereObject> objects = new ArrayList<>();
+
+        for (int i = 0; i < 1_000; i++)
+            objects.add(new SphereObject(manager, i, uniform(random, 20f), 0.5f + random.nextFloat()));
+
+        manager.tick(ticker);
+        int pairs = collisionManager.getTestedPairCount();
+        long collisions = objects.stream().mapToLong(o -> o.collisions.size()).sum();
+        assertTrue(collisions > 0);
+        assertEquals(0, collisionManager.getSkippedPairCount());
+
+        // Nothing moves: all results are taken from the cache and all objects fall asleep
+        for (int i = 0; i <= CollisionManager.SLEEP_TICKS; i++) {
+            for (SphereObject object : objects)
+                object.collisions.clear();
+            manager.tick(ticker);
+            assertEquals(0, collisionManager.getTestedPairCount());
+            assertEquals(pairs, collisionManager.getSkippedPairCount());
+            assertEquals(collisions, objects.stream().mapToLong(o -> o.collisions.size()).sum());
+        }
+        assertEquals(objects.size(), collisionManager.getSleepingObjectCount());
+
+        // Moving a single object wakes it and only its pairs are tested again
+        objects.get(0).move(random, 1f);
+        manager.tick(ticker);
+        assertEquals(objects.size() - 1, collisionManager.getSleepingObjectCount());
+        assertTrue(collisionManager.getTestedPairCount() > 0);
+        assertTrue(collisionManager.getTestedPairCount() < pairs / 10);
+    }
+
+    @Test
+    void spatialQueries() {
+        for (BroadphaseType type : BroadphaseType.values()) {
+            GameObjectManager<SphereObject> manager = new GameObjectManager<>(1, group -> type);
+            FixedTimestepTicker ticker = new FixedTimestepTicker(10);
+            Random random = new Random(5);
+            List<SphereObject> objects = new ArrayList<>();
+
+            for (int i = 0; i < OBJECTS; i++)
+                objects.add(new SphereObject(manager, i, uniform(random, WORLD_SIZE), 0.5f + random.nextFloat()));
+            manager.tick(ticker);
+
+            SpatialQueryBuffer<SphereObject> buffer = new SpatialQueryBuffer<>();
+
+            for (int q = 0; q < 50; q++) {
+                // Overlap queries, the last ones are larger than most grid cells
+                float size = q < 40 ? 1f + random.nextFloat() * 5f : 30f;
+                Collider shape = q % 2 == 0 ?
+                        new SphereCollider(0, uniform(random, WORLD_SIZE), new ABFloat1(size)) :
+                        new AlignedBoxCollider(uniform(random, WORLD_SIZE), new ABFloat3(size, size / 2f, size * 2f));
+
+                buffer.clear();
+                if(shape instanceof SphereCollider sphere) manager.queryOverlap(sphere, buffer);
+                else manager.queryOverlap((AlignedBoxCollider) shape, buffer);
+
+                Set<Integer> expected = new HashSet<>();
+                for (SphereObject object : objects)
+                    if(shape.exactDistanceTo(object.collider) <= 0f)
+                        expected.add(object.index);
+                assertEquals(expected, indices(buffer), type.name());
+
+                // Ray casts in random directions through the world
+                ABFloat3 origin = uniform(random, WORLD_SIZE);
+                float dx = random.nextFloat() - 0.5f, dy = random.nextFloat() - 0.5f, dz = random.nextFloat() - 0.5f;
+                float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+                dx /= length; dy /= length; dz /= length;
+
+                expected.clear();
+                float closest = Float.POSITIVE_INFINITY;
+                for (SphereObject object : objects) {
+                    float distance = raySphere(origin, dx, dy, dz, object.collider);
+                    if(distance <= WORLD_SIZE) {
+                        expected.add(object.index);
+                        closest = Math.min(closest, distance);
+                    }
+                }
+
+                buffer.clear();
+                manager.rayCastAll(origin.x(), origin.y(), origin.z(), dx, dy, dz, WORLD_SIZE, buffer);
+                assertEquals(expected, indices(buffer), type.name());
+                for (int i = 1; i < buffer.size(); i++)
+                    assertTrue(buffer.getDistance(i - 1) <= buffer.getDistance(i));
+
+                boolean hit = manager.rayCastClosest(origin.x(), origin.y(), origin.z(), dx, dy, dz, WORLD_SIZE, buffer);
+                assertEquals(!expected.isEmpty(), hit);
+                if(hit) {
+                    assertEquals(1, buffer.size());
+                    assertEquals(closest, buffer.getDistance(0), 1e-3f);
+                }
+            }
+
+            // Frustum around a corner of the world
+            Frustum frustum = new Frustum();
+            frustum.setPlane(Frustum.LEFT, 1f, 0f, 0f, -20f);
+            frustum.setPlane(Frustum.RIGHT, -1f, 0f, 0f, 80f);
+            frustum.setPlane(Frustum.BOTTOM, 0f, 1f, 0f, -10f);
+            frustum.setPlane(Frustum.TOP, 0f, -1f, 0f, 70f);
+            frustum.setPlane(Frustum.NEAR, 0f, 0f, 1f, 0f);
+            frustum.setPlane(Frustum.FAR, 1f, 1f, -1f, 100f);
+
+            buffer.clear();
+            manager.queryFrustum(frustum, buffer);
+            Set<Integer> expected = new HashSet<>();
+            for (SphereObject object : objects) {
+                ABFloat3 center = (ABFloat3) object.collider.getCenter();
+                if(frustum.intersectsSphere(center.x(), center.y(), center.z(), object.collider.getRadius().get()))
+                    expected.add(object.index);
+            }
+            assertEquals(expected, indices(buffer), type.name());
+        }
+
+        // Identity view-projection: the frustum is the clip volume
+        Frustum clip = new Frustum();
+        clip.setFromViewProjection(new float[]{1f, 0f, 0f, 0f, 0f, 1f, 0f, 0f, 0f, 0f, 1f, 0f, 0f, 0f, 0f, 1f});
+        assertTrue(clip.intersectsSphere(0f, 0f, 0.5f, 0f));
+        assertFalse(clip.intersectsSphere(0f, 0f, -0.5f, 0.1f));
+        assertFalse(clip.intersectsSphere(1.5f, 0f, 0.5f, 0.1f));
+    }
+
+    private static @NotNull Set<Integer> indices(@NotNull SpatialQueryBuffer<SphereObject> buffer) {
+        Set<Integer> indices = new HashSet<>();
+        for (int i = 0; i < buffer.size(); i++)
+            indices.add(((SphereObject) buffer.get(i)).index);
+        assertEquals(buffer.size(), indices.size(), "duplicate results");
+        return indices;
+    }
+
+    private static float raySphere(@NotNull ABFloat3 origin, float dx, float dy, float dz, @NotNull SphereCollider sphere) {
+        ABFloat3 center = (ABFloat3) sphere.getCenter();
+        float r = sphere.getRadius().get();
+        float ox = origin.x() - center.x(), oy = origin.y() - center.y(), oz = origin.z() - center.z();
+        float b = ox * dx + oy * dy + oz * dz;
+        float c = ox * ox + oy * oy + oz * oz - r * r;
+        if(c <= 0f) return 0f;
+        if(b > 0f) return Float.POSITIVE_INFINITY;
+        float px = ox - b * dx, py = oy - b * dy, pz = oz - b * dz;
+        float discriminant = r * r - (px * px + py * py + pz * pz);
+        if(discriminant < 0f) return Float.POSITIVE_INFINITY;
+        return -b - (float) Math.sqrt(discriminant);
+    }
+}
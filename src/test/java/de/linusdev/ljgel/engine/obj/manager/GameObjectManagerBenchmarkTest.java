@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.obj.manager;
+
+import de.linusdev.ljgel.engine.obj.GameObject;
+import de.linusdev.ljgel.engine.ticker.FixedTimestepTicker;
+import de.linusdev.ljgel.engine.ticker.Ticker;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures the tick throughput of a {@link GameObjectManager} with parallel-safe objects for an increasing count of
+ * threads in the {@link Ticker#getTickPool() tick pool}. Results are printed to {@link System#out}. Only run by the
+ * {@code benchmark} task.
+ */
+@Tag("benchmark")
+class GameObjectManagerBenchmarkTest {
+
+    private static final int OBJECTS = 10_000;
+    private static final int WARM_UP_TICKS = 20;
+    private static final int TICKS = 100;
+
+    @Test
+    void tickThroughputScaling() {
+        GameObjectManager<BenchmarkObject> manager = new GameObjectManager<>(0);
+        List<BenchmarkObject> objects = new ArrayList<>();
+        for (int i = 0; i < OBJECTS; i++)
+            objects.add(new BenchmarkObject(manager));
+
+        FixedTimestepTicker ticker = new FixedTimestepTicker(10);
+        int processors = Runtime.getRuntime().availableProcessors();
+        int expectedTicks = 0;
+
+        for (int threads = 1; threads <= processors; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            ticker.setTickPool(pool);
+
+            for (int i = 0; i < WARM_UP_TICKS; i++)
+                manager.tick(ticker);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < TICKS; i++)
+                manager.tick(ticker);
+            long time = System.nanoTime() - start;
+
+            pool.shutdown();
+            expectedTicks += WARM_UP_TICKS + TICKS;
+            System.out.printf("[%d threads] %.2f million object ticks per second%n",
+                    threads, (double) OBJECTS * TICKS / (time / 1000d));
+        }
+
+        for (BenchmarkObject object : objects)
+            assertEquals(expectedTicks, object.ticks);
+    }
+
+    private static class BenchmarkObject extends GameObject<BenchmarkObject> {
+
+        private int ticks = 0;
+        private float x = 1f;
+        private float velocity = 0f;
+
+        BenchmarkObject(@NotNull HasGameObjectManager<BenchmarkObject> manager) {
+            super(manager, null);
+        }
+
+        @Override
+        public void onCollision(@NotNull GameObject<BenchmarkObject> other) {
+
+        }
+
+        @Override
+        public boolean isParallelSafe() {
+            return true;
+        }
+
+        @Override
+        public void tick(@NotNull Ticker ticker) {
+            // Some work, which only touches this object
+            for (int i = 0; i < 200; i++) {
+                velocity += (float) Math.sin(x) * 0.001f;
+                x += velocity;
+            }
+            ticks++;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.obj.manager;
+
+import de.linusdev.ljgel.engine.obj.GameObject;
+import de.linusdev.ljgel.engine.ticker.FixedTimestepTicker;
+import de.linusdev.ljgel.engine.ticker.Ticker;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameObjectManagerTest {
+
+    private static final int PARALLEL_OBJECTS = 3 * GameObjectManager.PARTITION_SIZE + 10;
+    private static final int SERIAL_OBJECTS = 10;
+    private static final int TICKS = 10;
+
+    @Test
+    void parallelSafeAndSerialObjects() {
+        GameObjectManager<TestObject> manager = new GameObjectManager<>(0);
+        List<TestObject> parallel = new ArrayList<>();
+        List<TestObject> serial = new ArrayList<>();
+        for (int i = 0; i < PARALLEL_OBJECTS; i++)
+            parallel.add(new TestObject(manager, true));
+        for (int i = 0; i < SERIAL_OBJECTS; i++)
+            serial.add(new TestObject(manager, false));
+
+        FixedTimestepTicker ticker = new FixedTimestepTicker(10);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ticker.setTickPool(pool);
+
+        try {
+            for (int i = 0; i < TICKS; i++)
+                manager.tick(ticker);
+        } finally {
+            pool.shutdown();
+        }
+
+        for (TestObject object : parallel)
+            assertEquals(TICKS, object.ticks);
+        for (TestObject object : serial) {
+            assertEquals(TICKS, object.ticks);
+            assertFalse(object.tickedOnOtherThread);
+        }
+    }
+
+    @Test
+    void unregisteredObjectsAreNotTicked() {
+        GameObjectManager<TestObject> manager = new GameObjectManager<>(0);
+        List<TestObject> objects = new ArrayList<>();
+        for (int i = 0; i < PARALLEL_OBJECTS; i++)
+            objects.add(new TestObject(manager, i % 2 == 0));
+
+        FixedTimestepTicker ticker = new FixedTimestepTicker(10);
+        manager.tick(ticker);
+
+        for (int i = 0; i < objects.size(); i += 3)
+            objects.get(i).unregister();
+        manager.tick(ticker);
+
+        for (int i = 0; i < objects.size(); i++)
+            assertEquals(i % 3 == 0 ? 1 : 2, objects.get(i).ticks);
+    }
+
+    private static class TestObject extends GameObject<TestObject> {
+
+        private final boolean parallelSafe;
+        private final @NotNull Thread creator = Thread.currentThread();
+
+        private int ticks = 0;
+        private boolean tickedOnOtherThread = false;
+
+        TestObject(@NotNull HasGameObjectManager<TestObject> manager, boolean parallelSafe) {
+            super(manager, null);
+            this.parallelSafe = parallelSafe;
+        }
+
+        @Override
+        public void onCollision(@NotNull GameObject<TestObject> other) {
+
+        }
+
+        @Override
+        public boolean isParallelSafe() {
+            return parallelSafe;
+        }
+
+        @Override
+        public void tick(@NotNull Ticker ticker) {
+            if(Thread.currentThread() != creator)
+                tickedOnOtherThread = true;
+            ticks++;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.obj.manager;
+
+import de.linusdev.ljgel.engine.obj.GameObject;
+import de.linusdev.ljgel.engine.obj.collider.SphereCollider;
+import de.linusdev.ljgel.engine.ticker.Ticker;
+import de.linusdev.lutils.math.vector.array.floatn.ABFloat1;
+import de.linusdev.lutils.math.vector.array.floatn.ABFloat3;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Sphere shaped {@link GameObject}, which records the indices of the objects it collided with.
+ */
+class SphereObject extends GameObject<SphereObject> {
+
+    final int index;
+    final @NotNull SphereCollider collider;
+    final @NotNull Set<Integer> collisions = new HashSet<>();
+    @Nullable List<Long> callbackLog = null;
+
+    SphereObject(@NotNull HasGameObjectManager<SphereObject> manager, int index, @NotNull ABFloat3 center, float radius) {
+        this(manager, index, new SphereCollider(0, center, new ABFloat1(radius)));
+    }
+
+    private SphereObject(@NotNull HasGameObjectManager<SphereObject> manager, int index, @NotNull SphereCollider collider) {
+        super(manager, collider);
+        this.index = index;
+        this.collider = collider;
+    }
+
+    void move(@NotNull Random random, float distance) {
+        ABFloat3 center = (ABFloat3) collider.getCenter();
+        center.x(center.x() + (random.nextFloat() - 0.5f) * distance);
+        center.y(center.y() + (random.nextFloat() - 0.5f) * distance);
+        center.z(center.z() + (random.nextFloat() - 0.5f) * distance);
+    }
+
+    static @NotNull ABFloat3 uniform(@NotNull Random random, float worldSize) {
+        return new ABFloat3(random.nextFloat() * worldSize, random.nextFloat() * worldSize, random.nextFloat() * worldSize);
+    }
+
+    @Override
+    public void onCollision(@NotNull GameObject<SphereObject> other) {
+        int otherIndex = ((SphereObject) other).index;
+        collisions.add(otherIndex);
+        if(callbackLog != null)
+            callbackLog.add(((long) Math.min(index, otherIndex) << 32) | Math.max(index, otherIndex));
+    }
+
+    @Override
+    public void tick(@NotNull Ticker ticker) {
+
+    }
+}
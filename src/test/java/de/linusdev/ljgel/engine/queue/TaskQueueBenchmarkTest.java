@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.queue;
+
+import de.linusdev.ljgel.api.async.GlobalAsyncManager;
+import de.linusdev.lutils.nat.memory.stack.impl.DirectMemoryStack64;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Compares allocation per task and throughput under contention of the {@link TaskQueueBackend} implementations.
+ * Results are printed to {@link System#out}. Only run by the {@code benchmark} task.
+ */
+@Tag("benchmark")
+class TaskQueueBenchmarkTest {
+
+    private static final int BENCHMARK_TASK_ID = TaskQueue.getUniqueTaskId("BENCHMARK");
+
+    private static final int WARM_UP_TASKS = 200_000;
+    private static final int TASKS = 1_000_000;
+    private static final int PRODUCERS = 4;
+
+    private static @NotNull TaskQueue create(@NotNull Supplier<TaskQueueBackend> backendFactory) {
+        return new TaskQueue(GlobalAsyncManager.getInstance(), null, Long.MAX_VALUE, backendFactory);
+    }
+
+    @Test
+    void allocationPerTask() {
+        benchmarkAllocation("linked", LinkedTaskQueueBackend::new);
+        benchmarkAllocation("ring-buffer", () -> new RingBufferTaskQueueBackend(1 << 20));
+    }
+
+    @Test
+    void throughputUnderContention() throws InterruptedException {
+        benchmarkThroughput("linked", LinkedTaskQueueBackend::new);
+        benchmarkThroughput("ring-buffer", () -> new RingBufferTaskQueueBackend(1 << 16));
+    }
+
+    private void benchmarkAllocation(@NotNull String name, @NotNull Supplier<TaskQueueBackend> backendFactory) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        DirectMemoryStack64 stack = new DirectMemoryStack64();
+        TQRunnable<Object> runnable = s -> null;
+
+        TaskQueue queue = create(backendFactory);
+        for (int i = 0; i < WARM_UP_TASKS; i++)
+            queue.queueForExecution(runnable);
+        queue.runQueuedTasks(stack);
+
+        long before = bean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < TASKS; i++)
+            queue.queueForExecution(runnable);
+        long afterQueue = bean.getThreadAllocatedBytes(threadId);
+        queue.runQueuedTasks(stack);
+
+        System.out.printf("[%s] allocated bytes per queued task: %.2f%n", name, (double) (afterQueue - before) / TASKS);
+    }
+
+    private void benchmarkThroughput(
+            @NotNull String name,
+            @NotNull Supplier<TaskQueueBackend> backendFactory
+    ) throws InterruptedException {
+        DirectMemoryStack64 stack = new DirectMemoryStack64();
+        AtomicInteger executed = new AtomicInteger();
+        TQRunnable<Object> runnable = s -> {
+            executed.incrementAndGet();
+            return null;
+        };
+
+        TaskQueue queue = create(backendFactory);
+        int tasksPerProducer = TASKS / PRODUCERS;
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] producers = new Thread[PRODUCERS];
+
+        for (int p = 0; p < PRODUCERS; p++) {
+            producers[p] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                for (int i = 0; i < tasksPerProducer; i++) {
+                    queue.queueForExecution(runnable);
+                    if((i & 0xFF) == 0) queue.queueForExecution(BENCHMARK_TASK_ID, runnable);
+                }
+            }, "task-queue-producer-" + p);
+            producers[p].start();
+        }
+
+        long startTime = System.nanoTime();
+        start.countDown();
+
+        boolean producing = true;
+        while (producing) {
+            producing = false;
+            for (Thread producer : producers)
+                producing |= producer.isAlive();
+            queue.runQueuedTasks(stack);
+        }
+        queue.runQueuedTasks(stack);
+
+        long time = System.nanoTime() - startTime;
+        System.out.printf("[%s] %d producers: %.2f million tasks per second (%d tasks executed)%n",
+                name, PRODUCERS, executed.get() / (time / 1000d), executed.get());
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.queue;
+
+import de.linusdev.ljgel.api.async.GlobalAsyncManager;
+import de.linusdev.lutils.async.Nothing;
+import de.linusdev.lutils.nat.memory.stack.impl.DirectMemoryStack64;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskQueueTest {
+
+    private static final int TEST_TASK_ID = TaskQueue.getUniqueTaskId("TEST");
+
+    private static @NotNull TaskQueue create(@NotNull Supplier<TaskQueueBackend> backendFactory) {
+        return new TaskQueue(GlobalAsyncManager.getInstance(), null, Long.MAX_VALUE, backendFactory);
+    }
+
+    @Test
+    void dedupe() {
+        List<Supplier<TaskQueueBackend>> backendFactories = List.of(
+                LinkedTaskQueueBackend::new,
+                () -> new RingBufferTaskQueueBackend(4)
+        );
+
+        for (Supplier<TaskQueueBackend> backendFactory : backendFactories) {
+            TaskQueue queue = create(backendFactory);
+            DirectMemoryStack64 stack = new DirectMemoryStack64();
+            AtomicInteger counter = new AtomicInteger();
+
+            // More tasks than the ring buffer's capacity, to test the overflow as well
+            for (int i = 0; i < 10; i++) {
+                queue.queueForExecution(TEST_TASK_ID, s -> { counter.incrementAndGet(); });
+                queue.queueForExecution(s -> { counter.addAndGet(10); });
+            }
+
+            assertTrue(queue.hasQueuedTasks());
+            queue.runQueuedTasks(stack);
+            assertEquals(101, counter.get());
+            assertFalse(queue.hasQueuedTasks());
+
+            // The id can be used again, after the task ran
+            queue.queueForExecution(TEST_TASK_ID, s -> { counter.incrementAndGet(); });
+            queue.runQueuedTasks(stack);
+            assertEquals(102, counter.get());
+        }
+    }
+
+    @Test
+    void coalescing() throws InterruptedException {
+        List<Supplier<TaskQueueBackend>> backendFactories = List.of(
+                LinkedTaskQueueBackend::new,
+                RingBufferTaskQueueBackend::new
+        );
+
+        for (Supplier<TaskQueueBackend> backendFactory : backendFactories) {
+            TaskQueue queue = create(backendFactory);
+            DirectMemoryStack64 stack = new DirectMemoryStack64();
+            AtomicInteger runs = new AtomicInteger();
+
+            TQFuture<Integer> first = queue.coalesceForExecution(TEST_TASK_ID, s -> {
+                runs.incrementAndGet();
+                return 1;
+            });
+            TQFuture<Integer> latest = queue.coalesceForExecution(TEST_TASK_ID, s -> {
+                runs.incrementAndGet();
+                return 2;
+            });
+
+            queue.runQueuedTasks(stack);
+            assertEquals(1, runs.get());
+            assertFalse(first.isCanceled());
+            assertEquals(2, (int) first.getResult());
+            assertEquals(2, (int) latest.getResult());
+
+            // Merge the payloads instead of replacing them
+            TQMerger<Integer> sum = (queued, newer) -> s -> queued.run(s) + newer.run(s);
+            List<TQFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 1; i <= 4; i++) {
+                int value = i;
+                futures.add(queue.coalesceForExecution(TaskPriority.PER_FRAME, TEST_TASK_ID, s -> value, sum));
+            }
+
+            queue.runQueuedTasks(stack);
+            for (TQFuture<Integer> future : futures)
+                assertEquals(10, (int) future.getResult());
+        }
+    }
+
+    @Test
+    void keyedDedupe() throws InterruptedException {
+        TaskQueue queue = create(RingBufferTaskQueueBackend::new);
+        DirectMemoryStack64 stack = new DirectMemoryStack64();
+        AtomicInteger counter = new AtomicInteger();
+        int keys = 1_000;
+
+        // Far more keys than task ids, each queued twice
+        for (int i = 0; i < keys * 2; i++)
+            queue.queueKeyedForExecution(TaskPriority.PER_FRAME, "resource-" + (i % keys), s -> { counter.incrementAndGet(); });
+        assertEquals(keys, queue.keyedTasks.size());
+
+        queue.runQueuedTasks(stack);
+        assertEquals(keys, counter.get());
+        assertEquals(0, queue.keyedTasks.size());
+
+        // Keys can be used again, after the task ran
+        TQFuture<Integer> first = queue.coalesceKeyedForExecution(TaskPriority.PER_FRAME, "resource-0", s -> 1, TQMerger.latestWins());
+        TQFuture<Integer> latest = queue.coalesceKeyedForExecution(TaskPriority.PER_FRAME, "resource-0", s -> 2, TQMerger.latestWins());
+        queue.runQueuedTasks(stack);
+        assertEquals(2, (int) first.getResult());
+        assertEquals(2, (int) latest.getResult());
+        assertEquals(0, queue.keyedTasks.size());
+    }
+
+    @Test
+    void stats() {
+        TaskQueue queue = create(RingBufferTaskQueueBackend::new);
+        DirectMemoryStack64 stack = new DirectMemoryStack64();
+
+        queue.queueForExecution(TEST_TASK_ID, s -> { Thread.sleep(2); });
+        queue.queueForExecution(TEST_TASK_ID, s -> { });
+        queue.queueForExecution(s -> { });
+        queue.runQueuedTasks(stack);
+
+        TaskQueueStats.Snapshot snapshot = queue.getStats().snapshot();
+        assertEquals(1, snapshot.frames());
+        assertEquals(0, snapshot.deferredTasks());
+        assertEquals(2, snapshot.tasks().size());
+
+        TaskQueueStats.TaskStats noId = snapshot.tasks().get(0);
+        assertEquals(TaskQueue.NO_TASK_ID, noId.taskId());
+        assertEquals(1, noId.executionCount());
+
+        TaskQueueStats.TaskStats withId = snapshot.tasks().get(1);
+        assertEquals(TEST_TASK_ID, withId.taskId());
+        assertEquals("TEST", withId.taskName());
+        assertEquals(1, withId.executionCount());
+        assertEquals(1, withId.cancellations());
+        assertTrue(withId.maxExecutionNanos() >= 2_000_000L);
+        assertTrue(withId.executionPercentileNanos(0.5) >= 2_000_000L);
+    }
+
+    @Test
+    void priorities() {
+        TaskQueue queue = create(RingBufferTaskQueueBackend::new);
+        DirectMemoryStack64 stack = new DirectMemoryStack64();
+        StringBuilder order = new StringBuilder();
+
+        queue.queueForExecution(TaskPriority.BACKGROUND, s -> { order.append('b'); });
+        queue.queueForExecution(TaskPriority.PER_FRAME, s -> { order.append('f'); });
+        queue.queueForExecution(TaskPriority.URGENT, s -> { order.append('u'); });
+        queue.runQueuedTasks(stack, System.nanoTime() + 1_000_000_000L);
+        assertEquals("ufb", order.toString());
+
+        // Teach the queue, that the task takes at least 2 ms
+        queue.queueForExecution(TEST_TASK_ID, s -> { Thread.sleep(2); });
+        queue.runQueuedTasks(stack, System.nanoTime() + 1_000_000_000L);
+
+        // Budget too small: Only the urgent task may run, until the per-frame lane is starved
+        order.setLength(0);
+        queue.queueForExecution(TaskPriority.PER_FRAME, TEST_TASK_ID, s -> { order.append('f'); });
+        queue.queueForExecution(TaskPriority.URGENT, s -> { order.append('u'); });
+        for (int i = 0; i <= TaskPriority.PER_FRAME.getMaxStarvedFrames(); i++)
+            queue.runQueuedTasks(stack, System.nanoTime());
+        assertEquals("uf", order.toString());
+    }
+
+    @Test
+    void dedupeAcrossPriorities() throws InterruptedException {
+        TaskQueue queue = create(RingBufferTaskQueueBackend::new);
+        DirectMemoryStack64 stack = new DirectMemoryStack64();
+        AtomicInteger counter = new AtomicInteger();
+
+        TQFuture<Nothing> queued = queue.queueForExecution(TaskPriority.BACKGROUND, TEST_TASK_ID, s -> { counter.incrementAndGet(); });
+        TQFuture<Nothing> duplicate = queue.queueForExecution(TaskPriority.URGENT, TEST_TASK_ID, s -> { counter.incrementAndGet(); });
+        assertFalse(queued.isCanceled());
+        assertTrue(duplicate.isCanceled());
+
+        queue.runQueuedTasks(stack);
+        assertEquals(1, counter.get());
+
+        // Coalescing finds the queued task in another lane as well
+        TQFuture<Integer> first = queue.coalesceForExecution(TaskPriority.BACKGROUND, TEST_TASK_ID, s -> 1, TQMerger.latestWins());
+        TQFuture<Integer> latest = queue.coalesceForExecution(TaskPriority.URGENT, TEST_TASK_ID, s -> 2, TQMerger.latestWins());
+        queue.runQueuedTasks(stack);
+        assertEquals(2, (int) first.getResult());
+        assertEquals(2, (int) latest.getResult());
+        assertEquals(1, queue.getStats().snapshot().tasks().get(0).coalesced());
+    }
+
+    @Test
+    void noExpectedExecutionTimeForTasksWithoutId() {
+        TaskQueue queue = create(RingBufferTaskQueueBackend::new);
+        DirectMemoryStack64 stack = new DirectMemoryStack64();
+        StringBuilder order = new StringBuilder();
+
+        queue.queueForExecution(s -> { Thread.sleep(2); });
+        queue.runQueuedTasks(stack);
+        assertEquals(0L, queue.getStats().getExpectedExecutionNanos(TaskQueue.NO_TASK_ID));
+
+        // A slow task without an id does not defer other tasks without an id
+        queue.queueForExecution(s -> { order.append('a'); });
+        queue.runQueuedTasks(stack, System.nanoTime() + 1_000_000L);
+        assertEquals("a", order.toString());
+    }
+
+    @Test
+    void concurrentProducers() throws InterruptedException {
+        List<Supplier<TaskQueueBackend>> backendFactories = List.of(
+                LinkedTaskQueueBackend::new,
+                // Small capacity, so that the overflow queue is used as well
+                () -> new RingBufferTaskQueueBackend(64)
+        );
+
+        for (Supplier<TaskQueueBackend> backendFactory : backendFactories) {
+            TaskQueue queue = create(backendFactory);
+            DirectMemoryStack64 stack = new DirectMemoryStack64();
+            AtomicInteger executed = new AtomicInteger();
+            int producerCount = 4;
+            int tasksPerProducer = 5_000;
+
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] producers = new Thread[producerCount];
+            for (int p = 0; p < producerCount; p++) {
+                producers[p] = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+
+                    for (int i = 0; i < tasksPerProducer; i++)
+                        queue.queueForExecution(s -> { executed.incrementAndGet(); });
+                }, "task-queue-producer-" + p);
+                producers[p].start();
+            }
+
+            start.countDown();
+            boolean producing = true;
+            while (producing) {
+                producing = false;
+                for (Thread producer : producers)
+                    producing |= producer.isAlive();
+                queue.runQueuedTasks(stack);
+            }
+            queue.runQueuedTasks(stack);
+
+            // No task may be lost or run twice
+            assertEquals(producerCount * tasksPerProducer, executed.get());
+            assertFalse(queue.hasQueuedTasks());
+        }
+    }
+}
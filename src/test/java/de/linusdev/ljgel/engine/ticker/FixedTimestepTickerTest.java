@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.ticker;
+
+import de.linusdev.ljgel.engine.info.Game;
+import de.linusdev.lutils.version.Version;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedTimestepTickerTest {
+
+    @Test
+    void fixedDeltaTimeAndRateChange() {
+        FixedTimestepTicker ticker = new FixedTimestepTicker(5);
+        AtomicInteger ticks = new AtomicInteger();
+        AtomicInteger wrongDeltaTimes = new AtomicInteger();
+        Tickable tickable = t -> {
+            if(Math.abs(t.getLastDeltaTime() - 0.005d) > 1e-9)
+                wrongDeltaTimes.incrementAndGet();
+            ticks.incrementAndGet();
+        };
+        ticker.addTickable(tickable);
+
+        // The ticker is driven with a fake clock instead of its thread
+        ticker.resume(0L);
+        for (int i = 1; i <= 100; i++)
+            assertEquals(1, ticker.advance(millis(5 * i)));
+        assertEquals(100, ticks.get());
+        assertEquals(100L, ticker.getTickCount());
+        assertEquals(0, wrongDeltaTimes.get());
+
+        // Half a tick later
+        assertEquals(0, ticker.advance(millis(500) + millis(5) / 2));
+        assertEquals(0.5d, ticker.getInterpolationAlpha(millis(500) + millis(5) / 2), 1e-9);
+
+        // Late ticks are caught up
+        assertEquals(3, ticker.advance(millis(515)));
+        assertEquals(103, ticks.get());
+        assertEquals(0.0d, ticker.getInterpolationAlpha(millis(515)), 1e-9);
+
+        // The rate can be changed at runtime
+        ticks.set(0);
+        ticker.removeTickable(tickable);
+        ticker.addTickable(t -> ticks.incrementAndGet());
+        ticker.changeMillisPerTick(10);
+        for (int i = 1; i <= 50; i++)
+            ticker.advance(millis(515 + 10 * i));
+
+        assertEquals(50, ticks.get());
+        assertEquals(0L, ticker.getDroppedTicks());
+    }
+
+    @Test
+    void spiralOfDeathProtection() {
+        FixedTimestepTicker ticker = new FixedTimestepTicker(millis(1), 3);
+        AtomicInteger ticks = new AtomicInteger();
+        ticker.addTickable(t -> ticks.incrementAndGet());
+
+        ticker.resume(0L);
+        // 10 ticks are due, but only 3 are caught up, the rest is dropped
+        assertEquals(3, ticker.advance(millis(10)));
+        assertEquals(7L, ticker.getDroppedTicks());
+
+        // The dropped backlog is not caught up later
+        assertEquals(0, ticker.advance(millis(10) + millis(1) / 2));
+        assertEquals(1, ticker.advance(millis(11)));
+        assertEquals(4, ticks.get());
+        assertEquals(7L, ticker.getDroppedTicks());
+
+        // Pausing discards the accumulated time as well
+        ticker.resume(millis(100));
+        assertEquals(0, ticker.advance(millis(100)));
+        assertEquals(2, ticker.advance(millis(102)));
+        assertEquals(6, ticks.get());
+        assertEquals(7L, ticker.getDroppedTicks());
+    }
+
+    @Test
+    void rejectsNonPositiveMillisPerTick() {
+        assertThrows(IllegalArgumentException.class, () -> new FixedTimestepTicker(0));
+        assertThrows(IllegalArgumentException.class, () -> new FixedTimestepTicker(-1));
+        assertThrows(IllegalArgumentException.class, () -> new TickerImpl(0));
+        assertThrows(IllegalArgumentException.class, () -> AbstractTicker.create(game(0, true)));
+        assertThrows(IllegalArgumentException.class, () -> AbstractTicker.create(game(0, false)));
+        assertThrows(IllegalArgumentException.class, () -> new FixedTimestepTicker(5).changeMillisPerTick(0));
+
+        assertInstanceOf(FixedTimestepTicker.class, AbstractTicker.create(game(20, true)));
+    }
+
+    @Test
+    void negativeMillisPerTickMeansNoTicking() {
+        assertNull(AbstractTicker.create(game(-1, false)));
+        assertNull(AbstractTicker.create(game(-20, true)));
+    }
+
+    @Test
+    void phases() {
+        FixedTimestepTicker ticker = new FixedTimestepTicker(10);
+        StringBuffer order = new StringBuffer();
+
+        ticker.addTickable(tickable(TickPhase.PRE_RENDER, true, () -> order.append('r')));
+        ticker.addTickable(tickable(TickPhase.PHYSICS, true, () -> order.append('p')));
+        ticker.addTickable(tickable(TickPhase.PHYSICS, true, () -> order.append('p')));
+        ticker.addTickable(tickable(TickPhase.PRE_PHYSICS, false, () -> order.append('a')));
+        ticker.addTickable(tickable(TickPhase.POST_PHYSICS, false, () -> order.append('b')));
+
+        ticker.tick(0.01d);
+        assertEquals("appbr", order.toString());
+    }
+
+    @Test
+    void divisorsAndTimeSlicing() {
+        FixedTimestepTicker ticker = new FixedTimestepTicker(10);
+        List<Double> slowDeltas = new ArrayList<>();
+        List<String> deferred = new ArrayList<>();
+        AtomicInteger critical = new AtomicInteger();
+
+        ticker.addTickable(new Tickable() {
+            @Override
+            public void tick(@NotNull Ticker t) {
+                slowDeltas.add(t.getLastDeltaTime());
+            }
+
+            @Override
+            public int getTickDivisor() {
+                return 4;
+            }
+        });
+        ticker.addTickable(t -> critical.incrementAndGet());
+        for (String name : List.of("a", "b", "c"))
+            ticker.addTickable(new Tickable() {
+                @Override
+                public void tick(@NotNull Ticker t) {
+                    deferred.add(name + Math.round(t.getLastDeltaTime() * 100d));
+                }
+
+                @Override
+                public boolean isDeferrable() {
+                    return true;
+                }
+            });
+
+        // The budget is always exceeded: only one deferrable tickable may run per tick
+        ticker.setTickBudgetNanos(0L);
+        for (int i = 0; i < 8; i++)
+            ticker.tick(0.01d);
+
+        assertEquals(2, slowDeltas.size());
+        assertEquals(0.04d, slowDeltas.get(1), 1e-9);
+        assertEquals(8, critical.get());
+        // Round-robin, each tickable sees the time since it last ran
+        assertEquals(List.of("a1", "b2", "c3", "a3", "b3", "c3", "a3", "b3"), deferred);
+    }
+
+    @Test
+    void stableOrderOfNonDeferrableTickables() {
+        FixedTimestepTicker ticker = new FixedTimestepTicker(10);
+        StringBuilder order = new StringBuilder();
+
+        // Deferrable and critical tickables interleaved
+        for (String name : List.of("1", "a", "2", "b", "3", "c")) {
+            boolean deferrable = Character.isLetter(name.charAt(0));
+            ticker.addTickable(new Tickable() {
+                @Override
+                public void tick(@NotNull Ticker t) {
+                    order.append(name);
+                }
+
+                @Override
+                public boolean isDeferrable() {
+                    return deferrable;
+                }
+            });
+        }
+
+        ticker.setTickBudgetNanos(0L);
+        List<String> ticks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            order.setLength(0);
+            ticker.tick(0.01d);
+            ticks.add(order.toString());
+        }
+
+        // The critical tickables always run in the order they were added in, the deferrable ones take turns
+        assertEquals(List.of("123a", "123b", "123c", "123a"), ticks);
+    }
+
+    private static @NotNull Game game(long millisPerTick, boolean fixedTimestep) {
+        return new Game() {
+            @Override
+            public @NotNull String name() {
+                return "ticker-test";
+            }
+
+            @Override
+            public @NotNull Version version() {
+                return Version.of("1.0.0");
+            }
+
+            @Override
+            public long getMillisPerTick() {
+                return millisPerTick;
+            }
+
+            @Override
+            public boolean isFixedTimestep() {
+                return fixedTimestep;
+            }
+        };
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private static @NotNull Tickable tickable(@NotNull TickPhase phase, boolean parallelSafe, @NotNull Runnable runnable) {
+        return new Tickable() {
+            @Override
+            public void tick(@NotNull Ticker ticker) {
+                runnable.run();
+            }
+
+            @Override
+            public @NotNull TickPhase getTickPhase() {
+                return phase;
+            }
+
+            @Override
+            public boolean isParallelSafe() {
+                return parallelSafe;
+            }
+        };
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.ticker;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static de.linusdev.ljgel.engine.ticker.TripleBufferTest.publishAndAcquire;
+
+/**
+ * Measures the time of publishing snapshots to a {@link TripleBuffer}, while another thread acquires them. Results are
+ * printed to {@link System#out}. Only run by the {@code benchmark} task.
+ */
+@Tag("benchmark")
+class TripleBufferBenchmarkTest {
+
+    private static final int PUBLISHES = 1_000_000;
+
+    @Test
+    void publishThroughput() throws InterruptedException {
+        long start = System.nanoTime();
+        int acquired = publishAndAcquire(PUBLISHES);
+        long time = System.nanoTime() - start;
+        System.out.printf("%d publishes in %.2f ms, %d acquired%n", PUBLISHES, time / 1_000_000d, acquired);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.ticker;
+
+import de.linusdev.lutils.math.vector.buffer.intn.BBInt2;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TripleBufferTest {
+
+    private static final int PUBLISHES = 10_000;
+
+    @Test
+    void handoffAndInterpolation() {
+        TripleBuffer<BBInt2> buffer = new TripleBuffer<>(() -> BBInt2.newAllocated(null));
+        BBInt2 state = BBInt2.newAllocated(null);
+
+        assertFalse(buffer.acquire());
+        assertEquals(0L, buffer.getLatestSequence());
+
+        state.xy(1, 10);
+        buffer.publish(state);
+        buffer.getBack().xy(2, 20);
+        buffer.publish();
+
+        // Only the snapshot published last is acquired
+        assertTrue(buffer.acquire());
+        assertFalse(buffer.acquire());
+        assertEquals(2, buffer.getLatest().x());
+        assertEquals(20, buffer.getLatest().y());
+        assertEquals(2L, buffer.getLatestSequence());
+        assertFalse(buffer.isPreviousDirectlyBeforeLatest());
+        assertEquals(1f, buffer.getInterpolationAlpha(System.nanoTime()));
+
+        state.xy(3, 30);
+        buffer.publish(state);
+        assertTrue(buffer.acquire());
+        assertEquals(3, buffer.getLatest().x());
+        assertEquals(2, buffer.getPrevious().x());
+        assertTrue(buffer.isPreviousDirectlyBeforeLatest());
+
+        // Alpha is 0 at the time the latest snapshot was published and reaches 1 after the time between both snapshots
+        float alpha = buffer.getInterpolationAlpha(System.nanoTime());
+        assertTrue(alpha >= 0f && alpha <= 1f);
+        assertEquals(1f, buffer.getInterpolationAlpha(Long.MAX_VALUE));
+        assertEquals(25f, TripleBuffer.interpolate(20f, 30f, 0.5f));
+    }
+
+    @Test
+    void noTornSnapshots() throws InterruptedException {
+        assertTrue(publishAndAcquire(PUBLISHES) > 0);
+    }
+
+    /**
+     * Publishes {@code publishes} snapshots on another thread, while acquiring them on this thread. Each acquired
+     * snapshot is checked for consistency.
+     * @return count of acquired snapshots
+     */
+    static int publishAndAcquire(int publishes) throws InterruptedException {
+        TripleBuffer<BBInt2> buffer = new TripleBuffer<>(() -> BBInt2.newAllocated(null));
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= publishes; i++) {
+                buffer.getBack().xy(i, -i);
+                buffer.publish();
+            }
+            writing.set(false);
+        }, "triple-buffer-writer");
+        writer.start();
+
+        int acquired = 0;
+        int last = 0;
+        boolean done = false;
+        while (!done) {
+            // Read the flag first, so that the last snapshot is acquired after the writer finished
+            done = !writing.get();
+            if(!buffer.acquire())
+                continue;
+
+            acquired++;
+            BBInt2 latest = buffer.getLatest();
+            assertEquals(-latest.x(), latest.y(), "Torn snapshot");
+            assertTrue(latest.x() > last, "Snapshots must be acquired in publish order");
+            assertEquals(latest.x(), buffer.getLatestSequence());
+            if(buffer.isPreviousDirectlyBeforeLatest())
+                assertEquals(latest.x() - 1, buffer.getPrevious().x());
+            last = latest.x();
+        }
+
+        writer.join();
+        assertEquals(publishes, last);
+        return acquired;
+    }
+}
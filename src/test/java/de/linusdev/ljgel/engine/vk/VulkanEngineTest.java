@@ -17,9 +17,11 @@
 package de.linusdev.ljgel.engine.vk;
 
 import de.linusdev.ljgel.engine.exception.EngineException;
+import de.linusdev.ljgel.engine.job.JobGraph;
 import de.linusdev.ljgel.engine.obj.ModelViewProjection;
 import de.linusdev.ljgel.engine.scene.Loader;
 import de.linusdev.ljgel.engine.ticker.Ticker;
+import de.linusdev.ljgel.engine.ticker.TripleBuffer;
 import de.linusdev.ljgel.engine.vk.descriptor.pool.DescriptorSet;
 import de.linusdev.ljgel.engine.vk.descriptor.pool.FixedSizeDescriptorPool;
 import de.linusdev.ljgel.engine.vk.extension.VulkanExtension;
@@ -29,7 +31,10 @@ import de.linusdev.ljgel.engine.vk.memory.buffer.vertex.SimpleVertex;
 import de.linusdev.ljgel.engine.vk.memory.buffer.vertex.VertexBuffer;
 import de.linusdev.ljgel.engine.vk.memory.buffer.vertex.VertexElement;
 import de.linusdev.ljgel.engine.vk.memory.image.sampler.Sampler2D;
-import de.linusdev.ljgel.engine.vk.memory.manager.allocator.ondemand.OnDemandVulkanMemoryAllocator;
+import de.linusdev.ljgel.engine.vk.memory.manager.allocator.block.BlockVulkanMemoryAllocator;
+import de.linusdev.ljgel.engine.vk.memory.manager.block.BlockDefragmenter;
+import de.linusdev.ljgel.engine.vk.memory.manager.objects.buffer.BufferArena;
+import de.linusdev.ljgel.engine.vk.memory.upload.UploadManager;
 import de.linusdev.ljgel.engine.vk.pipeline.RasterizationPipeline;
 import de.linusdev.ljgel.engine.vk.pipeline.RasterizationPipelineInfo;
 import de.linusdev.ljgel.engine.vk.renderpass.RenderPass;
@@ -58,6 +63,7 @@ import de.linusdev.lutils.math.vector.abstracts.floatn.Float3;
 import de.linusdev.lutils.math.vector.abstracts.floatn.Float4;
 import de.linusdev.lutils.math.vector.array.floatn.ABFloat3;
 import de.linusdev.lutils.math.vector.array.floatn.ABFloat4;
+import de.linusdev.lutils.math.vector.buffer.floatn.BBFloat3;
 import de.linusdev.lutils.math.vector.buffer.shortn.BBUShort1;
 import de.linusdev.lutils.nat.memory.stack.Stack;
 import de.linusdev.lutils.nat.struct.abstracts.Structure;
@@ -125,7 +131,9 @@ class VulkanEngineTest {
 
         protected final long startTime = System.currentTimeMillis();
 
-        protected OnDemandVulkanMemoryAllocator vulkanMemoryAllocator;
+        protected BlockVulkanMemoryAllocator vulkanMemoryAllocator;
+        protected UploadManager uploadManager;
+        protected BlockDefragmenter defragmenter;
         protected FixedSizeDescriptorPool descriptorPool;
         protected VertexBuffer<SimpleVertex> vertexBuffer;
         protected IndexBuffer<BBUShort1> indexBuffer;
@@ -134,28 +142,48 @@ class VulkanEngineTest {
         protected UniformBuffer<ModelViewProjection> uniformBuffer;
         protected Sampler2D<BBInt32Image> grassSideSampler;
 
+        /**
+         * Only accessed by the ticker thread. Handed to the render thread using {@link #cameraState}.
+         */
         private final Float3 cameraPosition = new ABFloat3(2, 2, -2);
+        private final TripleBuffer<BBFloat3> cameraState = new TripleBuffer<>(() -> BBFloat3.newAllocated(null));
+        /**
+         * Only accessed by the render thread.
+         */
+        private final Float3 renderedCameraPosition = new ABFloat3();
+
+        /**
+         * Frame in flight of the current {@link #updateUniformBufferJob}.
+         */
+        private int jobFrame;
+        private final Runnable updateUniformBufferJob = () -> updateUniformBuffer(jobFrame);
 
         public TestScene(@NotNull VulkanEngine<TestGame> engine, float rotationFactor) {
             super(engine);
             this.rotationFactor = rotationFactor;
+
+            cameraState.getBack().xyz(cameraPosition);
+            cameraState.publish();
         }
 
         private void load(@NotNull Stack stack) throws EngineException, IOException, InterruptedException {
             window.setWindowAspectRatio(1, 1);
 
-            vulkanMemoryAllocator = new OnDemandVulkanMemoryAllocator(engine.getDevice(), "test-scene-memory-allocator");
+            vulkanMemoryAllocator = new BlockVulkanMemoryAllocator(engine.getDevice(), "test-scene-memory-allocator");
+            vulkanMemoryAllocator.enableBufferArenas(BufferArena.DEFAULT_CHUNK_SIZE);
+            // Created before the upload manager, so it has a staging buffer of its own, which is freed after uploadStatic
+            indexBuffer = vulkanMemoryAllocator.createStagedInstanceBuffer(
+                    stack, "index-buffer-1", BBUShort1.class, () -> BBUShort1.newAllocatable(null),
+                    36
+            );
+            uploadManager = vulkanMemoryAllocator.createUploadManager(stack, "test-scene-uploads", 1024 * 1024, 2);
+            defragmenter = vulkanMemoryAllocator.createDefragmenter(2);
             vertexBuffer = vulkanMemoryAllocator.createStagedVertexBuffer(
                     stack, "vertex-buffer-1", SimpleVertex.class, SimpleVertex::new,
                     VertexElement.ofComplexInfo(new SimpleVertex().getInfo()),
                     8, 0, VkVertexInputRate.VERTEX
             );
 
-            indexBuffer = vulkanMemoryAllocator.createStagedInstanceBuffer(
-                    stack, "index-buffer-1", BBUShort1.class, () -> BBUShort1.newAllocatable(null),
-                    36
-            );
-
 
             uniformBuffer = vulkanMemoryAllocator.createUniformBuffer(stack, "uniform-buf", ModelViewProjection::newUnAllocatedForOpenGLUniform, 2, 0);
 
@@ -261,6 +289,11 @@ class VulkanEngineTest {
 
             indexBuffer.getInput().setCurrentCount(36);
 
+            // Recorded by the first frame
+            uploadManager.upload(vertexBuffer);
+            // The indices never change
+            vulkanMemoryAllocator.uploadStatic(engine.getTransientCommandPool(), indexBuffer).getResult();
+
             descriptorPool = new FixedSizeDescriptorPool(engine.getVkInstance(), engine.getDevice());
             descriptorPool.add(new DescriptorSet(vkInstance, device, 0, uniformBuffer));
             descriptorPool.add(new DescriptorSet(vkInstance, device, 1, grassSideSampler));
@@ -268,11 +301,7 @@ class VulkanEngineTest {
             descriptorPool.create(stack);
 
             Image.copy(grassSide, grassSideSampler.getInput().getBackedStruct());
-            var samplerFuture = engine.getTransientCommandPool().submitSingleTimeCommand(buf -> {
-                grassSideSampler.bufferCopyCommand(stack, buf, true);
-            });
-
-            samplerFuture.getResult();
+            uploadManager.upload(grassSideSampler, true);
 
 
             renderPass = RenderPass.create(stack, vkInstance, device, swapChain);
@@ -295,8 +324,19 @@ class VulkanEngineTest {
             VMath.diagonalMatrix(1f, true, mvp.model);
             VMath.rotationMatrix((float) (secondsPast * rotationFactor), VMath.normalize(new ABFloat3(0f,0,1), new ABFloat3()),mvp.model);
 
+            // Interpolate between the camera positions of the last two ticks
+            cameraState.acquire();
+            float alpha = cameraState.getInterpolationAlpha(System.nanoTime());
+            Float3 previous = cameraState.getPrevious();
+            Float3 latest = cameraState.getLatest();
+            renderedCameraPosition.xyz(
+                    TripleBuffer.interpolate(previous.x(), latest.x(), alpha),
+                    TripleBuffer.interpolate(previous.y(), latest.y(), alpha),
+                    TripleBuffer.interpolate(previous.z(), latest.z(), alpha)
+            );
+
             CameraMatrix cam = new CameraMatrix(new ABFloat4x4(), mvp.view);
-            cam.position().xyz(cameraPosition);
+            cam.position().xyz(renderedCameraPosition);
             cam.lookAt(new ABFloat3(0, 0, 0));
             cam.calculateViewMatrix();
 
@@ -326,6 +366,13 @@ class VulkanEngineTest {
             }
         }
 
+        @Override
+        protected void declareJobs(@NotNull JobGraph graph, int currentFrame) {
+            jobFrame = currentFrame;
+            // The uniform buffer is not needed for recording, the graph is finished before the commands are submitted
+            graph.add(updateUniformBufferJob);
+        }
+
         @Override
         protected void render(
                 @NotNull Stack stack,
@@ -336,8 +383,6 @@ class VulkanEngineTest {
                 @NotNull VkCommandBuffer commandBuffer,
                 @NotNull VkFramebuffer frameBuffer
         ) {
-            updateUniformBuffer(currentFrame);
-
             VkCommandBufferBeginInfo commandBufferBeginInfo = stack.push(new VkCommandBufferBeginInfo());
             commandBufferBeginInfo.sType.set(VkStructureType.COMMAND_BUFFER_BEGIN_INFO);
 
@@ -366,10 +411,12 @@ class VulkanEngineTest {
             renderPassBeginInfo.pClearValues.setOfArray(clearValueArray);
             renderPassBeginInfo.framebuffer.set(frameBuffer);
 
+            uploadManager.beginFrame(currentFrame);
             vkInstance.vkBeginCommandBuffer(commandBuffer, ref(commandBufferBeginInfo)).check();
+            defragmenter.step(stack, commandBuffer, currentFrame);
 
-            vertexBuffer.bufferCopyCommand(stack, commandBuffer);
-            indexBuffer.bufferCopyCommand(stack, commandBuffer);
+            // Only data staged since the last frame is copied
+            uploadManager.recordCommands(stack, commandBuffer);
 
             vkInstance.vkCmdBeginRenderPass(commandBuffer, ref(renderPassBeginInfo), VkSubpassContents.INLINE);
             vkInstance.vkCmdBindPipeline(commandBuffer, VkPipelineBindPoint.GRAPHICS, pipeLine.getVkPipeline());
@@ -442,6 +489,8 @@ class VulkanEngineTest {
                 cameraPosition.x(cameraPosition.x() + 0.05f);
             }
 
+            cameraState.getBack().xyz(cameraPosition);
+            cameraState.publish();
 
             if(true) return;
             float factor = 0.01f;
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.vk.memory.buffer;
+
+import de.linusdev.ljgel.engine.vk.memory.manager.MappingListener;
+import de.linusdev.ljgel.engine.vk.memory.manager.objects.buffer.BufferRange;
+import de.linusdev.ljgel.nat.vulkan.handles.VkBuffer;
+import de.linusdev.lutils.nat.struct.abstracts.Structure;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferInputTest {
+
+    @Test
+    void freeAfterUpload() {
+        TestRange range = new TestRange();
+        TestInput input = new TestInput();
+        input.setBufferRange(range);
+        assertSame(input, range.listener);
+        assertEquals(64L, input.getBufferOffset());
+        assertFalse(input.isReleased());
+
+        // The static upload frees the staging buffer
+        assertSame(range, input.releaseBufferRange());
+        assertTrue(input.isReleased());
+        assertNull(input.getBufferRange());
+        assertNull(range.listener);
+
+        // Any later copy must fail instead of dereferencing the freed range
+        assertThrows(IllegalStateException.class, input::getVkBuffer);
+        assertThrows(IllegalStateException.class, input::getBufferOffset);
+        assertThrows(IllegalStateException.class, input::checkNotReleased);
+        assertThrows(IllegalStateException.class, input::releaseBufferRange);
+    }
+
+    @Test
+    void hostMemoryInputIsNotReleased() {
+        TestInput input = new TestInput();
+
+        assertNull(input.getBufferRange());
+        assertFalse(input.isReleased());
+        input.checkNotReleased();
+        assertThrows(IllegalStateException.class, input::releaseBufferRange);
+    }
+
+    private static class TestInput extends BufferInput {
+        @Override
+        public @NotNull Structure getBackedStructure() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void vulkanBufferMapped(@NotNull ByteBuffer mapped) {
+
+        }
+    }
+
+    private static class TestRange implements BufferRange {
+
+        private final @NotNull VkBuffer vkBuffer = new VkBuffer();
+        private @Nullable MappingListener listener;
+
+        @Override
+        public @NotNull VkBuffer getVkBuffer() {
+            return vkBuffer;
+        }
+
+        @Override
+        public long getBufferOffset() {
+            return 64L;
+        }
+
+        @Override
+        public int getSize() {
+            return 128;
+        }
+
+        @Override
+        public boolean isMapped() {
+            return false;
+        }
+
+        @Override
+        public void setMappingListener(@Nullable MappingListener mappingListener) {
+            this.listener = mappingListener;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.vk.memory.manager.block;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Checks the {@link BlockDefragmenter#getFragmentationRatio() fragmentation ratio} of the ranges of a
+ * {@link TlsfAllocator}.
+ */
+class BlockDefragmenterTest {
+
+    private static final long CAPACITY = 1024L * 1024L;
+    private static final long RANGE = 1024L;
+
+    @Test
+    void fragmentationRatio() {
+        TlsfAllocator allocator = new TlsfAllocator(CAPACITY);
+        // Nothing allocated: a single free range
+        assertEquals(0.0, ratio(allocator), 1e-9);
+
+        int count = (int) (CAPACITY / RANGE);
+        int[] ranges = new int[count];
+        for (int i = 0; i < count; i++) {
+            ranges[i] = allocator.allocate(RANGE, 1L);
+            assertNotEquals(TlsfAllocator.NO_SPACE, ranges[i]);
+        }
+        // Nothing free
+        assertEquals(0.0, ratio(allocator), 1e-9);
+
+        // Every other range free: the free bytes are split into count / 2 ranges
+        for (int i = 0; i < count; i += 2)
+            allocator.free(ranges[i]);
+        assertEquals(1.0 - 2.0 / count, ratio(allocator), 1e-9);
+
+        // The lower half free and merged with the first free range of the upper half, the rest still split
+        for (int i = 1; i < count / 2; i += 2)
+            allocator.free(ranges[i]);
+        double free = CAPACITY / 2.0 + CAPACITY / 4.0;
+        assertEquals(1.0 - (CAPACITY / 2.0 + RANGE) / free, ratio(allocator), 1e-9);
+
+        // Everything free and merged again
+        for (int i = count / 2 + 1; i < count; i += 2)
+            allocator.free(ranges[i]);
+        assertEquals(0.0, ratio(allocator), 1e-9);
+    }
+
+    private static double ratio(TlsfAllocator allocator) {
+        return BlockDefragmenter.fragmentationRatio(
+                allocator.getCapacity() - allocator.getUsedBytes(), allocator.getLargestFreeRange()
+        );
+    }
+}
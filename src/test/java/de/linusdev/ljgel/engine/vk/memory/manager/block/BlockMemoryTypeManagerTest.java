@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.vk.memory.manager.block;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the selection of the block, which the {@link BlockDefragmenter} empties, and the budget per frame.
+ */
+class BlockMemoryTypeManagerTest {
+
+    private static final long BLOCK_SIZE = 64L * 1024L * 1024L;
+    private static final long MIB = 1024L * 1024L;
+
+    @Test
+    void selectsSparsestBlock() {
+        TlsfAllocator dense = block(48L * MIB);
+        TlsfAllocator half = block(32L * MIB);
+        TlsfAllocator sparse = block(4L * MIB);
+        TlsfAllocator sparser = block(2L * MIB);
+
+        // A block may be contained multiple times, once for each movable object
+        List<TlsfAllocator> candidates = List.of(dense, sparse, half, sparse, sparser, dense);
+        assertSame(sparser, BlockMemoryTypeManager.selectSparsest(candidates, Function.identity(), 0.5));
+        assertSame(sparser, BlockMemoryTypeManager.selectSparsest(candidates, Function.identity(), 1.0));
+
+        // Only blocks with an occupancy smaller than the maximum are emptied
+        assertNull(BlockMemoryTypeManager.selectSparsest(List.of(dense, half), Function.identity(), 0.5));
+        assertSame(half, BlockMemoryTypeManager.selectSparsest(List.of(dense, half), Function.identity(), 0.6));
+        assertNull(BlockMemoryTypeManager.selectSparsest(List.of(sparser), Function.identity(), 2.0 / 64.0));
+        assertNull(BlockMemoryTypeManager.selectSparsest(List.<TlsfAllocator>of(), Function.identity(), 1.0));
+
+        // The occupancy is relative to the size of each block
+        TlsfAllocator dedicated = new TlsfAllocator(4L * BLOCK_SIZE);
+        dedicated.allocate(8L * MIB, 1L);
+        assertSame(
+                dedicated, BlockMemoryTypeManager.selectSparsest(List.of(sparse, dedicated), Function.identity(), 0.5)
+        );
+    }
+
+    @Test
+    void budgetPerFrame() {
+        long budget = 8L * MIB;
+
+        assertTrue(BlockMemoryTypeManager.isWithinBudget(0L, MIB, budget));
+        assertTrue(BlockMemoryTypeManager.isWithinBudget(7L * MIB, MIB, budget));
+        assertFalse(BlockMemoryTypeManager.isWithinBudget(7L * MIB, MIB + 1L, budget));
+        // Objects larger than the budget are moved alone
+        assertTrue(BlockMemoryTypeManager.isWithinBudget(0L, 3L * budget, budget));
+        assertFalse(BlockMemoryTypeManager.isWithinBudget(1L, 3L * budget, budget));
+
+        // 20 objects of 3 MiB and one of 20 MiB: two objects per frame, the large one alone
+        List<Long> sizes = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            sizes.add(3L * MIB);
+        sizes.add(20L * MIB);
+        for (int i = 0; i < 10; i++)
+            sizes.add(3L * MIB);
+
+        List<Long> movedPerFrame = new ArrayList<>();
+        int next = 0;
+        while (next < sizes.size()) {
+            long moved = 0L;
+            while (next < sizes.size() && BlockMemoryTypeManager.isWithinBudget(moved, sizes.get(next), budget))
+                moved += sizes.get(next++);
+            movedPerFrame.add(moved);
+        }
+
+        assertEquals(11, movedPerFrame.size());
+        assertEquals(6L * MIB, (long) movedPerFrame.get(0));
+        assertEquals(6L * MIB, (long) movedPerFrame.get(4));
+        assertEquals(20L * MIB, (long) movedPerFrame.get(5));
+        assertEquals(6L * MIB, (long) movedPerFrame.get(10));
+    }
+
+    /**
+     * Allocator of a block of {@link #BLOCK_SIZE} bytes with {@code used} bytes allocated.
+     */
+    private static TlsfAllocator block(long used) {
+        TlsfAllocator allocator = new TlsfAllocator(BLOCK_SIZE);
+        assertNotEquals(TlsfAllocator.NO_SPACE, allocator.allocate(used, 1L));
+        return allocator;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.vk.memory.manager.block;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static de.linusdev.ljgel.engine.vk.memory.manager.block.TlsfAllocatorTest.randomSize;
+
+/**
+ * Measures the time per allocation and free of the {@link TlsfAllocator}. Results are printed to {@link System#out}.
+ * Only run by the {@code benchmark} task.
+ */
+@Tag("benchmark")
+class TlsfAllocatorBenchmarkTest {
+
+    private static final long CAPACITY = 64L * 1024L * 1024L;
+    private static final int SLOTS = 4096;
+    private static final int OPERATIONS = 2_000_000;
+
+    @Test
+    void timePerOperation() {
+        TlsfAllocator allocator = new TlsfAllocator(CAPACITY);
+        Random random = new Random(7);
+        int[] handles = new int[SLOTS];
+        Arrays.fill(handles, TlsfAllocator.NO_SPACE);
+        long[] sizes = new long[OPERATIONS];
+        for (int i = 0; i < sizes.length; i++)
+            sizes[i] = randomSize(random);
+
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < OPERATIONS; i++) {
+                int slot = i & (SLOTS - 1);
+                if(handles[slot] != TlsfAllocator.NO_SPACE)
+                    allocator.free(handles[slot]);
+                handles[slot] = allocator.allocate(sizes[i], 256);
+            }
+            long time = System.nanoTime() - start;
+
+            System.out.printf("[round %d] %.1f ns per free and allocation, %d ranges allocated%n",
+                    round, (double) time / OPERATIONS, allocator.getAllocationCount());
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.vk.memory.manager.block;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks, that ranges of the {@link TlsfAllocator} are aligned and never overlap.
+ */
+class TlsfAllocatorTest {
+
+    private static final long CAPACITY = 64L * 1024L * 1024L;
+    private static final int SLOTS = 4096;
+
+    @Test
+    void mergesFreedRanges() {
+        TlsfAllocator allocator = new TlsfAllocator(CAPACITY);
+
+        int a = allocator.allocate(1000, 256);
+        int b = allocator.allocate(CAPACITY / 2, 1);
+        int c = allocator.allocate(4096, 4096);
+        assertNotEquals(TlsfAllocator.NO_SPACE, a);
+        assertNotEquals(TlsfAllocator.NO_SPACE, b);
+        assertNotEquals(TlsfAllocator.NO_SPACE, c);
+        assertEquals(0L, allocator.getOffset(c) % 4096L);
+        assertEquals(3, allocator.getAllocationCount());
+
+        // Too large for the remaining space
+        assertEquals(TlsfAllocator.NO_SPACE, allocator.allocate(CAPACITY / 2, 1));
+
+        allocator.free(b);
+        allocator.free(a);
+        allocator.free(c);
+        assertTrue(allocator.isEmpty());
+        assertEquals(0L, allocator.getUsedBytes());
+        assertThrows(IllegalArgumentException.class, () -> allocator.free(c));
+
+        // All ranges have been merged again
+        int all = allocator.allocate(CAPACITY, 1);
+        assertNotEquals(TlsfAllocator.NO_SPACE, all);
+        assertEquals(0L, allocator.getOffset(all));
+        allocator.free(all);
+    }
+
+    @Test
+    void rangesLargerThanTheDefaultBlock() {
+        // Dedicated block of BlockMemoryTypeManager: the size aligned up is the capacity
+        long size = 100L * 1024L * 1024L + 3L;
+        TlsfAllocator dedicated = new TlsfAllocator(TlsfAllocator.alignUp(size, 256L));
+        int range = dedicated.allocate(size, 256L);
+        assertNotEquals(TlsfAllocator.NO_SPACE, range);
+        assertEquals(0L, dedicated.getOffset(range));
+        dedicated.free(range);
+
+        // Object exactly as large as a block, which is not a power of two
+        TlsfAllocator exact = new TlsfAllocator(96L * 1024L * 1024L);
+        range = exact.allocate(96L * 1024L * 1024L, 256L);
+        assertNotEquals(TlsfAllocator.NO_SPACE, range);
+        assertEquals(TlsfAllocator.NO_SPACE, exact.allocate(16L, 1L));
+        exact.free(range);
+
+        // A free range of exactly the requested size at an aligned offset is found as well
+        TlsfAllocator allocator = new TlsfAllocator(CAPACITY);
+        int front = allocator.allocate(4096L, 1L);
+        int middle = allocator.allocate(1000L * 1024L, 1L);
+        int back = allocator.allocate(CAPACITY - 4096L - 1000L * 1024L, 1L);
+        assertNotEquals(TlsfAllocator.NO_SPACE, back);
+        allocator.free(middle);
+        middle = allocator.allocate(1000L * 1024L, 4096L);
+        assertNotEquals(TlsfAllocator.NO_SPACE, middle);
+        assertEquals(4096L, allocator.getOffset(middle));
+
+        // But not, if the padding does not fit
+        allocator.free(middle);
+        assertEquals(TlsfAllocator.NO_SPACE, allocator.allocate(1000L * 1024L, 1L << 20));
+        allocator.free(front);
+        allocator.free(back);
+        assertTrue(allocator.isEmpty());
+    }
+
+    @Test
+    void largestFreeRange() {
+        TlsfAllocator allocator = new TlsfAllocator(CAPACITY);
+        assertEquals(CAPACITY, allocator.getLargestFreeRange());
+
+        // Two free ranges of the same size class, the smaller one is at the head of the free list
+        int large = allocator.allocate(1040L, 1L);
+        int gap1 = allocator.allocate(16L, 1L);
+        int small = allocator.allocate(1024L, 1L);
+        int gap2 = allocator.allocate(16L, 1L);
+        int rest = allocator.allocate(CAPACITY - 1040L - 16L - 1024L - 16L, 1L);
+        assertNotEquals(TlsfAllocator.NO_SPACE, rest);
+        assertEquals(0L, allocator.getLargestFreeRange());
+
+        allocator.free(large);
+        allocator.free(small);
+        assertEquals(1040L, allocator.getLargestFreeRange());
+
+        // Merged with both neighbours
+        allocator.free(gap1);
+        assertEquals(1040L + 16L + 1024L, allocator.getLargestFreeRange());
+
+        allocator.free(gap2);
+        allocator.free(rest);
+        assertEquals(CAPACITY, allocator.getLargestFreeRange());
+    }
+
+    @Test
+    void randomAllocations() {
+        TlsfAllocator allocator = new TlsfAllocator(CAPACITY);
+        Random random = new Random(42);
+        int[] handles = new int[SLOTS];
+        Arrays.fill(handles, TlsfAllocator.NO_SPACE);
+
+        for (int i = 0; i < 20_000; i++) {
+            int slot = random.nextInt(SLOTS);
+            if(handles[slot] != TlsfAllocator.NO_SPACE) {
+                allocator.free(handles[slot]);
+                handles[slot] = TlsfAllocator.NO_SPACE;
+                continue;
+            }
+
+            long size = randomSize(random);
+            long alignment = 1L << random.nextInt(13);
+            int handle = allocator.allocate(size, alignment);
+            if(handle == TlsfAllocator.NO_SPACE)
+                continue; // Full
+
+            assertEquals(0L, allocator.getOffset(handle) % alignment);
+            assertTrue(allocator.getSize(handle) >= size);
+            handles[slot] = handle;
+
+            if(i % 1000 == 0)
+                assertNoOverlap(allocator, handles);
+        }
+
+        assertNoOverlap(allocator, handles);
+
+        for (int handle : handles)
+            if(handle != TlsfAllocator.NO_SPACE) allocator.free(handle);
+        assertTrue(allocator.isEmpty());
+        assertNotEquals(TlsfAllocator.NO_SPACE, allocator.allocate(CAPACITY, 1));
+    }
+
+    static long randomSize(Random random) {
+        // Mostly small buffers, sometimes large images
+        return random.nextInt(8) == 0 ? 1 + random.nextInt(1 << 20) : 1 + random.nextInt(1 << 14);
+    }
+
+    private static void assertNoOverlap(TlsfAllocator allocator, int[] handles) {
+        long[][] ranges = Arrays.stream(handles)
+                .filter(h -> h != TlsfAllocator.NO_SPACE)
+                .mapToObj(h -> new long[] {allocator.getOffset(h), allocator.getSize(h)})
+                .sorted((x, y) -> Long.compare(x[0], y[0]))
+                .toArray(long[][]::new);
+
+        for (int i = 1; i < ranges.length; i++)
+            assertTrue(ranges[i - 1][0] + ranges[i - 1][1] <= ranges[i][0], "Ranges overlap");
+        if(ranges.length > 0)
+            assertTrue(ranges[ranges.length - 1][0] + ranges[ranges.length - 1][1] <= CAPACITY);
+    }
+}
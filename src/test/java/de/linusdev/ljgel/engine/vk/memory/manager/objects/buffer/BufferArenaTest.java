@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.linusdev.ljgel.engine.vk.memory.manager.objects.buffer;
+
+import de.linusdev.ljgel.engine.vk.memory.manager.MappingListener;
+import de.linusdev.ljgel.nat.vulkan.handles.VkBuffer;
+import de.linusdev.lutils.nat.memory.stack.impl.DirectMemoryStack64;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the range bookkeeping of the {@link BufferArena}. The chunks are {@link TestBuffer TestBuffers}, so no
+ * device is needed.
+ */
+class BufferArenaTest {
+
+    private static final int CHUNK_SIZE = 4096;
+    private static final long ALIGNMENT = 256L;
+
+    private final @NotNull List<TestBuffer> created = new ArrayList<>();
+    private final @NotNull List<TestBuffer> released = new ArrayList<>();
+    private final @NotNull DirectMemoryStack64 stack = new DirectMemoryStack64();
+
+    private @NotNull BufferArena<TestBuffer> arena() {
+        return new BufferArena<>("test-arena", CHUNK_SIZE, ALIGNMENT,
+                (s, debugName, size) -> {
+                    TestBuffer buffer = new TestBuffer(size);
+                    created.add(buffer);
+                    return buffer;
+                },
+                released::add
+        );
+    }
+
+    @Test
+    void allocatesAlignedSubRanges() throws Exception {
+        BufferArena<TestBuffer> arena = arena();
+
+        BufferArenaRange a = arena.allocate(stack, "a", 100);
+        BufferArenaRange b = arena.allocate(stack, "b", 300);
+        BufferArenaRange c = arena.allocate(stack, "c", 1);
+
+        // All ranges share the first chunk
+        assertEquals(1, arena.getChunkCount());
+        assertEquals(3, arena.getRangeCount());
+        assertEquals(1, created.size());
+        assertEquals(CHUNK_SIZE, created.get(0).getSize());
+        for (BufferArenaRange range : List.of(a, b, c)) {
+            assertSame(created.get(0), range.getChunkBuffer());
+            assertEquals(0L, range.getBufferOffset() % ALIGNMENT);
+            assertTrue(range.getBufferOffset() + range.getSize() <= CHUNK_SIZE);
+        }
+        assertEquals(100, a.getSize());
+        assertEquals(300, b.getSize());
+        assertEquals(1, c.getSize());
+
+        // No overlaps
+        List<BufferArenaRange> ranges = List.of(a, b, c);
+        for (BufferArenaRange x : ranges) {
+            for (BufferArenaRange y : ranges) {
+                if(x == y) continue;
+                assertTrue(x.getBufferOffset() + x.getSize() <= y.getBufferOffset()
+                        || y.getBufferOffset() + y.getSize() <= x.getBufferOffset());
+            }
+        }
+
+        // Ranges larger than the chunk size get a chunk of their own
+        BufferArenaRange large = arena.allocate(stack, "large", CHUNK_SIZE * 2);
+        assertEquals(2, arena.getChunkCount());
+        assertEquals(CHUNK_SIZE * 2, created.get(1).getSize());
+        assertSame(created.get(1), large.getChunkBuffer());
+        assertEquals(0L, large.getBufferOffset());
+
+        assertThrows(IllegalArgumentException.class, () -> new BufferArena<>("test-arena", CHUNK_SIZE, 48L,
+                (s, debugName, size) -> new TestBuffer(size), buffer -> {}));
+    }
+
+    @Test
+    void freesEmptyChunksExceptTheLast() throws Exception {
+        BufferArena<TestBuffer> arena = arena();
+
+        BufferArenaRange first = arena.allocate(stack, "first", CHUNK_SIZE);
+        BufferArenaRange second = arena.allocate(stack, "second", CHUNK_SIZE / 2);
+        BufferArenaRange third = arena.allocate(stack, "third", CHUNK_SIZE / 4);
+        assertEquals(2, arena.getChunkCount());
+        assertSame(second.getChunkBuffer(), third.getChunkBuffer());
+
+        // The second chunk still contains a range
+        second.close();
+        assertEquals(2, arena.getChunkCount());
+        assertTrue(released.isEmpty());
+
+        third.close();
+        assertEquals(1, arena.getChunkCount());
+        assertEquals(List.of(created.get(1)), released);
+        assertNull(created.get(1).mappingListener);
+
+        // Closing twice does nothing
+        third.close();
+        assertEquals(1, arena.getChunkCount());
+        assertEquals(1, released.size());
+
+        // The last chunk is kept, even if it is empty
+        first.close();
+        assertEquals(1, arena.getChunkCount());
+        assertEquals(0, arena.getRangeCount());
+        assertEquals(1, released.size());
+
+        // and reused by the next range
+        BufferArenaRange reused = arena.allocate(stack, "reused", CHUNK_SIZE);
+        assertSame(created.get(0), reused.getChunkBuffer());
+        assertEquals(2, created.size());
+    }
+
+    @Test
+    void reslicesRangesWhenMapped() throws Exception {
+        BufferArena<TestBuffer> arena = arena();
+
+        BufferArenaRange a = arena.allocate(stack, "a", 100);
+        BufferArenaRange b = arena.allocate(stack, "b", 300);
+        TestBuffer chunk = created.get(0);
+
+        ByteBuffer[] aMapped = new ByteBuffer[1];
+        a.setMappingListener(mapped -> aMapped[0] = mapped);
+        assertFalse(a.isMapped());
+        assertNull(aMapped[0]);
+
+        ByteBuffer memory = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        chunk.map(memory);
+        assertTrue(a.isMapped());
+        assertNotNull(aMapped[0]);
+        assertEquals(a.getSize(), aMapped[0].capacity());
+        aMapped[0].put(0, (byte) 42);
+        assertEquals(42, memory.get((int) a.getBufferOffset()));
+
+        // A listener set after the mapping is called right away
+        ByteBuffer[] bMapped = new ByteBuffer[1];
+        b.setMappingListener(mapped -> bMapped[0] = mapped);
+        assertNotNull(bMapped[0]);
+        assertEquals(b.getSize(), bMapped[0].capacity());
+
+        // The chunk moved to other memory: all ranges are sliced from the new mapping at the same offsets
+        ByteBuffer moved = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        moved.put((int) a.getBufferOffset(), (byte) 42);
+        chunk.map(moved);
+        assertEquals(42, aMapped[0].get(0));
+        bMapped[0].put(0, (byte) 7);
+        assertEquals(7, moved.get((int) b.getBufferOffset()));
+        assertEquals(0, memory.get((int) b.getBufferOffset()));
+
+        // Closed ranges are not notified anymore
+        b.close();
+        ByteBuffer old = bMapped[0];
+        chunk.map(ByteBuffer.allocateDirect(CHUNK_SIZE));
+        assertSame(old, bMapped[0]);
+    }
+
+    /**
+     * Stands in for a {@link VulkanBuffer}, which is mapped by calling {@link #map(ByteBuffer)}.
+     */
+    private static class TestBuffer implements BufferRange {
+
+        private final int size;
+        private @Nullable MappingListener mappingListener;
+        private @Nullable ByteBuffer mapped;
+
+        TestBuffer(int size) {
+            this.size = size;
+        }
+
+        void map(@NotNull ByteBuffer mapped) {
+            this.mapped = mapped;
+            if(mappingListener != null) mappingListener.vulkanBufferMapped(mapped);
+        }
+
+        @Override
+        public @NotNull VkBuffer getVkBuffer() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getBufferOffset() {
+            return 0L;
+        }
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public boolean isMapped() {
+            return mapped != null;
+        }
+
+        @Override
+        public void setMappingListener(@Nullable MappingListener mappingListener) {
+            this.mappingListener = mappingListener;
+            if(mappingListener != null && mapped != null) mappingListener.vulkanBufferMapped(mapped);
+        }
+    }
+}
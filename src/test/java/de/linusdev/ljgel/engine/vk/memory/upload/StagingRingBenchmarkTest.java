@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.vk.memory.upload;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the time per allocation of a {@link StagingRing}. Results are printed to {@link System#out}. Only run by
+ * the {@code benchmark} task.
+ */
+@Tag("benchmark")
+class StagingRingBenchmarkTest {
+
+    private static final int FRAMES_IN_FLIGHT = 2;
+    private static final int FRAMES = 1_000_000;
+    private static final long ALIGNMENT = 16L;
+
+    @Test
+    void timePerAllocation() {
+        StagingRing ring = new StagingRing(1 << 20, FRAMES_IN_FLIGHT);
+        int allocationsPerFrame = 16;
+        long sink = 0L;
+
+        long start = System.nanoTime();
+        for (int frame = 0; frame < FRAMES; frame++) {
+            ring.beginFrame(frame % FRAMES_IN_FLIGHT);
+            for (int i = 0; i < allocationsPerFrame; i++) {
+                long offset = ring.allocate(1000 + i * 64, ALIGNMENT);
+                assertTrue(offset != StagingRing.NO_SPACE);
+                sink += offset;
+            }
+            ring.endFrame();
+        }
+        long time = System.nanoTime() - start;
+
+        System.out.printf("[staging ring] %.2f ns per allocation (%d)%n",
+                (double) time / FRAMES / allocationsPerFrame, sink & 1);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2025 Linus Andera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.linusdev.ljgel.engine.vk.memory.upload;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a {@link StagingRing} only reuses ranges of frames, whose fence has been waited on.
+ */
+class StagingRingTest {
+
+    private static final int FRAMES_IN_FLIGHT = 2;
+    private static final long ALIGNMENT = 16L;
+
+    @Test
+    void framesInFlight() {
+        StagingRing ring = new StagingRing(1024, FRAMES_IN_FLIGHT);
+
+        ring.beginFrame(0);
+        assertEquals(0L, ring.allocate(400, 16));
+        ring.endFrame();
+
+        ring.beginFrame(1);
+        assertEquals(400L, ring.allocate(400, 16));
+        // Frame 0 may still be in use
+        assertEquals(StagingRing.NO_SPACE, ring.allocate(400, 16));
+        ring.endFrame();
+
+        // Fence of frame 0 waited: its range can be reused. The allocation does not fit at the end and wraps around
+        ring.beginFrame(0);
+        assertEquals(0L, ring.allocate(300, 16));
+        assertEquals(StagingRing.NO_SPACE, ring.allocate(200, 16));
+        assertEquals(304L, ring.allocate(40, 16));
+        ring.endFrame();
+
+        // Larger than the whole ring
+        assertEquals(StagingRing.NO_SPACE, ring.allocate(2048, 16));
+
+        ring.reset();
+        assertEquals(0L, ring.getUsedBytes());
+    }
+
+    @Test
+    void alignment() {
+        StagingRing ring = new StagingRing(1 << 16, FRAMES_IN_FLIGHT);
+        ring.beginFrame(0);
+        for (int i = 1; i < 100; i++) {
+            long offset = ring.allocate(i, ALIGNMENT);
+            assertEquals(0L, offset % ALIGNMENT);
+        }
+    }
+
+    @Test
+    void manyFrames() {
+        int capacity = 1 << 16;
+        StagingRing ring = new StagingRing(capacity, FRAMES_IN_FLIGHT);
+        int allocationsPerFrame = 16;
+        long[] previousFrame = new long[allocationsPerFrame * 2];
+        long[] currentFrame = new long[allocationsPerFrame * 2];
+
+        // Ranges of the previous frame, which is still in flight, are never handed out again
+        for (int frame = 0; frame < 1_000; frame++) {
+            ring.beginFrame(frame % FRAMES_IN_FLIGHT);
+            for (int i = 0; i < allocationsPerFrame; i++) {
+                int size = 1000 + i * 64;
+                long offset = ring.allocate(size, ALIGNMENT);
+                assertTrue(offset != StagingRing.NO_SPACE);
+                assertEquals(0L, offset % ALIGNMENT);
+                assertTrue(offset + size <= capacity);
+
+                for (int j = 0; j < allocationsPerFrame; j++)
+                    assertTrue(frame == 0 || offset + size <= previousFrame[2 * j] || offset >= previousFrame[2 * j + 1]);
+                for (int j = 0; j < i; j++)
+                    assertTrue(offset + size <= currentFrame[2 * j] || offset >= currentFrame[2 * j + 1]);
+                currentFrame[2 * i] = offset;
+                currentFrame[2 * i + 1] = offset + size;
+            }
+            ring.endFrame();
+
+            long[] tmp = previousFrame;
+            previousFrame = currentFrame;
+            currentFrame = tmp;
+        }
+    }
+}